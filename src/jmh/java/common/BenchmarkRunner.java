@@ -0,0 +1,53 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks in {@code src/jmh/java} and writes the results as JSON, so they can be compared between
+ * builds to find regressions. The GC profiler is enabled, so the results also contain the allocated bytes per
+ * operation ({@code gc.alloc.rate.norm}). Started by {@code mvn -Pbenchmarks compile exec:java}.
+ */
+public class BenchmarkRunner {
+    /**
+     * @param args An optional regular expression that selects the benchmarks to run (all benchmarks by default) and an
+     *             optional path of the result file ({@code jmh-result.json} by default)
+     * @throws RunnerException If a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+        String resultFile = args.length > 1 ? args[1] : "jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .addProfiler("gc")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,67 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Compares the cost of disabled log statements: the eager {@link FOKLogger} calls that were used on the hot paths of
+ * the editor before and the {@link LazyLogger}. Run with the GC profiler to see the allocated bytes per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final LazyLogger logger = new LazyLogger(LoggingBenchmark.class);
+    private double x;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger(LoggingBenchmark.class.getName()).setLevel(Level.INFO);
+    }
+
+    @Benchmark
+    public void eagerConcatenation() {
+        x++;
+        FOKLogger.fine(LoggingBenchmark.class.getName(), "Moving room to x = " + x);
+    }
+
+    @Benchmark
+    public void lazyConstant() {
+        x++;
+        logger.fine("Moving room...");
+    }
+
+    @Benchmark
+    public void lazySupplier() {
+        x++;
+        logger.fine(() -> "Moving room to x = " + x);
+    }
+}
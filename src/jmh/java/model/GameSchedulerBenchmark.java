@@ -0,0 +1,101 @@
+package model;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the {@link GameScheduler} with one million pending events
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GameSchedulerBenchmark {
+    private static final int eventCount = 1000000;
+    /**
+     * The events are spread over this many moves, so about 100 events are due per move
+     */
+    private static final int moveCount = 10000;
+
+    private int[] dueMoves;
+    private GameScheduler scheduler;
+    private int move;
+
+    @Setup(Level.Trial)
+    public void setUpDueMoves() {
+        Random random = new Random(42);
+        dueMoves = new int[eventCount];
+        for (int i = 0; i < eventCount; i++) {
+            dueMoves[i] = random.nextInt(moveCount) + 1;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpScheduler() {
+        scheduler = scheduleAll();
+        move = 0;
+    }
+
+    private GameScheduler scheduleAll() {
+        GameScheduler res = new GameScheduler();
+        for (int dueMove : dueMoves) {
+            res.schedule(dueMove, new NoOpEvent());
+        }
+        return res;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GameScheduler scheduleOneMillionEvents() {
+        return scheduleAll();
+    }
+
+    /**
+     * Advances the scheduler of the current iteration by one move, that is the cost of a single move with up to one
+     * million pending events
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int advanceOneMove() {
+        if (move == moveCount) {
+            // all events fired, start over
+            scheduler = scheduleAll();
+            move = 0;
+        }
+        move++;
+        scheduler.advanceTo(null, move);
+        return scheduler.getPendingEventCount();
+    }
+
+    private static class NoOpEvent implements GameEvent {
+        @Override
+        public void fire(Game game) {
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for saving and loading games of different sizes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int roomCount;
+
+    private Game game;
+    private File saveFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        game = new WorldGenerator(0).generate(WorldGenerator.Shape.RANDOM_GRAPH, roomCount);
+        saveFile = File.createTempFile("zorkBenchmark", ".fokGameSave");
+        saveFile.deleteOnExit();
+        game.save(saveFile);
+    }
+
+    @TearDown
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        saveFile.delete();
+    }
+
+    @Benchmark
+    public Game save() throws IOException {
+        game.save(saveFile);
+        return game;
+    }
+
+    @Benchmark
+    public Game load() throws IOException, ClassNotFoundException {
+        return Game.load(saveFile);
+    }
+
+    @Benchmark
+    public Game roundTrip() throws IOException, ClassNotFoundException {
+        game.save(saveFile);
+        return Game.load(saveFile);
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the room graph: {@link Room#isConnectedTo(Room)} and the operations of {@link RoomMap}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomBenchmark {
+    @Param({"1000", "10000"})
+    private int roomCount;
+
+    private Room[] rooms;
+    private Room unconnectedRoom;
+    private RoomMap roomMap;
+    private Room[] roomMapValues;
+    private Room adjacentRoom;
+
+    @Setup
+    public void setUp() {
+        rooms = new WorldGenerator(0).generateRooms(WorldGenerator.Shape.MAZE, roomCount);
+        unconnectedRoom = new Room("Unconnected");
+
+        roomMap = new RoomMap(WalkDirection.values().length);
+        roomMapValues = new Room[WalkDirection.values().length];
+        for (int i = 0; i < roomMapValues.length; i++) {
+            roomMapValues[i] = new Room("Adjacent room " + i);
+        }
+        adjacentRoom = rooms[rooms.length / 2].getAdjacentRooms().values().iterator().next();
+    }
+
+    /**
+     * The last generated room is usually the farthest away in a maze
+     */
+    @Benchmark
+    public boolean isConnectedToFarRoom() {
+        return rooms[0].isConnectedTo(rooms[rooms.length - 1]);
+    }
+
+    /**
+     * Worst case, the whole graph is searched
+     */
+    @Benchmark
+    public boolean isConnectedToUnconnectedRoom() {
+        return rooms[0].isConnectedTo(unconnectedRoom);
+    }
+
+    @Benchmark
+    public RoomMap roomMapPut() {
+        roomMap.clear();
+        WalkDirection[] directions = WalkDirection.values();
+        for (int i = 0; i < directions.length; i++) {
+            roomMap.put(directions[i], roomMapValues[i]);
+        }
+        return roomMap;
+    }
+
+    @Benchmark
+    public Room roomMapGet() {
+        return rooms[rooms.length / 2].getAdjacentRooms().get(WalkDirection.EAST);
+    }
+
+    @Benchmark
+    public WalkDirection roomMapGetKeyForObject() {
+        return rooms[rooms.length / 2].getAdjacentRooms().getKeyForObject(adjacentRoom);
+    }
+}
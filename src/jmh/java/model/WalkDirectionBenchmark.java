@@ -0,0 +1,67 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the classification of line directions with {@code atan2} and with the octant classifier of {@link WalkDirectionUtils#getFromLine(double, double, double, double)}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalkDirectionBenchmark {
+    private static final int lineCount = 1024;
+    private final double[] coordinates = new double[lineCount * 2];
+    private int nextLine;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = random.nextDouble() * 2000 - 1000;
+        }
+    }
+
+    @Benchmark
+    public WalkDirection atan2() {
+        int line = nextLine();
+        return WalkDirectionUtils.getFromLineAngle(Math.atan2(coordinates[2 * line], -coordinates[2 * line + 1]));
+    }
+
+    @Benchmark
+    public WalkDirection octantClassifier() {
+        int line = nextLine();
+        return WalkDirectionUtils.getFromLine(0, 0, coordinates[2 * line], coordinates[2 * line + 1]);
+    }
+
+    private int nextLine() {
+        nextLine = (nextLine + 1) & (lineCount - 1);
+        return nextLine;
+    }
+}
@@ -0,0 +1,58 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for {@link HTMLGenerator#generate(List)} with growing transcripts
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HTMLGeneratorBenchmark {
+    @Param({"10", "100", "1000"})
+    private int messageCount;
+
+    private List<GameMessage> messages;
+
+    @Setup
+    public void setUp() {
+        messages = new ArrayList<>(messageCount);
+        for (int i = 0; i < messageCount; i++) {
+            boolean fromGame = i % 2 == 1;
+            messages.add(new GameMessage(fromGame ? "You are in room " + i + ". There is a lamp here." : "go north", fromGame));
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return HTMLGenerator.generate(messages);
+    }
+}
@@ -0,0 +1,138 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import model.WorldGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the parts of {@link EditorView#renderView(boolean, boolean)} that do not need the JavaFX toolkit: the
+ * {@link RoomGraphSnapshot} that the {@link RenderWorker} takes, the breadth first {@link RoomPlacement} that places the
+ * rooms next to each other followed by the updates of the spatial index, and the {@link ForceDirectedLayout} that
+ * refines the positions when the auto layout is used.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderViewBenchmark {
+    private static final double roomSize = 100;
+    private static final double roomDistance = 50;
+
+    @Param({"1000", "10000"})
+    private int roomCount;
+
+    private Room startRoom;
+    private RoomGraphSnapshot snapshot;
+    private double[][] positions;
+
+    @Setup
+    public void setUp() {
+        startRoom = new WorldGenerator(0).generateRooms(WorldGenerator.Shape.RANDOM_GRAPH, roomCount)[0];
+        snapshot = RoomGraphSnapshot.create(startRoom, Collections.emptyList(), () -> false);
+        positions = placeRooms(new RectangleIndex());
+    }
+
+    @Benchmark
+    public RoomGraphSnapshot snapshot() {
+        return RoomGraphSnapshot.create(startRoom, snapshot.getRooms(), () -> false);
+    }
+
+    /**
+     * Places every room next to the room it was reached from using the same {@link RoomPlacement} as the render and
+     * inserts it into a {@link GridIndex}.
+     */
+    @Benchmark
+    public double[][] traversal() {
+        return placeRooms(new RectangleIndex());
+    }
+
+    @Benchmark
+    public int forceDirectedLayout() {
+        ForceDirectedLayout layout = new ForceDirectedLayout(roomDistance);
+        for (int i = 0; i < snapshot.getRoomCount(); i++) {
+            layout.addNode(positions[i][0], positions[i][1], roomSize, roomSize);
+        }
+        for (int i = 0; i < snapshot.getRoomCount(); i++) {
+            for (Map.Entry<WalkDirection, Room> entry : snapshot.getRoom(i).getAdjacentRooms().entrySet()) {
+                layout.addEdge(i, snapshot.indexOf(entry.getValue()), WalkDirectionUtils.getPreferredAngle(entry.getKey()));
+            }
+        }
+        layout.setFixed(0);
+        layout.run(20, 0, null);
+        return layout.getIterationCount();
+    }
+
+    private double[][] placeRooms(RectangleIndex index) {
+        int count = snapshot.getRoomCount();
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] widths = new double[count];
+        double[] heights = new double[count];
+        boolean[] placeRoom = new boolean[count];
+        Arrays.fill(widths, roomSize);
+        Arrays.fill(heights, roomSize);
+        Arrays.fill(placeRoom, true);
+        RoomPlacement.placeBreadthFirst(snapshot, xs, ys, widths, heights, placeRoom, roomDistance);
+
+        double[][] res = new double[count][];
+        for (int i = 0; i < count; i++) {
+            res[i] = new double[]{xs[i], ys[i]};
+            index.update(res[i]);
+        }
+        return res;
+    }
+
+    private static class RectangleIndex extends GridIndex<double[]> {
+        RectangleIndex() {
+            super(roomSize + roomDistance);
+        }
+
+        @Override
+        protected double getMinX(double[] element) {
+            return element[0];
+        }
+
+        @Override
+        protected double getMinY(double[] element) {
+            return element[1];
+        }
+
+        @Override
+        protected double getWidth(double[] element) {
+            return roomSize;
+        }
+
+        @Override
+        protected double getHeight(double[] element) {
+            return roomSize;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of a {@link MetricsRegistry} that records the distribution of non-negative values, e. g. durations or sizes.<br>
+ * Values are counted in buckets that grow exponentially with four buckets per power of two, so recording a value only
+ * costs a few atomic operations and does not allocate. Percentiles are estimated from the buckets and are accurate to
+ * about 12.5 %, the count, sum, min and max are exact.
+ */
+public class Histogram implements HistogramMBean {
+    /**
+     * Four buckets for every power of two up to {@code 2^62} plus the values 0 to 3
+     */
+    private static final int bucketCount = 248;
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(bucketCount);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    Histogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    static int bucketIndex(long value) {
+        if (value < 4) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return 4 * (exponent - 1) + (int) ((value >>> (exponent - 2)) & 3);
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < 4) {
+            return index;
+        }
+        int exponent = index / 4 + 1;
+        return (4L + index % 4) << (exponent - 2);
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < 4) {
+            return index;
+        }
+        int exponent = index / 4 + 1;
+        return bucketLowerBound(index) + (1L << (exponent - 2)) - 1;
+    }
+
+    /**
+     * Records the specified value. Negative values are recorded as 0.
+     *
+     * @param value The value to record
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        if (value < min.get()) {
+            min.accumulateAndGet(value, Math::min);
+        }
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    @Override
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    @Override
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) getSum() / count;
+    }
+
+    /**
+     * Estimates the specified percentile from the buckets.
+     *
+     * @param percentile The percentile between 0 and 100
+     * @return The estimated value at the specified percentile or 0 if no value was recorded yet
+     */
+    public long getPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                long estimate = (bucketLowerBound(i) + bucketUpperBound(i)) / 2;
+                return Math.min(getMax(), Math.max(getMin(), estimate));
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public long get50thPercentile() {
+        return getPercentile(50);
+    }
+
+    @Override
+    public long get95thPercentile() {
+        return getPercentile(95);
+    }
+
+    @Override
+    public long get99thPercentile() {
+        return getPercentile(99);
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name + " count=" + getCount() + " mean=" + String.format("%.1f", getMean()) + " min=" + getMin() + " p50=" + get50thPercentile() + " p95=" + get95thPercentile() + " p99=" + get99thPercentile() + " max=" + getMax() + " unit=" + unit;
+    }
+}
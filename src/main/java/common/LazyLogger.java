@@ -0,0 +1,114 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Logs through the {@link FOKLogger} but checks the level of the logger of the class before anything else happens, so
+ * disabled log statements are (almost) free:
+ * <ul>
+ * <li>Constant messages are passed as a {@code String}, e. g. {@code logger.fine("Moving room...")}. This neither
+ * allocates nor calls into the {@link FOKLogger} if the level is disabled.</li>
+ * <li>Messages that need to be built are passed as a {@link Supplier} which is only called if the level is enabled,
+ * e. g. {@code logger.fine(() -> "Disposing room " + room)}. Note that lambdas that capture variables are created on
+ * every call, so hot paths should prefer constant messages or check {@link #isLoggable(Level)} first.</li>
+ * </ul>
+ * Use one instance per class, stored in a static field.
+ */
+public class LazyLogger {
+    private final String className;
+    private final Logger logger;
+
+    /**
+     * @param clazz The class that logs, its name is passed on to the {@link FOKLogger}
+     */
+    public LazyLogger(@NotNull Class<?> clazz) {
+        this.className = Objects.requireNonNull(clazz).getName();
+        // FOKLogger logs through the java.util.logging logger of the class name, so it has the same level
+        this.logger = Logger.getLogger(className);
+    }
+
+    public boolean isLoggable(@NotNull Level level) {
+        return logger.isLoggable(level);
+    }
+
+    public void log(@NotNull Level level, @NotNull String message) {
+        if (isLoggable(level)) {
+            FOKLogger.log(className, level, message);
+        }
+    }
+
+    public void log(@NotNull Level level, @NotNull Supplier<String> message) {
+        if (isLoggable(level)) {
+            FOKLogger.log(className, level, message.get());
+        }
+    }
+
+    public void log(@NotNull Level level, @NotNull Supplier<String> message, Throwable throwable) {
+        if (isLoggable(level)) {
+            FOKLogger.log(className, level, message.get(), throwable);
+        }
+    }
+
+    public void info(@NotNull String message) {
+        log(Level.INFO, message);
+    }
+
+    public void info(@NotNull Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void fine(@NotNull String message) {
+        log(Level.FINE, message);
+    }
+
+    public void fine(@NotNull Supplier<String> message) {
+        log(Level.FINE, message);
+    }
+
+    public void finer(@NotNull String message) {
+        log(Level.FINER, message);
+    }
+
+    public void finer(@NotNull Supplier<String> message) {
+        log(Level.FINER, message);
+    }
+
+    public void finest(@NotNull String message) {
+        log(Level.FINEST, message);
+    }
+
+    public void finest(@NotNull Supplier<String> message) {
+        log(Level.FINEST, message);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+}
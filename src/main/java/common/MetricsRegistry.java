@@ -0,0 +1,300 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.Common;
+import com.github.vatbub.common.core.logging.FOKLogger;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Collects {@link Counter}s, {@link Timer}s and {@link Histogram}s of the hot paths of the game and the editor.<br>
+ * Metrics are created once (usually in a static field) and are cheap to update from any thread afterwards. They can be
+ * inspected in two ways:
+ * <ul>
+ * <li>Through JMX (e. g. using JConsole or VisualVM) after {@link #registerMBeans()} was called. Every metric is
+ * registered as {@code zorkClone:type=<Counter|Timer|Histogram>,name=<name>}.</li>
+ * <li>In a text file that is rewritten periodically after {@link #startFileDump(File, long)} was called.</li>
+ * </ul>
+ */
+public class MetricsRegistry {
+    private static final String jmxDomain = "zorkClone";
+    /**
+     * The number of seconds between two dumps of the default registry, see {@link #enableDefaultReporting()}
+     */
+    private static final long defaultDumpPeriodSeconds = 60;
+    private static MetricsRegistry defaultInstance;
+
+    private final ConcurrentMap<String, Object> metrics = new ConcurrentHashMap<>();
+    private volatile MBeanServer mBeanServer;
+    private ScheduledExecutorService dumpExecutor;
+
+    /**
+     * Returns the registry that is used by the game and the editor
+     *
+     * @return The default registry
+     */
+    public static synchronized MetricsRegistry getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new MetricsRegistry();
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Registers the default registry with JMX and dumps it to {@code metrics.txt} in the app data folder every
+     * {@link #defaultDumpPeriodSeconds} seconds. Called when the game or the editor starts, after the app name was set.
+     */
+    public static void enableDefaultReporting() {
+        MetricsRegistry registry = getDefault();
+        registry.registerMBeans();
+        registry.startFileDump(new File(Common.getAndCreateAppDataPath() + "metrics.txt"), defaultDumpPeriodSeconds);
+    }
+
+    /**
+     * Returns the number of bytes that the current thread allocated so far. The difference of two calls is the
+     * allocation of the code in between.
+     *
+     * @return The number of bytes allocated by the current thread or {@code -1} if the JVM cannot measure it
+     */
+    public static long getAllocatedBytesOfCurrentThread() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported() && sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the counter with the specified name and creates it if it does not exist yet
+     *
+     * @param name The name of the counter
+     * @return The counter with the specified name
+     */
+    public Counter counter(@NotNull String name) {
+        return getOrCreate(name, Counter.class, () -> new Counter(name));
+    }
+
+    /**
+     * Returns the timer with the specified name and creates it if it does not exist yet
+     *
+     * @param name The name of the timer
+     * @return The timer with the specified name
+     */
+    public Timer timer(@NotNull String name) {
+        return getOrCreate(name, Timer.class, () -> new Timer(name));
+    }
+
+    /**
+     * Returns the histogram with the specified name and creates it if it does not exist yet
+     *
+     * @param name The name of the histogram
+     * @param unit The unit of the recorded values, only used for display purposes
+     * @return The histogram with the specified name
+     */
+    public Histogram histogram(@NotNull String name, @NotNull String unit) {
+        return getOrCreate(name, Histogram.class, () -> new Histogram(name, unit));
+    }
+
+    private <T> T getOrCreate(String name, Class<T> type, Supplier<T> factory) {
+        Objects.requireNonNull(name);
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            Object newMetric = factory.get();
+            metric = metrics.putIfAbsent(name, newMetric);
+            if (metric == null) {
+                metric = newMetric;
+                if (mBeanServer != null) {
+                    registerMBean(name, metric);
+                }
+            }
+        }
+
+        if (metric.getClass() != type) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + metric.getClass().getSimpleName() + " and not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Returns all metrics sorted by name
+     *
+     * @return All metrics of this registry, {@link Counter}s, {@link Timer}s and {@link Histogram}s
+     */
+    public SortedMap<String, Object> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    /**
+     * Resets all metrics of this registry
+     */
+    public void reset() {
+        for (Object metric : metrics.values()) {
+            if (metric instanceof Counter) {
+                ((Counter) metric).reset();
+            } else {
+                ((Histogram) metric).reset();
+            }
+        }
+    }
+
+    /**
+     * Registers all current and future metrics of this registry with the platform MBean server. Does nothing if the
+     * metrics are registered already.
+     */
+    public synchronized void registerMBeans() {
+        if (mBeanServer != null) {
+            return;
+        }
+        mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            registerMBean(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Removes all metrics of this registry from the platform MBean server
+     */
+    public synchronized void unregisterMBeans() {
+        if (mBeanServer == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            try {
+                ObjectName objectName = getObjectName(entry.getKey(), entry.getValue());
+                if (mBeanServer.isRegistered(objectName)) {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            } catch (JMException e) {
+                FOKLogger.log(MetricsRegistry.class.getName(), Level.WARNING, "Could not unregister the metric " + entry.getKey(), e);
+            }
+        }
+        mBeanServer = null;
+    }
+
+    private void registerMBean(String name, Object metric) {
+        MBeanServer server = mBeanServer;
+        if (server == null) {
+            return;
+        }
+        try {
+            ObjectName objectName = getObjectName(name, metric);
+            if (!server.isRegistered(objectName)) {
+                Object mBean = metric instanceof Counter ? new StandardMBean((Counter) metric, CounterMBean.class) : new StandardMBean((Histogram) metric, HistogramMBean.class);
+                server.registerMBean(mBean, objectName);
+            }
+        } catch (JMException e) {
+            // another registry registered the same name
+            FOKLogger.log(MetricsRegistry.class.getName(), Level.WARNING, "Could not register the metric " + name + " with JMX", e);
+        }
+    }
+
+    static ObjectName getObjectName(String name, Object metric) throws MalformedObjectNameException {
+        return new ObjectName(jmxDomain + ":type=" + metric.getClass().getSimpleName() + ",name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Writes the current values of all metrics to the specified file now and every {@code periodSeconds} seconds
+     * afterwards on a daemon thread. A previously started dump is stopped.
+     *
+     * @param file          The file to write to. It is replaced on every dump.
+     * @param periodSeconds The number of seconds between two dumps
+     */
+    public synchronized void startFileDump(@NotNull File file, long periodSeconds) {
+        Objects.requireNonNull(file);
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("periodSeconds must be greater than 0");
+        }
+
+        stopFileDump();
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MetricsDump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> {
+            try {
+                dump(file);
+            } catch (IOException e) {
+                FOKLogger.log(MetricsRegistry.class.getName(), Level.WARNING, "Could not write the metrics to " + file.toString(), e);
+            }
+        }, 0, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops the periodic dump started by {@link #startFileDump(File, long)}
+     */
+    public synchronized void stopFileDump() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdownNow();
+            dumpExecutor = null;
+        }
+    }
+
+    /**
+     * Writes the current values of all metrics to the specified file, one metric per line. The file is written to a
+     * temporary file first and then moved, so readers never see a partially written file.
+     *
+     * @param file The file to write to
+     * @throws IOException If the file cannot be written
+     */
+    public void dump(@NotNull File file) throws IOException {
+        File tempFile = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            dump(writer);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the current values of all metrics to the specified writer, one metric per line
+     *
+     * @param writer The writer to write to. It is flushed but not closed.
+     * @throws IOException If the writer throws an {@link IOException}
+     */
+    public void dump(@NotNull Writer writer) throws IOException {
+        writer.write("# metrics at " + new Date() + System.lineSeparator());
+        for (Object metric : getMetrics().values()) {
+            writer.write(metric.toString());
+            writer.write(System.lineSeparator());
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,45 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * A {@link Histogram} of durations in nanoseconds. Usage:
+ * <pre>
+ * long start = System.nanoTime();
+ * // do the work
+ * timer.recordSince(start);
+ * </pre>
+ */
+public class Timer extends Histogram {
+    Timer(String name) {
+        super(name, "ns");
+    }
+
+    /**
+     * Records the time that elapsed since the specified start time
+     *
+     * @param startNanos The start time as returned by {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+}
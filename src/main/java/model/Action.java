@@ -21,15 +21,14 @@ package model;
  */
 
 
-import java.util.Map;
-
 /**
- * A action that can happen in the {@link Game} like picking up or moving an item, moving the player...
+ * A action that can happen in the {@link Game} like picking up or moving an item, moving the player...<br>
+ * Actions are registered in an {@link ActionRegistry} which assigns them an int handle. Commands are dispatched
+ * using that handle and a reusable {@link ActionContext} instead of looking the action up by its name.
  */
 @SuppressWarnings("unused")
 public abstract class Action {
     private String name;
-    private Map<String, Object> params;
 
     public String getName() {
         return name;
@@ -39,13 +38,10 @@ public abstract class Action {
         this.name = name;
     }
 
-    public Map<String, Object> getParams() {
-        return params;
-    }
-
-    public void setParams(Map<String, Object> params) {
-        this.params = params;
-    }
-
-    abstract void execute(Map<String, Object> params);
+    /**
+     * Executes this action.
+     *
+     * @param context The parameters of the command. The context is reused for the next command, so implementations must not keep a reference to it.
+     */
+    abstract void execute(ActionContext context);
 }
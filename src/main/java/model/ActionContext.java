@@ -0,0 +1,94 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * The parameters of an {@link Action}. One instance is preallocated by the {@link ActionRegistry} and reused for
+ * every command, so binding parameters does not allocate.
+ */
+@SuppressWarnings("unused")
+public class ActionContext {
+    private Game game;
+    private Room room;
+    private Item item;
+    private Entity entity;
+    private WalkDirection direction;
+
+    /**
+     * Clears all parameters so that no values of the previous command leak into the next one.
+     *
+     * @return {@code this} to allow chained calls
+     */
+    public ActionContext reset() {
+        game = null;
+        room = null;
+        item = null;
+        entity = null;
+        direction = null;
+        return this;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public ActionContext setGame(Game game) {
+        this.game = game;
+        return this;
+    }
+
+    public Room getRoom() {
+        return room;
+    }
+
+    public ActionContext setRoom(Room room) {
+        this.room = room;
+        return this;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public ActionContext setItem(Item item) {
+        this.item = item;
+        return this;
+    }
+
+    public Entity getEntity() {
+        return entity;
+    }
+
+    public ActionContext setEntity(Entity entity) {
+        this.entity = entity;
+        return this;
+    }
+
+    public WalkDirection getDirection() {
+        return direction;
+    }
+
+    public ActionContext setDirection(WalkDirection direction) {
+        this.direction = direction;
+        return this;
+    }
+}
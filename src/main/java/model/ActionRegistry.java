@@ -0,0 +1,162 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import parser.Verb;
+
+import java.util.*;
+
+/**
+ * Dispatch table for {@link Action}s. Every registered action gets an int handle that indexes into an array, so
+ * executing a command is an array access instead of a lookup by name.<br>
+ * Handles are meant to be resolved once when the game is loaded (see {@link Item#getActionHandles(ActionRegistry)}),
+ * names are only used to resolve handles. Handles belong to the registry and not to the action, so the same action
+ * instance may have different handles in the registries of different games.
+ */
+@SuppressWarnings("unused")
+public class ActionRegistry {
+    private final Map<String, Integer> handlesByName = new HashMap<>();
+    /**
+     * {@code Action} does not override {@code equals}, so identity is used.
+     */
+    private final Map<Action, Integer> handlesByAction = new IdentityHashMap<>();
+    private final ActionContext context = new ActionContext();
+    private Action[] actions = new Action[16];
+    private int size;
+
+    /**
+     * Registers the specified action and assigns it a handle. Registering the same action twice returns the handle of the first registration.
+     *
+     * @param action The action to register
+     * @return The handle of the action
+     */
+    public int register(@NotNull Action action) {
+        Objects.requireNonNull(action);
+
+        Integer existingHandle = handlesByAction.get(action);
+        if (existingHandle != null) {
+            return existingHandle;
+        }
+
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2);
+        }
+
+        int handle = size;
+        actions[handle] = action;
+        size++;
+        handlesByAction.put(action, handle);
+
+        if (action.getName() != null) {
+            handlesByName.put(action.getName(), handle);
+        }
+
+        return handle;
+    }
+
+    /**
+     * Registers all actions of the specified item.
+     *
+     * @param item The item whose actions shall be registered
+     */
+    public void registerAll(@NotNull Item item) {
+        Objects.requireNonNull(item);
+        List<Action> itemActions = item.getActions();
+        if (itemActions != null) {
+            for (Action action : itemActions) {
+                register(action);
+            }
+        }
+    }
+
+    /**
+     * Registers the action of the specified verb if it has one.
+     *
+     * @param verb The verb whose action shall be registered
+     */
+    public void registerAll(@NotNull Verb verb) {
+        Objects.requireNonNull(verb);
+        if (verb.getAction() != null) {
+            register(verb.getAction());
+        }
+    }
+
+    /**
+     * Returns the handle of the specified action in this registry.
+     *
+     * @param action The action to get the handle for
+     * @return The handle of the action or {@code -1} if the action is not registered in this registry
+     */
+    public int getHandle(Action action) {
+        Integer res = handlesByAction.get(action);
+        if (res == null) {
+            return -1;
+        }
+        return res;
+    }
+
+    /**
+     * Resolves the handle of the action with the specified name. Intended for load time, not for dispatching.
+     *
+     * @param name The name of the action
+     * @return The handle of the action or {@code -1} if no action with that name is registered
+     */
+    public int getHandle(String name) {
+        Integer res = handlesByName.get(name);
+        if (res == null) {
+            return -1;
+        }
+        return res;
+    }
+
+    public Action get(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("No action registered for handle " + handle);
+        }
+        return actions[handle];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the preallocated context to bind the parameters of the next command to. The context is reset before it is returned.
+     *
+     * @return The reset context
+     */
+    public ActionContext getContext() {
+        return context.reset();
+    }
+
+    /**
+     * Executes the action with the specified handle.
+     *
+     * @param handle  The handle of the action to execute
+     * @param context The parameters of the command, usually obtained from {@link #getContext()}
+     */
+    public void execute(int handle, @NotNull ActionContext context) {
+        get(handle).execute(context);
+    }
+}
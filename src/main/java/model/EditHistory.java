@@ -0,0 +1,430 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Records changes to the {@link RoomMap}, {@link ItemList} and {@link EntityList} of rooms so that they can be undone and redone.<br>
+ * The history is filled through the change listeners of the observed rooms. Each change is stored as a small
+ * operation that references the affected collection, the key or index and the values before and after the change, so the
+ * rooms, items and entities themselves are shared with the game and never copied. Changes that happen between
+ * {@link #beginTransaction()} and {@link #commitTransaction()} are undone and redone together, all other changes form
+ * a transaction of their own.<br>
+ * The transactions are kept in a ring buffer with a fixed capacity. Once it is full, the oldest transaction is
+ * dropped, so the memory usage stays flat during long editing sessions. All methods are synchronized.
+ */
+public class EditHistory {
+    private final Transaction[] transactions;
+    /**
+     * The index of the oldest transaction in {@link #transactions}
+     */
+    private int firstTransaction;
+    private int transactionCount;
+    /**
+     * The number of transactions that can be undone. The transactions after that can be redone.
+     */
+    private int undoableTransactionCount;
+    private final Map<Room, RoomObserver> observers = new IdentityHashMap<>();
+    private List<Operation> openTransaction;
+    private int openTransactionDepth;
+    /**
+     * {@code true} while operations are undone or redone, the resulting change events must not be recorded
+     */
+    private boolean replaying;
+
+    /**
+     * @param capacity The maximum number of transactions that can be undone
+     */
+    public EditHistory(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        transactions = new Transaction[capacity];
+    }
+
+    /**
+     * Starts recording the changes of all rooms that can be reached from the specified room. Rooms that are connected
+     * to an observed room later on are observed automatically.
+     *
+     * @param startRoom The room to start at
+     */
+    public synchronized void observeAll(@NotNull Room startRoom) {
+        for (Room room : EntitySimulation.getReachableRooms(startRoom)) {
+            observe(room);
+        }
+    }
+
+    /**
+     * Starts recording the changes of the specified room. Does nothing if the room is already observed.
+     *
+     * @param room The room to observe
+     */
+    public synchronized void observe(@NotNull Room room) {
+        Objects.requireNonNull(room);
+        if (!observers.containsKey(room)) {
+            observers.put(room, new RoomObserver(room));
+        }
+    }
+
+    /**
+     * Stops recording the changes of all rooms
+     */
+    public synchronized void unobserveAll() {
+        for (RoomObserver observer : observers.values()) {
+            observer.detach();
+        }
+        observers.clear();
+    }
+
+    public synchronized boolean isObserved(Room room) {
+        return observers.containsKey(room);
+    }
+
+    /**
+     * Starts a transaction. All changes until the matching call to {@link #commitTransaction()} are undone and redone
+     * together. Transactions may be nested, the outermost transaction counts.
+     */
+    public synchronized void beginTransaction() {
+        if (openTransactionDepth == 0) {
+            openTransaction = new ArrayList<>();
+        }
+        openTransactionDepth++;
+    }
+
+    /**
+     * Ends the transaction that was started with {@link #beginTransaction()}. Empty transactions are not added to the history.
+     */
+    public synchronized void commitTransaction() {
+        if (openTransactionDepth == 0) {
+            throw new IllegalStateException("No transaction was started");
+        }
+        openTransactionDepth--;
+        if (openTransactionDepth == 0) {
+            List<Operation> operations = openTransaction;
+            openTransaction = null;
+            if (!operations.isEmpty()) {
+                push(new Transaction(operations.toArray(new Operation[0])));
+            }
+        }
+    }
+
+    public synchronized boolean isTransactionOpen() {
+        return openTransactionDepth > 0;
+    }
+
+    /**
+     * Records an operation that was not reported by a change listener, e. g. a room that was moved in the editor.
+     * The operation must already be applied.
+     *
+     * @param operation The operation to record
+     */
+    public synchronized void record(@NotNull Operation operation) {
+        Objects.requireNonNull(operation);
+        if (replaying) {
+            return;
+        }
+
+        if (openTransaction != null) {
+            openTransaction.add(operation);
+        } else {
+            push(new Transaction(new Operation[]{operation}));
+        }
+    }
+
+    private void push(Transaction transaction) {
+        // drop the transactions that could have been redone
+        for (int i = undoableTransactionCount; i < transactionCount; i++) {
+            transactions[(firstTransaction + i) % transactions.length] = null;
+        }
+        transactionCount = undoableTransactionCount;
+
+        if (transactionCount == transactions.length) {
+            // drop the oldest transaction
+            transactions[firstTransaction] = null;
+            firstTransaction = (firstTransaction + 1) % transactions.length;
+            transactionCount--;
+        }
+
+        transactions[(firstTransaction + transactionCount) % transactions.length] = transaction;
+        transactionCount++;
+        undoableTransactionCount = transactionCount;
+    }
+
+    /**
+     * Undoes the most recent transaction
+     *
+     * @return {@code true} if a transaction was undone, {@code false} if there was nothing to undo
+     */
+    public synchronized boolean undo() {
+        if (undoableTransactionCount == 0 || openTransactionDepth > 0) {
+            return false;
+        }
+
+        undoableTransactionCount--;
+        Transaction transaction = transactions[(firstTransaction + undoableTransactionCount) % transactions.length];
+        replaying = true;
+        try {
+            for (int i = transaction.operations.length - 1; i >= 0; i--) {
+                transaction.operations[i].undo();
+            }
+        } finally {
+            replaying = false;
+        }
+        return true;
+    }
+
+    /**
+     * Redoes the most recently undone transaction
+     *
+     * @return {@code true} if a transaction was redone, {@code false} if there was nothing to redo
+     */
+    public synchronized boolean redo() {
+        if (undoableTransactionCount == transactionCount || openTransactionDepth > 0) {
+            return false;
+        }
+
+        Transaction transaction = transactions[(firstTransaction + undoableTransactionCount) % transactions.length];
+        undoableTransactionCount++;
+        replaying = true;
+        try {
+            for (Operation operation : transaction.operations) {
+                operation.redo();
+            }
+        } finally {
+            replaying = false;
+        }
+        return true;
+    }
+
+    public synchronized boolean canUndo() {
+        return undoableTransactionCount > 0;
+    }
+
+    public synchronized boolean canRedo() {
+        return undoableTransactionCount < transactionCount;
+    }
+
+    public synchronized int getUndoableTransactionCount() {
+        return undoableTransactionCount;
+    }
+
+    public synchronized int getRedoableTransactionCount() {
+        return transactionCount - undoableTransactionCount;
+    }
+
+    public int getCapacity() {
+        return transactions.length;
+    }
+
+    /**
+     * Forgets all transactions. Observed rooms stay observed.
+     */
+    public synchronized void clear() {
+        Arrays.fill(transactions, null);
+        firstTransaction = 0;
+        transactionCount = 0;
+        undoableTransactionCount = 0;
+    }
+
+    /**
+     * A change that can be undone and redone
+     */
+    public interface Operation {
+        /**
+         * Reverts the change
+         */
+        void undo();
+
+        /**
+         * Applies the change again after it was undone
+         */
+        void redo();
+    }
+
+    private static class Transaction {
+        private final Operation[] operations;
+
+        Transaction(Operation[] operations) {
+            this.operations = operations;
+        }
+    }
+
+    /**
+     * Sets an entry of a {@link RoomMap}. {@code null} means that the map has no entry for the key.
+     */
+    private static class AdjacentRoomOperation implements Operation {
+        private final RoomMap map;
+        private final WalkDirection key;
+        private final Room oldValue;
+        private final Room newValue;
+
+        AdjacentRoomOperation(RoomMap map, WalkDirection key, Room oldValue, Room newValue) {
+            this.map = map;
+            this.key = key;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        private void apply(Room value) {
+            map.remove(key);
+            if (value != null) {
+                map.put(key, value);
+            }
+        }
+
+        @Override
+        public void undo() {
+            apply(oldValue);
+        }
+
+        @Override
+        public void redo() {
+            apply(newValue);
+        }
+    }
+
+    /**
+     * Adds, removes or replaces an element of a list. {@code null} means that the element was not in the list.
+     */
+    private static class ListOperation<T> implements Operation {
+        private final List<T> list;
+        private final int index;
+        private final T oldValue;
+        private final T newValue;
+
+        ListOperation(List<T> list, int index, T oldValue, T newValue) {
+            this.list = list;
+            this.index = index;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        private void apply(T from, T to) {
+            if (from == null) {
+                list.add(index, to);
+            } else if (to == null) {
+                list.remove(index);
+            } else {
+                list.set(index, to);
+            }
+        }
+
+        @Override
+        public void undo() {
+            apply(newValue, oldValue);
+        }
+
+        @Override
+        public void redo() {
+            apply(oldValue, newValue);
+        }
+    }
+
+    /**
+     * Listens to the collections of a single room and records their changes. The listeners are called before the collections are modified.
+     */
+    private class RoomObserver implements RoomMap.ChangeListener, ItemList.ChangeListener, EntityList.ChangeListener {
+        private final RoomMap adjacentRooms;
+        private final ItemList items;
+        private final EntityList entities;
+
+        RoomObserver(Room room) {
+            adjacentRooms = room.getAdjacentRooms();
+            items = room.getItemsInRoom();
+            entities = room.getEntitiesInRoom();
+            adjacentRooms.getChangeListenerList().add(this);
+            items.getChangeListenerList().add(this);
+            entities.getChangeListenerList().add(this);
+        }
+
+        void detach() {
+            adjacentRooms.getChangeListenerList().remove(this);
+            items.getChangeListenerList().remove(this);
+            entities.getChangeListenerList().remove(this);
+        }
+
+        @Override
+        public void removed(WalkDirection key, Room value) {
+            // the listener is also called if the map does not contain the entry
+            if (value != null && adjacentRooms.get(key) == value) {
+                record(new AdjacentRoomOperation(adjacentRooms, key, value, null));
+            }
+        }
+
+        @Override
+        public void added(WalkDirection key, Room value) {
+            if (adjacentRooms.contains(value)) {
+                // RoomMap rejects duplicate rooms after calling the listeners
+                return;
+            }
+            record(new AdjacentRoomOperation(adjacentRooms, key, adjacentRooms.get(key), value));
+            // rooms that are connected now need to be observed too
+            observe(value);
+        }
+
+        @Override
+        public void replaced(WalkDirection key, Room oldValue, Room newValue) {
+            if (oldValue != null && adjacentRooms.get(key) == oldValue) {
+                record(new AdjacentRoomOperation(adjacentRooms, key, oldValue, newValue));
+            }
+        }
+
+        @Override
+        public void removed(Item item) {
+            int index = items.indexOf(item);
+            if (index >= 0) {
+                record(new ListOperation<>(items, index, item, null));
+            }
+        }
+
+        @Override
+        public void added(int index, Item item) {
+            record(new ListOperation<>(items, index, null, item));
+        }
+
+        @Override
+        public void replaced(int index, Item oldValue, Item newValue) {
+            record(new ListOperation<>(items, index, oldValue, newValue));
+        }
+
+        @Override
+        public void removed(Entity item) {
+            int index = entities.indexOf(item);
+            if (index >= 0) {
+                record(new ListOperation<>(entities, index, item, null));
+            }
+        }
+
+        @Override
+        public void added(int index, Entity item) {
+            record(new ListOperation<>(entities, index, null, item));
+        }
+
+        @Override
+        public void replaced(int index, Entity oldValue, Entity newValue) {
+            record(new ListOperation<>(entities, index, oldValue, newValue));
+        }
+    }
+}
@@ -30,9 +30,11 @@ import java.io.Serializable;
  */
 @SuppressWarnings("unused")
 public class Entity implements Serializable {
+    private static final long serialVersionUID = 7182046473900268677L;
     private int remainingHealth = 10;
     private Word name;
     private String description;
+    private EntityBehavior behavior;
 
     public int getRemainingHealth() {
         return remainingHealth;
@@ -57,4 +59,21 @@ public class Entity implements Serializable {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public EntityBehavior getBehavior() {
+        return behavior;
+    }
+
+    public void setBehavior(EntityBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    /**
+     * Checks if this entity is simulated by the {@link EntitySimulation}
+     *
+     * @return {@code true} if this entity has a {@link #getBehavior()}, {@code false} otherwise
+     */
+    public boolean isActive() {
+        return behavior != null;
+    }
 }
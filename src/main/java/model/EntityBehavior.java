@@ -0,0 +1,42 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Serializable;
+
+/**
+ * The behaviour of a non-player {@link Entity} like a wandering thief. Called once per move by the {@link EntitySimulation}.<br>
+ * Behaviours of entities in different rooms run in parallel, so an implementation may only modify the entity it is
+ * called for and must not use shared mutable state or unseeded randomness. Otherwise, replays would differ from the original game.
+ */
+@FunctionalInterface
+public interface EntityBehavior extends Serializable {
+    /**
+     * Updates the specified entity and decides where it wants to go.
+     *
+     * @param entity The entity to update
+     * @param room   The room the entity is currently in. Must not be modified.
+     * @param move   The move count of the move that is simulated
+     * @return The direction the entity wants to walk in or {@code null} or {@link WalkDirection#NONE} to stay in the current room.
+     */
+    WalkDirection update(Entity entity, Room room, int move);
+}
@@ -21,6 +21,9 @@ package model;
  */
 
 
+import common.Histogram;
+import common.MetricsRegistry;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +33,11 @@ import java.util.List;
  * A list of {@link Entity}s
  */
 public class EntityList extends ArrayList<Entity> implements Serializable {
+    private static final long serialVersionUID = -318264533519098298L;
+    /**
+     * The number of listeners that are notified per change
+     */
+    private static final Histogram listenerFanOut = MetricsRegistry.getDefault().histogram("model.entityList.listenerFanOut", "listeners");
     private transient List<ChangeListener> changeListenerList;
 
     public EntityList() {
@@ -50,14 +58,25 @@ public class EntityList extends ArrayList<Entity> implements Serializable {
 
     @Override
     public Entity set(int index, Entity element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.replaced(index, this.get(index), element);
         }
         return super.set(index, element);
     }
 
+    @Override
+    public boolean add(Entity element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
+        for (ChangeListener changeListener : this.getChangeListenerList()) {
+            changeListener.added(this.size(), element);
+        }
+        return super.add(element);
+    }
+
     @Override
     public void add(int index, Entity element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.added(index, element);
         }
@@ -66,6 +85,7 @@ public class EntityList extends ArrayList<Entity> implements Serializable {
 
     @Override
     public Entity remove(int index) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed(this.get(index));
         }
@@ -74,6 +94,7 @@ public class EntityList extends ArrayList<Entity> implements Serializable {
 
     @Override
     public boolean remove(Object o) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed((Entity) o);
         }
@@ -0,0 +1,205 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates all active {@link Entity}s (entities with an {@link EntityBehavior}) for one move.<br>
+ * A step consists of two phases:
+ * <ol>
+ * <li>The behaviours of all entities are evaluated. Rooms are independent of each other in this phase, so they are
+ * split up into chunks which are processed in parallel on a {@link ForkJoinPool}.</li>
+ * <li>The resulting moves are applied sequentially in room order and entity order. If multiple entities want to enter
+ * the same room, only the first one in that order gets in, the others stay where they are.</li>
+ * </ol>
+ * As the first phase only reads the room graph and the second phase is sequential, the result does not depend on
+ * the number of threads and is identical to a single threaded run.
+ */
+public class EntitySimulation {
+    /**
+     * Number of rooms that are processed in a single task
+     */
+    private static final int roomsPerTask = 64;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a simulation that runs on the common {@link ForkJoinPool}
+     */
+    public EntitySimulation() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a simulation that runs on the specified pool.
+     *
+     * @param pool The pool to run the simulation on or {@code null} to run the simulation on the calling thread only
+     */
+    public EntitySimulation(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Returns all rooms that can be reached from the specified room in breadth first order. Neighbours are visited in
+     * the order of {@link WalkDirection#values()} so that the order is the same every time the game is played.
+     *
+     * @param startRoom The room to start at
+     * @return All rooms that can be reached from {@code startRoom} including {@code startRoom} itself
+     */
+    public static List<Room> getReachableRooms(@NotNull Room startRoom) {
+        Objects.requireNonNull(startRoom);
+
+        List<Room> res = new ArrayList<>();
+        Set<Room> visitedRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        res.add(startRoom);
+        visitedRooms.add(startRoom);
+
+        // res doubles as the queue
+        for (int i = 0; i < res.size(); i++) {
+            RoomMap adjacentRooms = res.get(i).getAdjacentRooms();
+            for (WalkDirection direction : WalkDirection.values()) {
+                Room adjacentRoom = adjacentRooms.get(direction);
+                if (adjacentRoom != null && visitedRooms.add(adjacentRoom)) {
+                    res.add(adjacentRoom);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Simulates one move for all active entities in the specified rooms.
+     *
+     * @param rooms The rooms to simulate. The order of this list determines which entity wins if multiple entities want to enter the same room.
+     * @param move  The move count of the move to simulate
+     * @return The number of entities that changed their room
+     */
+    public int step(@NotNull List<Room> rooms, int move) {
+        return step(rooms, move, null, null);
+    }
+
+    /**
+     * Simulates one move for all active entities in the specified rooms but only lets entities walk from one of the
+     * {@code roamingRooms} into one of the {@code enterableRooms}. Entities in other rooms are updated but stay where they are.
+     *
+     * @param rooms          The rooms to simulate. The order of this list determines which entity wins if multiple entities want to enter the same room.
+     * @param move           The move count of the move to simulate
+     * @param roamingRooms   The rooms that entities may leave or {@code null} if entities may leave any room
+     * @param enterableRooms The rooms that entities may enter or {@code null} if entities may enter any room
+     * @return The number of entities that changed their room
+     */
+    public int step(@NotNull List<Room> rooms, int move, Set<Room> roamingRooms, Set<Room> enterableRooms) {
+        Objects.requireNonNull(rooms);
+
+        // phase 1: evaluate behaviours, parallel
+        WalkDirection[][] intents = new WalkDirection[rooms.size()][];
+        Entity[][] entities = new Entity[rooms.size()][];
+        EvaluationTask rootTask = new EvaluationTask(rooms, move, entities, intents, 0, rooms.size());
+        if (pool == null) {
+            rootTask.compute();
+        } else {
+            pool.invoke(rootTask);
+        }
+
+        // phase 2: resolve conflicts and apply, sequential
+        Set<Room> enteredRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Entity> movingEntities = new ArrayList<>();
+        List<Room> sourceRooms = new ArrayList<>();
+        List<Room> targetRooms = new ArrayList<>();
+        for (int roomIndex = 0; roomIndex < rooms.size(); roomIndex++) {
+            if (roamingRooms != null && !roamingRooms.contains(rooms.get(roomIndex))) {
+                continue;
+            }
+            for (int entityIndex = 0; entityIndex < intents[roomIndex].length; entityIndex++) {
+                WalkDirection direction = intents[roomIndex][entityIndex];
+                if (direction == null || direction == WalkDirection.NONE) {
+                    continue;
+                }
+
+                Room targetRoom = rooms.get(roomIndex).getAdjacentRooms().get(direction);
+                if (targetRoom != null && (enterableRooms == null || enterableRooms.contains(targetRoom)) && enteredRooms.add(targetRoom)) {
+                    movingEntities.add(entities[roomIndex][entityIndex]);
+                    sourceRooms.add(rooms.get(roomIndex));
+                    targetRooms.add(targetRoom);
+                }
+            }
+        }
+
+        for (int i = 0; i < movingEntities.size(); i++) {
+            sourceRooms.get(i).getEntitiesInRoom().remove(movingEntities.get(i));
+            targetRooms.get(i).getEntitiesInRoom().add(movingEntities.get(i));
+        }
+
+        return movingEntities.size();
+    }
+
+    /**
+     * Evaluates the behaviours of all entities in a range of rooms and splits itself up if the range is too large.
+     */
+    private static class EvaluationTask extends RecursiveAction {
+        private final List<Room> rooms;
+        private final int move;
+        private final Entity[][] entities;
+        private final WalkDirection[][] intents;
+        private final int fromIndex;
+        private final int toIndex;
+
+        EvaluationTask(List<Room> rooms, int move, Entity[][] entities, WalkDirection[][] intents, int fromIndex, int toIndex) {
+            this.rooms = rooms;
+            this.move = move;
+            this.entities = entities;
+            this.intents = intents;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > roomsPerTask && getPool() != null) {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new EvaluationTask(rooms, move, entities, intents, fromIndex, middle),
+                        new EvaluationTask(rooms, move, entities, intents, middle, toIndex));
+                return;
+            }
+
+            for (int roomIndex = fromIndex; roomIndex < toIndex; roomIndex++) {
+                Room room = rooms.get(roomIndex);
+                // copy as the list is modified in phase 2
+                Entity[] entitiesInRoom = room.getEntitiesInRoom().toArray(new Entity[0]);
+                WalkDirection[] intentsInRoom = new WalkDirection[entitiesInRoom.length];
+                for (int entityIndex = 0; entityIndex < entitiesInRoom.length; entityIndex++) {
+                    Entity entity = entitiesInRoom[entityIndex];
+                    if (entity.isActive()) {
+                        intentsInRoom[entityIndex] = entity.getBehavior().update(entity, room, move);
+                    }
+                }
+                entities[roomIndex] = entitiesInRoom;
+                intents[roomIndex] = intentsInRoom;
+            }
+        }
+    }
+}
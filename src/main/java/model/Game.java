@@ -23,10 +23,17 @@ package model;
 
 import com.github.vatbub.common.core.Common;
 import com.github.vatbub.common.core.logging.FOKLogger;
+import common.LazyLogger;
+import common.MetricsRegistry;
+import common.Timer;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.value.ChangeListener;
 import org.jetbrains.annotations.NotNull;
+import parser.CommandGenerator;
+import parser.Verb;
+import parser.Vocabulary;
+import parser.Word;
 import view.GameMessage;
 
 import java.io.*;
@@ -40,6 +47,15 @@ import java.util.logging.Level;
  */
 @SuppressWarnings("unused")
 public class Game implements Serializable {
+    /**
+     * Fixed to the value computed for the first release so that saves of older versions can still be loaded. Only
+     * change it if the save format becomes incompatible.
+     */
+    private static final long serialVersionUID = -2170555850628040738L;
+
+    private static final LazyLogger logger = new LazyLogger(Game.class);
+    private static final Timer saveTimer = MetricsRegistry.getDefault().timer("game.save");
+    private static final Timer loadTimer = MetricsRegistry.getDefault().timer("game.load");
 
     /**
      * The app version that was used when the game was saved.
@@ -52,6 +68,7 @@ public class Game implements Serializable {
     private int score;
     private int moveCount;
     private List<GameMessage> messages;
+    private GameScheduler scheduler;
 
     /**
      * If the game was loaded from a file, this specifies the file it was loaded from. {@code null} if the game was not loaded from a file.
@@ -67,6 +84,25 @@ public class Game implements Serializable {
 
     private transient RoomMap.ChangeListener roomMapModificationListener;
 
+    /**
+     * Dispatch table for the actions of this game. Filled by {@link #registerActions()} when the game is created or loaded.
+     */
+    private transient ActionRegistry actionRegistry;
+
+    private transient EntitySimulation entitySimulation;
+
+    private transient InterestManager interestManager;
+
+    /**
+     * The verbs that the player can use in this game. Not saved, games always use the current vocabulary.
+     */
+    private transient List<Verb> verbs;
+
+    /**
+     * Generates the commands for {@link #getVerbs()}, rebuilt when the verbs change
+     */
+    private transient CommandGenerator commandGenerator;
+
     public Game() {
         this(new Room());
     }
@@ -97,7 +133,7 @@ public class Game implements Serializable {
                 roomQueue.add(this.getCurrentRoom());
                 while (!roomQueue.isEmpty()) {
                     Room room = roomQueue.remove();
-                    System.out.println(room.getName());
+                    logger.finest(() -> "Resetting the modified flag of " + room.getName());
                     room.setModified(false);
                     for (Map.Entry<WalkDirection, Room> entry : room.getAdjacentRooms().entrySet()) {
                         if (entry.getValue().isModified()) {
@@ -113,6 +149,7 @@ public class Game implements Serializable {
         this.setScore(score);
         this.setPlayer(player);
         this.setCurrentRoom(currentRoom);
+        registerActions();
     }
 
     /**
@@ -141,13 +178,16 @@ public class Game implements Serializable {
      */
     public static Game load(@NotNull File saveFile) throws IOException, ClassNotFoundException {
         Objects.requireNonNull(saveFile);
+        long start = System.nanoTime();
 
-        FileInputStream fileIn = new FileInputStream(saveFile);
-        ObjectInputStream objIn = new ObjectInputStream(fileIn);
-
-        Game res = (Game) objIn.readObject();
+        Game res;
+        try (ObjectInputStream objIn = new ObjectInputStream(new BufferedInputStream(new FileInputStream(saveFile)))) {
+            res = (Game) objIn.readObject();
+        }
         res.setFileSource(saveFile);
         res.getCurrentRoom().setIsCurrentRoom(true);
+        res.registerActions();
+        loadTimer.recordSince(start);
         return res;
     }
 
@@ -155,7 +195,7 @@ public class Game implements Serializable {
         if (roomModificationListener == null) {
             roomModificationListener = ((observable, oldValue, newValue) -> {
                 if (newValue) {
-                    System.out.println("Room was modified");
+                    logger.finest("Room was modified");
                     setModified(true);
                 }
             });
@@ -165,7 +205,7 @@ public class Game implements Serializable {
             roomMapModificationListener = new RoomMap.ChangeListener() {
                 @Override
                 public void removed(WalkDirection key, Room value) {
-                    FOKLogger.finest(Game.class.getName(), "Adjacent room was removed");
+                    logger.finest("Adjacent room was removed");
                     if (value != null) {
                         value.modifiedProperty().removeListener(roomModificationListener);
                         if (value.getAdjacentRooms().getChangeListenerList().contains(roomMapModificationListener)) {
@@ -176,7 +216,7 @@ public class Game implements Serializable {
 
                 @Override
                 public void added(WalkDirection key, Room value) {
-                    FOKLogger.finest(Game.class.getName(), "Adjacent room was added");
+                    logger.finest("Adjacent room was added");
                     value.modifiedProperty().removeListener(roomModificationListener);
                     value.modifiedProperty().addListener(roomModificationListener);
                     if (!value.getAdjacentRooms().getChangeListenerList().contains(roomMapModificationListener)) {
@@ -186,7 +226,7 @@ public class Game implements Serializable {
 
                 @Override
                 public void replaced(WalkDirection key, Room oldValue, Room newValue) {
-                    FOKLogger.finest(Game.class.getName(), "Adjacent room was replaced");
+                    logger.finest("Adjacent room was replaced");
                     newValue.modifiedProperty().removeListener(roomModificationListener);
                     newValue.modifiedProperty().addListener(roomModificationListener);
                     if (!newValue.getAdjacentRooms().getChangeListenerList().contains(roomMapModificationListener)) {
@@ -197,13 +237,236 @@ public class Game implements Serializable {
         }
     }
 
+    /**
+     * The verbs that the player can use in this game. Defaults to {@link Vocabulary#createDefaultVerbs()}.
+     *
+     * @return The verbs of this game
+     */
+    public List<Verb> getVerbs() {
+        if (verbs == null) {
+            verbs = Vocabulary.createDefaultVerbs();
+        }
+        return verbs;
+    }
+
+    public void setVerbs(List<Verb> verbs) {
+        this.verbs = verbs;
+        if (commandGenerator != null) {
+            commandGenerator.dispose();
+            commandGenerator = null;
+        }
+    }
+
+    /**
+     * The generator for the commands that the player can use in the rooms of this game, built from {@link #getVerbs()}
+     *
+     * @return The command generator of this game
+     */
+    public CommandGenerator getCommandGenerator() {
+        if (commandGenerator == null) {
+            commandGenerator = new CommandGenerator(getVerbs());
+        }
+        return commandGenerator;
+    }
+
+    public ActionRegistry getActionRegistry() {
+        if (actionRegistry == null) {
+            actionRegistry = new ActionRegistry();
+        }
+        return actionRegistry;
+    }
+
+    /**
+     * Registers the actions of all {@link #getVerbs()}, of all items in the inventory of the player and in all rooms that
+     * can be reached from the current room in the {@link #getActionRegistry()} so that their handles are resolved before
+     * the first command is dispatched. Called when the game is created or loaded, call it again after adding items with new actions.
+     */
+    public void registerActions() {
+        for (Verb verb : getVerbs()) {
+            getActionRegistry().registerAll(verb);
+        }
+
+        if (getPlayer() != null && getPlayer().getInventory() != null) {
+            for (Item item : getPlayer().getInventory()) {
+                getActionRegistry().registerAll(item);
+            }
+        }
+
+        Set<Room> visitedRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        LinkedList<Room> roomQueue = new LinkedList<>();
+        roomQueue.add(this.getCurrentRoom());
+        visitedRooms.add(this.getCurrentRoom());
+        while (!roomQueue.isEmpty()) {
+            Room room = roomQueue.remove();
+            for (Item item : room.getItemsInRoom()) {
+                getActionRegistry().registerAll(item);
+            }
+            for (Room adjacentRoom : room.getAdjacentRooms().values()) {
+                if (visitedRooms.add(adjacentRoom)) {
+                    roomQueue.add(adjacentRoom);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the command that the player typed. The first word selects one of the {@link #getVerbs()}, an optional
+     * second word is bound to a matching item in the current room or the inventory, an entity in the current room or
+     * a {@link WalkDirection}. The action of the verb is dispatched through the {@link #getActionRegistry()} using the
+     * handle that is cached on the verb.
+     *
+     * @param command The command that the player typed
+     * @return {@code true} if an action was executed, {@code false} if the command does not match a verb with a registered action
+     */
+    public boolean executeCommand(@NotNull String command) {
+        Objects.requireNonNull(command);
+        String[] words = command.trim().split("\\s+", 2);
+        Verb verb = findVerb(words[0]);
+        if (verb == null) {
+            return false;
+        }
+        int handle = verb.getActionHandle(getActionRegistry());
+        if (handle < 0) {
+            return false;
+        }
+
+        ActionContext context = getActionRegistry().getContext().setGame(this).setRoom(getCurrentRoom());
+        if (words.length > 1) {
+            String object = words[1];
+            context.setItem(findItem(object)).setEntity(findEntity(object)).setDirection(findDirection(object));
+        }
+        getActionRegistry().execute(handle, context);
+        return true;
+    }
+
+    private Verb findVerb(String word) {
+        for (Verb verb : getVerbs()) {
+            if (matches(verb, word)) {
+                return verb;
+            }
+        }
+        return null;
+    }
+
+    private Item findItem(String word) {
+        if (getCurrentRoom() != null) {
+            for (Item item : getCurrentRoom().getItemsInRoom()) {
+                if (matches(item.getName(), word)) {
+                    return item;
+                }
+            }
+        }
+        if (getPlayer() != null && getPlayer().getInventory() != null) {
+            for (Item item : getPlayer().getInventory()) {
+                if (matches(item.getName(), word)) {
+                    return item;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Entity findEntity(String word) {
+        if (getCurrentRoom() != null) {
+            for (Entity entity : getCurrentRoom().getEntitiesInRoom()) {
+                if (matches(entity.getName(), word)) {
+                    return entity;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static WalkDirection findDirection(String word) {
+        for (WalkDirection direction : WalkDirection.values()) {
+            if (direction.toString().replace('_', ' ').equalsIgnoreCase(word)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(Word word, String typedWord) {
+        if (word == null || word.getWord() == null) {
+            return false;
+        }
+        if (word.getWord().equalsIgnoreCase(typedWord)) {
+            return true;
+        }
+        if (word.getSynonyms() != null) {
+            for (String synonym : word.getSynonyms()) {
+                if (synonym.equalsIgnoreCase(typedWord)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public int getMoveCount() {
         return moveCount;
     }
 
+    /**
+     * Sets the move count. For every move between the previous and the new move count, the entities around the
+     * current room are simulated using the {@link #getInterestManager()} and the {@link GameEvent}s of the {@link #getScheduler()} that are due in that move are fired.
+     *
+     * @param moveCount The new move count
+     */
     public void setMoveCount(int moveCount) {
+        int previousMoveCount = this.moveCount;
         this.moveCount = moveCount;
         setModified(true);
+
+        if (getCurrentRoom() != null && moveCount > previousMoveCount) {
+            for (int move = previousMoveCount + 1; move <= moveCount; move++) {
+                getInterestManager().step(this, move);
+                getScheduler().advanceTo(this, move);
+            }
+        } else {
+            getScheduler().advanceTo(this, moveCount);
+        }
+    }
+
+    public InterestManager getInterestManager() {
+        if (interestManager == null) {
+            interestManager = new InterestManager();
+        }
+        return interestManager;
+    }
+
+    public void setInterestManager(InterestManager interestManager) {
+        this.interestManager = interestManager;
+    }
+
+    public EntitySimulation getEntitySimulation() {
+        if (entitySimulation == null) {
+            entitySimulation = new EntitySimulation();
+        }
+        return entitySimulation;
+    }
+
+    /**
+     * Sets the simulation used for entities. Use {@code new EntitySimulation(null)} to simulate on the calling thread only.
+     *
+     * @param entitySimulation The simulation to use
+     */
+    public void setEntitySimulation(EntitySimulation entitySimulation) {
+        this.entitySimulation = entitySimulation;
+    }
+
+    /**
+     * The scheduler for timed events in this game. It is saved together with the game.
+     *
+     * @return The scheduler of this game
+     */
+    public GameScheduler getScheduler() {
+        if (scheduler == null) {
+            // games saved with older versions don't have a scheduler
+            scheduler = new GameScheduler();
+            scheduler.advanceTo(this, moveCount);
+        }
+        return scheduler;
     }
 
     public int getScore() {
@@ -244,6 +507,18 @@ public class Game implements Serializable {
         setModified(true);
     }
 
+    /**
+     * Moves the player into the specified room as part of the game. Unlike {@link #setCurrentRoom(Room)}, which is also
+     * used by the editor, this brings the entities in the frozen rooms around the new current room up to date (see {@link InterestManager#refresh(Game)}).
+     *
+     * @param room The room that the player enters
+     */
+    public void enterRoom(@NotNull Room room) {
+        Objects.requireNonNull(room);
+        setCurrentRoom(room);
+        getInterestManager().refresh(this);
+    }
+
     public List<GameMessage> getMessages() {
         return messages;
     }
@@ -360,11 +635,11 @@ public class Game implements Serializable {
         }
 
         // Serialize this object at the given file
-        FileOutputStream fileOut = new FileOutputStream(fileToSave);
-        ObjectOutputStream objOut = new ObjectOutputStream(fileOut);
-        objOut.writeObject(this);
-        objOut.close();
-        fileOut.close();
+        long start = System.nanoTime();
+        try (ObjectOutputStream objOut = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(fileToSave)))) {
+            objOut.writeObject(this);
+        }
+        saveTimer.recordSince(start);
 
         this.setFileSource(fileToSave);
         this.setModified(false);
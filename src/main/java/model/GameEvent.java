@@ -0,0 +1,38 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.Serializable;
+
+/**
+ * Something that happens in the {@link Game} at a certain move like a lamp burning out or a troll respawning.
+ * Events are scheduled using {@link GameScheduler} and saved together with the game, so implementations must be serializable.
+ */
+@FunctionalInterface
+public interface GameEvent extends Serializable {
+    /**
+     * Called when the move count of the game reaches the move this event was scheduled for.
+     *
+     * @param game The game this event happens in
+     */
+    void fire(Game game);
+}
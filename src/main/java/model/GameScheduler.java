@@ -0,0 +1,152 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Schedules {@link GameEvent}s by move count. Pending events are kept in a priority queue ordered by the move they are
+ * due in, so advancing the move count only touches the events that are actually due instead of scanning every entity.<br>
+ * Events that are due in the same move fire in the order they were scheduled in, which keeps replays deterministic.
+ * The scheduler is saved together with the {@link Game}.
+ */
+public class GameScheduler implements Serializable {
+    /**
+     * Fixed to the value computed for the first release of the scheduler so that saves with pending events can still
+     * be loaded. Only change it if the save format becomes incompatible.
+     */
+    private static final long serialVersionUID = -3665364333051201779L;
+    private final PriorityQueue<ScheduledEvent> pendingEvents = new PriorityQueue<>();
+    /**
+     * Used to break ties between events that are due in the same move
+     */
+    private long nextSequenceNumber;
+    private int currentMove;
+
+    /**
+     * Schedules the specified event for the specified move.
+     *
+     * @param dueMove The move count at which the event shall fire. If the move has already passed, the event fires on the next call to {@link #advanceTo(Game, int)}.
+     * @param event   The event to schedule
+     * @return A handle that can be used to cancel the event
+     */
+    public ScheduledEvent schedule(int dueMove, @NotNull GameEvent event) {
+        Objects.requireNonNull(event);
+        ScheduledEvent res = new ScheduledEvent(dueMove, nextSequenceNumber++, event);
+        pendingEvents.add(res);
+        return res;
+    }
+
+    /**
+     * Schedules the specified event relative to the current move.
+     *
+     * @param moves The number of moves from now at which the event shall fire
+     * @param event The event to schedule
+     * @return A handle that can be used to cancel the event
+     */
+    public ScheduledEvent scheduleIn(int moves, @NotNull GameEvent event) {
+        return schedule(currentMove + moves, event);
+    }
+
+    /**
+     * Fires all events that are due up to and including the specified move. Events that are scheduled by a fired event
+     * for a move that is already due fire in the same call.
+     *
+     * @param game     The game to pass to the events
+     * @param moveCount The new move count
+     */
+    public void advanceTo(Game game, int moveCount) {
+        currentMove = moveCount;
+        ScheduledEvent next;
+        while ((next = pendingEvents.peek()) != null && next.getDueMove() <= moveCount) {
+            pendingEvents.poll();
+            if (!next.isCancelled()) {
+                next.getEvent().fire(game);
+            }
+        }
+    }
+
+    public int getCurrentMove() {
+        return currentMove;
+    }
+
+    /**
+     * Returns the number of pending events including events that were cancelled but not removed yet
+     *
+     * @return The number of pending events
+     */
+    public int getPendingEventCount() {
+        return pendingEvents.size();
+    }
+
+    /**
+     * An event together with the move it is due in.
+     */
+    public static class ScheduledEvent implements Serializable, Comparable<ScheduledEvent> {
+        /**
+         * Fixed for the same reason as {@link GameScheduler#serialVersionUID}
+         */
+        private static final long serialVersionUID = 945571781385206984L;
+        private final int dueMove;
+        private final long sequenceNumber;
+        private final GameEvent event;
+        private boolean cancelled;
+
+        private ScheduledEvent(int dueMove, long sequenceNumber, GameEvent event) {
+            this.dueMove = dueMove;
+            this.sequenceNumber = sequenceNumber;
+            this.event = event;
+        }
+
+        public int getDueMove() {
+            return dueMove;
+        }
+
+        public GameEvent getEvent() {
+            return event;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Cancels this event. Cancelled events stay in the queue until they are due and are then dropped without firing.
+         */
+        public void cancel() {
+            this.cancelled = true;
+        }
+
+        @Override
+        public int compareTo(@NotNull ScheduledEvent o) {
+            int res = Integer.compare(dueMove, o.dueMove);
+            if (res != 0) {
+                return res;
+            }
+            return Long.compare(sequenceNumber, o.sequenceNumber);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Decides which rooms are simulated by the {@link EntitySimulation} based on their distance to the current room of the {@link Game}.
+ * The distance is measured in hops in the room graph and splits the rooms into three tiers:
+ * <ul>
+ * <li>{@link Tier#ACTIVE}: Entities are fully simulated and may walk into other active or near rooms.</li>
+ * <li>{@link Tier#NEAR}: Entities are updated every move but stay in their room.</li>
+ * <li>{@link Tier#FROZEN}: Entities are not simulated at all. Once the room becomes active or near again, its entities
+ * are fast-forwarded by the moves that elapsed since the room was simulated the last time (see {@link Room#getLastSimulatedMove()}).</li>
+ * </ul>
+ * A room that comes into interest for the first time starts at the current move, there are no elapsed moves to catch up on.
+ * Only rooms within {@link #getNearRadius()} hops are visited, so the cost per move does not depend on the size of the world.
+ */
+public class InterestManager {
+    private final int activeRadius;
+    private final int nearRadius;
+    private final int maxFastForwardMoves;
+    private final List<Room> interestingRooms = new ArrayList<>();
+    private final Set<Room> activeRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Room> interestingRoomSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Room, Integer> distances = new IdentityHashMap<>();
+
+    public InterestManager() {
+        this(2, 4, 100);
+    }
+
+    /**
+     * @param activeRadius        The maximum distance in hops of active rooms
+     * @param nearRadius          The maximum distance in hops of near rooms
+     * @param maxFastForwardMoves The maximum number of moves that a frozen room is fast-forwarded by. Older moves are skipped.
+     */
+    public InterestManager(int activeRadius, int nearRadius, int maxFastForwardMoves) {
+        if (activeRadius < 0 || nearRadius < activeRadius) {
+            throw new IllegalArgumentException("Radii must satisfy 0 <= activeRadius <= nearRadius");
+        }
+        this.activeRadius = activeRadius;
+        this.nearRadius = nearRadius;
+        this.maxFastForwardMoves = maxFastForwardMoves;
+    }
+
+    public int getActiveRadius() {
+        return activeRadius;
+    }
+
+    public int getNearRadius() {
+        return nearRadius;
+    }
+
+    public int getMaxFastForwardMoves() {
+        return maxFastForwardMoves;
+    }
+
+    /**
+     * Returns the tier of the specified room as of the last call to {@link #refresh(Game)} or {@link #step(Game, int)}.
+     *
+     * @param room The room to get the tier of
+     * @return The tier of the specified room
+     */
+    public Tier getTier(Room room) {
+        Integer distance = distances.get(room);
+        if (distance == null) {
+            return Tier.FROZEN;
+        } else if (distance <= activeRadius) {
+            return Tier.ACTIVE;
+        } else {
+            return Tier.NEAR;
+        }
+    }
+
+    /**
+     * Returns the active and near rooms as of the last call to {@link #refresh(Game)} or {@link #step(Game, int)} in breadth first order.
+     *
+     * @return The active and near rooms
+     */
+    public List<Room> getInterestingRooms() {
+        return Collections.unmodifiableList(interestingRooms);
+    }
+
+    /**
+     * Recomputes the tiers around the current room of the specified game and fast-forwards all rooms that were frozen
+     * and are now active or near to the current move count of the game. Call this when the player enters another room.
+     *
+     * @param game The game to refresh the tiers for
+     */
+    public void refresh(@NotNull Game game) {
+        Objects.requireNonNull(game);
+        updateTiers(game.getCurrentRoom());
+        fastForward(game.getEntitySimulation(), game.getMoveCount());
+    }
+
+    /**
+     * Simulates the specified move for all active and near rooms.
+     *
+     * @param game The game to simulate
+     * @param move The move to simulate
+     * @return The number of entities that changed their room
+     */
+    public int step(@NotNull Game game, int move) {
+        Objects.requireNonNull(game);
+        updateTiers(game.getCurrentRoom());
+        fastForward(game.getEntitySimulation(), move - 1);
+
+        int res = game.getEntitySimulation().step(interestingRooms, move, activeRooms, interestingRoomSet);
+        for (Room room : interestingRooms) {
+            room.setLastSimulatedMove(move);
+        }
+        return res;
+    }
+
+    /**
+     * Bounded breadth first search around the current room. Neighbours are visited in the order of {@link WalkDirection#values()}.
+     */
+    private void updateTiers(Room currentRoom) {
+        interestingRooms.clear();
+        activeRooms.clear();
+        interestingRoomSet.clear();
+        distances.clear();
+
+        if (currentRoom == null) {
+            return;
+        }
+
+        interestingRooms.add(currentRoom);
+        distances.put(currentRoom, 0);
+        // interestingRooms doubles as the queue
+        for (int i = 0; i < interestingRooms.size(); i++) {
+            Room room = interestingRooms.get(i);
+            int distance = distances.get(room);
+            if (distance <= activeRadius) {
+                activeRooms.add(room);
+            }
+            if (distance == nearRadius) {
+                continue;
+            }
+
+            RoomMap adjacentRooms = room.getAdjacentRooms();
+            for (WalkDirection direction : WalkDirection.values()) {
+                Room adjacentRoom = adjacentRooms.get(direction);
+                if (adjacentRoom != null && !distances.containsKey(adjacentRoom)) {
+                    distances.put(adjacentRoom, distance + 1);
+                    interestingRooms.add(adjacentRoom);
+                }
+            }
+        }
+
+        interestingRoomSet.addAll(interestingRooms);
+    }
+
+    /**
+     * Simulates all interesting rooms that are behind the specified move in isolation until they reach that move.
+     */
+    private void fastForward(EntitySimulation simulation, int targetMove) {
+        List<Room> singleRoom = new ArrayList<>(1);
+        singleRoom.add(null);
+        Set<Room> noRooms = Collections.emptySet();
+
+        for (Room room : interestingRooms) {
+            if (room.getLastSimulatedMove() < 0) {
+                // first time of interest
+                room.setLastSimulatedMove(targetMove);
+                continue;
+            }
+            if (room.getLastSimulatedMove() >= targetMove) {
+                continue;
+            }
+
+            if (!room.getEntitiesInRoom().isEmpty()) {
+                singleRoom.set(0, room);
+                int firstMove = Math.max(room.getLastSimulatedMove() + 1, targetMove - maxFastForwardMoves + 1);
+                for (int move = firstMove; move <= targetMove; move++) {
+                    simulation.step(singleRoom, move, noRooms, noRooms);
+                }
+            }
+            room.setLastSimulatedMove(targetMove);
+        }
+    }
+
+    /**
+     * The simulation tiers
+     */
+    public enum Tier {
+        ACTIVE, NEAR, FROZEN
+    }
+}
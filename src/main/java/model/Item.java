@@ -21,20 +21,33 @@ package model;
  */
 
 
+import org.jetbrains.annotations.NotNull;
 import parser.Noun;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Any item in the game that can be placed in a {@link Room} or in the {@link Player}{@code s} inventory
  */
 @SuppressWarnings("unused")
 public class Item implements Serializable {
+    private static final long serialVersionUID = 758257796577851738L;
     private Noun name;
     private String description;
 
     private List<Action> actions;
+    /**
+     * The handles of {@link #actions} in {@link #actionHandlesRegistry}, resolved lazily
+     */
+    private transient int[] actionHandles;
+    private transient ActionRegistry actionHandlesRegistry;
+    /**
+     * The size of {@link #actionHandlesRegistry} when {@link #actionHandles} were resolved. Actions are never
+     * unregistered, so the handles only need to be resolved again if the registry grew.
+     */
+    private transient int actionHandlesRegistrySize;
 
     public Noun getName() {
         return name;
@@ -50,6 +63,31 @@ public class Item implements Serializable {
 
     public void setActions(List<Action> actions) {
         this.actions = actions;
+        this.actionHandles = null;
+    }
+
+    /**
+     * Returns the handles of the actions of this item in the specified registry. The handles are cached until
+     * {@link #setActions(List)} is called, another registry is passed or further actions were registered.
+     *
+     * @param registry The registry to resolve the handles in
+     * @return The handles of the actions of this item, {@code -1} for actions that are not registered in {@code registry}.
+     */
+    public int[] getActionHandles(@NotNull ActionRegistry registry) {
+        Objects.requireNonNull(registry);
+        if (actionHandles == null || actionHandlesRegistry != registry || actionHandlesRegistrySize != registry.size()) {
+            if (actions == null) {
+                actionHandles = new int[0];
+            } else {
+                actionHandles = new int[actions.size()];
+                for (int i = 0; i < actions.size(); i++) {
+                    actionHandles[i] = registry.getHandle(actions.get(i));
+                }
+            }
+            actionHandlesRegistry = registry;
+            actionHandlesRegistrySize = registry.size();
+        }
+        return actionHandles;
     }
 
     public String getDescription() {
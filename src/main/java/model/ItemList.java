@@ -21,6 +21,9 @@ package model;
  */
 
 
+import common.Histogram;
+import common.MetricsRegistry;
+
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +33,11 @@ import java.util.List;
  * A list of {@link Item}s
  */
 public class ItemList extends ArrayList<Item> implements Serializable {
+    private static final long serialVersionUID = 1887286133627328140L;
+    /**
+     * The number of listeners that are notified per change
+     */
+    private static final Histogram listenerFanOut = MetricsRegistry.getDefault().histogram("model.itemList.listenerFanOut", "listeners");
     private transient List<ChangeListener> changeListenerList;
 
     public ItemList() {
@@ -50,14 +58,25 @@ public class ItemList extends ArrayList<Item> implements Serializable {
 
     @Override
     public Item set(int index, Item element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.replaced(index, this.get(index), element);
         }
         return super.set(index, element);
     }
 
+    @Override
+    public boolean add(Item element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
+        for (ChangeListener changeListener : this.getChangeListenerList()) {
+            changeListener.added(this.size(), element);
+        }
+        return super.add(element);
+    }
+
     @Override
     public void add(int index, Item element) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.added(index, element);
         }
@@ -66,6 +85,7 @@ public class ItemList extends ArrayList<Item> implements Serializable {
 
     @Override
     public Item remove(int index) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed(this.get(index));
         }
@@ -74,6 +94,7 @@ public class ItemList extends ArrayList<Item> implements Serializable {
 
     @Override
     public boolean remove(Object o) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed((Item) o);
         }
@@ -24,16 +24,23 @@ package model;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.io.*;
+import java.util.*;
 
 /**
- * Represents a room in the {@link Game}
+ * Represents a room in the {@link Game}<br>
+ * Rooms do not serialize their adjacent rooms themselves, as Java serialization would recurse once per room along a
+ * path and overflow the stack for large maps. Instead, the first room of a map that is written writes all rooms that
+ * can be reached from it one after another and then the connections as a list of room indices. Saves of older versions
+ * that contain the {@link RoomMap}s are still read.
  */
 @SuppressWarnings("unused")
 public class Room implements Serializable {
+    private static final long serialVersionUID = 4876884945096149247L;
+    /**
+     * The map that is currently written on this thread, see {@link #writeObject(ObjectOutputStream)}
+     */
+    private static final ThreadLocal<GraphWriteContext> graphWriteContext = new ThreadLocal<>();
     private String description;
     private String name;
     private transient Runnable nameChangeListener;
@@ -41,6 +48,11 @@ public class Room implements Serializable {
     private ItemList itemsInRoom;
     private EntityList entitiesInRoom;
     private RoomMap adjacentRooms;
+    /**
+     * The last move that the entities in this room were simulated for or {@code null} if the room was never of
+     * interest yet (also the case for rooms in saves of older versions), see {@link InterestManager}
+     */
+    private Integer lastSimulatedMove;
     private transient BooleanProperty isCurrentRoom;
     /**
      * {@code true} if this game was modified since the last save, {@code false} otherwise
@@ -346,6 +358,22 @@ public class Room implements Serializable {
         return isCurrentRoom;
     }
 
+    /**
+     * Returns the last move that the entities in this room were simulated for.
+     *
+     * @return The last simulated move or {@code -1} if the room was never of interest for the {@link InterestManager} yet
+     */
+    public int getLastSimulatedMove() {
+        if (lastSimulatedMove == null) {
+            return -1;
+        }
+        return lastSimulatedMove;
+    }
+
+    public void setLastSimulatedMove(int lastSimulatedMove) {
+        this.lastSimulatedMove = lastSimulatedMove;
+    }
+
     public Runnable getNameChangeListener() {
         return nameChangeListener;
     }
@@ -353,4 +381,131 @@ public class Room implements Serializable {
     public void setNameChangeListener(Runnable nameChangeListener) {
         this.nameChangeListener = nameChangeListener;
     }
+
+    /**
+     * Writes the fields of this room. The adjacent rooms are written as {@code null}. If no other room is being written
+     * on this thread, this room writes the map: every room that is reached from it, including rooms that are only
+     * referenced by items or entities and their maps, followed by the connections of all these rooms.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        GraphWriteContext context = graphWriteContext.get();
+        boolean writesGraph = context == null;
+        if (writesGraph) {
+            context = new GraphWriteContext();
+            graphWriteContext.set(context);
+        }
+
+        try {
+            context.add(this);
+            ObjectOutputStream.PutField fields = out.putFields();
+            fields.put("description", description);
+            fields.put("name", name);
+            fields.put("detailsTold", detailsTold);
+            fields.put("itemsInRoom", itemsInRoom);
+            fields.put("entitiesInRoom", entitiesInRoom);
+            fields.put("adjacentRooms", null);
+            fields.put("lastSimulatedMove", lastSimulatedMove);
+            out.writeFields();
+            out.writeBoolean(writesGraph);
+            if (writesGraph) {
+                writeGraph(out, context);
+            }
+        } finally {
+            if (writesGraph) {
+                graphWriteContext.remove();
+            }
+        }
+    }
+
+    private static void writeGraph(ObjectOutputStream out, GraphWriteContext context) throws IOException {
+        // writing a room might reference rooms that are not connected to the rooms so far, so the rooms are written one by one
+        int nextRoomToWrite = 1;
+        int nextRoomToExpand = 0;
+        while (true) {
+            while (nextRoomToExpand < context.rooms.size()) {
+                for (Room adjacentRoom : context.rooms.get(nextRoomToExpand).getAdjacentRooms().values()) {
+                    context.add(adjacentRoom);
+                }
+                nextRoomToExpand++;
+            }
+            if (nextRoomToWrite == context.rooms.size()) {
+                break;
+            }
+            out.writeBoolean(true);
+            out.writeObject(context.rooms.get(nextRoomToWrite));
+            nextRoomToWrite++;
+        }
+        out.writeBoolean(false);
+
+        out.writeInt(context.rooms.size());
+        for (Room room : context.rooms) {
+            out.writeInt(room.getAdjacentRooms().size());
+            for (Map.Entry<WalkDirection, Room> exit : room.getAdjacentRooms().entrySet()) {
+                out.writeObject(exit.getKey());
+                out.writeInt(context.indices.get(exit.getValue()));
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        description = (String) fields.get("description", null);
+        name = (String) fields.get("name", null);
+        detailsTold = fields.get("detailsTold", false);
+        itemsInRoom = (ItemList) fields.get("itemsInRoom", null);
+        entitiesInRoom = (EntityList) fields.get("entitiesInRoom", null);
+        adjacentRooms = (RoomMap) fields.get("adjacentRooms", null);
+        lastSimulatedMove = (Integer) fields.get("lastSimulatedMove", null);
+        if (adjacentRooms != null) {
+            // saved with an older version that serialized the maps
+            return;
+        }
+
+        adjacentRooms = new RoomMap(WalkDirection.values().length);
+        if (in.readBoolean()) {
+            readGraph(in, this);
+        }
+    }
+
+    private static void readGraph(ObjectInputStream in, Room firstRoom) throws IOException, ClassNotFoundException {
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(firstRoom);
+        while (in.readBoolean()) {
+            rooms.add((Room) in.readObject());
+        }
+
+        if (in.readInt() != rooms.size()) {
+            throw new InvalidObjectException("The number of rooms does not match the number of connection lists");
+        }
+        for (Room room : rooms) {
+            int exitCount = in.readInt();
+            for (int i = 0; i < exitCount; i++) {
+                WalkDirection direction = (WalkDirection) in.readObject();
+                int adjacentRoomIndex = in.readInt();
+                if (adjacentRoomIndex < 0 || adjacentRoomIndex >= rooms.size()) {
+                    throw new InvalidObjectException("Invalid room index: " + adjacentRoomIndex);
+                }
+                Room adjacentRoom = rooms.get(adjacentRoomIndex);
+                // rooms that are reached from several written maps are linked by each of them
+                if (room.adjacentRooms.get(direction) != adjacentRoom) {
+                    room.adjacentRooms.put(direction, adjacentRoom);
+                }
+            }
+        }
+    }
+
+    /**
+     * The rooms of the map that is currently written, in the order in which they are written
+     */
+    private static class GraphWriteContext {
+        private final List<Room> rooms = new ArrayList<>();
+        private final Map<Room, Integer> indices = new IdentityHashMap<>();
+
+        void add(Room room) {
+            if (!indices.containsKey(room)) {
+                indices.put(room, rooms.size());
+                rooms.add(room);
+            }
+        }
+    }
 }
@@ -0,0 +1,213 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Writes the names, descriptions and connections of all rooms that can be reached from a room to a text file in one of
+ * the {@link RoomFileFormat}s. The rooms are written while the room graph is traversed, so apart from the ids of the
+ * visited rooms nothing is buffered. Items and entities are not exported.<br>
+ * The start room always gets the id {@code 0} and is the first room in the file, so the {@link RoomImporter} can use it
+ * as the current room again.
+ *
+ * @see RoomImporter
+ */
+public class RoomExporter {
+    /**
+     * Exports all rooms that can be reached from the specified room to the specified file. The format is determined
+     * using {@link RoomFileFormat#fromFile(File)}.
+     *
+     * @param startRoom The room to start at
+     * @param file      The file to write to. Will be overwritten if it exists.
+     * @return The number of exported rooms
+     * @throws IOException If the file cannot be written
+     */
+    public static int export(@NotNull Room startRoom, @NotNull File file) throws IOException {
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            return export(startRoom, writer, RoomFileFormat.fromFile(file));
+        }
+    }
+
+    /**
+     * Exports all rooms that can be reached from the specified room to the specified writer. The writer is flushed but not closed.
+     *
+     * @param startRoom The room to start at
+     * @param writer    The writer to write to
+     * @param format    The format to write
+     * @return The number of exported rooms
+     * @throws IOException If the writer throws an {@link IOException}
+     */
+    public static int export(@NotNull Room startRoom, @NotNull Writer writer, @NotNull RoomFileFormat format) throws IOException {
+        Objects.requireNonNull(startRoom);
+        Objects.requireNonNull(writer);
+        Objects.requireNonNull(format);
+
+        Writer out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer, 1 << 16);
+        Map<Room, Integer> ids = new IdentityHashMap<>();
+        Deque<Room> roomQueue = new ArrayDeque<>();
+        ids.put(startRoom, 0);
+        roomQueue.add(startRoom);
+
+        if (format == RoomFileFormat.JSON) {
+            out.write("{\"rooms\":[");
+        } else {
+            out.write("# room,<id>,<name>,<description>\n# path,<fromId>,<direction>,<toId>\n");
+        }
+
+        int roomCount = 0;
+        while (!roomQueue.isEmpty()) {
+            Room room = roomQueue.remove();
+            int id = ids.get(room);
+
+            if (format == RoomFileFormat.JSON) {
+                if (roomCount > 0) {
+                    out.write(',');
+                }
+                out.write("\n{\"id\":");
+                out.write(Integer.toString(id));
+                out.write(",\"name\":");
+                writeJsonString(out, room.getName());
+                out.write(",\"description\":");
+                writeJsonString(out, room.getDescription());
+                out.write(",\"exits\":{");
+            } else {
+                out.write("room,");
+                out.write(Integer.toString(id));
+                out.write(',');
+                writeCsvField(out, room.getName());
+                out.write(',');
+                writeCsvField(out, room.getDescription());
+                out.write('\n');
+            }
+
+            boolean firstExit = true;
+            for (Map.Entry<WalkDirection, Room> exit : room.getAdjacentRooms().entrySet()) {
+                Integer targetId = ids.get(exit.getValue());
+                if (targetId == null) {
+                    targetId = ids.size();
+                    ids.put(exit.getValue(), targetId);
+                    roomQueue.add(exit.getValue());
+                }
+
+                if (format == RoomFileFormat.JSON) {
+                    if (!firstExit) {
+                        out.write(',');
+                    }
+                    out.write('"');
+                    out.write(exit.getKey().name());
+                    out.write("\":");
+                    out.write(Integer.toString(targetId));
+                } else {
+                    out.write("path,");
+                    out.write(Integer.toString(id));
+                    out.write(',');
+                    out.write(exit.getKey().name());
+                    out.write(',');
+                    out.write(Integer.toString(targetId));
+                    out.write('\n');
+                }
+                firstExit = false;
+            }
+
+            if (format == RoomFileFormat.JSON) {
+                out.write("}}");
+            }
+            roomCount++;
+        }
+
+        if (format == RoomFileFormat.JSON) {
+            out.write("\n]}\n");
+        }
+        out.flush();
+        return roomCount;
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        // comments are only recognized at the start of a line, but quoting a leading # keeps the file readable
+        needsQuotes = needsQuotes || value.startsWith("#");
+
+        if (!needsQuotes) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
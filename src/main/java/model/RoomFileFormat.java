@@ -0,0 +1,56 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * The text formats that rooms can be imported from using the {@link RoomImporter} and exported to using the {@link RoomExporter}.
+ */
+public enum RoomFileFormat {
+    /**
+     * One record per line, either {@code room,<id>,<name>,<description>} or {@code path,<fromId>,<direction>,<toId>}.
+     * Fields that contain commas, quotes or line breaks are quoted like in RFC 4180, lines that start with {@code #} are comments.
+     */
+    CSV,
+    /**
+     * An object with a {@code rooms} array. Every room is an object with the members {@code id}, {@code name},
+     * {@code description} and {@code exits}, which maps the names of {@link WalkDirection}s to room ids.
+     */
+    JSON;
+
+    /**
+     * Guesses the format of the specified file from its extension.
+     *
+     * @param file The file to get the format of
+     * @return {@link #JSON} if the file name ends with {@code .json}, {@link #CSV} otherwise
+     */
+    public static RoomFileFormat fromFile(@NotNull File file) {
+        if (file.getName().toLowerCase(Locale.ROOT).endsWith(".json")) {
+            return JSON;
+        }
+        return CSV;
+    }
+}
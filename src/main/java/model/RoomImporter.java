@@ -0,0 +1,500 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reads rooms and their connections from a text file in one of the {@link RoomFileFormat}s, e. g. a map generated by
+ * another tool or written by the {@link RoomExporter}. The file is read record by record with a pull parser, so apart
+ * from the created rooms and a map from the room ids in the file to the rooms, the memory consumption is constant.<br>
+ * Rooms may be referenced before they are defined. Like the paths in the editor, every path connects the rooms in both
+ * directions, so the inverse exit is added if the file does not list it. Paths that contradict an existing exit are
+ * rejected. The rooms are linked before they belong to any {@link Game}, so no game or editor listeners are notified
+ * during the import. The first room in the file becomes the current room of the imported game.
+ *
+ * @see RoomExporter
+ */
+public class RoomImporter {
+    /**
+     * Imports the rooms in the specified file and creates a new game with them. The format is determined using
+     * {@link RoomFileFormat#fromFile(File)}.
+     *
+     * @param file The file to import
+     * @return A new game whose current room is the first room in the file
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static Game importGame(@NotNull File file) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return new Game(importRooms(reader, RoomFileFormat.fromFile(file)));
+        }
+    }
+
+    /**
+     * Imports the rooms from the specified reader. The reader is not closed.
+     *
+     * @param reader The reader to read from
+     * @param format The format of the data
+     * @return The first room in the data
+     * @throws IOException If the reader throws an {@link IOException} or the data is malformed or contains no rooms
+     */
+    public static Room importRooms(@NotNull Reader reader, @NotNull RoomFileFormat format) throws IOException {
+        Objects.requireNonNull(reader);
+        Objects.requireNonNull(format);
+
+        RoomTable rooms = new RoomTable();
+        PushbackReader in = new PushbackReader(reader instanceof BufferedReader ? reader : new BufferedReader(reader, 1 << 16));
+        if (format == RoomFileFormat.JSON) {
+            new JsonRoomReader(in, rooms).read();
+        } else {
+            new CsvRoomReader(in, rooms).read();
+        }
+        return rooms.finish();
+    }
+
+    /**
+     * Maps the ids in the file to rooms and keeps track of rooms that were referenced but not defined yet
+     */
+    private static class RoomTable {
+        private final Map<String, Room> rooms = new HashMap<>();
+        private final Set<String> undefinedIds = new HashSet<>();
+        private Room firstRoom;
+
+        Room get(String id) {
+            Room room = rooms.get(id);
+            if (room == null) {
+                room = new Room();
+                rooms.put(id, room);
+                undefinedIds.add(id);
+            }
+            return room;
+        }
+
+        void define(String id, String name, String description, int line) throws IOException {
+            Room room = rooms.get(id);
+            if (room == null) {
+                room = new Room();
+                rooms.put(id, room);
+            } else if (!undefinedIds.remove(id)) {
+                throw new IOException("Line " + line + ": Room " + id + " is defined twice");
+            }
+            room.setName(name == null ? "" : name);
+            room.setDescription(description == null ? "" : description);
+            if (firstRoom == null) {
+                firstRoom = room;
+            }
+        }
+
+        void connect(String fromId, String direction, String toId, int line) throws IOException {
+            WalkDirection walkDirection;
+            try {
+                walkDirection = WalkDirection.valueOf(direction);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + line + ": Unknown direction " + direction, e);
+            }
+
+            Room from = get(fromId);
+            Room to = get(toId);
+            WalkDirection inverseDirection = WalkDirectionUtils.invert(walkDirection);
+            Room currentTarget = from.getAdjacentRooms().get(walkDirection);
+            Room currentInverseTarget = to.getAdjacentRooms().get(inverseDirection);
+            if (currentTarget == to && currentInverseTarget == from) {
+                // paths are usually listed for both rooms
+                return;
+            }
+            if (currentTarget != null && currentTarget != to) {
+                throw new IOException("Line " + line + ": Room " + fromId + " already has a different exit to the " + walkDirection);
+            }
+            if (currentInverseTarget != null && currentInverseTarget != from) {
+                throw new IOException("Line " + line + ": Room " + toId + " already has a different exit to the " + inverseDirection);
+            }
+
+            // paths can be walked in both directions, like the paths that are drawn in the editor
+            try {
+                if (currentTarget == null) {
+                    from.getAdjacentRooms().put(walkDirection, to);
+                }
+                if (currentInverseTarget == null) {
+                    to.getAdjacentRooms().put(inverseDirection, from);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + line + ": Room " + toId + " is connected to room " + fromId + " twice", e);
+            }
+        }
+
+        Room finish() throws IOException {
+            if (!undefinedIds.isEmpty()) {
+                throw new IOException("Rooms are referenced but never defined: " + undefinedIds);
+            }
+            if (firstRoom == null) {
+                throw new IOException("The file does not contain any rooms");
+            }
+            return firstRoom;
+        }
+    }
+
+    /**
+     * Reads the records of a {@link RoomFileFormat#CSV} file one by one, reusing the field list of the previous record
+     */
+    private static class CsvRoomReader {
+        private final PushbackReader in;
+        private final RoomTable rooms;
+        private final List<String> fields = new ArrayList<>(4);
+        private final StringBuilder field = new StringBuilder();
+        private int line = 1;
+
+        CsvRoomReader(PushbackReader in, RoomTable rooms) {
+            this.in = in;
+            this.rooms = rooms;
+        }
+
+        void read() throws IOException {
+            while (true) {
+                int recordLine = line;
+                if (!readRecord()) {
+                    return;
+                }
+                if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                    // empty line
+                    continue;
+                }
+
+                String type = fields.get(0);
+                if (type.equals("room") && (fields.size() == 3 || fields.size() == 4)) {
+                    rooms.define(fields.get(1), fields.get(2), fields.size() == 4 ? fields.get(3) : "", recordLine);
+                } else if (type.equals("path") && fields.size() == 4) {
+                    rooms.connect(fields.get(1), fields.get(2), fields.get(3), recordLine);
+                } else {
+                    throw new IOException("Line " + recordLine + ": Expected room,<id>,<name>,<description> or path,<fromId>,<direction>,<toId>");
+                }
+            }
+        }
+
+        /**
+         * Reads the next record into {@link #fields}, skipping comments
+         *
+         * @return {@code false} if the end of the file was reached
+         */
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            int c = in.read();
+            while (c == '#') {
+                // comment line
+                while (c != -1 && c != '\n') {
+                    c = in.read();
+                }
+                line++;
+                c = c == -1 ? -1 : in.read();
+            }
+            if (c == -1) {
+                return false;
+            }
+
+            field.setLength(0);
+            boolean quoted = false;
+            boolean fieldStart = true;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("Line " + line + ": Unterminated quoted field");
+                    } else if (c == '"') {
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                in.unread(next);
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && fieldStart) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                    fieldStart = true;
+                    c = in.read();
+                    continue;
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                fieldStart = false;
+                c = in.read();
+            }
+        }
+    }
+
+    /**
+     * Reads a {@link RoomFileFormat#JSON} file room by room using a minimal pull parser. Unknown members are skipped.
+     */
+    private static class JsonRoomReader {
+        private final PushbackReader in;
+        private final RoomTable rooms;
+        private final StringBuilder buffer = new StringBuilder();
+        private final List<String> exitDirections = new ArrayList<>(WalkDirection.values().length);
+        private final List<String> exitTargets = new ArrayList<>(WalkDirection.values().length);
+        private int line = 1;
+
+        JsonRoomReader(PushbackReader in, RoomTable rooms) {
+            this.in = in;
+            this.rooms = rooms;
+        }
+
+        void read() throws IOException {
+            expect('{');
+            if (!consumeIf('}')) {
+                do {
+                    String name = readString();
+                    expect(':');
+                    if (name.equals("rooms")) {
+                        readRooms();
+                    } else {
+                        skipValue();
+                    }
+                } while (consumeIf(','));
+                expect('}');
+            }
+        }
+
+        private void readRooms() throws IOException {
+            expect('[');
+            if (consumeIf(']')) {
+                return;
+            }
+            do {
+                readRoom();
+            } while (consumeIf(','));
+            expect(']');
+        }
+
+        private void readRoom() throws IOException {
+            int roomLine = line;
+            String id = null;
+            String name = null;
+            String description = null;
+            exitDirections.clear();
+            exitTargets.clear();
+
+            expect('{');
+            if (!consumeIf('}')) {
+                do {
+                    String member = readString();
+                    expect(':');
+                    switch (member) {
+                        case "id":
+                            id = readScalar();
+                            break;
+                        case "name":
+                            name = readScalar();
+                            break;
+                        case "description":
+                            description = readScalar();
+                            break;
+                        case "exits":
+                            readExits();
+                            break;
+                        default:
+                            skipValue();
+                    }
+                } while (consumeIf(','));
+                expect('}');
+            }
+
+            if (id == null) {
+                throw new IOException("Line " + roomLine + ": Room without id");
+            }
+            rooms.define(id, name, description, roomLine);
+            for (int i = 0; i < exitDirections.size(); i++) {
+                rooms.connect(id, exitDirections.get(i), exitTargets.get(i), roomLine);
+            }
+        }
+
+        private void readExits() throws IOException {
+            expect('{');
+            if (consumeIf('}')) {
+                return;
+            }
+            do {
+                exitDirections.add(readString());
+                expect(':');
+                exitTargets.add(readScalar());
+            } while (consumeIf(','));
+            expect('}');
+        }
+
+        /**
+         * Reads a string, number or literal
+         *
+         * @return The string value, the number or literal as written in the file or {@code null} for {@code null}
+         */
+        private String readScalar() throws IOException {
+            int c = peek();
+            if (c == '"') {
+                return readString();
+            }
+
+            buffer.setLength(0);
+            while (true) {
+                c = in.read();
+                if (c == -1 || c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                    if (c != -1) {
+                        in.unread(c);
+                    }
+                    break;
+                }
+                buffer.append((char) c);
+            }
+            if (buffer.length() == 0) {
+                throw new IOException("Line " + line + ": Expected a value");
+            }
+            String res = buffer.toString();
+            return res.equals("null") ? null : res;
+        }
+
+        private String readString() throws IOException {
+            expect('"');
+            buffer.setLength(0);
+            while (true) {
+                int c = in.read();
+                if (c == -1) {
+                    throw new IOException("Line " + line + ": Unterminated string");
+                } else if (c == '"') {
+                    return buffer.toString();
+                } else if (c == '\\') {
+                    c = in.read();
+                    switch (c) {
+                        case 'n':
+                            buffer.append('\n');
+                            break;
+                        case 'r':
+                            buffer.append('\r');
+                            break;
+                        case 't':
+                            buffer.append('\t');
+                            break;
+                        case 'b':
+                            buffer.append('\b');
+                            break;
+                        case 'f':
+                            buffer.append('\f');
+                            break;
+                        case 'u':
+                            int codePoint = 0;
+                            for (int i = 0; i < 4; i++) {
+                                int digit = Character.digit(in.read(), 16);
+                                if (digit < 0) {
+                                    throw new IOException("Line " + line + ": Invalid unicode escape");
+                                }
+                                codePoint = codePoint * 16 + digit;
+                            }
+                            buffer.append((char) codePoint);
+                            break;
+                        case '"':
+                        case '\\':
+                        case '/':
+                            buffer.append((char) c);
+                            break;
+                        default:
+                            throw new IOException("Line " + line + ": Invalid escape sequence");
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    buffer.append((char) c);
+                }
+            }
+        }
+
+        /**
+         * Skips the next value including all nested objects and arrays
+         */
+        private void skipValue() throws IOException {
+            int c = peek();
+            if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                in.read();
+                if (consumeIf(close)) {
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (consumeIf(','));
+                expect(close);
+            } else {
+                readScalar();
+            }
+        }
+
+        /**
+         * Skips whitespace and returns the next character without consuming it
+         */
+        private int peek() throws IOException {
+            int c = in.read();
+            while (c != -1 && Character.isWhitespace(c)) {
+                if (c == '\n') {
+                    line++;
+                }
+                c = in.read();
+            }
+            if (c != -1) {
+                in.unread(c);
+            }
+            return c;
+        }
+
+        private boolean consumeIf(char expected) throws IOException {
+            if (peek() == expected) {
+                in.read();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char expected) throws IOException {
+            if (!consumeIf(expected)) {
+                int actual = peek();
+                throw new IOException("Line " + line + ": Expected '" + expected + "' but found " + (actual == -1 ? "the end of the file" : "'" + (char) actual + "'"));
+            }
+        }
+    }
+}
@@ -21,6 +21,8 @@ package model;
  */
 
 
+import common.Histogram;
+import common.MetricsRegistry;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
@@ -28,13 +30,27 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * A map of rooms designed to save adjacent rooms of a {@link Room}
  */
 @SuppressWarnings("ALL")
 public class RoomMap extends ConcurrentHashMap<WalkDirection, Room> implements Serializable {
+    private static final long serialVersionUID = -8065645363147018200L;
+    /**
+     * The number of listeners that are notified per change
+     */
+    private static final Histogram listenerFanOut = MetricsRegistry.getDefault().histogram("model.roomMap.listenerFanOut", "listeners");
+    /**
+     * Increments {@link #modificationCount} atomically, avoids an {@link java.util.concurrent.atomic.AtomicLong} per map
+     */
+    private static final AtomicLongFieldUpdater<RoomMap> modificationCountUpdater = AtomicLongFieldUpdater.newUpdater(RoomMap.class, "modificationCount");
     private transient List<ChangeListener> changeListenerList;
+    /**
+     * Counts the changes of this map, see {@link #getModificationCount()}
+     */
+    private transient volatile long modificationCount;
 
     @SuppressWarnings("unused")
     public RoomMap() {
@@ -63,45 +79,76 @@ public class RoomMap extends ConcurrentHashMap<WalkDirection, Room> implements S
 
     @Override
     public Room put(@NotNull WalkDirection key, @NotNull Room value) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.added(key, value);
         }
         if (this.contains(value)) {
             throw new IllegalArgumentException("Duplicate adjacent room: " + value.toString());
         }
-        return super.put(key, value);
+        Room res = super.put(key, value);
+        modificationCountUpdater.incrementAndGet(this);
+        return res;
     }
 
     @Override
     public Room remove(@NotNull Object key) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed((WalkDirection) key, this.get(key));
         }
-        return super.remove(key);
+        Room res = super.remove(key);
+        modificationCountUpdater.incrementAndGet(this);
+        return res;
     }
 
     @Override
     public boolean remove(Object key, Object value) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.removed((WalkDirection) key, (Room) value);
         }
-        return super.remove(key, value);
+        boolean res = super.remove(key, value);
+        modificationCountUpdater.incrementAndGet(this);
+        return res;
     }
 
     @Override
     public boolean replace(@NotNull WalkDirection key, @NotNull Room oldValue, @NotNull Room newValue) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.replaced(key, oldValue, newValue);
         }
-        return super.replace(key, oldValue, newValue);
+        boolean res = super.replace(key, oldValue, newValue);
+        modificationCountUpdater.incrementAndGet(this);
+        return res;
     }
 
     @Override
     public Room replace(@NotNull WalkDirection key, @NotNull Room value) {
+        listenerFanOut.record(this.getChangeListenerList().size());
         for (ChangeListener changeListener : this.getChangeListenerList()) {
             changeListener.replaced(key, this.get(key), value);
         }
-        return super.replace(key, value);
+        Room res = super.replace(key, value);
+        modificationCountUpdater.incrementAndGet(this);
+        return res;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        modificationCountUpdater.incrementAndGet(this);
+    }
+
+    /**
+     * Returns the number of changes to this map so far. The count is incremented after a change is visible, so a
+     * reader that saw the same count before and after reading this map read a consistent state.
+     *
+     * @return The number of changes to this map so far
+     */
+    public long getModificationCount() {
+        return modificationCount;
     }
 
     public List<ChangeListener> getChangeListenerList() {
@@ -24,30 +24,142 @@ package model;
 import javafx.scene.shape.Line;
 
 /**
- * Utilities for {@link WalkDirection}{@code s}
+ * Utilities for {@link WalkDirection}{@code s}.<br>
+ * The geometry of each direction is precomputed in tables indexed by {@link WalkDirection#ordinal()}, so looking up
+ * the inverse direction, the preferred angle or the anchor point of a direction is a single array access. These
+ * lookups happen on every mouse event and every line update in the editor. All angles are measured clockwise from
+ * north in rad and all coordinates are screen coordinates, i. e. y grows to the south.
  */
 public class WalkDirectionUtils {
+    /**
+     * {@code sin(pi/8)} and {@code cos(pi/8)}, the boundary between north and north east
+     */
+    private static final double octantBoundarySin = Math.sin(Math.PI / 8);
+    private static final double octantBoundaryCos = Math.cos(Math.PI / 8);
+    private static final WalkDirection[] inverse = new WalkDirection[WalkDirection.values().length];
+    private static final double[] preferredAngle = new double[WalkDirection.values().length];
+    private static final double[] unitX = new double[WalkDirection.values().length];
+    private static final double[] unitY = new double[WalkDirection.values().length];
+    private static final int[] stepX = new int[WalkDirection.values().length];
+    private static final int[] stepY = new int[WalkDirection.values().length];
+    private static final double[] anchorX = new double[WalkDirection.values().length];
+    private static final double[] anchorY = new double[WalkDirection.values().length];
+
+    static {
+        defineDirection(WalkDirection.NORTH, WalkDirection.SOUTH, 0, 0, -1);
+        defineDirection(WalkDirection.NORTH_EAST, WalkDirection.SOUTH_WEST, 0.25, 1, -1);
+        defineDirection(WalkDirection.EAST, WalkDirection.WEST, 0.5, 1, 0);
+        defineDirection(WalkDirection.SOUTH_EAST, WalkDirection.NORTH_WEST, 0.75, 1, 1);
+        defineDirection(WalkDirection.SOUTH, WalkDirection.NORTH, 1, 0, 1);
+        defineDirection(WalkDirection.SOUTH_WEST, WalkDirection.NORTH_EAST, -0.75, -1, 1);
+        defineDirection(WalkDirection.WEST, WalkDirection.EAST, -0.5, -1, 0);
+        defineDirection(WalkDirection.NORTH_WEST, WalkDirection.SOUTH_EAST, -0.25, -1, -1);
+        // NONE has no geometry, its anchor is the center
+        defineDirection(WalkDirection.NONE, WalkDirection.NONE, 0, 0, 0);
+    }
+
+    /**
+     * @param direction          The direction to define
+     * @param inverseDirection   The opposite direction
+     * @param preferredAngleInPi The angle of the direction as a multiple of pi
+     * @param directionStepX     The step on a grid in x direction, -1 (west), 0 or 1 (east)
+     * @param directionStepY     The step on a grid in y direction, -1 (north), 0 or 1 (south)
+     */
+    private static void defineDirection(WalkDirection direction, WalkDirection inverseDirection, double preferredAngleInPi, int directionStepX, int directionStepY) {
+        int index = direction.ordinal();
+        inverse[index] = inverseDirection;
+        preferredAngle[index] = preferredAngleInPi * Math.PI;
+        stepX[index] = directionStepX;
+        stepY[index] = directionStepY;
+        double length = Math.sqrt(directionStepX * directionStepX + directionStepY * directionStepY);
+        unitX[index] = length == 0 ? 0 : directionStepX / length;
+        unitY[index] = length == 0 ? 0 : directionStepY / length;
+        // the anchor is on the edge of the rectangle that faces the direction, -1 -> 0, 0 -> 0.5, 1 -> 1
+        anchorX[index] = (directionStepX + 1) / 2.0;
+        anchorY[index] = (directionStepY + 1) / 2.0;
+    }
+
     public static WalkDirection invert(WalkDirection in) {
-        if (in == WalkDirection.NORTH) {
-            return WalkDirection.SOUTH;
-        } else if (in == WalkDirection.NORTH_EAST) {
-            return WalkDirection.SOUTH_WEST;
-        } else if (in == WalkDirection.EAST) {
-            return WalkDirection.WEST;
-        } else if (in == WalkDirection.SOUTH_EAST) {
-            return WalkDirection.NORTH_WEST;
-        } else if (in == WalkDirection.SOUTH) {
-            return WalkDirection.NORTH;
-        } else if (in == WalkDirection.SOUTH_WEST) {
-            return WalkDirection.NORTH_EAST;
-        } else if (in == WalkDirection.WEST) {
-            return WalkDirection.EAST;
-        } else if (in == WalkDirection.NORTH_WEST) {
-            return WalkDirection.SOUTH_EAST;
-        } else {
-            // in is WalkDirection.NONE, but for the compiler, it needs to be else and not else if
+        if (in == null) {
             return WalkDirection.NONE;
         }
+        return inverse[in.ordinal()];
+    }
+
+    /**
+     * Returns the angle that a line in the specified direction should have, e. g. when using autoLayout
+     *
+     * @param direction The direction to get the angle for
+     * @return The angle in rad, measured clockwise from north. 0 for {@link WalkDirection#NONE}.
+     */
+    public static double getPreferredAngle(WalkDirection direction) {
+        return preferredAngle[direction.ordinal()];
+    }
+
+    /**
+     * Returns the x component of the unit vector that points in the specified direction
+     *
+     * @param direction The direction to get the unit vector of
+     * @return The x component of the unit vector, 0 for {@link WalkDirection#NONE}
+     */
+    public static double getUnitX(WalkDirection direction) {
+        return unitX[direction.ordinal()];
+    }
+
+    /**
+     * Returns the y component of the unit vector that points in the specified direction. Negative values point north.
+     *
+     * @param direction The direction to get the unit vector of
+     * @return The y component of the unit vector, 0 for {@link WalkDirection#NONE}
+     */
+    public static double getUnitY(WalkDirection direction) {
+        return unitY[direction.ordinal()];
+    }
+
+    /**
+     * Returns the step in x direction when moving one cell in the specified direction on a grid
+     *
+     * @param direction The direction to move in
+     * @return -1 for the western directions, 1 for the eastern directions and 0 otherwise
+     */
+    public static int getStepX(WalkDirection direction) {
+        return stepX[direction.ordinal()];
+    }
+
+    /**
+     * Returns the step in y direction when moving one cell in the specified direction on a grid
+     *
+     * @param direction The direction to move in
+     * @return -1 for the northern directions, 1 for the southern directions and 0 otherwise
+     */
+    public static int getStepY(WalkDirection direction) {
+        return stepY[direction.ordinal()];
+    }
+
+    /**
+     * Returns the x coordinate of the point on the border of a rectangle where a line in the specified direction leaves the rectangle,
+     * e. g. the center of the top edge for {@link WalkDirection#NORTH} or the top right corner for {@link WalkDirection#NORTH_EAST}
+     *
+     * @param direction The direction of the line
+     * @param minX      The left edge of the rectangle
+     * @param width     The width of the rectangle
+     * @return The x coordinate of the anchor point
+     */
+    public static double getAnchorX(WalkDirection direction, double minX, double width) {
+        return minX + width * anchorX[direction.ordinal()];
+    }
+
+    /**
+     * Returns the y coordinate of the point on the border of a rectangle where a line in the specified direction leaves the rectangle
+     *
+     * @param direction The direction of the line
+     * @param minY      The top edge of the rectangle
+     * @param height    The height of the rectangle
+     * @return The y coordinate of the anchor point
+     * @see #getAnchorX(WalkDirection, double, double)
+     */
+    public static double getAnchorY(WalkDirection direction, double minY, double height) {
+        return minY + height * anchorY[direction.ordinal()];
     }
 
     public static WalkDirection getFromLineAngle(double lineAngle) {
@@ -81,7 +193,39 @@ public class WalkDirectionUtils {
     }
 
     public static WalkDirection getFromLine(Line line) {
-        double lineAngle = Math.atan2(line.getEndX() - line.getStartX(), line.getStartY() - line.getEndY());
-        return getFromLineAngle(lineAngle);
+        return getFromLine(line.getStartX(), line.getStartY(), line.getEndX(), line.getEndY());
+    }
+
+    /**
+     * Same as {@link #getFromLine(Line)} but does not require a {@link Line} instance, so it can be used on hot paths without allocating.<br>
+     * Instead of computing the angle of the line with {@code atan2}, the octant of the line is found by comparing the
+     * cross product of the line with the boundaries between the octants. The boundaries belong to the main directions
+     * just like in {@link #getFromLineAngle(double)}.
+     *
+     * @param startX The x coordinate of the start point of the line
+     * @param startY The y coordinate of the start point of the line
+     * @param endX   The x coordinate of the end point of the line
+     * @param endY   The y coordinate of the end point of the line
+     * @return The direction of the line from its start to its end point
+     */
+    public static WalkDirection getFromLine(double startX, double startY, double endX, double endY) {
+        // y axis pointing north
+        double dx = endX - startX;
+        double dy = startY - endY;
+        // mirror into the first quadrant, the signs decide about the quadrant later
+        double absDx = Math.abs(dx);
+        double absDy = Math.abs(dy);
+
+        if (absDx * octantBoundaryCos <= absDy * octantBoundarySin) {
+            // within pi/8 of the y axis, this includes the line of length 0 which used to be north
+            return dy >= 0 ? WalkDirection.NORTH : WalkDirection.SOUTH;
+        } else if (absDy * octantBoundaryCos <= absDx * octantBoundarySin) {
+            // within pi/8 of the x axis
+            return dx > 0 ? WalkDirection.EAST : WalkDirection.WEST;
+        } else if (dy > 0) {
+            return dx > 0 ? WalkDirection.NORTH_EAST : WalkDirection.NORTH_WEST;
+        } else {
+            return dx > 0 ? WalkDirection.SOUTH_EAST : WalkDirection.SOUTH_WEST;
+        }
     }
 }
@@ -0,0 +1,490 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import org.jetbrains.annotations.NotNull;
+import parser.Noun;
+import parser.Word;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates worlds of arbitrary size, e. g. to test the performance of the game and the editor with large games.<br>
+ * Generation happens in two phases:
+ * <ol>
+ * <li>The connections between the rooms are computed sequentially from the seed. Every connection is stored for both
+ * rooms using {@link WalkDirectionUtils#invert(WalkDirection)}, so all connections can be walked in both directions.</li>
+ * <li>The rooms are created, populated with items and entities and linked in chunks which are processed in parallel on
+ * a {@link ForkJoinPool}. Each chunk only modifies its own rooms and the random contents of a room only depend on the seed
+ * and the index of the room.</li>
+ * </ol>
+ * The same seed thus always generates the same world, no matter how many threads are used.
+ */
+public class WorldGenerator {
+    /**
+     * Number of rooms that are created in a single task
+     */
+    private static final int roomsPerTask = 256;
+    /**
+     * All directions that a room can be connected in, {@link WalkDirection#NONE} is excluded
+     */
+    private static final WalkDirection[] directions = {WalkDirection.NORTH, WalkDirection.NORTH_EAST, WalkDirection.EAST, WalkDirection.SOUTH_EAST, WalkDirection.SOUTH, WalkDirection.SOUTH_WEST, WalkDirection.WEST, WalkDirection.NORTH_WEST};
+    /**
+     * {@code inverseSlots[i]} is the index of the inverse of {@code directions[i]} in {@link #directions}
+     */
+    private static final int[] inverseSlots = new int[directions.length];
+    private static final String[] itemNames = {"lamp", "sword", "key", "coin", "book", "rope", "bottle", "shield", "map", "torch"};
+    private static final String[] entityNames = {"troll", "thief", "bat", "rat", "ghost", "dwarf"};
+
+    static {
+        for (int i = 0; i < directions.length; i++) {
+            inverseSlots[i] = Arrays.asList(directions).indexOf(WalkDirectionUtils.invert(directions[i]));
+        }
+    }
+
+    private final long seed;
+    private final ForkJoinPool pool;
+    private int maxItemsPerRoom = 2;
+    private int maxEntitiesPerRoom = 1;
+
+    /**
+     * Creates a generator that runs on the common {@link ForkJoinPool}
+     *
+     * @param seed The seed of the generated worlds
+     */
+    public WorldGenerator(long seed) {
+        this(seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator that runs on the specified pool.
+     *
+     * @param seed The seed of the generated worlds
+     * @param pool The pool to create the rooms on or {@code null} to create the rooms on the calling thread only
+     */
+    public WorldGenerator(long seed, ForkJoinPool pool) {
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Generates a world and saves it to a file in the save format of the game. Usage:<br>
+     * {@code WorldGenerator shape=<grid|maze|tree|random_graph> rooms=<roomCount> [seed=<seed>] file=<saveFile>}
+     *
+     * @param args The command line arguments as described above
+     * @throws IOException If the save file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Shape shape = Shape.GRID;
+        int roomCount = 1000;
+        long seed = 0;
+        File file = null;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.toLowerCase().matches("shape=.*")) {
+                shape = Shape.valueOf(value.toUpperCase(Locale.ROOT));
+            } else if (arg.toLowerCase().matches("rooms=.*")) {
+                roomCount = Integer.parseInt(value);
+            } else if (arg.toLowerCase().matches("seed=.*")) {
+                seed = Long.parseLong(value);
+            } else if (arg.toLowerCase().matches("file=.*")) {
+                file = new File(value);
+            }
+        }
+
+        if (file == null) {
+            throw new IllegalArgumentException("No save file specified, usage: shape=<grid|maze|tree|random_graph> rooms=<roomCount> [seed=<seed>] file=<saveFile>");
+        }
+
+        new WorldGenerator(seed).generateAndSave(shape, roomCount, file);
+    }
+
+    /**
+     * Generates a new game with the specified number of rooms. The first room is the current room.
+     *
+     * @param shape     The shape of the world
+     * @param roomCount The number of rooms to generate
+     * @return The generated game
+     */
+    public Game generate(@NotNull Shape shape, int roomCount) {
+        return new Game(generateRooms(shape, roomCount)[0]);
+    }
+
+    /**
+     * Generates a new game and saves it to the specified file using {@link Game#save(File)}.
+     *
+     * @param shape     The shape of the world
+     * @param roomCount The number of rooms to generate
+     * @param file      The file to save the game to
+     * @return The generated game
+     * @throws IOException If the file cannot be written
+     */
+    public Game generateAndSave(@NotNull Shape shape, int roomCount, @NotNull File file) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Game game = generate(shape, roomCount);
+        FOKLogger.info(WorldGenerator.class.getName(), "Generated " + roomCount + " rooms (" + shape + ") in " + (System.currentTimeMillis() - startTime) + " ms");
+        game.save(file);
+        return game;
+    }
+
+    /**
+     * Generates the rooms of a world.
+     *
+     * @param shape     The shape of the world
+     * @param roomCount The number of rooms to generate
+     * @return All generated rooms, all of them are reachable from the first room
+     */
+    public Room[] generateRooms(@NotNull Shape shape, int roomCount) {
+        Objects.requireNonNull(shape);
+        if (roomCount < 1) {
+            throw new IllegalArgumentException("roomCount must be at least 1");
+        }
+
+        // phase 1: connections, sequential
+        // neighbours[room * directions.length + slot] is the index of the room in directions[slot] or -1
+        int[] neighbours = new int[roomCount * directions.length];
+        Arrays.fill(neighbours, -1);
+        Random random = new Random(seed);
+        switch (shape) {
+            case GRID:
+                connectGrid(neighbours, roomCount);
+                break;
+            case MAZE:
+                connectMaze(neighbours, roomCount, random);
+                break;
+            case TREE:
+                connectTree(neighbours, roomCount, random);
+                break;
+            case RANDOM_GRAPH:
+                connectTree(neighbours, roomCount, random);
+                connectRandomly(neighbours, roomCount, roomCount / 2, random);
+                break;
+        }
+
+        // phase 2: rooms, parallel
+        Room[] rooms = new Room[roomCount];
+        runTask(new CreationTask(rooms, 0, roomCount));
+        runTask(new LinkingTask(rooms, neighbours, 0, roomCount));
+        return rooms;
+    }
+
+    private void runTask(RecursiveAction task) {
+        if (pool == null) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    private static int gridWidth(int roomCount) {
+        return (int) Math.ceil(Math.sqrt(roomCount));
+    }
+
+    /**
+     * Returns the index of the room next to the specified room on a grid of width {@link #gridWidth(int)} or {@code -1} if there is no such room
+     */
+    private static int gridNeighbour(int room, int slot, int roomCount) {
+        int width = gridWidth(roomCount);
+        int x = room % width;
+        int y = room / width;
+        switch (directions[slot]) {
+            case NORTH:
+                y--;
+                break;
+            case EAST:
+                x++;
+                break;
+            case SOUTH:
+                y++;
+                break;
+            case WEST:
+                x--;
+                break;
+            default:
+                // grids and mazes only use the main directions
+                return -1;
+        }
+        if (x < 0 || x >= width || y < 0) {
+            return -1;
+        }
+        int res = y * width + x;
+        return res < roomCount ? res : -1;
+    }
+
+    private static void connect(int[] neighbours, int room1, int slot, int room2) {
+        neighbours[room1 * directions.length + slot] = room2;
+        neighbours[room2 * directions.length + inverseSlots[slot]] = room1;
+    }
+
+    private static boolean isFree(int[] neighbours, int room, int slot) {
+        return neighbours[room * directions.length + slot] == -1;
+    }
+
+    private static void connectGrid(int[] neighbours, int roomCount) {
+        int eastSlot = Arrays.asList(directions).indexOf(WalkDirection.EAST);
+        int southSlot = Arrays.asList(directions).indexOf(WalkDirection.SOUTH);
+        for (int room = 0; room < roomCount; room++) {
+            for (int slot : new int[]{eastSlot, southSlot}) {
+                int neighbour = gridNeighbour(room, slot, roomCount);
+                if (neighbour != -1) {
+                    connect(neighbours, room, slot, neighbour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Carves a maze into the grid using a randomized depth first search, so every room is reachable on exactly one path
+     */
+    private static void connectMaze(int[] neighbours, int roomCount, Random random) {
+        boolean[] visited = new boolean[roomCount];
+        int[] stack = new int[roomCount];
+        int[] candidateSlots = new int[directions.length];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        visited[0] = true;
+
+        while (stackSize > 0) {
+            int room = stack[stackSize - 1];
+            int candidateCount = 0;
+            for (int slot = 0; slot < directions.length; slot++) {
+                int neighbour = gridNeighbour(room, slot, roomCount);
+                if (neighbour != -1 && !visited[neighbour]) {
+                    candidateSlots[candidateCount++] = slot;
+                }
+            }
+
+            if (candidateCount == 0) {
+                stackSize--;
+                continue;
+            }
+
+            int slot = candidateSlots[random.nextInt(candidateCount)];
+            int neighbour = gridNeighbour(room, slot, roomCount);
+            connect(neighbours, room, slot, neighbour);
+            visited[neighbour] = true;
+            stack[stackSize++] = neighbour;
+        }
+    }
+
+    /**
+     * Attaches every room to a random room that was generated before it
+     */
+    private static void connectTree(int[] neighbours, int roomCount, Random random) {
+        for (int room = 1; room < roomCount; room++) {
+            // a tree always has a room with a free direction, so the probing terminates
+            int parent = random.nextInt(room);
+            int slot = randomFreeSlot(neighbours, parent, random);
+            while (slot == -1) {
+                parent = (parent + 1) % room;
+                slot = randomFreeSlot(neighbours, parent, random);
+            }
+            connect(neighbours, parent, slot, room);
+        }
+    }
+
+    /**
+     * Adds connections between random pairs of rooms that are not connected yet and have matching free directions
+     */
+    private static void connectRandomly(int[] neighbours, int roomCount, int connectionCount, Random random) {
+        if (roomCount < 2) {
+            return;
+        }
+
+        // give up after a while on small, dense graphs
+        int attempts = connectionCount * 4;
+        for (int attempt = 0; attempt < attempts && connectionCount > 0; attempt++) {
+            int room1 = random.nextInt(roomCount);
+            int room2 = random.nextInt(roomCount);
+            int slot = random.nextInt(directions.length);
+            if (room1 == room2 || !isFree(neighbours, room1, slot) || !isFree(neighbours, room2, inverseSlots[slot]) || areConnected(neighbours, room1, room2)) {
+                continue;
+            }
+            connect(neighbours, room1, slot, room2);
+            connectionCount--;
+        }
+    }
+
+    private static boolean areConnected(int[] neighbours, int room1, int room2) {
+        for (int slot = 0; slot < directions.length; slot++) {
+            if (neighbours[room1 * directions.length + slot] == room2) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int randomFreeSlot(int[] neighbours, int room, Random random) {
+        int firstSlot = random.nextInt(directions.length);
+        for (int i = 0; i < directions.length; i++) {
+            int slot = (firstSlot + i) % directions.length;
+            if (isFree(neighbours, room, slot)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getMaxItemsPerRoom() {
+        return maxItemsPerRoom;
+    }
+
+    /**
+     * Sets the maximum number of items in a room. The actual number of items is chosen randomly for each room.
+     *
+     * @param maxItemsPerRoom The maximum number of items in a room
+     */
+    public void setMaxItemsPerRoom(int maxItemsPerRoom) {
+        this.maxItemsPerRoom = maxItemsPerRoom;
+    }
+
+    public int getMaxEntitiesPerRoom() {
+        return maxEntitiesPerRoom;
+    }
+
+    /**
+     * Sets the maximum number of entities in a room. The actual number of entities is chosen randomly for each room.
+     * Generated entities do not have a behaviour.
+     *
+     * @param maxEntitiesPerRoom The maximum number of entities in a room
+     */
+    public void setMaxEntitiesPerRoom(int maxEntitiesPerRoom) {
+        this.maxEntitiesPerRoom = maxEntitiesPerRoom;
+    }
+
+    /**
+     * The layouts of the generated worlds
+     */
+    public enum Shape {
+        /**
+         * The rooms are placed on a square grid and every room is connected to its neighbours in the main directions
+         */
+        GRID,
+        /**
+         * The rooms are placed on a square grid and connected like a maze, so there is exactly one path between two rooms
+         */
+        MAZE,
+        /**
+         * Every room is connected to a random room that was generated before it in any of the eight directions
+         */
+        TREE,
+        /**
+         * A {@link #TREE} with additional random connections, so there are cycles and multiple paths between rooms
+         */
+        RANDOM_GRAPH
+    }
+
+    /**
+     * Creates and populates a range of rooms and splits itself up if the range is too large
+     */
+    private class CreationTask extends RecursiveAction {
+        private final Room[] rooms;
+        private final int fromIndex;
+        private final int toIndex;
+
+        CreationTask(Room[] rooms, int fromIndex, int toIndex) {
+            this.rooms = rooms;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > roomsPerTask && getPool() != null) {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new CreationTask(rooms, fromIndex, middle), new CreationTask(rooms, middle, toIndex));
+                return;
+            }
+
+            for (int index = fromIndex; index < toIndex; index++) {
+                // the contents of a room only depend on the seed and the index, not on the order of the tasks
+                Random random = new Random(seed * 31 + index);
+                Room room = new Room("Room " + index, "Generated room number " + index);
+
+                int itemCount = maxItemsPerRoom <= 0 ? 0 : random.nextInt(maxItemsPerRoom + 1);
+                for (int i = 0; i < itemCount; i++) {
+                    String name = itemNames[random.nextInt(itemNames.length)];
+                    Item item = new Item();
+                    item.setName(new Noun(name));
+                    item.setDescription("There is a " + name + " here.");
+                    room.getItemsInRoom().add(item);
+                }
+
+                int entityCount = maxEntitiesPerRoom <= 0 ? 0 : random.nextInt(maxEntitiesPerRoom + 1);
+                for (int i = 0; i < entityCount; i++) {
+                    String name = entityNames[random.nextInt(entityNames.length)];
+                    Entity entity = new Entity();
+                    entity.setName(new Word(name));
+                    entity.setDescription("A " + name + " is here.");
+                    room.getEntitiesInRoom().add(entity);
+                }
+
+                rooms[index] = room;
+            }
+        }
+    }
+
+    /**
+     * Fills the {@link RoomMap}s of a range of rooms. Every task only modifies the maps of its own rooms.
+     */
+    private static class LinkingTask extends RecursiveAction {
+        private final Room[] rooms;
+        private final int[] neighbours;
+        private final int fromIndex;
+        private final int toIndex;
+
+        LinkingTask(Room[] rooms, int[] neighbours, int fromIndex, int toIndex) {
+            this.rooms = rooms;
+            this.neighbours = neighbours;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > roomsPerTask && getPool() != null) {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new LinkingTask(rooms, neighbours, fromIndex, middle), new LinkingTask(rooms, neighbours, middle, toIndex));
+                return;
+            }
+
+            for (int index = fromIndex; index < toIndex; index++) {
+                RoomMap adjacentRooms = rooms[index].getAdjacentRooms();
+                for (int slot = 0; slot < directions.length; slot++) {
+                    int neighbour = neighbours[index * directions.length + slot];
+                    if (neighbour != -1) {
+                        adjacentRooms.put(directions[slot], rooms[neighbour]);
+                    }
+                }
+            }
+        }
+    }
+}
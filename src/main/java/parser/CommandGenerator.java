@@ -0,0 +1,264 @@
+package parser;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Generates the list of commands that the player can currently use in a {@link Room}.<br>
+ * Instead of combining every {@link Verb} with every {@link Item} and {@link Entity}, the verbs are indexed once by
+ * their {@link Action} and by the words that may follow them. The result is cached per room and only recomputed
+ * when the {@link ItemList}, {@link EntityList} or {@link RoomMap} of that room fires a change event.
+ */
+public class CommandGenerator {
+    private final List<Verb> verbs;
+    /**
+     * Verbs indexed by the {@link Action} they trigger. {@code Action} does not override {@code equals}, so identity is used.
+     */
+    private final Map<Action, List<Verb>> verbsByAction = new IdentityHashMap<>();
+    /**
+     * Verbs indexed by the words that are permitted to follow them. Words are compared using {@code equals} as the
+     * words of items and entities are usually distinct instances, e. g. when the game was loaded from a save.
+     */
+    private final Map<Word, List<Verb>> verbsByFollowingWord = new HashMap<>();
+    /**
+     * Verbs that do not take an object, e. g. "look"
+     */
+    private final List<Verb> standaloneVerbs = new ArrayList<>();
+    private final Map<Room, CacheEntry> cache = new WeakHashMap<>();
+
+    public CommandGenerator(@NotNull List<Verb> verbs) {
+        Objects.requireNonNull(verbs);
+        this.verbs = verbs;
+
+        for (Verb verb : verbs) {
+            if (verb.getAction() != null) {
+                verbsByAction.computeIfAbsent(verb.getAction(), action -> new ArrayList<>()).add(verb);
+            }
+
+            if (verb.getPermittedWordsThatFollow().isEmpty()) {
+                standaloneVerbs.add(verb);
+            }
+
+            for (Word followingWord : verb.getPermittedWordsThatFollow()) {
+                verbsByFollowingWord.computeIfAbsent(followingWord, word -> new ArrayList<>()).add(verb);
+            }
+        }
+    }
+
+    public List<Verb> getVerbs() {
+        return verbs;
+    }
+
+    /**
+     * Returns all commands that the player can use in the specified room. The result is cached until the room contents change.
+     *
+     * @param room The room to get the commands for
+     * @return An unmodifiable list of commands that can be typed in the specified room.
+     */
+    public List<String> getAvailableCommands(@NotNull Room room) {
+        Objects.requireNonNull(room);
+
+        CacheEntry entry = cache.get(room);
+        if (entry == null) {
+            entry = new CacheEntry(room);
+            cache.put(room, entry);
+        } else if (!entry.isObserving(room)) {
+            // the lists of the room were replaced, listen to the new ones
+            entry.observe(room);
+            entry.commands = null;
+        }
+
+        if (entry.commands == null) {
+            entry.commands = Collections.unmodifiableList(generate(room));
+        }
+
+        return entry.commands;
+    }
+
+    /**
+     * Drops the cached commands of the specified room so that they are recomputed on the next call to {@link #getAvailableCommands(Room)}
+     *
+     * @param room The room to invalidate
+     */
+    public void invalidate(Room room) {
+        CacheEntry entry = cache.get(room);
+        if (entry != null) {
+            entry.commands = null;
+        }
+    }
+
+    /**
+     * Stops observing the rooms and drops all cached commands. Call this when the generator is replaced, e. g. because
+     * the game was replaced, so that the rooms don't keep notifying it.
+     */
+    public void dispose() {
+        for (CacheEntry entry : cache.values()) {
+            entry.stopObserving();
+        }
+        cache.clear();
+    }
+
+    private List<String> generate(Room room) {
+        // LinkedHashSet as two verbs might share a synonym
+        Set<String> res = new LinkedHashSet<>();
+
+        for (Verb verb : standaloneVerbs) {
+            res.add(verb.getWord());
+        }
+
+        for (WalkDirection direction : room.getAdjacentRooms().keySet()) {
+            res.add(direction.toString().toLowerCase().replace('_', ' '));
+        }
+
+        for (Item item : room.getItemsInRoom()) {
+            if (item.getActions() != null) {
+                for (Action action : item.getActions()) {
+                    addCommands(res, verbsByAction.get(action), item.getName());
+                }
+            }
+            addCommands(res, verbsByFollowingWord.get(item.getName()), item.getName());
+        }
+
+        for (Entity entity : room.getEntitiesInRoom()) {
+            addCommands(res, verbsByFollowingWord.get(entity.getName()), entity.getName());
+        }
+
+        return new ArrayList<>(res);
+    }
+
+    private static void addCommands(Set<String> res, List<Verb> matchingVerbs, Word object) {
+        if (matchingVerbs == null || object == null) {
+            return;
+        }
+
+        for (Verb verb : matchingVerbs) {
+            res.add(verb.getWord() + " " + object.getWord());
+        }
+    }
+
+    /**
+     * The cached commands of a room together with the lists that are observed for changes.
+     */
+    private class CacheEntry implements ItemList.ChangeListener, EntityList.ChangeListener, RoomMap.ChangeListener {
+        private List<String> commands;
+        private ItemList observedItems;
+        private EntityList observedEntities;
+        private RoomMap observedAdjacentRooms;
+
+        CacheEntry(Room room) {
+            observe(room);
+        }
+
+        boolean isObserving(Room room) {
+            return observedItems == room.getItemsInRoom() && observedEntities == room.getEntitiesInRoom() && observedAdjacentRooms == room.getAdjacentRooms();
+        }
+
+        void observe(Room room) {
+            if (observedItems != room.getItemsInRoom()) {
+                if (observedItems != null) {
+                    observedItems.getChangeListenerList().remove(this);
+                }
+                observedItems = room.getItemsInRoom();
+                observedItems.getChangeListenerList().add(this);
+            }
+            if (observedEntities != room.getEntitiesInRoom()) {
+                if (observedEntities != null) {
+                    observedEntities.getChangeListenerList().remove(this);
+                }
+                observedEntities = room.getEntitiesInRoom();
+                observedEntities.getChangeListenerList().add(this);
+            }
+            if (observedAdjacentRooms != room.getAdjacentRooms()) {
+                if (observedAdjacentRooms != null) {
+                    observedAdjacentRooms.getChangeListenerList().remove(this);
+                }
+                observedAdjacentRooms = room.getAdjacentRooms();
+                observedAdjacentRooms.getChangeListenerList().add(this);
+            }
+        }
+
+        void stopObserving() {
+            if (observedItems != null) {
+                observedItems.getChangeListenerList().remove(this);
+                observedItems = null;
+            }
+            if (observedEntities != null) {
+                observedEntities.getChangeListenerList().remove(this);
+                observedEntities = null;
+            }
+            if (observedAdjacentRooms != null) {
+                observedAdjacentRooms.getChangeListenerList().remove(this);
+                observedAdjacentRooms = null;
+            }
+            commands = null;
+        }
+
+        @Override
+        public void removed(Item item) {
+            commands = null;
+        }
+
+        @Override
+        public void added(int index, Item item) {
+            commands = null;
+        }
+
+        @Override
+        public void replaced(int index, Item oldValue, Item newValue) {
+            commands = null;
+        }
+
+        @Override
+        public void removed(Entity item) {
+            commands = null;
+        }
+
+        @Override
+        public void added(int index, Entity item) {
+            commands = null;
+        }
+
+        @Override
+        public void replaced(int index, Entity oldValue, Entity newValue) {
+            commands = null;
+        }
+
+        @Override
+        public void removed(WalkDirection key, Room value) {
+            commands = null;
+        }
+
+        @Override
+        public void added(WalkDirection key, Room value) {
+            commands = null;
+        }
+
+        @Override
+        public void replaced(WalkDirection key, Room oldValue, Room newValue) {
+            commands = null;
+        }
+    }
+}
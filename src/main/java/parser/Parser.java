@@ -21,6 +21,9 @@ package parser;
  */
 
 
+import common.MetricsRegistry;
+import common.Timer;
+import model.Game;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
@@ -29,6 +32,7 @@ import java.util.Objects;
  * Parses the player input, tells the game what to do and returns the output from the game.
  */
 public class Parser {
+    private static final Timer parseTimer = MetricsRegistry.getDefault().timer("parser.parse");
 
     /**
      * Parses the player input, tells the game what to do and returns the output from the game.
@@ -38,14 +42,36 @@ public class Parser {
      */
     public static String parse(@NotNull String input) {
         Objects.requireNonNull(input);
+        long start = System.nanoTime();
 
-        if (input.equals("")) {
-            return "I beg your pardon?";
-        } else {
-            return getLoremIpsum(input.length());
+        try {
+            if (input.equals("")) {
+                return "I beg your pardon?";
+            } else {
+                return getLoremIpsum(input.length());
+            }
+        } finally {
+            parseTimer.recordSince(start);
         }
     }
 
+    /**
+     * Parses the player input, executes the matching action in the specified game and returns the output from the game.
+     *
+     * @param game  The game to execute the command in
+     * @param input The string that the player typed.
+     * @return The game output to be shown to the player.
+     * @see Game#executeCommand(String)
+     */
+    public static String parse(@NotNull Game game, @NotNull String input) {
+        Objects.requireNonNull(game);
+        Objects.requireNonNull(input);
+        if (!input.equals("")) {
+            game.executeCommand(input);
+        }
+        return parse(input);
+    }
+
     private static String getLoremIpsum(int length) {
         StringBuilder loremIpsum = new StringBuilder("Lorem ipsum dolor sit amet, consetetur sadipscing elitr,  sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat, sed diam voluptua. At vero eos et accusam et justo duo dolores et ea rebum. Stet clita kasd gubergren, no sea takimata sanctus est Lorem ipsum dolor sit amet. Lorem ipsum dolor sit amet, consetetur sadipscing elitr,  sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat, sed diam voluptua. At vero eos et accusam et justo duo dolores et ea rebum. Stet clita kasd gubergren, no sea takimata sanctus est Lorem ipsum dolor sit amet. Lorem ipsum dolor sit amet, consetetur sadipscing elitr,  sed diam nonumy eirmod tempor invidunt ut labore et dolore magna aliquyam erat, sed diam voluptua. At vero eos et accusam et justo duo dolores et ea rebum. Stet clita kasd gubergren, no sea takimata sanctus est Lorem ipsum dolor sit amet.\n" +
                 "Duis autem vel eum iriure dolor in hendrerit in vulputate velit esse molestie consequat, vel illum dolore eu feugiat nulla facilisis at vero eros et accumsan et iusto odio dignissim qui blandit praesent luptatum zzril delenit augue duis dolore te feugait nulla facilisi. Lorem ipsum dolor sit amet, consectetuer adipiscing elit, sed diam nonummy nibh euismod tincidunt ut laoreet dolore magna aliquam erat volutpat.\n" +
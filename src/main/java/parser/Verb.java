@@ -22,15 +22,29 @@ package parser;
 
 
 import model.Action;
+import model.ActionRegistry;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * The representation of a verb in a sentence.
  */
 @SuppressWarnings({"unused"})
 public class Verb extends Word {
+    private static final long serialVersionUID = -1332165161303967083L;
     Action action;
+    /**
+     * The handle of {@link #action} in {@link #actionHandleRegistry}, resolved lazily
+     */
+    private transient int actionHandle;
+    private transient ActionRegistry actionHandleRegistry;
+    /**
+     * The size of {@link #actionHandleRegistry} when {@link #actionHandle} was resolved. Actions are never
+     * unregistered, so an unregistered action only needs to be looked up again if the registry grew.
+     */
+    private transient int actionHandleRegistrySize;
 
     public Verb() {
         super();
@@ -50,5 +64,26 @@ public class Verb extends Word {
 
     public void setAction(Action action) {
         this.action = action;
+        this.actionHandleRegistry = null;
+    }
+
+    /**
+     * Returns the handle of the action of this verb in the specified registry. The handle is cached until
+     * {@link #setAction(Action)} is called or another registry is passed.
+     *
+     * @param registry The registry to resolve the handle in
+     * @return The handle of the action of this verb or {@code -1} if the verb has no action or the action is not registered in {@code registry}
+     */
+    public int getActionHandle(@NotNull ActionRegistry registry) {
+        Objects.requireNonNull(registry);
+        if (action == null) {
+            return -1;
+        }
+        if (actionHandleRegistry != registry || (actionHandle < 0 && actionHandleRegistrySize != registry.size())) {
+            actionHandle = registry.getHandle(action);
+            actionHandleRegistry = registry;
+            actionHandleRegistrySize = registry.size();
+        }
+        return actionHandle;
     }
 }
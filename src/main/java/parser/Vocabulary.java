@@ -0,0 +1,46 @@
+package parser;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The words that every game understands, independent of the items and entities in it.
+ */
+public class Vocabulary {
+    /**
+     * Creates the verbs that do not need an object, like "look". Verbs that act on items are provided by the
+     * {@link model.Action}s of the items.
+     *
+     * @return A new modifiable list of the default verbs
+     */
+    public static List<Verb> createDefaultVerbs() {
+        List<Verb> res = new ArrayList<>();
+        res.add(new Verb("look", Arrays.asList("l")));
+        res.add(new Verb("inventory", Arrays.asList("i")));
+        res.add(new Verb("wait", Arrays.asList("z")));
+        return res;
+    }
+}
@@ -24,11 +24,13 @@ package parser;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Any word that can be used by the {@link model.Player} to interact with the game.
  */
 public class Word implements Serializable {
+    private static final long serialVersionUID = -5245605827016846586L;
     private final Word thisWordInstance;
     private String word;
     private List<String> synonyms;
@@ -99,13 +101,13 @@ public class Word implements Serializable {
             // obj is a word
             Word word = (Word) obj;
 
-            if (!word.getWord().equals(this.getWord())) {
+            if (!Objects.equals(word.getWord(), this.getWord())) {
                 return false;
             }
-            if (!word.getSynonyms().equals(this.getSynonyms())) {
+            if (!Objects.equals(word.getSynonyms(), this.getSynonyms())) {
                 return false;
             }
-            if (!word.getPermittedWordClassesThatFollow().equals(this.getPermittedWordClassesThatFollow())) {
+            if (!Objects.equals(word.getPermittedWordClassesThatFollow(), this.getPermittedWordClassesThatFollow())) {
                 return false;
             }
             if (!word.getPermittedWordsThatFollow().equals(this.getPermittedWordsThatFollow())) {
@@ -121,6 +123,17 @@ public class Word implements Serializable {
         }
     }
 
+    /**
+     * Consistent with {@link #equals(Object)} so that words can be used as keys of hash based collections. Words must
+     * not be modified while they are used as keys.
+     *
+     * @return The hash code of {@link #getWord()}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getWord());
+    }
+
     @Override
     public String toString() {
         return this.getClass().getSimpleName() + "@" + this.getWord();
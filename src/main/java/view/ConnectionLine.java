@@ -21,8 +21,8 @@ package view;
  */
 
 
-import com.github.vatbub.common.core.logging.FOKLogger;
 import com.github.vatbub.common.view.core.CustomGroup;
+import common.LazyLogger;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -32,13 +32,12 @@ import model.WalkDirection;
 import model.WalkDirectionUtils;
 
 import java.io.Serializable;
-import java.util.Map;
-import java.util.logging.Level;
 
 /**
  * A line that connects two rooms
  */
 public class ConnectionLine extends Line implements Selectable, Disposable {
+    private static final LazyLogger logger = new LazyLogger(ConnectionLine.class);
     private final BooleanProperty selected = new SimpleBooleanProperty();
     private final ConnectionLine thisRef = this;
     private final Line hitboxLine = new Line();
@@ -46,6 +45,15 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
     private RoomRectangle endRoom;
     private InvalidationRunnable invalidationRunnable;
     private CustomGroup parent;
+    /**
+     * If {@code true}, both rooms of this line are outside of the visible area and the line is detached from the custom parent
+     */
+    private boolean culled;
+    /**
+     * The cached location of this line. {@link #updateLocation()} only recomputes the location if the connection or
+     * the bounds of the rooms changed.
+     */
+    private final ConnectionLineLocation location = new ConnectionLineLocation();
 
     public ConnectionLine() {
         this(null, null);
@@ -57,7 +65,7 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
         updateLocation();
 
         selected.addListener((observable, oldValue, newValue) -> {
-            FOKLogger.finest(RoomRectangle.class.getName(), "Room selected = " + newValue);
+            logger.finest(() -> "Room selected = " + newValue);
             if (newValue) {
                 // is selected
                 thisRef.setStroke(Color.GRAY);
@@ -88,6 +96,10 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
 
         // track changes of the parent node
         this.parentProperty().addListener((observable, oldValue, newValue) -> {
+            if (culled) {
+                // culled lines are only detached from the scene graph but stay in their custom parent
+                return;
+            }
             if (newValue instanceof CustomGroup || newValue == null) {
                 thisRef.setCustomParent((CustomGroup) newValue, false);
             } else {
@@ -102,6 +114,7 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
 
     public void setEndRoom(RoomRectangle endRoom) {
         this.endRoom = endRoom;
+        this.location.invalidate();
         updateLocation();
     }
 
@@ -111,6 +124,7 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
 
     public void setStartRoom(RoomRectangle startRoom) {
         this.startRoom = startRoom;
+        this.location.invalidate();
         updateLocation();
     }
 
@@ -124,80 +138,31 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
     }
 
     /**
-     * Updates the location of this line
+     * Updates the location of this line. The direction of the connection and the bounds of the rooms are cached, so
+     * if neither the connection nor the rooms changed since the last call, this only performs one map lookup and a few
+     * comparisons. If the line was moved by other code in the meantime, it is moved back.
      */
     public void updateLocation() {
         if (getStartRoom() != null && getEndRoom() != null) {
-            if (!getStartRoom().getRoom().isDirectlyConnectedTo(getEndRoom().getRoom())) {
+            RoomRectangle start = getStartRoom();
+            RoomRectangle end = getEndRoom();
+            ConnectionLineLocation.Result result = location.update(start.getRoom(), end.getRoom(), start.getX(), start.getY(), start.getWidth(), start.getHeight(), end.getX(), end.getY(), end.getWidth(), end.getHeight());
+            if (result == ConnectionLineLocation.Result.DISCONNECTED) {
                 // rooms not connected, detach this line
                 invalidate();
                 return;
             }
 
-            // get the connection direction
-            WalkDirection dir = null;
-            // dir will never be null as start and end room are proven to be direct neighbours
-            for (Map.Entry entry : getStartRoom().getRoom().getAdjacentRooms().entrySet()) {
-                if (entry.getValue() == getEndRoom().getRoom()) {
-                    dir = (WalkDirection) entry.getKey();
-                }
-            }
-
-            //noinspection ConstantConditions
-            switch (dir) {
-                case NORTH:
-                    this.setStartX(getStartRoom().getX() + getStartRoom().getWidth() / 2.0);
-                    this.setStartY(getStartRoom().getY());
-                    this.setEndX(getEndRoom().getX() + getEndRoom().getWidth() / 2.0);
-                    this.setEndY(getEndRoom().getY() + getEndRoom().getHeight());
-                    break;
-                case WEST:
-                    this.setStartX(getStartRoom().getX());
-                    this.setStartY(getStartRoom().getY() + getStartRoom().getHeight() / 2);
-                    this.setEndX(getEndRoom().getX() + getEndRoom().getWidth());
-                    this.setEndY(getEndRoom().getY() + getEndRoom().getHeight() / 2);
-                    break;
-                case EAST:
-                    this.setStartX(getStartRoom().getX() + getStartRoom().getWidth());
-                    this.setStartY(getStartRoom().getY() + getStartRoom().getHeight() / 2);
-                    this.setEndX(getEndRoom().getX());
-                    this.setEndY(getEndRoom().getY() + getEndRoom().getHeight() / 2);
-                    break;
-                case SOUTH:
-                    this.setStartX(getStartRoom().getX() + getStartRoom().getWidth() / 2.0);
-                    this.setStartY(getStartRoom().getY() + getStartRoom().getHeight());
-                    this.setEndX(getEndRoom().getX() + getEndRoom().getWidth() / 2.0);
-                    this.setEndY(getEndRoom().getY());
-                    break;
-                case NORTH_WEST:
-                    this.setStartX(getStartRoom().getX());
-                    this.setStartY(getStartRoom().getY());
-                    this.setEndX(getEndRoom().getX() + getEndRoom().getWidth());
-                    this.setEndY(getEndRoom().getY() + getEndRoom().getHeight());
-                    break;
-                case NORTH_EAST:
-                    this.setStartX(getStartRoom().getX() + getStartRoom().getWidth());
-                    this.setStartY(getStartRoom().getY());
-                    this.setEndX(getEndRoom().getX());
-                    this.setEndY(getEndRoom().getY() + getEndRoom().getHeight());
-                    break;
-                case SOUTH_WEST:
-                    this.setStartX(getStartRoom().getX());
-                    this.setStartY(getStartRoom().getY() + getStartRoom().getHeight());
-                    this.setEndX(getEndRoom().getX() + getEndRoom().getWidth());
-                    this.setEndY(getEndRoom().getY());
-                    break;
-                case SOUTH_EAST:
-                    this.setStartX(getStartRoom().getX() + getStartRoom().getWidth());
-                    this.setStartY(getStartRoom().getY() + getStartRoom().getHeight());
-                    this.setEndX(getEndRoom().getX());
-                    this.setEndY(getEndRoom().getY());
-                    break;
+            if (result == ConnectionLineLocation.Result.CHANGED || !location.isAt(getStartX(), getStartY(), getEndX(), getEndY())) {
+                this.setStartX(location.getStartX());
+                this.setStartY(location.getStartY());
+                this.setEndX(location.getEndX());
+                this.setEndY(location.getEndY());
             }
 
             // add the hitbox line if not added already
-            if (getCustomParent() != null) {
-                if (!getCustomParent().getChildren().contains(hitboxLine)) {
+            if (getCustomParent() != null && !culled) {
+                if (hitboxLine.getParent() != getCustomParent()) {
                     getCustomParent().getChildren().add(hitboxLine);
                 }
             }
@@ -219,38 +184,7 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
      * @return The angle that this line should be rendered with when using autoLayout in rad.
      */
     public double getPreferredAngle() {
-        double res = 0;
-        switch (this.getStartRoom().getRoom().getAdjacentRooms().getKeyForObject(this.getEndRoom().getRoom())) {
-            case NORTH:
-                res = 0;
-                break;
-            case WEST:
-                res = -0.5;
-                break;
-            case EAST:
-                res = 0.5;
-                break;
-            case SOUTH:
-                res = 1;
-                break;
-            case NORTH_WEST:
-                res = -0.25;
-                break;
-            case NORTH_EAST:
-                res = 0.25;
-                break;
-            case SOUTH_WEST:
-                res = -0.75;
-                break;
-            case SOUTH_EAST:
-                res = 0.75;
-                break;
-            case NONE:
-                // Will not occur
-                break;
-        }
-
-        return res * Math.PI;
+        return WalkDirectionUtils.getPreferredAngle(this.getStartRoom().getRoom().getAdjacentRooms().getKeyForObject(this.getEndRoom().getRoom()));
     }
 
     /**
@@ -303,22 +237,19 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
         }
 
         this.parent = parent;
+        if (parent == null) {
+            culled = false;
+        }
 
-        Thread t = new Thread((Runnable & Serializable) () -> {
-            try {
-                Thread.sleep(12);
-            } catch (InterruptedException e) {
-                FOKLogger.log(ConnectionLine.class.getName(), Level.SEVERE, "An error occurred", e);
-            }
-
+        if (EditorView.currentEditorInstance != null) {
+            EditorView.currentEditorInstance.getRenderScheduler().schedule(this, this::updateLocation);
+        } else {
             Platform.runLater(this::updateLocation);
-        });
-
-        t.start();
+        }
 
         Platform.runLater((Runnable & Serializable) () -> {
             // add to new parent
-            if (registerAsChild & parent != null) {
+            if (registerAsChild & parent != null && !culled) {
                 parent.getChildren().add(thisRef);
                 parent.getChildren().add(hitboxLine);
             }
@@ -326,6 +257,33 @@ public class ConnectionLine extends Line implements Selectable, Disposable {
 
     }
 
+    public boolean isCulled() {
+        return culled;
+    }
+
+    /**
+     * Detaches this line from its custom parent if it is outside of the visible area or attaches it again.
+     *
+     * @param culled If {@code true}, this line and its hitbox are detached from the scene graph.
+     * @see ViewportCuller
+     */
+    public void setCulled(boolean culled) {
+        if (this.culled == culled || getCustomParent() == null) {
+            return;
+        }
+
+        if (culled) {
+            this.culled = true;
+            getCustomParent().getChildren().removeAll(this, hitboxLine);
+        } else {
+            if (!getCustomParent().getChildren().contains(this)) {
+                getCustomParent().getChildren().addAll(this, hitboxLine);
+            }
+            this.culled = false;
+            updateLocation();
+        }
+    }
+
     /**
      * Gets the current parent of the node. The custom implementation was required to enforce that this node always has a parent.
      *
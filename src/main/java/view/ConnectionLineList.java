@@ -21,22 +21,42 @@ package view;
  */
 
 
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
 
 /**
- * A list of {@link ConnectionLine}s that can find a line by its start and and room
+ * A collection of {@link ConnectionLine}s that can find a line by its start and and room.<br>
+ * Next to the positions of the lines (see {@link IdentityIndexedCollection}), lines are indexed by their start and by
+ * their end room, so finding, adding and removing a line runs in (amortized) constant time and the lines of a single
+ * room can be retrieved without looking at all other lines. The index is updated for every added or removed line,
+ * including removals through iterators and bulk operations. Multiple lines may connect the same rooms, all of them are
+ * indexed.<br>
+ * Like {@link RoomRectangleList}, the list is not thread safe and must only be used on the JavaFX application thread.
  */
 @SuppressWarnings("unused")
-public class ConnectionLineList extends CopyOnWriteArrayList<ConnectionLine> {
+public class ConnectionLineList extends IdentityIndexedCollection<ConnectionLine> {
+    /**
+     * The rooms that each line was indexed with. The rooms of a line might change after it was added.
+     */
+    private final Map<ConnectionLine, IndexEntry> entries = new IdentityHashMap<>();
+    /**
+     * The lines that start at each room, indexed by their end room
+     */
+    private final Map<RoomRectangle, Map<RoomRectangle, List<ConnectionLine>>> linesByStartRoom = new IdentityHashMap<>();
+    /**
+     * The lines that end at each room, indexed by their start room
+     */
+    private final Map<RoomRectangle, Map<RoomRectangle, List<ConnectionLine>>> linesByEndRoom = new IdentityHashMap<>();
+
     public ConnectionLineList() {
         super();
     }
 
     public ConnectionLineList(Collection<? extends ConnectionLine> c) {
-        super(c);
+        this();
+        addAll(c);
     }
 
     /**
@@ -49,14 +69,7 @@ public class ConnectionLineList extends CopyOnWriteArrayList<ConnectionLine> {
     @SuppressWarnings("unused")
     @Nullable
     public ConnectionLine findByStartAndEndRoom(RoomRectangle startRoom, RoomRectangle endRoom) {
-        for (ConnectionLine line : this) {
-            if (line.getStartRoom() == startRoom && line.getEndRoom() == endRoom) {
-                return line;
-            }
-        }
-
-        // nothing found
-        return null;
+        return find(linesByStartRoom, startRoom, endRoom);
     }
 
     /**
@@ -71,14 +84,42 @@ public class ConnectionLineList extends CopyOnWriteArrayList<ConnectionLine> {
      */
     @Nullable
     public ConnectionLine findByStartAndEndRoomIgnoreLineDirection(RoomRectangle startRoom, RoomRectangle endRoom) {
-        for (ConnectionLine line : this) {
-            if ((line.getStartRoom() == startRoom && line.getEndRoom() == endRoom) || line.getStartRoom() == endRoom && line.getEndRoom() == startRoom) {
-                return line;
-            }
+        ConnectionLine res = find(linesByStartRoom, startRoom, endRoom);
+        if (res != null) {
+            return res;
         }
 
-        // nothing found
-        return null;
+        return find(linesByStartRoom, endRoom, startRoom);
+    }
+
+    /**
+     * Adds all lines that start or end at the specified room to the specified collection. The lines are added to the
+     * collection instead of being returned in a new list, so callers that run on every drag event can reuse the collection.
+     *
+     * @param room The room to get the lines for
+     * @param res  The collection to add the lines to. Lines that are already in it are added again.
+     * @param <C>  The type of the collection
+     * @return {@code res}
+     */
+    @NotNull
+    public <C extends Collection<? super ConnectionLine>> C getLinesOfRoom(RoomRectangle room, @NotNull C res) {
+        Objects.requireNonNull(res);
+        Map<RoomRectangle, List<ConnectionLine>> outgoingLines = linesByStartRoom.get(room);
+        if (outgoingLines != null) {
+            for (List<ConnectionLine> lines : outgoingLines.values()) {
+                res.addAll(lines);
+            }
+        }
+        Map<RoomRectangle, List<ConnectionLine>> incomingLines = linesByEndRoom.get(room);
+        if (incomingLines != null) {
+            for (Map.Entry<RoomRectangle, List<ConnectionLine>> entry : incomingLines.entrySet()) {
+                // lines from a room to itself are already in the outgoing lines
+                if (entry.getKey() != room) {
+                    res.addAll(entry.getValue());
+                }
+            }
+        }
+        return res;
     }
 
     /**
@@ -98,18 +139,38 @@ public class ConnectionLineList extends CopyOnWriteArrayList<ConnectionLine> {
      */
     @SuppressWarnings("SameParameterValue")
     public boolean allLinesMatchPreferredAngle(double tolerance) {
-        return getLinesThatDoNotMatchPreferredAngle(tolerance).size() == 0;
-    }
+        for (ConnectionLine line : this) {
+            if (!matchesPreferredAngle(line, tolerance)) {
+                return false;
+            }
+        }
 
-    public ConnectionLineList getLinesThatDoNotMatchPreferredAngle() {
-        return getLinesThatDoNotMatchPreferredAngle(0);
+        return true;
     }
 
-    public ConnectionLineList getLinesThatDoNotMatchPreferredAngle(double tolerance) {
-        ConnectionLineList res = new ConnectionLineList();
+    /**
+     * Adds all lines whose angle does not match their preferred angle exactly to the specified collection.
+     *
+     * @param res The collection to add the lines to
+     * @param <C> The type of the collection
+     * @return {@code res}
+     */
+    public <C extends Collection<? super ConnectionLine>> C getLinesThatDoNotMatchPreferredAngle(@NotNull C res) {
+        return getLinesThatDoNotMatchPreferredAngle(0, res);
+    }
 
+    /**
+     * Adds all lines whose angle does not match their preferred angle within the specified tolerance to the specified collection.
+     *
+     * @param tolerance The angle tolerance that is still tolerated
+     * @param res       The collection to add the lines to
+     * @param <C>       The type of the collection
+     * @return {@code res}
+     */
+    public <C extends Collection<? super ConnectionLine>> C getLinesThatDoNotMatchPreferredAngle(double tolerance, @NotNull C res) {
+        Objects.requireNonNull(res);
         for (ConnectionLine line : this) {
-            if (Math.abs(line.getAngle() - line.getPreferredAngle()) > tolerance) {
+            if (!matchesPreferredAngle(line, tolerance)) {
                 // out of tolerance
                 res.add(line);
             }
@@ -117,4 +178,78 @@ public class ConnectionLineList extends CopyOnWriteArrayList<ConnectionLine> {
 
         return res;
     }
+
+    private static boolean matchesPreferredAngle(ConnectionLine line, double tolerance) {
+        return Math.abs(line.getAngle() - line.getPreferredAngle()) <= tolerance;
+    }
+
+    @Nullable
+    private static ConnectionLine find(Map<RoomRectangle, Map<RoomRectangle, List<ConnectionLine>>> index, RoomRectangle room, RoomRectangle otherRoom) {
+        Map<RoomRectangle, List<ConnectionLine>> lines = index.get(room);
+        if (lines == null) {
+            return null;
+        }
+
+        List<ConnectionLine> linesToOtherRoom = lines.get(otherRoom);
+        return linesToOtherRoom == null ? null : linesToOtherRoom.get(0);
+    }
+
+    @Override
+    protected void elementAdded(ConnectionLine line) {
+        IndexEntry entry = new IndexEntry(line.getStartRoom(), line.getEndRoom());
+        entries.put(line, entry);
+        if (entry.startRoom == null || entry.endRoom == null) {
+            return;
+        }
+
+        register(linesByStartRoom, entry.startRoom, entry.endRoom, line);
+        register(linesByEndRoom, entry.endRoom, entry.startRoom, line);
+    }
+
+    @Override
+    protected void elementRemoved(ConnectionLine line) {
+        IndexEntry entry = entries.remove(line);
+        if (entry != null && entry.startRoom != null && entry.endRoom != null) {
+            unregister(linesByStartRoom, entry.startRoom, entry.endRoom, line);
+            unregister(linesByEndRoom, entry.endRoom, entry.startRoom, line);
+        }
+    }
+
+    private static void register(Map<RoomRectangle, Map<RoomRectangle, List<ConnectionLine>>> index, RoomRectangle room, RoomRectangle otherRoom, ConnectionLine line) {
+        // usually a single line per pair of rooms
+        index.computeIfAbsent(room, key -> new IdentityHashMap<>()).computeIfAbsent(otherRoom, key -> new ArrayList<>(1)).add(line);
+    }
+
+    private static void unregister(Map<RoomRectangle, Map<RoomRectangle, List<ConnectionLine>>> index, RoomRectangle room, RoomRectangle otherRoom, ConnectionLine line) {
+        Map<RoomRectangle, List<ConnectionLine>> lines = index.get(room);
+        if (lines == null) {
+            return;
+        }
+        List<ConnectionLine> linesToOtherRoom = lines.get(otherRoom);
+        if (linesToOtherRoom == null) {
+            return;
+        }
+        for (int i = 0; i < linesToOtherRoom.size(); i++) {
+            if (linesToOtherRoom.get(i) == line) {
+                linesToOtherRoom.remove(i);
+                break;
+            }
+        }
+        if (linesToOtherRoom.isEmpty()) {
+            lines.remove(otherRoom);
+            if (lines.isEmpty()) {
+                index.remove(room);
+            }
+        }
+    }
+
+    private static class IndexEntry {
+        private final RoomRectangle startRoom;
+        private final RoomRectangle endRoom;
+
+        private IndexEntry(RoomRectangle startRoom, RoomRectangle endRoom) {
+            this.startRoom = startRoom;
+            this.endRoom = endRoom;
+        }
+    }
 }
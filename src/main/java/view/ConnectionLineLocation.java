@@ -0,0 +1,147 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Computes the location of a {@link ConnectionLine} from the rooms it connects and caches it. The direction of the
+ * connection and the bounds of the rooms that the location was computed from are remembered, so if neither the
+ * connection nor the rooms changed, an update only performs one map lookup and a few comparisons. Works on plain
+ * coordinates, so it does not need the JavaFX toolkit.
+ */
+class ConnectionLineLocation {
+    /**
+     * The direction from the start room to the end room that the location was computed for or {@code null} if it
+     * needs to be looked up again
+     */
+    private WalkDirection direction;
+    /**
+     * The bounds of the start and end room (x, y, width, height each) that the location was computed from
+     */
+    private final double[] roomBounds = new double[8];
+    /**
+     * The start and end point of the line (start x, start y, end x, end y)
+     */
+    private final double[] coordinates = new double[4];
+
+    ConnectionLineLocation() {
+        invalidate();
+    }
+
+    /**
+     * Forgets the cached direction and bounds, so that the next call of {@link #update(Room, Room, double, double, double, double, double, double, double, double)}
+     * looks up the connection again and recomputes the location. Must be called when the rooms of the line change.
+     */
+    void invalidate() {
+        direction = null;
+        // NaN is not equal to anything, so the location is recomputed on the next update
+        roomBounds[0] = Double.NaN;
+    }
+
+    /**
+     * Updates the location for the specified rooms.
+     *
+     * @return {@link Result#DISCONNECTED} if the start room is not connected to the end room, {@link Result#CHANGED}
+     * if the location was recomputed and {@link Result#UNCHANGED} if neither the connection nor the bounds changed
+     */
+    @NotNull
+    Result update(@NotNull Room startRoom, @NotNull Room endRoom, double startMinX, double startMinY, double startWidth, double startHeight, double endMinX, double endMinY, double endWidth, double endHeight) {
+        if (direction == null || startRoom.getAdjacentRooms().get(direction) != endRoom) {
+            // the connection changed or was not looked up yet
+            WalkDirection newDirection = startRoom.getAdjacentRooms().getKeyForObject(endRoom);
+            if (newDirection == null) {
+                invalidate();
+                return Result.DISCONNECTED;
+            }
+            direction = newDirection;
+            roomBounds[0] = Double.NaN;
+        }
+
+        boolean changed = updateRoomBound(0, startMinX);
+        changed |= updateRoomBound(1, startMinY);
+        changed |= updateRoomBound(2, startWidth);
+        changed |= updateRoomBound(3, startHeight);
+        changed |= updateRoomBound(4, endMinX);
+        changed |= updateRoomBound(5, endMinY);
+        changed |= updateRoomBound(6, endWidth);
+        changed |= updateRoomBound(7, endHeight);
+        if (!changed) {
+            return Result.UNCHANGED;
+        }
+
+        // the line leaves the start room on the side that faces the end room and enters the end room on the opposite side
+        WalkDirection invertedDirection = WalkDirectionUtils.invert(direction);
+        coordinates[0] = WalkDirectionUtils.getAnchorX(direction, startMinX, startWidth);
+        coordinates[1] = WalkDirectionUtils.getAnchorY(direction, startMinY, startHeight);
+        coordinates[2] = WalkDirectionUtils.getAnchorX(invertedDirection, endMinX, endWidth);
+        coordinates[3] = WalkDirectionUtils.getAnchorY(invertedDirection, endMinY, endHeight);
+        return Result.CHANGED;
+    }
+
+    private boolean updateRoomBound(int index, double value) {
+        // NaN is never equal, so it always counts as changed
+        if (roomBounds[index] == value) {
+            return false;
+        }
+        roomBounds[index] = value;
+        return true;
+    }
+
+    /**
+     * Checks if a line is at the cached location. Lines can be moved by other code, e. g. while a path is previewed, so
+     * the cache alone cannot tell if the line is still at the right location.
+     *
+     * @return {@code true} if the specified points are the cached start and end point
+     */
+    boolean isAt(double startX, double startY, double endX, double endY) {
+        return startX == coordinates[0] && startY == coordinates[1] && endX == coordinates[2] && endY == coordinates[3];
+    }
+
+    WalkDirection getDirection() {
+        return direction;
+    }
+
+    double getStartX() {
+        return coordinates[0];
+    }
+
+    double getStartY() {
+        return coordinates[1];
+    }
+
+    double getEndX() {
+        return coordinates[2];
+    }
+
+    double getEndY() {
+        return coordinates[3];
+    }
+
+    enum Result {
+        DISCONNECTED, CHANGED, UNCHANGED
+    }
+}
@@ -27,6 +27,9 @@ import com.github.vatbub.common.view.core.CustomGroup;
 import com.github.vatbub.common.view.core.ExceptionAlert;
 import com.github.vatbub.common.view.reporting.ReportingDialog;
 import common.AppConfig;
+import common.LazyLogger;
+import common.MetricsRegistry;
+import common.Timer;
 import javafx.animation.FadeTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -49,12 +52,15 @@ import javafx.scene.input.KeyCode;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.input.ZoomEvent;
 import javafx.scene.layout.AnchorPane;
-import javafx.scene.shape.Line;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import model.EditHistory;
+import model.EntitySimulation;
 import model.Game;
 import model.Room;
+import model.RoomExporter;
+import model.RoomImporter;
 import model.WalkDirection;
 import model.WalkDirectionUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
@@ -68,8 +74,28 @@ import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
 public class EditorView extends Application {
+    private static final LazyLogger logger = new LazyLogger(EditorView.class);
 
     public static EditorView currentEditorInstance;
+    /**
+     * Games with more rooms than this are shown in a {@link MapCanvas} instead of creating scene graph nodes for every
+     * room. The map canvas is read-only: rooms and paths cannot be inserted, moved or deleted until a smaller game is
+     * loaded, only the names of rooms can be edited.
+     */
+    private static final int maxRoomCountForNodeRendering = 2000;
+    private static final int maxLayoutIterations = 2000;
+    /**
+     * The maximum number of edits that can be undone
+     */
+    private static final int maxUndoSteps = 256;
+    /**
+     * Measures {@link #renderView(boolean, boolean)} from the call until the rooms are laid out
+     */
+    private static final Timer renderTimer = MetricsRegistry.getDefault().timer("editor.renderView");
+    /**
+     * The force directed layout stops once no room moves by more than this in an iteration
+     */
+    private static final double layoutTolerance = 0.1;
     public static ResourceBundle bundle;
     private static Stage stage;
     public final ConnectionLineList lineList = new ConnectionLineList();
@@ -78,13 +104,53 @@ public class EditorView extends Application {
     // Unconnected Rooms will not be saved but need to be hold in the RAM while editing
     private RoomRectangleList unconnectedRooms = new RoomRectangleList();
     private RoomRectangleList allRoomsAsList;
-    private RoomRectangleList allRoomsAsListCopy;
+    private final RoomRectangleIndex roomIndex = new RoomRectangleIndex();
+    /**
+     * Rooms that were moved or resized since the dirty regions were flushed the last time. Only the lines of these rooms need to be updated.
+     */
+    private final Set<RoomRectangle> dirtyRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Scratch list for the lines of the {@link #dirtyRooms}, reused so that flushing the dirty regions on every drag pulse does not allocate
+     */
+    private final List<ConnectionLine> dirtyLines = new ArrayList<>();
+    /**
+     * {@code true} if connections between rooms were added or removed since the dirty regions were flushed the last time.
+     * In that case, lines need to be created or removed and the connection status of all rooms needs to be updated which requires a full render.
+     */
+    private boolean topologyDirty;
+    /**
+     * Rooms whose connections were added, removed or replaced since the last snapshot was applied. Only the lines of
+     * these rooms are checked when the next snapshot is applied, the lines of moved rooms are updated with the dirty rooms.
+     */
+    private final Set<RoomRectangle> roomsWithChangedConnections = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**
+     * Created once as rooms invalidate themselves on every drag event and a method reference would be allocated on every call
+     */
+    private final Runnable flushDirtyRegionsTask = this::flushDirtyRegions;
+    private final RenderScheduler renderScheduler = new RenderScheduler();
+    private final EditHistory editHistory = new EditHistory(maxUndoSteps);
+    /**
+     * Shows the current game if it is too large for the node based rendering, {@code null} otherwise
+     */
+    private MapCanvas mapCanvas;
+    /**
+     * Detaches the rooms and lines outside of the visible area from the drawing. Initialized once the FXML fields are injected.
+     */
+    private ViewportCuller viewportCuller;
     private EditMode currentEditMode = EditMode.MOVE;
     private EditMode previousEditMode;
     private boolean isMouseOverDrawing = false;
     private boolean compassIconFaded = false;
     private boolean insertRoomDragDetected;
-    private ExecutorService renderThreadPool = Executors.newFixedThreadPool(1);
+    /**
+     * Takes the snapshots of the room graph for {@link #renderView(boolean, boolean)}. Newer renders supersede older ones.
+     */
+    private final RenderWorker renderWorker = new RenderWorker();
+    private ExecutorService layoutThreadPool = Executors.newFixedThreadPool(1);
+    /**
+     * The force directed layout that currently streams its positions to the view or {@code null} if no layout is running
+     */
+    private volatile ForceDirectedLayout currentLayout;
 
     /**
      * Used to display a temporary room when in EditMode.INSERT_ROOM
@@ -142,6 +208,12 @@ public class EditorView extends Application {
     @SuppressWarnings("unused")
     @FXML
     private MenuItem menuItemSaveAs;
+    @SuppressWarnings("unused")
+    @FXML
+    private MenuItem menuItemImport;
+    @SuppressWarnings("unused")
+    @FXML
+    private MenuItem menuItemExport;
     @FXML
     private AnchorPane scrollPaneContainer;
     @SuppressWarnings("unused")
@@ -150,7 +222,7 @@ public class EditorView extends Application {
             for (Node child : new ArrayList<>(drawing.getChildren())) {
                 if (child instanceof Selectable) {
                     if (((Selectable) child).isSelected() && event.getTarget() != child) {
-                        FOKLogger.fine(EditorView.class.getName(), "Child is:  " + child.toString() + "\ntarget is: " + event.getTarget().toString());
+                        logger.fine(() -> "Child is:  " + child.toString() + "\ntarget is: " + event.getTarget().toString());
                         child.fireEvent(event);
                         event.consume();
                     }
@@ -164,6 +236,7 @@ public class EditorView extends Application {
         Common.setAwsAccessKey(AppConfig.awsLogAccessKeyID);
         Common.setAwsSecretAccessKey(AppConfig.awsLogSecretAccessKeyID);
         FOKLogger.enableLoggingOfUncaughtExceptions();
+        MetricsRegistry.enableDefaultReporting();
         for (String arg : args) {
             if (arg.toLowerCase().matches("mockappversion=.*")) {
                 // Set the mock version
@@ -243,6 +316,49 @@ public class EditorView extends Application {
         }
     }
 
+    @FXML
+    void menuItemImportOnAction(@SuppressWarnings("unused") ActionEvent event) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import rooms");
+        fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("Room files", "*.csv", "*.json"), new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = fileChooser.showOpenDialog(stage);
+        if (file != null) {
+            // if file == null the action was aborted
+            // large files take a while to parse, so they are read without blocking the JavaFX thread
+            Thread importThread = new Thread(() -> {
+                try {
+                    // the rooms are linked before they are added to the editor, so the view is only rendered once
+                    Game game = RoomImporter.importGame(file);
+                    Platform.runLater(() -> loadGame(game));
+                } catch (IOException e) {
+                    FOKLogger.log(EditorView.class.getName(), Level.SEVERE, "Failed to import rooms from " + file.toString(), e);
+                    Platform.runLater(() -> new Alert(Alert.AlertType.ERROR, "Could not import the rooms: \n\n" + ExceptionUtils.getRootCauseMessage(e)).show());
+                }
+            });
+            importThread.setName("importThread");
+            importThread.setDaemon(true);
+            importThread.start();
+        }
+    }
+
+    @FXML
+    void menuItemExportOnAction(@SuppressWarnings("unused") ActionEvent event) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export rooms");
+        fileChooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV", "*.csv"), new FileChooser.ExtensionFilter("JSON", "*.json"));
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            // if file == null the action was aborted
+            try {
+                int roomCount = RoomExporter.export(getCurrentGame().getCurrentRoom(), file);
+                FOKLogger.info(EditorView.class.getName(), "Exported " + roomCount + " rooms to " + file.toString());
+            } catch (IOException e) {
+                FOKLogger.log(EditorView.class.getName(), Level.SEVERE, "Failed to export rooms to " + file.toString(), e);
+                new Alert(Alert.AlertType.ERROR, "Could not export the rooms: \n\n" + ExceptionUtils.getRootCauseMessage(e)).show();
+            }
+        }
+    }
+
     @FXML
     void menuItemCloseOnAction(@SuppressWarnings("unused") ActionEvent event) {
         Platform.exit();
@@ -316,9 +432,10 @@ public class EditorView extends Application {
 
     @FXML
     void scrollPaneOnZoom(ZoomEvent event) {
-        FOKLogger.fine(MainWindow.class.getName(), "Zooming in view, new Zoom level: " + event.getZoomFactor());
+        logger.fine(() -> "Zooming in view, new Zoom level: " + event.getZoomFactor());
         drawing.setScaleX(drawing.getScaleX() * event.getZoomFactor());
         drawing.setScaleY(drawing.getScaleY() * event.getZoomFactor());
+        updateViewport();
         // TODO: Update the actual size in the scrollpane (so that scrollbars appear when zooming in
         // TODO: Add Keyboard and touchpad zoom
         // TODO: do the zoom with the right zoom center
@@ -327,7 +444,7 @@ public class EditorView extends Application {
     @FXML
     void scrollPaneOnMouseReleased(MouseEvent event) {
         if (!event.isControlDown() & !unselectingDisabled) {
-            FOKLogger.finest(MainWindow.class.getName(), "Unselected all rooms through clicking the scroll pane");
+            logger.finest("Unselected all rooms through clicking the scroll pane");
             unselectEverything();
         }
 
@@ -352,13 +469,14 @@ public class EditorView extends Application {
         See https://github.com/vatbub/zorkClone/issues/7 and http://stackoverflow.com/questions/41454202/javafx-instanceof-scrollpaneskin-fails
         for more info
          */
-        FOKLogger.finest(EditorView.class.getName(), "scrollPaneOnMouseClicked occurred. event target class is " + event.getTarget().getClass().getName());
+        logger.finest(() -> "scrollPaneOnMouseClicked occurred. event target class is " + event.getTarget().getClass().getName());
         if (currentEditMode == EditMode.INSERT_ROOM && (event.getTarget() instanceof RoomRectangle || event.getTarget() instanceof ToggleButton || event.getTarget().getClass().getName().equals("com.sun.javafx.scene.control.skin.ScrollPaneSkin$4")) && event.getClickCount() == 1 && tempRoomForRoomInsertion != null) {
             // add tempRoomForRoomInsertion to the game
-            FOKLogger.fine(MainWindow.class.getName(), "Added room to game: " + tempRoomForRoomInsertion.getRoom().getName());
+            logger.fine(() -> "Added room to game: " + tempRoomForRoomInsertion.getRoom().getName());
             tempRoomForRoomInsertion.setTemporary(false);
             tempRoomForRoomInsertion.setSelected(false);
             allRoomsAsList.add(tempRoomForRoomInsertion);
+            editHistory.observe(tempRoomForRoomInsertion.getRoom());
             // this.renderView(false, false, true);
             this.renderView(false, false);
 
@@ -476,10 +594,10 @@ public class EditorView extends Application {
     /**
      * Updates the internal connection status of a room (if it is connected to the current room of the game)
      *
-     * @param room The room to update
+     * @param room        The room to update
+     * @param isConnected {@code true} if the room is connected to the current room of the game
      */
-    private void updateConnectionStatusOfRoom(RoomRectangle room) {
-        boolean isConnected = getCurrentGame().getCurrentRoom().isConnectedTo(room.getRoom());
+    private void updateConnectionStatusOfRoom(RoomRectangle room, boolean isConnected) {
         if (isConnected && unconnectedRooms.contains(room)) {
             // room was marked as unconnected and now is connected
             unconnectedRooms.remove(room);
@@ -514,143 +632,359 @@ public class EditorView extends Application {
      * @param onlyUpdateLines If {@code true}, only connecting lines between the rooms are rendered, rooms are left as they are. Useful if the user is currently moving the room around with the mouse.
      */
     public void renderView(boolean autoLayout, boolean onlyUpdateLines) {
+        long renderStart = System.nanoTime();
+        // a full render covers all dirty regions
+        dirtyRooms.clear();
+        topologyDirty = false;
+        cancelAutoLayout();
+
+        if (mapCanvas != null) {
+            renderWorker.cancel();
+            mapCanvas.setRooms(this.getCurrentGame().getCurrentRoom());
+            renderTimer.recordSince(renderStart);
+            return;
+        }
+
+        // the worker only sees the model, the rooms of the view are collected here
+        Room startRoom = this.getCurrentGame().getCurrentRoom();
+        List<Room> knownRooms = new ArrayList<>();
+        for (RoomRectangle room : unconnectedRooms) {
+            knownRooms.add(room.getRoom());
+        }
+        if (allRoomsAsList != null) {
+            for (RoomRectangle room : allRoomsAsList) {
+                knownRooms.add(room.getRoom());
+            }
+        }
+
+        renderWorker.submit(cancelled -> RoomGraphSnapshot.create(startRoom, knownRooms, cancelled), snapshot -> {
+            applyRoomGraphSnapshot(snapshot, autoLayout, onlyUpdateLines);
+            renderTimer.recordSince(renderStart);
+        });
+    }
+
+    /**
+     * Updates the rooms and lines in the drawing to match the specified snapshot. Called on the JavaFX thread once the {@link #renderWorker} took the snapshot.
+     *
+     * @param snapshot        The snapshot of the current game
+     * @param autoLayout      If {@code true}, the rooms will be automatically laid out according to their topology.
+     * @param onlyUpdateLines If {@code true}, rooms that are already rendered are left where they are
+     */
+    private void applyRoomGraphSnapshot(RoomGraphSnapshot snapshot, boolean autoLayout, boolean onlyUpdateLines) {
+        if (!isSnapshotUpToDate(snapshot)) {
+            // rooms of the snapshot changed while or after it was taken, or rooms were added to the view or the
+            // current room changed without a new render, so the snapshot would be torn or drop rooms
+            renderView(autoLayout, onlyUpdateLines);
+            return;
+        }
+
+        if (!onlyUpdateLines && allRoomsAsList != null) {
+            // culled rooms are not children of the drawing and would otherwise still be considered rendered
+            for (RoomRectangle room : allRoomsAsList) {
+                if (room.isCulled()) {
+                    room.setCustomParent(null);
+                }
+            }
+        }
+
         int indexCorrection = 0;
         while (drawing.getChildren().size() > indexCorrection) {
             if (!onlyUpdateLines && !(drawing.getChildren().get(indexCorrection) instanceof ConnectionLine)) {
                 drawing.getChildren().remove(indexCorrection);
-            } else if (drawing.getChildren().get(indexCorrection) instanceof ConnectionLine) {
-                // Check if line is still valid
-                ((ConnectionLine) drawing.getChildren().get(indexCorrection)).updateLocation();
-                indexCorrection++;
             } else {
                 indexCorrection++;
             }
         }
 
-        renderThreadPool.submit(() -> {
-            // update the connection status of all rooms
-            if (allRoomsAsList != null) {
-                for (RoomRectangle room : allRoomsAsList) {
-                    updateConnectionStatusOfRoom(room);
-                }
+        // update the connection status of all rooms
+        RoomRectangleList previousRooms = allRoomsAsList;
+        if (previousRooms != null) {
+            for (RoomRectangle room : previousRooms) {
+                updateConnectionStatusOfRoom(room, snapshot.isConnected(room.getRoom()));
             }
+        }
+        if (previousRooms == null || !onlyUpdateLines) {
+            allRoomsAsList = new RoomRectangleList();
+        }
 
-            LinkedList<RoomRectangle> renderQueue = new LinkedList<>();
+        // The distance between connected rooms
+        double roomDistance = 50;
+
+        RoomRectangle[] roomRectangles = new RoomRectangle[snapshot.getRoomCount()];
+        boolean[] placeRoom = new boolean[roomRectangles.length];
+        double[] xs = new double[roomRectangles.length];
+        double[] ys = new double[roomRectangles.length];
+        double[] widths = new double[roomRectangles.length];
+        double[] heights = new double[roomRectangles.length];
+        for (int i = 0; i < roomRectangles.length; i++) {
+            Room room = snapshot.getRoom(i);
+            RoomRectangle roomRectangle = previousRooms == null ? null : previousRooms.findByRoom(room);
+            if (roomRectangle == null) {
+                roomRectangle = unconnectedRooms.findByRoom(room);
+            }
+            boolean isNew = roomRectangle == null;
+            if (isNew) {
+                roomRectangle = new RoomRectangle(null, room);
+                if (i >= snapshot.getConnectedRoomCount()) {
+                    unconnectedRooms.add(roomRectangle);
+                }
+            }
+            roomRectangles[i] = roomRectangle;
+            // new rooms have no position yet
+            placeRoom[i] = !roomRectangle.isRendered() && (autoLayout || isNew);
+            xs[i] = roomRectangle.getX();
+            ys[i] = roomRectangle.getY();
+            widths[i] = roomRectangle.getWidth();
+            heights[i] = roomRectangle.getHeight();
+        }
 
-            // The distance between connected rooms
-            double roomDistance = 50;
+        RoomPlacement.placeBreadthFirst(snapshot, xs, ys, widths, heights, placeRoom, roomDistance);
 
-            RoomRectangle startRoom;
-            if (allRoomsAsList == null) {
-                // First time to render
-                startRoom = new RoomRectangle(drawing, this.getCurrentGame().getCurrentRoom());
-                allRoomsAsListCopy = new RoomRectangleList();
-                allRoomsAsList = new RoomRectangleList();
-                allRoomsAsList.add(startRoom);
-            } else {
-                startRoom = allRoomsAsList.findByRoom(this.getCurrentGame().getCurrentRoom());
-                allRoomsAsListCopy = allRoomsAsList;
-                if (!onlyUpdateLines) {
-                    allRoomsAsList = new RoomRectangleList();
+        for (int i = 0; i < roomRectangles.length; i++) {
+            RoomRectangle roomRectangle = roomRectangles[i];
+            if (placeRoom[i]) {
+                roomRectangle.setY(ys[i]);
+                roomRectangle.setX(xs[i]);
+            }
+            if (!roomRectangle.isRendered()) {
+                roomRectangle.setCustomParent(drawing);
+                roomRectangle.updateNameLabelPosition();
+            }
+            if (!allRoomsAsList.contains(roomRectangle)) {
+                allRoomsAsList.add(roomRectangle);
+            }
+        }
+        if (previousRooms != null && previousRooms != allRoomsAsList) {
+            for (RoomRectangle room : previousRooms) {
+                if (!allRoomsAsList.contains(room)) {
+                    // the rectangle was replaced and is not shown anymore
+                    room.removeAdjacentRoomsListener();
+                    roomsWithChangedConnections.add(room);
                 }
             }
+            // the rooms would otherwise keep the replaced list up to date
+            previousRooms.clear();
+        }
+
+        for (int connection = 0; connection < snapshot.getConnectionCount(); connection++) {
+            RoomRectangle startRoom = roomRectangles[snapshot.getConnectionStart(connection)];
+            RoomRectangle endRoom = roomRectangles[snapshot.getConnectionEnd(connection)];
+            ConnectionLine connectionLine = lineList.findByStartAndEndRoomIgnoreLineDirection(startRoom, endRoom);
+            if (connectionLine == null) {
+                // create a new line
+                connectionLine = new ConnectionLine(startRoom, endRoom);
+                connectionLine.setInvalidationRunnable(lineInvalidationRunnable);
+                lineList.add(connectionLine);
+                drawing.getChildren().add(connectionLine);
+            }
+        }
+
+        // new lines are located when they are created and the lines of moved rooms when the dirty rooms are flushed,
+        // so only the lines whose connection might have changed are checked here
+        List<ConnectionLine> linesToCheck = new ArrayList<>();
+        for (RoomRectangle room : roomsWithChangedConnections) {
+            lineList.getLinesOfRoom(room, linesToCheck);
+        }
+        roomsWithChangedConnections.clear();
+        for (ConnectionLine line : linesToCheck) {
+            // lines between two changed rooms are contained twice and might already be disposed
+            if (lineList.contains(line)) {
+                line.updateLocation();
+            }
+        }
 
-            renderQueue.add(startRoom);
+        // set the room count
+        currentRoomCount = allRoomsAsList.size();
 
-            // render unconnected rooms
-            renderQueue.addAll(unconnectedRooms);
+        if (autoLayout) {
+            // the breadth first layout overlaps in cycles, so refine it
+            startForceDirectedLayout(roomDistance, roomRectangles[0]);
+        }
 
-            while (!renderQueue.isEmpty()) {
-                RoomRectangle currentRoom = renderQueue.remove();
-                if (currentRoom == null) {
-                    FOKLogger.severe(EditorView.class.getName(), "currentRoom == null means that the room was never added to allRoomsAsList and that means that we ran into a bug, so report it :(");
-                    Platform.runLater(() -> new ReportingDialog(stage.getScene()).show(AppConfig.gitHubUserName, AppConfig.gitHubRepoName, new IllegalStateException("A room of the game was never added to allRoomsAsList. This is an internal bug and needs to be reported to the dev team. Please tell us at https://github.com/vatbub/zorkClone/issues what you did when this exception occurred.")));
-                }
+        if (viewportCuller != null) {
+            viewportCuller.requestFullUpdate();
+        }
+    }
 
-                //noinspection ConstantConditions
-                if (!currentRoom.isRendered()) {
-                    if (!allRoomsAsList.contains(currentRoom)) {
-                        allRoomsAsList.add(currentRoom);
-                    }
-                    currentRoom.setCustomParent(drawing);
-                    currentRoom.updateNameLabelPosition();
+    /**
+     * Checks that the rooms of the specified snapshot did not change since it was started and that the snapshot still
+     * contains the current room of the game and all rooms of the view
+     *
+     * @param snapshot The snapshot to check
+     * @return {@code true} if the snapshot can be applied
+     */
+    private boolean isSnapshotUpToDate(RoomGraphSnapshot snapshot) {
+        if (!snapshot.isCurrent()) {
+            return false;
+        }
+        if (snapshot.getRoom(0) != this.getCurrentGame().getCurrentRoom()) {
+            return false;
+        }
+        for (RoomRectangle room : unconnectedRooms) {
+            if (snapshot.indexOf(room.getRoom()) < 0) {
+                return false;
+            }
+        }
+        if (allRoomsAsList != null) {
+            for (RoomRectangle room : allRoomsAsList) {
+                if (snapshot.indexOf(room.getRoom()) < 0) {
+                    return false;
                 }
-                for (Map.Entry<WalkDirection, Room> entry : currentRoom.getRoom().getAdjacentRooms().entrySet()) {
-                    RoomRectangle newRoom;
-                    newRoom = allRoomsAsListCopy.findByRoom(entry.getValue());
-
-                    if (newRoom == null) {
-                        // not rendered yet
-                        newRoom = new RoomRectangle(drawing, entry.getValue());
-                        allRoomsAsList.add(newRoom);
-                    }
+            }
+        }
+        return true;
+    }
 
-                    // Set room position
-                    if (autoLayout && !newRoom.isRendered()) {
-                        switch (entry.getKey()) {
-                            case NORTH:
-                                newRoom.setY(currentRoom.getY() - newRoom.getHeight() - roomDistance);
-                                newRoom.setX(currentRoom.getX() + currentRoom.getWidth() / 2 - newRoom.getWidth() / 2);
-                                break;
-                            case WEST:
-                                newRoom.setY(currentRoom.getY());
-                                newRoom.setX(currentRoom.getX() - newRoom.getWidth() - roomDistance);
-                                break;
-                            case EAST:
-                                newRoom.setY(currentRoom.getY());
-                                newRoom.setX(currentRoom.getX() + currentRoom.getWidth() + roomDistance);
-                                break;
-                            case SOUTH:
-                                newRoom.setY(currentRoom.getY() + currentRoom.getHeight() + roomDistance);
-                                newRoom.setX(currentRoom.getX() + currentRoom.getWidth() / 2 - newRoom.getWidth() / 2);
-                                break;
-                            case NORTH_WEST:
-                                newRoom.setY(currentRoom.getY() - newRoom.getHeight() - roomDistance);
-                                newRoom.setX(currentRoom.getX() - newRoom.getWidth() - roomDistance);
-                                break;
-                            case NORTH_EAST:
-                                newRoom.setY(currentRoom.getY() - newRoom.getHeight() - roomDistance);
-                                newRoom.setX(currentRoom.getX() + currentRoom.getWidth() + roomDistance);
-                                break;
-                            case SOUTH_WEST:
-                                newRoom.setY(currentRoom.getY() + currentRoom.getHeight() + roomDistance);
-                                newRoom.setX(currentRoom.getX() - newRoom.getWidth() - roomDistance);
-                                break;
-                            case SOUTH_EAST:
-                                newRoom.setY(currentRoom.getY() + currentRoom.getHeight() + roomDistance);
-                                newRoom.setX(currentRoom.getX() + currentRoom.getWidth() + roomDistance);
-                                break;
-                        }
-                    }
+    /**
+     * Refines the current positions of all rooms with a {@link ForceDirectedLayout} that treats the preferred angles of the lines as constraints and removes overlaps.
+     * The layout runs on a background thread and the intermediate positions are applied to the view once per frame.
+     *
+     * @param roomDistance The distance between connected rooms
+     * @param fixedRoom    The room that stays where it is, may be {@code null}
+     */
+    private void startForceDirectedLayout(double roomDistance, RoomRectangle fixedRoom) {
+        List<RoomRectangle> rooms = new ArrayList<>(allRoomsAsList);
+        ForceDirectedLayout layout = new ForceDirectedLayout(roomDistance);
+        Map<RoomRectangle, Integer> nodeIndices = new IdentityHashMap<>();
+        for (RoomRectangle room : rooms) {
+            nodeIndices.put(room, layout.addNode(room.getX(), room.getY(), room.getWidth(), room.getHeight()));
+        }
 
+        for (ConnectionLine line : lineList) {
+            Integer from = nodeIndices.get(line.getStartRoom());
+            Integer to = nodeIndices.get(line.getEndRoom());
+            WalkDirection direction = line.getStartRoom().getRoom().getAdjacentRooms().getKeyForObject(line.getEndRoom().getRoom());
+            if (from != null && to != null && direction != null && direction != WalkDirection.NONE) {
+                layout.addEdge(from, to, line.getPreferredAngle());
+            }
+        }
 
-                    ConnectionLine connectionLine = lineList.findByStartAndEndRoomIgnoreLineDirection(currentRoom, newRoom);
-                    if (connectionLine == null) {
-                        // create a new line
-                        connectionLine = new ConnectionLine(currentRoom, newRoom);
-                        connectionLine.setInvalidationRunnable(lineInvalidationRunnable);
-                        lineList.add(connectionLine);
+        Integer fixedNode = nodeIndices.get(fixedRoom);
+        if (fixedNode != null) {
+            layout.setFixed(fixedNode);
+        }
 
-                        final Line connectionLineCopy = connectionLine;
-                        Platform.runLater(() -> drawing.getChildren().add(connectionLineCopy));
-                    }
+        currentLayout = layout;
+        layoutThreadPool.submit(() -> {
+            boolean stable = layout.run(maxLayoutIterations, layoutTolerance, iteratedLayout -> {
+                double[] xs = new double[rooms.size()];
+                double[] ys = new double[rooms.size()];
+                iteratedLayout.copyPositions(xs, ys);
+                // only the latest positions are applied if the layout is faster than the frame rate
+                renderScheduler.schedule(iteratedLayout, () -> applyLayoutPositions(iteratedLayout, rooms, xs, ys));
+            });
+            logger.fine(() -> "Force directed layout finished after " + layout.getIterationCount() + " iterations, stable: " + stable);
+        });
+    }
 
-                    ConnectionLine finalConnectionLine = connectionLine;
-                    Platform.runLater(finalConnectionLine::updateLocation);
+    private void applyLayoutPositions(ForceDirectedLayout layout, List<RoomRectangle> rooms, double[] xs, double[] ys) {
+        if (layout != currentLayout || layout.isCancelled()) {
+            return;
+        }
 
-                    if (!newRoom.isRendered()) {
-                        // render the child
-                        renderQueue.add(newRoom);
-                    }
-                }
+        for (int i = 0; i < rooms.size(); i++) {
+            rooms.get(i).setX(xs[i]);
+            rooms.get(i).setY(ys[i]);
+        }
+        for (ConnectionLine line : lineList) {
+            line.updateLocation();
+        }
+        updateViewport();
+    }
+
+    /**
+     * Stops the force directed layout if one is running, e. g. because the user started to move a room. Rooms stay where they are.
+     */
+    public void cancelAutoLayout() {
+        ForceDirectedLayout layout = currentLayout;
+        if (layout != null) {
+            layout.cancel();
+            currentLayout = null;
+        }
+    }
+
+    /**
+     * Marks the specified room as dirty after it was moved or resized. Only the lines of the room will be updated on the next flush of the dirty regions.
+     *
+     * @param room The room that was moved or resized
+     */
+    public void invalidateRoom(RoomRectangle room) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> invalidateRoom(room));
+            return;
+        }
+
+        dirtyRooms.add(room);
+        scheduleDirtyRegionFlush();
+    }
+
+    /**
+     * Marks the connections of the specified room as dirty. The next flush of the dirty regions will perform a full
+     * render of the lines and check the lines of the room.
+     *
+     * @param room The room whose connections were added, removed or replaced
+     */
+    public void invalidateTopology(RoomRectangle room) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> invalidateTopology(room));
+            return;
+        }
+
+        roomsWithChangedConnections.add(room);
+        invalidateTopology();
+    }
+
+    /**
+     * Marks the connections between rooms as dirty. The next flush of the dirty regions will perform a full render of the lines.
+     */
+    public void invalidateTopology() {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(this::invalidateTopology);
+            return;
+        }
+
+        topologyDirty = true;
+        scheduleDirtyRegionFlush();
+    }
+
+    private void scheduleDirtyRegionFlush() {
+        renderScheduler.schedule(this, flushDirtyRegionsTask);
+    }
+
+    /**
+     * Updates the nodes that are affected by the dirty rooms and connections.
+     */
+    private void flushDirtyRegions() {
+        if (topologyDirty) {
+            // clears the dirty regions
+            renderView(false, true);
+            return;
+        }
+
+        for (RoomRectangle room : dirtyRooms) {
+            if (room.isRendered()) {
+                lineList.getLinesOfRoom(room, dirtyLines);
             }
+        }
+        dirtyRooms.clear();
+        // lines between two dirty rooms are updated twice, the second update only compares the cached location
+        for (ConnectionLine line : dirtyLines) {
+            line.updateLocation();
+        }
+        dirtyLines.clear();
 
-            // set the room count
-            currentRoomCount = allRoomsAsList.size();
-            allRoomsAsListCopy = null;
-        });
+        // moved rooms might have entered or left the visible area
+        updateViewport();
     }
 
+    /**
+     * Requests an update of the rooms and lines that are attached to the drawing after the visible area changed.
+     */
+    private void updateViewport() {
+        if (viewportCuller != null && mapCanvas == null) {
+            viewportCuller.requestUpdate();
+        }
+    }
 
     @FXML
         // This method is called by the FXMLLoader when initialization is complete
@@ -675,7 +1009,11 @@ public class EditorView extends Application {
         });
 
         currentGame.addListener((observable, oldValue, newValue) -> {
+            // edits of the previous game cannot be undone anymore
+            editHistory.unobserveAll();
+            editHistory.clear();
             if (newValue != null) {
+                editHistory.observeAll(newValue.getCurrentRoom());
                 newValue.modifiedProperty().addListener((observable1, oldValue1, newValue1) -> {
                     this.menuItemSave.setDisable(!newValue1);
                     setWindowTitle(newValue);
@@ -684,10 +1022,19 @@ public class EditorView extends Application {
             setWindowTitle(newValue);
         });
 
+        viewportCuller = new ViewportCuller(this, drawing, scrollPane);
         initGame();
 
-        scrollPane.hvalueProperty().addListener((observable, oldValue, newValue) -> unselectingDisabled = true);
-        scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> unselectingDisabled = true);
+        scrollPane.hvalueProperty().addListener((observable, oldValue, newValue) -> {
+            unselectingDisabled = true;
+            updateViewport();
+        });
+        scrollPane.vvalueProperty().addListener((observable, oldValue, newValue) -> {
+            unselectingDisabled = true;
+            updateViewport();
+        });
+        scrollPane.widthProperty().addListener((observable, oldValue, newValue) -> updateViewport());
+        scrollPane.heightProperty().addListener((observable, oldValue, newValue) -> updateViewport());
 
         // add button icons
         insertRoom.setGraphic(new ImageView(new Image(EditorView.class.getResourceAsStream("add-room.png"))));
@@ -711,19 +1058,29 @@ public class EditorView extends Application {
         // drawing.setOnMouseDragged(forwardEventsToSelectableNodesHandler);
         scrollPane.setOnKeyPressed(event -> {
             if (event.getCode().equals(KeyCode.DELETE)) {
-                for (Node child : new ArrayList<>(drawing.getChildren())) {
-                    if (child instanceof Disposable) {
-                        if (((Disposable) child).isSelected() && event.getTarget() != child) {
-                            FOKLogger.fine(EditorView.class.getName(), "Sending disposal command to child, Child is:  " + child.toString() + "\ntarget is: " + event.getTarget().toString());
-                            try {
-                                ((Disposable) child).dispose();
-                            } catch (IllegalStateException e) {
-                                FOKLogger.log(EditorView.class.getName(), Level.INFO, "User tried to remove the current room (not allowed)", e);
-                                new Alert(Alert.AlertType.ERROR, "Could not perform delete operation: \n\n" + ExceptionUtils.getRootCauseMessage(e)).show();
+                // deleting multiple rooms and paths is undone at once
+                editHistory.beginTransaction();
+                try {
+                    for (Node child : new ArrayList<>(drawing.getChildren())) {
+                        if (child instanceof Disposable) {
+                            if (((Disposable) child).isSelected() && event.getTarget() != child) {
+                                logger.fine(() -> "Sending disposal command to child, Child is:  " + child.toString() + "\ntarget is: " + event.getTarget().toString());
+                                try {
+                                    ((Disposable) child).dispose();
+                                } catch (IllegalStateException e) {
+                                    FOKLogger.log(EditorView.class.getName(), Level.INFO, "User tried to remove the current room (not allowed)", e);
+                                    new Alert(Alert.AlertType.ERROR, "Could not perform delete operation: \n\n" + ExceptionUtils.getRootCauseMessage(e)).show();
+                                }
                             }
                         }
                     }
+                } finally {
+                    editHistory.commitTransaction();
                 }
+            } else if (event.getCode().equals(KeyCode.Z) && event.isControlDown() && !event.isShiftDown()) {
+                undo();
+            } else if ((event.getCode().equals(KeyCode.Y) && event.isControlDown()) || (event.getCode().equals(KeyCode.Z) && event.isControlDown() && event.isShiftDown())) {
+                redo();
             } else if (event.getCode().equals(KeyCode.A) && event.isControlDown()) {
                 // select everything
                 for (Node child : new ArrayList<>(drawing.getChildren())) {
@@ -735,6 +1092,26 @@ public class EditorView extends Application {
         });
     }
 
+    /**
+     * Undoes the most recent edit of the map
+     */
+    public void undo() {
+        if (editHistory.undo()) {
+            logger.fine("Undid the last edit");
+            renderView(false);
+        }
+    }
+
+    /**
+     * Redoes the most recently undone edit of the map
+     */
+    public void redo() {
+        if (editHistory.redo()) {
+            logger.fine("Redid the last undone edit");
+            renderView(false);
+        }
+    }
+
     /**
      * Initializes a new game
      */
@@ -761,14 +1138,78 @@ public class EditorView extends Application {
      */
     public void loadGame(Game game) {
         currentGame.setValue(game);
+        // the rectangles of the previous game are not shown anymore
+        for (RoomRectangle room : unconnectedRooms) {
+            room.removeAdjacentRoomsListener();
+        }
+        if (allRoomsAsList != null) {
+            for (RoomRectangle room : allRoomsAsList) {
+                room.removeAdjacentRoomsListener();
+            }
+        }
+        // the rooms would otherwise keep the replaced lists up to date
+        unconnectedRooms.clear();
+        if (allRoomsAsList != null) {
+            allRoomsAsList.clear();
+        }
         unconnectedRooms = new RoomRectangleList();
         allRoomsAsList = null;
+        roomsWithChangedConnections.clear();
         for (ConnectionLine line : new ConnectionLineList(lineList)) {
             line.invalidate();
         }
+
+        if (EntitySimulation.getReachableRooms(game.getCurrentRoom()).size() > maxRoomCountForNodeRendering) {
+            showMapCanvas();
+        } else {
+            hideMapCanvas();
+        }
+
         renderView();
     }
 
+    /**
+     * Replaces the node based rendering by a {@link MapCanvas}. Rooms and paths cannot be inserted while the map canvas is shown.
+     */
+    private void showMapCanvas() {
+        if (mapCanvas != null) {
+            return;
+        }
+
+        FOKLogger.info(EditorView.class.getName(), "Game is too large for the node based rendering, switching to the map canvas");
+        if (viewportCuller != null) {
+            viewportCuller.reset();
+        }
+        drawing.getChildren().clear();
+        mapCanvas = new MapCanvas(renderScheduler);
+        AnchorPane.setTopAnchor(mapCanvas, 0.0);
+        AnchorPane.setBottomAnchor(mapCanvas, 0.0);
+        AnchorPane.setLeftAnchor(mapCanvas, 0.0);
+        AnchorPane.setRightAnchor(mapCanvas, 0.0);
+        // add it below the compass
+        scrollPaneContainer.getChildren().add(scrollPaneContainer.getChildren().indexOf(scrollPane) + 1, mapCanvas);
+        scrollPane.setVisible(false);
+
+        setCurrentEditMode(EditMode.MOVE);
+        insertRoom.setDisable(true);
+        insertPath.setDisable(true);
+    }
+
+    /**
+     * Switches back to the node based rendering if the map canvas is shown
+     */
+    private void hideMapCanvas() {
+        if (mapCanvas == null) {
+            return;
+        }
+
+        scrollPaneContainer.getChildren().remove(mapCanvas);
+        mapCanvas = null;
+        scrollPane.setVisible(true);
+        insertRoom.setDisable(false);
+        insertPath.setDisable(false);
+    }
+
     @SuppressWarnings("unused")
     public void setWindowTitle() {
         setWindowTitle(currentGame.getValue());
@@ -822,7 +1263,8 @@ public class EditorView extends Application {
 
     @Override
     public void stop() {
-        renderThreadPool.shutdownNow();
+        renderWorker.shutdown();
+        layoutThreadPool.shutdownNow();
 
         // We need to call that explicitly because the ExecutorService makes the default exit bug around
         System.exit(0);
@@ -833,7 +1275,7 @@ public class EditorView extends Application {
     }
 
     public void setCurrentEditMode(EditMode currentEditMode) {
-        FOKLogger.finer(MainWindow.class.getName(), "Setting currentEditMode to " + currentEditMode.toString());
+        logger.finer(() -> "Setting currentEditMode to " + currentEditMode.toString());
         previousEditMode = this.currentEditMode;
 
         // Initialize or terminate the insert room mode
@@ -857,11 +1299,38 @@ public class EditorView extends Application {
     }
 
     public RoomRectangleList getAllRoomsAsList() {
-        if (allRoomsAsListCopy != null) {
-            return allRoomsAsListCopy;
-        } else {
-            return allRoomsAsList;
-        }
+        return allRoomsAsList;
+    }
+
+    /**
+     * Replaces the rooms that are considered rendered without rendering them, for tests that don't load the view
+     *
+     * @param allRoomsAsList The rooms to consider rendered
+     */
+    void setAllRoomsAsList(RoomRectangleList allRoomsAsList) {
+        this.allRoomsAsList = allRoomsAsList;
+    }
+
+    /**
+     * Returns the spatial index of all rooms that are currently rendered in the drawing.
+     *
+     * @return The spatial index of all rooms that are currently rendered in the drawing.
+     */
+    public RoomRectangleIndex getRoomIndex() {
+        return roomIndex;
+    }
+
+    /**
+     * Returns the scheduler that runs render tasks at most once per JavaFX pulse.
+     *
+     * @return The scheduler that runs render tasks at most once per JavaFX pulse.
+     */
+    public RenderScheduler getRenderScheduler() {
+        return renderScheduler;
+    }
+
+    public EditHistory getEditHistory() {
+        return editHistory;
     }
 
     public RoomRectangleList getUnconnectedRooms() {
@@ -0,0 +1,758 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Lays out rectangular nodes that are connected by edges with a preferred angle, e. g. rooms and their
+ * {@link ConnectionLine}s.<br>
+ * Each iteration consists of three phases:
+ * <ol>
+ * <li>The forces on all nodes are accumulated. Each edge pulls its end node towards the position that matches its
+ * preferred angle (the same position the breadth first auto layout would use) and all nodes repel each other. The
+ * repulsion is computed exactly for small graphs and with a Barnes-Hut quadtree for large graphs. It fades out while
+ * the layout cools down so that the final layout is determined by the preferred angles only. Nodes are independent
+ * of each other in this phase, so they are split up into chunks which are processed in parallel on a {@link ForkJoinPool}.</li>
+ * <li>The nodes are moved along their forces. The springs accumulate momentum which speeds up the convergence of
+ * large maps considerably, the repulsion may move a node at most by the current temperature.</li>
+ * <li>Once the springs settled, overlapping nodes are pushed apart along the axis with the smaller overlap. This is
+ * only needed if the preferred angles contradict each other, e. g. in cycles.</li>
+ * </ol>
+ * Every phase only reads the positions of the previous phase, so the result does not depend on the number of threads.<br>
+ * Positions are the top left corners of the nodes. Angles are in rad, 0 points north and the angle grows clockwise
+ * (see {@link ConnectionLine#getPreferredAngle()}).
+ */
+public class ForceDirectedLayout {
+    /**
+     * Number of nodes that are processed in a single task
+     */
+    private static final int nodesPerTask = 64;
+    /**
+     * Graphs with more nodes than this use the Barnes-Hut approximation for the repulsion
+     */
+    private static final int barnesHutThreshold = 256;
+    /**
+     * Cells of the quadtree whose size divided by their distance is smaller than this are treated as a single node.
+     * Must be smaller than 1 / sqrt(2) so that a cell is never approximated for a node inside of it.
+     */
+    private static final double barnesHutTheta = 0.7;
+    private static final double springStiffness = 0.5;
+    private static final double momentum = 0.9;
+    private static final double repulsionStrength = 0.1;
+    private static final double coolingFactor = 0.95;
+    private static final double minTemperature = 1;
+    /**
+     * Overlaps are removed once the repulsion faded out and no node moved by more than this in an iteration
+     */
+    private static final double settledDisplacement = 1;
+    private static final int maxOverlapRemovalPasses = 16;
+
+    private final ForkJoinPool pool;
+    /**
+     * The distance between connected nodes, equivalent to the room distance of the breadth first auto layout
+     */
+    private final double nodeDistance;
+    private final List<double[]> nodes = new ArrayList<>();
+    private final List<double[]> edges = new ArrayList<>();
+    private final Set<Integer> fixedNodeSet = new HashSet<>();
+    private volatile boolean cancelled;
+
+    // prepared in prepare()
+    private int nodeCount;
+    private double[] x;
+    private double[] y;
+    private double[] width;
+    private double[] height;
+    private boolean[] fixed;
+    private double[] velocityX;
+    private double[] velocityY;
+    /**
+     * The edges of each node in compressed row format: the edges of node i are edgeTargets[edgeOffsets[i]] to edgeTargets[edgeOffsets[i + 1] - 1]
+     */
+    private int[] edgeOffsets;
+    private int[] edgeTargets;
+    /**
+     * The unit direction of the edge, from the node to the target
+     */
+    private double[] edgeDirectionX;
+    private double[] edgeDirectionY;
+    private double idealDistance;
+    private double temperature;
+    private double initialTemperature;
+    private int iterationCount;
+    private boolean removingOverlaps;
+    private QuadTree quadTree;
+
+    /**
+     * Creates a layout that runs on the common {@link ForkJoinPool}
+     *
+     * @param nodeDistance The distance between connected nodes
+     */
+    public ForceDirectedLayout(double nodeDistance) {
+        this(nodeDistance, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a layout that runs on the specified pool.
+     *
+     * @param nodeDistance The distance between connected nodes
+     * @param pool         The pool to run the layout on or {@code null} to run the layout on the calling thread only
+     */
+    public ForceDirectedLayout(double nodeDistance, ForkJoinPool pool) {
+        this.nodeDistance = nodeDistance;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a node to the layout. Nodes can only be added before the first iteration.
+     *
+     * @param x      The x coordinate of the top left corner of the node
+     * @param y      The y coordinate of the top left corner of the node
+     * @param width  The width of the node
+     * @param height The height of the node
+     * @return The index of the new node
+     */
+    public int addNode(double x, double y, double width, double height) {
+        checkNotPrepared();
+        nodes.add(new double[]{x, y, width, height});
+        return nodes.size() - 1;
+    }
+
+    /**
+     * Adds an edge to the layout. Edges can only be added before the first iteration.
+     *
+     * @param from           The index of the start node
+     * @param to             The index of the end node
+     * @param preferredAngle The angle that the edge from {@code from} to {@code to} should have in rad, see {@link ConnectionLine#getPreferredAngle()}
+     */
+    public void addEdge(int from, int to, double preferredAngle) {
+        checkNotPrepared();
+        if (from < 0 || from >= nodes.size() || to < 0 || to >= nodes.size()) {
+            throw new IndexOutOfBoundsException("Edge from " + from + " to " + to + " but only " + nodes.size() + " nodes exist");
+        }
+        if (from != to) {
+            edges.add(new double[]{from, to, preferredAngle});
+        }
+    }
+
+    /**
+     * Fixes the specified node at its current position, e. g. the room the player is in, so that the layout does not drift away.
+     *
+     * @param node The index of the node to fix
+     */
+    public void setFixed(int node) {
+        checkNotPrepared();
+        fixedNodeSet.add(node);
+    }
+
+    private void checkNotPrepared() {
+        if (x != null) {
+            throw new IllegalStateException("The layout was already started");
+        }
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public double getX(int node) {
+        return x == null ? nodes.get(node)[0] : x[node];
+    }
+
+    public double getY(int node) {
+        return y == null ? nodes.get(node)[1] : y[node];
+    }
+
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    /**
+     * Cancels a running {@link #run(int, double, IterationListener)}. The layout stops after the current iteration.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Copies the current positions into the specified arrays
+     *
+     * @param xs The array to copy the x coordinates to, must have at least {@link #getNodeCount()} elements
+     * @param ys The array to copy the y coordinates to, must have at least {@link #getNodeCount()} elements
+     */
+    public void copyPositions(double[] xs, double[] ys) {
+        prepare();
+        System.arraycopy(x, 0, xs, 0, nodeCount);
+        System.arraycopy(y, 0, ys, 0, nodeCount);
+    }
+
+    private void prepare() {
+        if (x != null) {
+            return;
+        }
+
+        nodeCount = nodes.size();
+        x = new double[nodeCount];
+        y = new double[nodeCount];
+        width = new double[nodeCount];
+        height = new double[nodeCount];
+        fixed = new boolean[nodeCount];
+        velocityX = new double[nodeCount];
+        velocityY = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            double[] node = nodes.get(i);
+            x[i] = node[0];
+            y[i] = node[1];
+            width[i] = node[2];
+            height[i] = node[3];
+            fixed[i] = fixedNodeSet.contains(i);
+        }
+
+        // each edge is stored for both of its nodes
+        edgeOffsets = new int[nodeCount + 1];
+        for (double[] edge : edges) {
+            edgeOffsets[(int) edge[0] + 1]++;
+            edgeOffsets[(int) edge[1] + 1]++;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            edgeOffsets[i + 1] += edgeOffsets[i];
+        }
+        int[] nextEdge = Arrays.copyOf(edgeOffsets, nodeCount);
+        edgeTargets = new int[edges.size() * 2];
+        edgeDirectionX = new double[edges.size() * 2];
+        edgeDirectionY = new double[edges.size() * 2];
+        for (double[] edge : edges) {
+            int from = (int) edge[0];
+            int to = (int) edge[1];
+            // the breadth first auto layout places diagonal neighbours at full offsets in both axes, so only use the sign
+            double directionX = sign(Math.sin(edge[2]));
+            double directionY = -sign(Math.cos(edge[2]));
+
+            int fromEdge = nextEdge[from]++;
+            edgeTargets[fromEdge] = to;
+            edgeDirectionX[fromEdge] = directionX;
+            edgeDirectionY[fromEdge] = directionY;
+
+            int toEdge = nextEdge[to]++;
+            edgeTargets[toEdge] = from;
+            edgeDirectionX[toEdge] = -directionX;
+            edgeDirectionY[toEdge] = -directionY;
+        }
+
+        double sizeSum = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            sizeSum += (width[i] + height[i]) / 2;
+        }
+        idealDistance = (nodeCount == 0 ? 0 : sizeSum / nodeCount) + nodeDistance;
+        initialTemperature = Math.max(minTemperature, idealDistance);
+        temperature = initialTemperature;
+    }
+
+    private static double sign(double value) {
+        // sin(PI) is not exactly 0
+        return Math.abs(value) < 1e-9 ? 0 : Math.signum(value);
+    }
+
+    /**
+     * Runs iterations until the nodes do not move anymore, the maximum number of iterations is reached or the layout is {@link #cancel() cancelled}.
+     *
+     * @param maxIterations The maximum number of iterations
+     * @param tolerance     The layout is considered stable once no node moved by more than this in an iteration
+     * @param listener      Called after each iteration, may be {@code null}
+     * @return {@code true} if the layout is stable, {@code false} if it was cancelled or the maximum number of iterations was reached
+     */
+    public boolean run(int maxIterations, double tolerance, IterationListener listener) {
+        for (int i = 0; i < maxIterations && !cancelled; i++) {
+            double maxDisplacement = step();
+            if (listener != null) {
+                listener.iterationDone(this);
+            }
+            if (maxDisplacement <= tolerance && removingOverlaps) {
+                return !cancelled;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Performs a single iteration.
+     *
+     * @return The maximum distance that a node moved in this iteration
+     */
+    public double step() {
+        prepare();
+        if (nodeCount == 0) {
+            return 0;
+        }
+
+        double repulsionFactor = repulsionStrength * (temperature - minTemperature) / initialTemperature;
+        if (repulsionFactor > 0 && nodeCount > barnesHutThreshold) {
+            quadTree = new QuadTree(x, y, width, height);
+        } else {
+            quadTree = null;
+        }
+
+        // phase 1: accumulate forces, parallel
+        double[] springForceX = new double[nodeCount];
+        double[] springForceY = new double[nodeCount];
+        double[] repulsionForceX = new double[nodeCount];
+        double[] repulsionForceY = new double[nodeCount];
+        invoke(new NodeTask(0, nodeCount, (from, to) -> accumulateForces(from, to, repulsionFactor, springForceX, springForceY, repulsionForceX, repulsionForceY)));
+
+        // phase 2: move. The averaged springs are stable on their own, only the repulsion is limited by the temperature.
+        double[] previousX = x.clone();
+        double[] previousY = y.clone();
+        double maxDisplacement = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (fixed[i]) {
+                continue;
+            }
+            double repulsionLength = Math.hypot(repulsionForceX[i], repulsionForceY[i]);
+            if (repulsionLength > temperature) {
+                repulsionForceX[i] *= temperature / repulsionLength;
+                repulsionForceY[i] *= temperature / repulsionLength;
+            }
+            velocityX[i] = momentum * velocityX[i] + springForceX[i];
+            velocityY[i] = momentum * velocityY[i] + springForceY[i];
+            double dx = velocityX[i] + repulsionForceX[i];
+            double dy = velocityY[i] + repulsionForceY[i];
+            x[i] += dx;
+            y[i] += dy;
+            maxDisplacement = Math.max(maxDisplacement, Math.hypot(dx, dy));
+        }
+
+        // phase 3: remove overlaps. Not done before the springs settled as tangled nodes need to pass each other to untangle.
+        if (!removingOverlaps && repulsionFactor <= 0 && maxDisplacement < settledDisplacement) {
+            removingOverlaps = true;
+        }
+        if (removingOverlaps) {
+            // the overlaps are a hard constraint, so the nodes are pushed apart until they do not overlap anymore
+            for (int pass = 0; pass < maxOverlapRemovalPasses && removeOverlaps(); pass++) {
+                // removeOverlaps does the work
+            }
+
+            // the springs might pull the nodes into each other again in every iteration, so only the net movement counts
+            maxDisplacement = 0;
+            for (int i = 0; i < nodeCount; i++) {
+                maxDisplacement = Math.max(maxDisplacement, Math.hypot(x[i] - previousX[i], y[i] - previousY[i]));
+            }
+        }
+
+        temperature = Math.max(minTemperature, temperature * coolingFactor);
+        iterationCount++;
+        return maxDisplacement;
+    }
+
+    /**
+     * Pushes overlapping nodes apart once. The momentum of pushed nodes is dropped.
+     *
+     * @return {@code true} if at least one node was moved
+     */
+    private boolean removeOverlaps() {
+        double cellSize = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            cellSize = Math.max(cellSize, Math.max(width[i], height[i]));
+        }
+        cellSize += nodeDistance / 2;
+        if (cellSize <= 0) {
+            return false;
+        }
+
+        // hash the node centers into cells that are at least as large as every node, so overlapping nodes are always in neighbouring cells
+        Map<Long, List<Integer>> cells = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            cells.computeIfAbsent(cellKey(cellCoordinate(centerX(i), cellSize), cellCoordinate(centerY(i), cellSize)), key -> new ArrayList<>(4)).add(i);
+        }
+
+        double[] displacementX = new double[nodeCount];
+        double[] displacementY = new double[nodeCount];
+        final double finalCellSize = cellSize;
+        invoke(new NodeTask(0, nodeCount, (from, to) -> computeOverlapDisplacements(from, to, cells, finalCellSize, displacementX, displacementY)));
+
+        boolean moved = false;
+        for (int i = 0; i < nodeCount; i++) {
+            if (fixed[i] || (displacementX[i] == 0 && displacementY[i] == 0)) {
+                continue;
+            }
+            x[i] += displacementX[i];
+            y[i] += displacementY[i];
+            velocityX[i] = 0;
+            velocityY[i] = 0;
+            moved = true;
+        }
+        return moved;
+    }
+
+    /**
+     * Checks whether any two nodes are closer to each other than half of the node distance. Overlaps of less than half a pixel are ignored.
+     *
+     * @return {@code true} if at least two nodes overlap
+     */
+    public boolean hasOverlaps() {
+        prepare();
+        double spacing = nodeDistance / 2;
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = i + 1; j < nodeCount; j++) {
+                if (overlapX(i, j, spacing) > 0.5 && overlapY(i, j, spacing) > 0.5) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void accumulateForces(int from, int to, double repulsionFactor, double[] springForceX, double[] springForceY, double[] repulsionForceX, double[] repulsionForceY) {
+        double[] repulsion = new double[2];
+        for (int i = from; i < to; i++) {
+            // springs towards the preferred positions, averaged so that nodes with many edges do not overshoot
+            double fx = 0;
+            double fy = 0;
+            int degree = edgeOffsets[i + 1] - edgeOffsets[i];
+            for (int edge = edgeOffsets[i]; edge < edgeOffsets[i + 1]; edge++) {
+                int j = edgeTargets[edge];
+                double targetDx = edgeDirectionX[edge] * ((width[i] + width[j]) / 2 + nodeDistance);
+                double targetDy = edgeDirectionY[edge] * ((height[i] + height[j]) / 2 + nodeDistance);
+                fx += springStiffness / degree * ((centerX(j) - centerX(i)) - targetDx);
+                fy += springStiffness / degree * ((centerY(j) - centerY(i)) - targetDy);
+            }
+            springForceX[i] = fx;
+            springForceY[i] = fy;
+
+            if (repulsionFactor <= 0) {
+                continue;
+            }
+            repulsion[0] = 0;
+            repulsion[1] = 0;
+            if (quadTree != null) {
+                quadTree.accumulateRepulsion(i, centerX(i), centerY(i), repulsionFactor, repulsion);
+            } else {
+                for (int j = 0; j < nodeCount; j++) {
+                    if (j != i) {
+                        addRepulsion(i, centerX(i) - centerX(j), centerY(i) - centerY(j), j, 1, repulsionFactor, repulsion);
+                    }
+                }
+            }
+            repulsionForceX[i] = repulsion[0];
+            repulsionForceY[i] = repulsion[1];
+        }
+    }
+
+    /**
+     * Adds the repulsion of a mass at the specified offset to {@code res}
+     *
+     * @param node            The node that is repelled
+     * @param dx              The x distance between the node and the mass
+     * @param dy              The y distance between the node and the mass
+     * @param other           An index that identifies the mass, used to separate nodes at the same position
+     * @param mass            The number of nodes the mass consists of
+     * @param repulsionFactor The current strength of the repulsion
+     * @param res             The array to add the force to
+     */
+    private void addRepulsion(int node, double dx, double dy, int other, double mass, double repulsionFactor, double[] res) {
+        double distance = Math.hypot(dx, dy);
+        if (distance < 1e-9) {
+            // nodes at the same position are separated in a direction that depends on their indices
+            double angle = (node - other) * 2.399963229728653;
+            dx = Math.cos(angle);
+            dy = Math.sin(angle);
+            distance = 1;
+        }
+        double clampedDistance = Math.max(distance, idealDistance / 10);
+        double force = mass * repulsionFactor * idealDistance * idealDistance * idealDistance / (clampedDistance * clampedDistance);
+        res[0] += dx / distance * force;
+        res[1] += dy / distance * force;
+    }
+
+    private void computeOverlapDisplacements(int from, int to, Map<Long, List<Integer>> cells, double cellSize, double[] displacementX, double[] displacementY) {
+        double spacing = nodeDistance / 2;
+        for (int i = from; i < to; i++) {
+            int cellX = cellCoordinate(centerX(i), cellSize);
+            int cellY = cellCoordinate(centerY(i), cellSize);
+            for (int neighbourCellX = cellX - 1; neighbourCellX <= cellX + 1; neighbourCellX++) {
+                for (int neighbourCellY = cellY - 1; neighbourCellY <= cellY + 1; neighbourCellY++) {
+                    List<Integer> cell = cells.get(cellKey(neighbourCellX, neighbourCellY));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (int j : cell) {
+                        if (j == i) {
+                            continue;
+                        }
+                        double overlapX = overlapX(i, j, spacing);
+                        double overlapY = overlapY(i, j, spacing);
+                        if (overlapX <= 0 || overlapY <= 0) {
+                            continue;
+                        }
+
+                        // both nodes move by half of the overlap, or the whole overlap if the other node is fixed
+                        double share = fixed[j] ? 1 : 0.5;
+                        // nodes at the same coordinate are separated by their indices
+                        double dx = centerX(i) - centerX(j);
+                        double dy = centerY(i) - centerY(j);
+                        if (overlapX <= overlapY) {
+                            displacementX[i] += Math.signum(dx == 0 ? i - j : dx) * overlapX * share;
+                        } else {
+                            displacementY[i] += Math.signum(dy == 0 ? i - j : dy) * overlapY * share;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private double overlapX(int i, int j, double spacing) {
+        return (width[i] + width[j]) / 2 + spacing - Math.abs(centerX(i) - centerX(j));
+    }
+
+    private double overlapY(int i, int j, double spacing) {
+        return (height[i] + height[j]) / 2 + spacing - Math.abs(centerY(i) - centerY(j));
+    }
+
+    private double centerX(int node) {
+        return x[node] + width[node] / 2;
+    }
+
+    private double centerY(int node) {
+        return y[node] + height[node] / 2;
+    }
+
+    private static int cellCoordinate(double coordinate, double cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return (((long) cellX) << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private void invoke(NodeTask task) {
+        if (pool == null) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IterationListener {
+        /**
+         * Called after each iteration on the thread that runs the layout. Use {@link #copyPositions(double[], double[])} to get the current positions.
+         *
+         * @param layout The layout that finished an iteration
+         */
+        void iterationDone(ForceDirectedLayout layout);
+    }
+
+    @FunctionalInterface
+    private interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /**
+     * Processes a range of nodes and splits itself up if the range is too large.
+     */
+    private static class NodeTask extends RecursiveAction {
+        private final int fromIndex;
+        private final int toIndex;
+        private final RangeAction action;
+
+        NodeTask(int fromIndex, int toIndex, RangeAction action) {
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > nodesPerTask && getPool() != null) {
+                int middle = (fromIndex + toIndex) >>> 1;
+                invokeAll(new NodeTask(fromIndex, middle, action), new NodeTask(middle, toIndex, action));
+                return;
+            }
+
+            action.run(fromIndex, toIndex);
+        }
+    }
+
+    /**
+     * A Barnes-Hut quadtree of the node centers. The tree is built sequentially and read in parallel.
+     */
+    private class QuadTree {
+        private static final int maxDepth = 32;
+        private int cellCount;
+        private double[] cellMinX;
+        private double[] cellMinY;
+        private double[] cellSize;
+        private double[] massCenterX;
+        private double[] massCenterY;
+        private int[] mass;
+        /**
+         * The index of the first child cell (children are stored consecutively) or -1 if the cell is a leaf
+         */
+        private int[] firstChild;
+        /**
+         * The node in a leaf or -1 if the leaf is empty or contains multiple nodes at (almost) the same position
+         */
+        private int[] leafNode;
+
+        QuadTree(double[] x, double[] y, double[] width, double[] height) {
+            int capacity = nodeCount * 4 + 1;
+            cellMinX = new double[capacity];
+            cellMinY = new double[capacity];
+            cellSize = new double[capacity];
+            massCenterX = new double[capacity];
+            massCenterY = new double[capacity];
+            mass = new int[capacity];
+            firstChild = new int[capacity];
+            leafNode = new int[capacity];
+
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < nodeCount; i++) {
+                minX = Math.min(minX, x[i] + width[i] / 2);
+                minY = Math.min(minY, y[i] + height[i] / 2);
+                maxX = Math.max(maxX, x[i] + width[i] / 2);
+                maxY = Math.max(maxY, y[i] + height[i] / 2);
+            }
+
+            newCell(minX, minY, Math.max(1, Math.max(maxX - minX, maxY - minY)));
+            for (int i = 0; i < nodeCount; i++) {
+                insert(0, i, centerX(i), centerY(i), 0);
+            }
+        }
+
+        private int newCell(double minX, double minY, double size) {
+            if (cellCount == cellMinX.length) {
+                int capacity = cellCount * 2;
+                cellMinX = Arrays.copyOf(cellMinX, capacity);
+                cellMinY = Arrays.copyOf(cellMinY, capacity);
+                cellSize = Arrays.copyOf(cellSize, capacity);
+                massCenterX = Arrays.copyOf(massCenterX, capacity);
+                massCenterY = Arrays.copyOf(massCenterY, capacity);
+                mass = Arrays.copyOf(mass, capacity);
+                firstChild = Arrays.copyOf(firstChild, capacity);
+                leafNode = Arrays.copyOf(leafNode, capacity);
+            }
+            int cell = cellCount++;
+            cellMinX[cell] = minX;
+            cellMinY[cell] = minY;
+            cellSize[cell] = size;
+            massCenterX[cell] = 0;
+            massCenterY[cell] = 0;
+            mass[cell] = 0;
+            firstChild[cell] = -1;
+            leafNode[cell] = -1;
+            return cell;
+        }
+
+        private void insert(int cell, int node, double px, double py, int depth) {
+            // update the center of mass on the way down
+            massCenterX[cell] = (massCenterX[cell] * mass[cell] + px) / (mass[cell] + 1);
+            massCenterY[cell] = (massCenterY[cell] * mass[cell] + py) / (mass[cell] + 1);
+            mass[cell]++;
+
+            if (firstChild[cell] == -1) {
+                if (mass[cell] == 1) {
+                    leafNode[cell] = node;
+                    return;
+                }
+                if (depth >= maxDepth) {
+                    // nodes at (almost) the same position, keep them aggregated in this leaf
+                    leafNode[cell] = -1;
+                    return;
+                }
+
+                // split the leaf, newCell might replace the arrays so it must be called before firstChild is accessed
+                double half = cellSize[cell] / 2;
+                int child = newCell(cellMinX[cell], cellMinY[cell], half);
+                firstChild[cell] = child;
+                newCell(cellMinX[cell] + half, cellMinY[cell], half);
+                newCell(cellMinX[cell], cellMinY[cell] + half, half);
+                newCell(cellMinX[cell] + half, cellMinY[cell] + half, half);
+                int previousNode = leafNode[cell];
+                leafNode[cell] = -1;
+                insert(childFor(cell, centerX(previousNode), centerY(previousNode)), previousNode, centerX(previousNode), centerY(previousNode), depth + 1);
+            }
+
+            insert(childFor(cell, px, py), node, px, py, depth + 1);
+        }
+
+        private int childFor(int cell, double px, double py) {
+            double half = cellSize[cell] / 2;
+            int index = 0;
+            if (px >= cellMinX[cell] + half) {
+                index += 1;
+            }
+            if (py >= cellMinY[cell] + half) {
+                index += 2;
+            }
+            return firstChild[cell] + index;
+        }
+
+        void accumulateRepulsion(int node, double px, double py, double repulsionFactor, double[] res) {
+            int[] stack = new int[maxDepth * 4 + 4];
+            int stackSize = 0;
+            stack[stackSize++] = 0;
+            while (stackSize > 0) {
+                int cell = stack[--stackSize];
+                if (mass[cell] == 0) {
+                    continue;
+                }
+
+                double dx = px - massCenterX[cell];
+                double dy = py - massCenterY[cell];
+                if (firstChild[cell] == -1) {
+                    if (leafNode[cell] == node) {
+                        continue;
+                    }
+                    // aggregated leaves might contain the node itself
+                    int otherMass = leafNode[cell] == -1 ? mass[cell] - (containsNodeAt(cell, px, py) ? 1 : 0) : mass[cell];
+                    if (otherMass > 0) {
+                        addRepulsion(node, dx, dy, leafNode[cell] == -1 ? cell : leafNode[cell], otherMass, repulsionFactor, res);
+                    }
+                } else if (cellSize[cell] / Math.hypot(dx, dy) < barnesHutTheta) {
+                    addRepulsion(node, dx, dy, cell, mass[cell], repulsionFactor, res);
+                } else {
+                    for (int child = firstChild[cell]; child < firstChild[cell] + 4; child++) {
+                        stack[stackSize++] = child;
+                    }
+                }
+            }
+        }
+
+        private boolean containsNodeAt(int cell, double px, double py) {
+            return px >= cellMinX[cell] && px <= cellMinX[cell] + cellSize[cell] && py >= cellMinY[cell] && py <= cellMinY[cell] + cellSize[cell];
+        }
+    }
+}
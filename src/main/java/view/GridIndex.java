@@ -0,0 +1,437 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A spatial index of rectangular elements. The elements are hashed into a uniform grid of square cells, so point and
+ * rectangle queries only look at the elements in the affected cells instead of scanning all elements, and nearest
+ * neighbour queries search outwards ring by ring.<br>
+ * Subclasses tell the index where an element is located. Elements need to be {@link #update(Object) updated} when
+ * they move. Rectangle queries are clamped to the cells that contain elements and look at the occupied cells directly
+ * if the queried area spans more cells than are occupied, so querying a large area of a sparse index stays cheap. All
+ * methods are synchronized.
+ *
+ * @param <T> The type of the indexed elements. Elements are compared by identity.
+ */
+public abstract class GridIndex<T> {
+    private final double cellSize;
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private final Map<T, Entry> entries = new IdentityHashMap<>();
+    /**
+     * Elements inserted later are usually drawn in front of elements inserted earlier, so the sequence number is used to prefer the front element
+     */
+    private long nextSequenceNumber;
+    /**
+     * The bounds of all cells that were occupied since the index was empty the last time. The bounds do not shrink when
+     * elements move away or are removed, which only makes queries look at a few more cells than necessary.
+     */
+    private int occupiedMinCellX;
+    private int occupiedMinCellY;
+    private int occupiedMaxCellX;
+    private int occupiedMaxCellY;
+
+    /**
+     * @param cellSize The edge length of the grid cells. Should be in the order of magnitude of the size of the elements.
+     */
+    public GridIndex(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be greater than 0");
+        }
+        this.cellSize = cellSize;
+        resetOccupiedBounds();
+    }
+
+    protected abstract double getMinX(T element);
+
+    protected abstract double getMinY(T element);
+
+    protected abstract double getWidth(T element);
+
+    protected abstract double getHeight(T element);
+
+    private static long cellKey(int cellX, int cellY) {
+        return (((long) cellX) << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private int cellCoordinate(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Inserts the specified element into the index or updates its position if it is already indexed.
+     *
+     * @param element The element to insert or update
+     */
+    public synchronized void update(@NotNull T element) {
+        Objects.requireNonNull(element);
+
+        int minCellX = cellCoordinate(getMinX(element));
+        int minCellY = cellCoordinate(getMinY(element));
+        int maxCellX = cellCoordinate(getMinX(element) + getWidth(element));
+        int maxCellY = cellCoordinate(getMinY(element) + getHeight(element));
+
+        Entry entry = entries.get(element);
+        if (entry == null) {
+            entry = new Entry(nextSequenceNumber++);
+            entries.put(element, entry);
+        } else if (entry.minCellX == minCellX && entry.minCellY == minCellY && entry.maxCellX == maxCellX && entry.maxCellY == maxCellY) {
+            // still in the same cells
+            return;
+        } else {
+            removeFromCells(element, entry);
+        }
+
+        entry.minCellX = minCellX;
+        entry.minCellY = minCellY;
+        entry.maxCellX = maxCellX;
+        entry.maxCellY = maxCellY;
+        occupiedMinCellX = Math.min(occupiedMinCellX, minCellX);
+        occupiedMinCellY = Math.min(occupiedMinCellY, minCellY);
+        occupiedMaxCellX = Math.max(occupiedMaxCellX, maxCellX);
+        occupiedMaxCellY = Math.max(occupiedMaxCellY, maxCellY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                cells.computeIfAbsent(cellKey(cellX, cellY), key -> new ArrayList<>(4)).add(element);
+            }
+        }
+    }
+
+    /**
+     * Removes the specified element from the index. Does nothing if the element is not indexed.
+     *
+     * @param element The element to remove
+     */
+    public synchronized void remove(T element) {
+        Entry entry = entries.remove(element);
+        if (entry != null) {
+            removeFromCells(element, entry);
+        }
+        if (entries.isEmpty()) {
+            resetOccupiedBounds();
+        }
+    }
+
+    private void resetOccupiedBounds() {
+        occupiedMinCellX = Integer.MAX_VALUE;
+        occupiedMinCellY = Integer.MAX_VALUE;
+        occupiedMaxCellX = Integer.MIN_VALUE;
+        occupiedMaxCellY = Integer.MIN_VALUE;
+    }
+
+    private void removeFromCells(T element, Entry entry) {
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellY = entry.minCellY; cellY <= entry.maxCellY; cellY++) {
+                long key = cellKey(cellX, cellY);
+                List<T> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(element);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    public synchronized boolean contains(T element) {
+        return entries.containsKey(element);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        entries.clear();
+        resetOccupiedBounds();
+    }
+
+    /**
+     * Finds the element that contains the specified point. If multiple elements contain the point, the element that was
+     * inserted last (and thus is usually drawn in front) is returned.
+     *
+     * @param x The x coordinate of the point
+     * @param y The y coordinate of the point
+     * @return The front most element that contains the specified point or {@code null} if no element contains it
+     */
+    @Nullable
+    public synchronized T findAt(double x, double y) {
+        List<T> cell = cells.get(cellKey(cellCoordinate(x), cellCoordinate(y)));
+        if (cell == null) {
+            return null;
+        }
+
+        T res = null;
+        long resSequenceNumber = -1;
+        for (T element : cell) {
+            if (x >= getMinX(element) && x <= getMinX(element) + getWidth(element) && y >= getMinY(element) && y <= getMinY(element) + getHeight(element)) {
+                long sequenceNumber = entries.get(element).sequenceNumber;
+                if (sequenceNumber > resSequenceNumber) {
+                    res = element;
+                    resSequenceNumber = sequenceNumber;
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Finds all elements that intersect the specified rectangle.
+     *
+     * @param minX The left edge of the rectangle
+     * @param minY The top edge of the rectangle
+     * @param maxX The right edge of the rectangle
+     * @param maxY The bottom edge of the rectangle
+     * @return All elements that intersect the specified rectangle
+     */
+    public synchronized List<T> findIntersecting(double minX, double minY, double maxX, double maxY) {
+        List<T> res = new ArrayList<>();
+        Set<T> visitedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        forEachOccupiedCell(minX, minY, maxX, maxY, (cellX, cellY, cell) -> {
+            for (T element : cell) {
+                if (getMinX(element) <= maxX && getMinX(element) + getWidth(element) >= minX && getMinY(element) <= maxY && getMinY(element) + getHeight(element) >= minY && visitedElements.add(element)) {
+                    res.add(element);
+                }
+            }
+        });
+
+        return res;
+    }
+
+    /**
+     * Finds the {@code k} elements whose centers are closest to the specified point, closest first. The grid is searched
+     * ring by ring around the point until no closer element can be found.
+     *
+     * @param x The x coordinate of the point
+     * @param y The y coordinate of the point
+     * @param k The maximum number of elements to return
+     * @return The {@code k} closest elements or fewer if the index contains less than {@code k} elements
+     */
+    public List<T> findNearest(double x, double y, int k) {
+        return findNearest(x, y, k, null);
+    }
+
+    /**
+     * Finds the {@code k} elements whose centers are closest to the specified point and that match the specified
+     * filter, closest first. Only the cells on each ring around the point that lie within the occupied cells are
+     * looked at, and the search stops once the ring is farther away than the {@code k}-th closest element found so far
+     * or covers all occupied cells.
+     *
+     * @param x      The x coordinate of the point
+     * @param y      The y coordinate of the point
+     * @param k      The maximum number of elements to return
+     * @param filter Only elements that match this filter are returned. {@code null} to accept all elements.
+     * @return The {@code k} closest matching elements or fewer if the index contains less than {@code k} matching elements
+     */
+    public synchronized List<T> findNearest(double x, double y, int k, @Nullable Predicate<? super T> filter) {
+        List<T> res = new ArrayList<>();
+        if (k <= 0 || entries.isEmpty()) {
+            return res;
+        }
+
+        // max heap of the best candidates so far
+        PriorityQueue<Candidate<T>> candidates = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b.squaredDistance, a.squaredDistance));
+        Set<T> visitedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        int centerCellX = cellCoordinate(x);
+        int centerCellY = cellCoordinate(y);
+        // rings closer than the occupied cells are empty, rings further away than all occupied cells are never searched
+        int firstRing = Math.max(0, Math.max(Math.max(occupiedMinCellX - centerCellX, centerCellX - occupiedMaxCellX), Math.max(occupiedMinCellY - centerCellY, centerCellY - occupiedMaxCellY)));
+        int lastRing = Math.max(Math.max(centerCellX - occupiedMinCellX, occupiedMaxCellX - centerCellX), Math.max(centerCellY - occupiedMinCellY, occupiedMaxCellY - centerCellY));
+
+        for (int ring = firstRing; ring <= lastRing && visitedElements.size() < entries.size(); ring++) {
+            if (candidates.size() == k) {
+                // every element that was not visited yet is at least (ring - 1) cells away
+                double minDistance = (ring - 1) * cellSize;
+                if (minDistance > 0 && minDistance * minDistance > candidates.peek().squaredDistance) {
+                    break;
+                }
+            }
+
+            // only the cells on the ring that are within the occupied bounds
+            int fromCellX = Math.max(centerCellX - ring, occupiedMinCellX);
+            int toCellX = Math.min(centerCellX + ring, occupiedMaxCellX);
+            int fromCellY = Math.max(centerCellY - ring + 1, occupiedMinCellY);
+            int toCellY = Math.min(centerCellY + ring - 1, occupiedMaxCellY);
+            int topCellY = centerCellY - ring;
+            int bottomCellY = centerCellY + ring;
+            int leftCellX = centerCellX - ring;
+            int rightCellX = centerCellX + ring;
+            for (int cellX = fromCellX; cellX <= toCellX; cellX++) {
+                if (topCellY >= occupiedMinCellY) {
+                    offerCell(cellX, topCellY, x, y, k, filter, candidates, visitedElements);
+                }
+                if (ring > 0 && bottomCellY <= occupiedMaxCellY) {
+                    offerCell(cellX, bottomCellY, x, y, k, filter, candidates, visitedElements);
+                }
+            }
+            for (int cellY = fromCellY; cellY <= toCellY; cellY++) {
+                if (leftCellX >= occupiedMinCellX) {
+                    offerCell(leftCellX, cellY, x, y, k, filter, candidates, visitedElements);
+                }
+                if (rightCellX <= occupiedMaxCellX) {
+                    offerCell(rightCellX, cellY, x, y, k, filter, candidates, visitedElements);
+                }
+            }
+        }
+
+        while (!candidates.isEmpty()) {
+            res.add(candidates.poll().element);
+        }
+        Collections.reverse(res);
+        return res;
+    }
+
+    /**
+     * Adds the elements of the specified cell that were not visited yet and match the filter to the candidates and
+     * drops the farthest candidate if there are more than {@code k}
+     */
+    private void offerCell(int cellX, int cellY, double x, double y, int k, Predicate<? super T> filter, PriorityQueue<Candidate<T>> candidates, Set<T> visitedElements) {
+        List<T> cell = cells.get(cellKey(cellX, cellY));
+        if (cell == null) {
+            return;
+        }
+        for (T element : cell) {
+            if (!visitedElements.add(element)) {
+                continue;
+            }
+            if (filter != null && !filter.test(element)) {
+                continue;
+            }
+            double dx = (getMinX(element) + getWidth(element) / 2) - x;
+            double dy = (getMinY(element) + getHeight(element) / 2) - y;
+            candidates.add(new Candidate<>(element, dx * dx + dy * dy));
+            if (candidates.size() > k) {
+                candidates.poll();
+            }
+        }
+    }
+
+    /**
+     * Calls the specified visitor for every non-empty grid cell that intersects the specified rectangle. Useful to draw
+     * aggregates of the elements without looking at every single element.
+     *
+     * @param minX    The left edge of the rectangle
+     * @param minY    The top edge of the rectangle
+     * @param maxX    The right edge of the rectangle
+     * @param maxY    The bottom edge of the rectangle
+     * @param visitor The visitor to call for each non-empty cell
+     */
+    public synchronized void visitCells(double minX, double minY, double maxX, double maxY, @NotNull CellVisitor visitor) {
+        Objects.requireNonNull(visitor);
+
+        forEachOccupiedCell(minX, minY, maxX, maxY, (cellX, cellY, cell) -> visitor.visit(cellX * cellSize, cellY * cellSize, cellSize, cell.size()));
+    }
+
+    /**
+     * Calls the specified action for every non-empty cell that intersects the specified rectangle. The rectangle is
+     * clamped to the occupied cells first. If it still spans more cells than are occupied, the occupied cells are
+     * iterated instead of looking up every cell of the rectangle. The order of the cells is unspecified.
+     */
+    private void forEachOccupiedCell(double minX, double minY, double maxX, double maxY, CellAction<T> action) {
+        if (cells.isEmpty()) {
+            return;
+        }
+
+        int fromCellX = Math.max(cellCoordinate(minX), occupiedMinCellX);
+        int fromCellY = Math.max(cellCoordinate(minY), occupiedMinCellY);
+        int toCellX = Math.min(cellCoordinate(maxX), occupiedMaxCellX);
+        int toCellY = Math.min(cellCoordinate(maxY), occupiedMaxCellY);
+        if (fromCellX > toCellX || fromCellY > toCellY) {
+            return;
+        }
+
+        long queriedCellCount = ((long) toCellX - fromCellX + 1) * ((long) toCellY - fromCellY + 1);
+        if (queriedCellCount > cells.size()) {
+            for (Map.Entry<Long, List<T>> cell : cells.entrySet()) {
+                long key = cell.getKey();
+                int cellX = (int) (key >> 32);
+                int cellY = (int) key;
+                if (cellX >= fromCellX && cellX <= toCellX && cellY >= fromCellY && cellY <= toCellY) {
+                    action.accept(cellX, cellY, cell.getValue());
+                }
+            }
+            return;
+        }
+
+        for (int cellX = fromCellX; cellX <= toCellX; cellX++) {
+            for (int cellY = fromCellY; cellY <= toCellY; cellY++) {
+                List<T> cell = cells.get(cellKey(cellX, cellY));
+                if (cell != null) {
+                    action.accept(cellX, cellY, cell);
+                }
+            }
+        }
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    @FunctionalInterface
+    public interface CellVisitor {
+        /**
+         * Called for a non-empty cell of the index.
+         *
+         * @param cellMinX     The left edge of the cell
+         * @param cellMinY     The top edge of the cell
+         * @param cellSize     The edge length of the cell
+         * @param elementCount The number of elements that intersect the cell
+         */
+        void visit(double cellMinX, double cellMinY, double cellSize, int elementCount);
+    }
+
+    @FunctionalInterface
+    private interface CellAction<T> {
+        void accept(int cellX, int cellY, List<T> cell);
+    }
+
+    private static class Entry {
+        private final long sequenceNumber;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        Entry(long sequenceNumber) {
+            this.sequenceNumber = sequenceNumber;
+        }
+    }
+
+    private static class Candidate<T> {
+        private final T element;
+        private final double squaredDistance;
+
+        Candidate(T element, double squaredDistance) {
+            this.element = element;
+            this.squaredDistance = squaredDistance;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * A collection of distinct elements that are compared by identity. The position of every element is kept next to the
+ * elements, so {@link #add(Object)}, {@link #remove(Object)} and {@link #contains(Object)} run in (amortized) constant
+ * time. To remove an element in constant time, the last element is moved into its place, so the collection has no
+ * fixed order: elements keep their position until an element is removed.<br>
+ * Subclasses are told about every element that is added or removed, including removals through iterators and bulk
+ * operations like {@link #removeAll(Collection)}, so they can keep further indices consistent. The collection is not
+ * thread safe, iterators fail fast if the collection is modified while iterating other than through the iterator.
+ *
+ * @param <E> The type of the elements
+ */
+public abstract class IdentityIndexedCollection<E> extends AbstractCollection<E> {
+    private final List<E> elements = new ArrayList<>();
+    private final Map<E, Integer> positions = new IdentityHashMap<>();
+    private int modCount;
+
+    /**
+     * Called after the specified element was added
+     *
+     * @param element The added element
+     */
+    protected abstract void elementAdded(E element);
+
+    /**
+     * Called after the specified element was removed
+     *
+     * @param element The removed element
+     */
+    protected abstract void elementRemoved(E element);
+
+    /**
+     * Returns the element at the specified position. Positions change when elements are removed.
+     *
+     * @param index The position of the element
+     * @return The element at the specified position
+     */
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    /**
+     * Returns the position of the specified element
+     *
+     * @param o The element to look up
+     * @return The position of the element or {@code -1} if it is not part of this collection
+     */
+    public int indexOf(Object o) {
+        //noinspection SuspiciousMethodCalls
+        Integer position = positions.get(o);
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        //noinspection SuspiciousMethodCalls
+        return positions.containsKey(o);
+    }
+
+    /**
+     * Adds the specified element
+     *
+     * @param element The element to add
+     * @return {@code true}
+     * @throws IllegalArgumentException If the element is already part of this collection
+     */
+    @Override
+    public boolean add(@NotNull E element) {
+        Objects.requireNonNull(element);
+        if (this.contains(element)) {
+            throw new IllegalArgumentException("Duplicate child: " + element.toString());
+        }
+        elements.add(element);
+        positions.put(element, elements.size() - 1);
+        modCount++;
+        elementAdded(element);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified position and moves the last element into its place
+     */
+    private void removeAt(int index) {
+        E res = elements.get(index);
+        E last = elements.remove(elements.size() - 1);
+        if (last != res) {
+            elements.set(index, last);
+            positions.put(last, index);
+        }
+        positions.remove(res);
+        modCount++;
+        elementRemoved(res);
+    }
+
+    @Override
+    public void clear() {
+        List<E> removedElements = new ArrayList<>(elements);
+        elements.clear();
+        positions.clear();
+        modCount++;
+        for (E element : removedElements) {
+            elementRemoved(element);
+        }
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        //noinspection SuspiciousToArrayCall
+        return elements.toArray(a);
+    }
+
+    /**
+     * Returns an iterator over this collection. The collection is not copied. {@link Iterator#remove()} moves the last
+     * element into the place of the removed one, the iterator visits the moved element next.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int cursor;
+            private int lastReturned = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < elements.size();
+            }
+
+            @Override
+            public E next() {
+                checkForComodification();
+                if (cursor >= elements.size()) {
+                    throw new NoSuchElementException();
+                }
+                lastReturned = cursor;
+                return elements.get(cursor++);
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned < 0) {
+                    throw new IllegalStateException();
+                }
+                checkForComodification();
+                removeAt(lastReturned);
+                // the last element was moved into the place of the removed element and was not visited yet
+                cursor = lastReturned;
+                lastReturned = -1;
+                expectedModCount = modCount;
+            }
+
+            private void checkForComodification() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        };
+    }
+}
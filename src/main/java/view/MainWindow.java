@@ -29,6 +29,9 @@ import com.github.vatbub.common.updater.view.UpdateAvailableDialog;
 import com.github.vatbub.common.view.core.ExceptionAlert;
 import com.github.vatbub.common.view.reporting.ReportingDialog;
 import common.AppConfig;
+import common.Histogram;
+import common.MetricsRegistry;
+import common.Timer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
@@ -53,6 +56,11 @@ import java.util.logging.Level;
 
 public class MainWindow extends Application {
 
+    /**
+     * Measures the handling of a command of the player including the update of the message view
+     */
+    private static final Timer turnTimer = MetricsRegistry.getDefault().timer("game.turn");
+    private static final Histogram turnAllocations = MetricsRegistry.getDefault().histogram("game.turnAllocatedBytes", "bytes");
     public static ResourceBundle bundle;
     private static boolean disableUpdateChecks;
     private static Stage stage;
@@ -76,6 +84,7 @@ public class MainWindow extends Application {
         Common.setAwsAccessKey(AppConfig.awsLogAccessKeyID);
         Common.setAwsSecretAccessKey(AppConfig.awsLogSecretAccessKeyID);
         FOKLogger.enableLoggingOfUncaughtExceptions();
+        MetricsRegistry.enableDefaultReporting();
         // modify the default exception handler to show the ReportingDialog on every uncaught exception
         final Thread.UncaughtExceptionHandler currentUncaughtExceptionHandler = Thread.getDefaultUncaughtExceptionHandler();
         Thread.setDefaultUncaughtExceptionHandler((thread, exception) -> {
@@ -168,14 +177,28 @@ public class MainWindow extends Application {
     @FXML
     void commandLineOnKeyPressed(KeyEvent event) {
         if (event.getCode().equals(KeyCode.ENTER)) {
+            long turnStart = System.nanoTime();
+            long allocatedBytesAtStart = MetricsRegistry.getAllocatedBytesOfCurrentThread();
+
             String playerMessage = this.commandLine.getText();
             currentGame.getMessages().add(new GameMessage(playerMessage, false));
-            currentGame.getMessages().add(new GameMessage(Parser.parse(playerMessage), true));
+            currentGame.getMessages().add(new GameMessage(Parser.parse(currentGame, playerMessage), true));
             this.commandLine.setText("");
             updateCommandView();
+
+            turnTimer.recordSince(turnStart);
+            if (allocatedBytesAtStart != -1) {
+                turnAllocations.record(MetricsRegistry.getAllocatedBytesOfCurrentThread() - allocatedBytesAtStart);
+            }
         }
     }
 
+    @FXML
+    void getAvailableCommandsButtonOnAction(@SuppressWarnings("unused") ActionEvent event) {
+        currentGame.getMessages().add(new GameMessage(String.join("\n", currentGame.getCommandGenerator().getAvailableCommands(currentGame.getCurrentRoom())), true));
+        updateCommandView();
+    }
+
     @FXML
     void fileBugMenuItemOnAction(@SuppressWarnings("unused") ActionEvent event) {
         new ReportingDialog(stage.getScene()).show(AppConfig.gitHubUserName, AppConfig.gitHubRepoName);
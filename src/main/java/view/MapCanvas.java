@@ -0,0 +1,457 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Label;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.TextAlignment;
+import model.Room;
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * A map of all rooms of a game that is drawn onto a {@link Canvas} instead of creating scene graph nodes for every room
+ * and line. The {@link EditorView} uses it for games that are too large for the node based rendering.<br>
+ * Rooms are laid out like the auto layout of the {@link EditorView} does and are kept in a {@link GridIndex} which is
+ * used for hit-testing and to only draw the rooms in the visible area. Only the hovered and the selected rooms get
+ * scene graph nodes. The map is panned by dragging it with the mouse and zoomed using the mouse wheel.<br>
+ * The map is read-only except for renaming rooms: it does not support inserting, moving or deleting rooms and paths,
+ * so the {@link EditorView} switches to the move mode and disables the insert tools while the map is shown.
+ */
+public class MapCanvas extends Pane {
+    private static final double roomWidth = 100;
+    private static final double roomHeight = 100;
+    private static final double roomDistance = 50;
+    private static final double minScale = 0.005;
+    private static final double maxScale = 4;
+    private static final double zoomFactor = 1.1;
+    /**
+     * Room names are not drawn below this scale
+     */
+    private static final double minScaleForLabels = 0.4;
+    /**
+     * Rooms smaller than this (in pixels) are drawn as a filled rectangle without a border and lines
+     */
+    private static final double minRoomSizeForDetails = 4;
+    private final Canvas canvas = new Canvas();
+    private final Pane overlay = new Pane();
+    private final RenderScheduler renderScheduler;
+    private final RoomShapeIndex index = new RoomShapeIndex();
+    private final Map<Room, RoomShape> shapesByRoom = new IdentityHashMap<>();
+    private final Set<RoomShape> selectedShapes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<RoomShape, OverlayNode> overlayNodes = new IdentityHashMap<>();
+    private RoomShape hoveredShape;
+    /**
+     * Screen coordinates are world coordinates multiplied by scale plus translate
+     */
+    private double scale = 1;
+    private double translateX;
+    private double translateY;
+    private double panStartX;
+    private double panStartY;
+    private boolean panned;
+
+    public MapCanvas(@NotNull RenderScheduler renderScheduler) {
+        Objects.requireNonNull(renderScheduler);
+        this.renderScheduler = renderScheduler;
+
+        overlay.setMouseTransparent(true);
+        getChildren().addAll(canvas, overlay);
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener((observable, oldValue, newValue) -> requestRedraw());
+        canvas.heightProperty().addListener((observable, oldValue, newValue) -> requestRedraw());
+
+        setOnMousePressed(event -> {
+            panStartX = event.getX();
+            panStartY = event.getY();
+            panned = false;
+        });
+
+        setOnMouseDragged(event -> {
+            translateX += event.getX() - panStartX;
+            translateY += event.getY() - panStartY;
+            panStartX = event.getX();
+            panStartY = event.getY();
+            panned = true;
+            requestRedraw();
+        });
+
+        setOnMouseMoved(event -> {
+            RoomShape newHoveredShape = findAt(event.getX(), event.getY());
+            if (newHoveredShape != hoveredShape) {
+                hoveredShape = newHoveredShape;
+                requestRedraw();
+            }
+        });
+
+        setOnMouseClicked(event -> {
+            if (panned) {
+                return;
+            }
+
+            RoomShape shape = findAt(event.getX(), event.getY());
+            if (shape == null) {
+                if (event.getClickCount() == 1) {
+                    selectedShapes.clear();
+                    requestRedraw();
+                }
+            } else if (event.getClickCount() == 1) {
+                if (!selectedShapes.remove(shape)) {
+                    selectedShapes.add(shape);
+                }
+                requestRedraw();
+            } else if (event.getClickCount() == 2) {
+                // launch editor
+                FOKLogger.info(MapCanvas.class.getName(), "RoomEditor launched");
+                addNameChangeListener(shape.room);
+                new RoomEditor(shape.room).show();
+            }
+        });
+
+        setOnScroll(event -> {
+            if (event.getDeltaY() == 0) {
+                return;
+            }
+
+            double newScale = event.getDeltaY() > 0 ? scale * zoomFactor : scale / zoomFactor;
+            newScale = Math.max(minScale, Math.min(maxScale, newScale));
+
+            // keep the point under the cursor in place
+            double worldX = toWorldX(event.getX());
+            double worldY = toWorldY(event.getY());
+            scale = newScale;
+            translateX = event.getX() - worldX * scale;
+            translateY = event.getY() - worldY * scale;
+            requestRedraw();
+            event.consume();
+        });
+    }
+
+    /**
+     * Lays out all rooms that can be reached from the specified room and centers the map on it.
+     *
+     * @param startRoom The room to start the layout at, usually the current room of the game
+     */
+    public void setRooms(@NotNull Room startRoom) {
+        Objects.requireNonNull(startRoom);
+
+        index.clear();
+        shapesByRoom.clear();
+        selectedShapes.clear();
+        hoveredShape = null;
+
+        LinkedList<RoomShape> layoutQueue = new LinkedList<>();
+        RoomShape startShape = new RoomShape(startRoom, 0, 0);
+        shapesByRoom.put(startRoom, startShape);
+        index.update(startShape);
+        layoutQueue.add(startShape);
+
+        while (!layoutQueue.isEmpty()) {
+            RoomShape currentShape = layoutQueue.remove();
+
+            // iterate in a fixed order, RoomMap is a hash map
+            for (WalkDirection direction : WalkDirection.values()) {
+                Room adjacentRoom = currentShape.room.getAdjacentRooms().get(direction);
+                if (adjacentRoom == null || shapesByRoom.containsKey(adjacentRoom)) {
+                    continue;
+                }
+
+                double x = currentShape.x + WalkDirectionUtils.getStepX(direction) * (roomWidth + roomDistance);
+                double y = currentShape.y + WalkDirectionUtils.getStepY(direction) * (roomHeight + roomDistance);
+
+                RoomShape adjacentShape = new RoomShape(adjacentRoom, x, y);
+                shapesByRoom.put(adjacentRoom, adjacentShape);
+                index.update(adjacentShape);
+                layoutQueue.add(adjacentShape);
+            }
+        }
+
+        // center the start room
+        translateX = getWidth() / 2 - (startShape.x + roomWidth / 2) * scale;
+        translateY = getHeight() / 2 - (startShape.y + roomHeight / 2) * scale;
+        requestRedraw();
+    }
+
+    public int getRoomCount() {
+        return shapesByRoom.size();
+    }
+
+    /**
+     * Returns the rooms that are currently selected.
+     *
+     * @return The rooms that are currently selected.
+     */
+    public List<Room> getSelectedRooms() {
+        List<Room> res = new ArrayList<>(selectedShapes.size());
+        for (RoomShape shape : selectedShapes) {
+            res.add(shape.room);
+        }
+        return res;
+    }
+
+    /**
+     * Finds the room at the specified position.
+     *
+     * @param x The x coordinate relative to this node
+     * @param y The y coordinate relative to this node
+     * @return The room at the specified position or {@code null} if there is no room
+     */
+    @Nullable
+    public Room getRoomAt(double x, double y) {
+        RoomShape shape = findAt(x, y);
+        return shape == null ? null : shape.room;
+    }
+
+    @Nullable
+    private RoomShape findAt(double x, double y) {
+        return index.findAt(toWorldX(x), toWorldY(y));
+    }
+
+    private double toWorldX(double x) {
+        return (x - translateX) / scale;
+    }
+
+    private double toWorldY(double y) {
+        return (y - translateY) / scale;
+    }
+
+    /**
+     * Redraws the map on the next pulse
+     */
+    public void requestRedraw() {
+        if (Platform.isFxApplicationThread()) {
+            renderScheduler.schedule(this, this::redraw);
+        } else {
+            Platform.runLater(this::requestRedraw);
+        }
+    }
+
+    private void redraw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        List<RoomShape> visibleShapes = index.findIntersecting(toWorldX(0), toWorldY(0), toWorldX(canvas.getWidth()), toWorldY(canvas.getHeight()));
+        boolean drawDetails = roomWidth * scale >= minRoomSizeForDetails;
+
+        gc.save();
+        gc.translate(translateX, translateY);
+        gc.scale(scale, scale);
+
+        if (drawDetails) {
+            // lines first so that the rooms are drawn on top of them
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(1 / scale);
+            Set<RoomShape> shapesWithDrawnLines = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (RoomShape shape : visibleShapes) {
+                for (Room adjacentRoom : shape.room.getAdjacentRooms().values()) {
+                    RoomShape adjacentShape = shapesByRoom.get(adjacentRoom);
+                    if (adjacentShape != null && !shapesWithDrawnLines.contains(adjacentShape)) {
+                        gc.strokeLine(shape.getCenterX(), shape.getCenterY(), adjacentShape.getCenterX(), adjacentShape.getCenterY());
+                    }
+                }
+                shapesWithDrawnLines.add(shape);
+            }
+        }
+
+        gc.setFill(Color.WHITE);
+        for (RoomShape shape : visibleShapes) {
+            gc.fillRect(shape.x, shape.y, roomWidth, roomHeight);
+        }
+
+        if (drawDetails) {
+            for (RoomShape shape : visibleShapes) {
+                gc.strokeRect(shape.x, shape.y, roomWidth, roomHeight);
+            }
+        }
+
+        if (scale >= minScaleForLabels) {
+            gc.setFill(Color.BLACK);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            for (RoomShape shape : visibleShapes) {
+                gc.fillText(shape.room.getName(), shape.getCenterX(), shape.getCenterY(), roomWidth);
+            }
+        }
+
+        gc.restore();
+
+        updateOverlay();
+    }
+
+    /**
+     * Creates, updates or removes the scene graph nodes for the hovered and selected rooms.
+     */
+    private void updateOverlay() {
+        Set<RoomShape> shapesWithNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        shapesWithNodes.addAll(selectedShapes);
+        if (hoveredShape != null) {
+            shapesWithNodes.add(hoveredShape);
+        }
+
+        Iterator<Map.Entry<RoomShape, OverlayNode>> iterator = overlayNodes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RoomShape, OverlayNode> entry = iterator.next();
+            if (!shapesWithNodes.contains(entry.getKey())) {
+                overlay.getChildren().removeAll(entry.getValue().rectangle, entry.getValue().nameLabel);
+                iterator.remove();
+            }
+        }
+
+        for (RoomShape shape : shapesWithNodes) {
+            OverlayNode node = overlayNodes.get(shape);
+            if (node == null) {
+                node = new OverlayNode();
+                overlayNodes.put(shape, node);
+                overlay.getChildren().addAll(node.rectangle, node.nameLabel);
+            }
+            node.update(shape, selectedShapes.contains(shape));
+        }
+    }
+
+    /**
+     * The location of a room on the map
+     */
+    /**
+     * Redraws the map when the name of the specified room changes. The listener that is already set on the room is
+     * still called.
+     *
+     * @param room The room to listen to
+     */
+    private void addNameChangeListener(Room room) {
+        Runnable previousListener = room.getNameChangeListener();
+        if (previousListener instanceof RedrawingNameChangeListener && ((RedrawingNameChangeListener) previousListener).getMapCanvas() == this) {
+            // already listening
+            return;
+        }
+        room.setNameChangeListener(new RedrawingNameChangeListener(previousListener));
+    }
+
+    private class RedrawingNameChangeListener implements Runnable {
+        @Nullable
+        private final Runnable previousListener;
+
+        RedrawingNameChangeListener(@Nullable Runnable previousListener) {
+            this.previousListener = previousListener;
+        }
+
+        @Override
+        public void run() {
+            if (previousListener != null) {
+                previousListener.run();
+            }
+            requestRedraw();
+        }
+
+        MapCanvas getMapCanvas() {
+            return MapCanvas.this;
+        }
+    }
+
+    private static class RoomShape {
+        private final Room room;
+        private final double x;
+        private final double y;
+
+        RoomShape(Room room, double x, double y) {
+            this.room = room;
+            this.x = x;
+            this.y = y;
+        }
+
+        double getCenterX() {
+            return x + roomWidth / 2;
+        }
+
+        double getCenterY() {
+            return y + roomHeight / 2;
+        }
+    }
+
+    private static class RoomShapeIndex extends GridIndex<RoomShape> {
+        RoomShapeIndex() {
+            super(2 * (roomWidth + roomDistance));
+        }
+
+        @Override
+        protected double getMinX(RoomShape element) {
+            return element.x;
+        }
+
+        @Override
+        protected double getMinY(RoomShape element) {
+            return element.y;
+        }
+
+        @Override
+        protected double getWidth(RoomShape element) {
+            return roomWidth;
+        }
+
+        @Override
+        protected double getHeight(RoomShape element) {
+            return roomHeight;
+        }
+    }
+
+    /**
+     * The scene graph nodes of a hovered or selected room
+     */
+    private class OverlayNode {
+        private final Rectangle rectangle = new Rectangle();
+        private final Label nameLabel = new Label();
+
+        OverlayNode() {
+            rectangle.setFill(Color.WHITE);
+        }
+
+        void update(RoomShape shape, boolean selected) {
+            rectangle.setX(shape.x * scale + translateX);
+            rectangle.setY(shape.y * scale + translateY);
+            rectangle.setWidth(roomWidth * scale);
+            rectangle.setHeight(roomHeight * scale);
+            if (selected) {
+                rectangle.setStroke(Color.GRAY);
+                rectangle.setStrokeWidth(4);
+            } else {
+                rectangle.setStroke(Color.BLACK);
+                rectangle.setStrokeWidth(1);
+            }
+
+            // always show the name of hovered and selected rooms, even if the zoom level is too low for labels
+            nameLabel.setText(shape.room.getName());
+            nameLabel.setLayoutX(rectangle.getX() + rectangle.getWidth() / 2 - nameLabel.getWidth() / 2);
+            nameLabel.setLayoutY(rectangle.getY() + rectangle.getHeight() / 2 - nameLabel.getHeight() / 2);
+        }
+    }
+}
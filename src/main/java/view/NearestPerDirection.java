@@ -0,0 +1,147 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.RoomMap;
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable buffer that keeps the closest element for every {@link WalkDirection}. The elements and distances are
+ * stored in arrays indexed by the ordinal of the direction, so offering elements and reading them back does not
+ * allocate. Used on hot paths like the drag handlers of {@link RoomRectangle} where a map or list per direction
+ * would be created for every mouse event. Not thread safe.
+ *
+ * @param <T> The type of the elements
+ */
+public class NearestPerDirection<T> {
+    private static final WalkDirection[] walkDirections = WalkDirection.values();
+    private final Object[] elements = new Object[WalkDirection.values().length];
+    private final double[] distances = new double[WalkDirection.values().length];
+
+    public NearestPerDirection() {
+        clear();
+    }
+
+    /**
+     * Removes all elements from this buffer
+     */
+    public void clear() {
+        Arrays.fill(elements, null);
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Offers an element for the specified direction. The element is kept if it is closer than the element that is
+     * currently kept for that direction. If both have the same distance, the element that was offered first is kept.
+     *
+     * @param direction The direction that the element is in
+     * @param element   The element
+     * @param distance  The distance of the element
+     * @return {@code true} if the element is kept, {@code false} otherwise
+     */
+    public boolean offer(@NotNull WalkDirection direction, @NotNull T element, double distance) {
+        Objects.requireNonNull(element);
+        int index = direction.ordinal();
+        if (distance < distances[index]) {
+            elements[index] = element;
+            distances[index] = distance;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the closest element that was offered for the specified direction since the last call of {@link #clear()}
+     *
+     * @param direction The direction to get the element for
+     * @return The closest element in the specified direction or {@code null} if no element was offered for that direction
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T get(@NotNull WalkDirection direction) {
+        return (T) elements[direction.ordinal()];
+    }
+
+    /**
+     * Returns the distance of the element returned by {@link #get(WalkDirection)}
+     *
+     * @param direction The direction to get the distance for
+     * @return The distance of the closest element in the specified direction or {@link Double#POSITIVE_INFINITY} if no element was offered for that direction
+     */
+    public double getDistance(@NotNull WalkDirection direction) {
+        return distances[direction.ordinal()];
+    }
+
+    /**
+     * Clears this buffer and offers the elements that show the specified adjacent rooms. Each element is offered for
+     * the direction in which its center lies as seen from the specified point, so only the closest element per
+     * direction is kept. This is how a dragged room reevaluates its connections. Does not allocate.
+     *
+     * @param adjacentRooms The adjacent rooms of the dragged room
+     * @param centerX       The x coordinate of the center of the dragged room
+     * @param centerY       The y coordinate of the center of the dragged room
+     * @param locator       Finds the elements that show the adjacent rooms and their centers
+     */
+    public void offerAdjacentRooms(@NotNull RoomMap adjacentRooms, double centerX, double centerY, @NotNull Locator<T> locator) {
+        clear();
+        for (WalkDirection direction : walkDirections) {
+            Room adjacentRoom = adjacentRooms.get(direction);
+            if (adjacentRoom == null) {
+                continue;
+            }
+            T element = locator.find(adjacentRoom);
+            if (element == null) {
+                continue;
+            }
+            double elementCenterX = locator.getCenterX(element);
+            double elementCenterY = locator.getCenterY(element);
+            double dx = elementCenterX - centerX;
+            double dy = elementCenterY - centerY;
+            offer(WalkDirectionUtils.getFromLine(centerX, centerY, elementCenterX, elementCenterY), element, Math.sqrt(dx * dx + dy * dy));
+        }
+    }
+
+    /**
+     * Finds the element that shows a room and its position for {@link #offerAdjacentRooms(RoomMap, double, double, Locator)}
+     *
+     * @param <T> The type of the elements
+     */
+    public interface Locator<T> {
+        /**
+         * @param room The room to find the element for
+         * @return The element that shows the specified room or {@code null} if there is none
+         */
+        @Nullable
+        T find(@NotNull Room room);
+
+        double getCenterX(@NotNull T element);
+
+        double getCenterY(@NotNull T element);
+    }
+}
@@ -21,7 +21,7 @@ package view;
  */
 
 
-import com.github.vatbub.common.core.logging.FOKLogger;
+import common.LazyLogger;
 import javafx.scene.Cursor;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -30,6 +30,7 @@ import javafx.scene.image.ImageView;
  * A image view that has events attached specifically required in the GameEditor
  */
 public class PlayerIcon extends ImageView {
+    private static final LazyLogger logger = new LazyLogger(PlayerIcon.class);
     private boolean dragStarted;
     private double moveStartLocalX;
     private double moveStartLocalY;
@@ -81,11 +82,11 @@ public class PlayerIcon extends ImageView {
 
         this.setOnMouseDragged(event -> {
             // move the image
-            FOKLogger.fine(PlayerIcon.class.getName(), "Moving the player icon...");
+            logger.fine("Moving the player icon...");
             this.setX(event.getX() - this.moveStartLocalX);
             this.setY(event.getY() - this.moveStartLocalY);
 
-            RoomRectangle newTarget = (RoomRectangle) this.getCustomParent().getCustomParent().getRectangleByCoordinatesPreferFront(event.getX(), event.getY());
+            RoomRectangle newTarget = EditorView.currentEditorInstance.getRoomIndex().findAt(event.getX(), event.getY());
             if (newTarget != previousTarget && previousTarget != null) {
                 previousTarget.setSelected(false);
             }
@@ -114,8 +115,8 @@ public class PlayerIcon extends ImageView {
             if (dragStarted) {
                 dragStarted = false;
 
-                FOKLogger.fine(PlayerIcon.class.getName(), "Drag done");
-                RoomRectangle target = (RoomRectangle) this.getCustomParent().getCustomParent().getRectangleByCoordinatesPreferFront(event.getX(), event.getY());
+                logger.fine("Drag done");
+                RoomRectangle target = EditorView.currentEditorInstance.getRoomIndex().findAt(event.getX(), event.getY());
                 if (target != null && target != this.getCustomParent()) {
                     target.setSelected(false);
                     EditorView.currentEditorInstance.getCurrentGame().setCurrentRoom(target.getRoom());
@@ -0,0 +1,111 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+
+/**
+ * Collects render tasks and runs them at most once per JavaFX pulse.<br>
+ * Each task is scheduled with a key (usually the node that needs to be updated). If a task with the same key is
+ * already pending, it is replaced, so an arbitrary number of requests for the same node between two pulses results
+ * in a single update. Tasks run on the JavaFX thread at the beginning of the next pulse, tasks that are scheduled
+ * while the pending tasks run are deferred to the following pulse. The underlying {@link AnimationTimer} is stopped
+ * when no tasks are pending.<br>
+ * Tasks may be scheduled from any thread.
+ */
+public class RenderScheduler {
+    private final Map<Object, Runnable> pendingTasks = new LinkedHashMap<>();
+    private boolean timerRunning;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            runPendingTasks();
+        }
+    };
+
+    /**
+     * Schedules the specified task for the next pulse. Replaces the pending task with the same key if there is one.
+     *
+     * @param key  The key of the task, usually the node that needs to be updated
+     * @param task The task to run
+     */
+    public void schedule(@NotNull Object key, @NotNull Runnable task) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(task);
+
+        boolean startTimer;
+        synchronized (this) {
+            pendingTasks.put(key, task);
+            startTimer = !timerRunning;
+            timerRunning = true;
+        }
+
+        if (startTimer) {
+            if (Platform.isFxApplicationThread()) {
+                timer.start();
+            } else {
+                Platform.runLater(timer::start);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks that will run on the next pulse.
+     *
+     * @return The number of tasks that will run on the next pulse.
+     */
+    public synchronized int getPendingTaskCount() {
+        return pendingTasks.size();
+    }
+
+    private void runPendingTasks() {
+        List<Runnable> tasks;
+        synchronized (this) {
+            if (pendingTasks.isEmpty()) {
+                timerRunning = false;
+                timer.stop();
+                return;
+            }
+
+            tasks = new ArrayList<>(pendingTasks.values());
+            pendingTasks.clear();
+        }
+
+        for (Runnable task : tasks) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                FOKLogger.log(RenderScheduler.class.getName(), Level.SEVERE, "A render task failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.core.logging.FOKLogger;
+import common.Counter;
+import common.MetricsRegistry;
+import javafx.application.Platform;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Computes render results on a background thread with latest-wins semantics:
+ * <ul>
+ * <li>A new request supersedes the request that is waiting to be computed, so it never runs.</li>
+ * <li>A request that is currently computed is cancelled. Tasks are expected to check the supplied cancellation flag
+ * regularly and return early.</li>
+ * <li>The result of a request is handed to the result executor (the JavaFX thread by default) and only applied if no
+ * newer request was submitted in the meantime, so stale results never reach the view.</li>
+ * </ul>
+ * Requests may be submitted from any thread but are usually submitted from the thread that applies the results, so a
+ * result is applied atomically with respect to new requests.
+ */
+public class RenderWorker {
+    /**
+     * Counts requests that were replaced before they started
+     */
+    private static final Counter supersededRequests = MetricsRegistry.getDefault().counter("editor.renderWorker.superseded");
+    /**
+     * Counts requests that were cancelled while or after they were computed
+     */
+    private static final Counter cancelledRequests = MetricsRegistry.getDefault().counter("editor.renderWorker.cancelled");
+    private final Executor resultExecutor;
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "RenderWorker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<Request<?>> pendingRequest = new AtomicReference<>();
+    private volatile Request<?> latestRequest;
+
+    /**
+     * Creates a worker that applies the results on the JavaFX thread
+     */
+    public RenderWorker() {
+        this(Platform::runLater);
+    }
+
+    /**
+     * @param resultExecutor The executor that applies the results, usually the JavaFX thread
+     */
+    public RenderWorker(@NotNull Executor resultExecutor) {
+        this.resultExecutor = Objects.requireNonNull(resultExecutor);
+    }
+
+    /**
+     * Submits a new request and cancels all previous requests.
+     *
+     * @param task           Computes the result on the worker thread
+     * @param resultConsumer Applies the result on the result executor. Not called if the request is cancelled or the task returns {@code null}.
+     * @param <T>            The type of the result
+     */
+    public synchronized <T> void submit(@NotNull Task<T> task, @NotNull Consumer<? super T> resultConsumer) {
+        Request<T> request = new Request<>(Objects.requireNonNull(task), Objects.requireNonNull(resultConsumer));
+        Request<?> previousRequest = latestRequest;
+        latestRequest = request;
+        if (previousRequest != null) {
+            previousRequest.cancel();
+        }
+
+        if (pendingRequest.getAndSet(request) != null) {
+            // the previous request did not start yet and will never run
+            supersededRequests.increment();
+        }
+        executorService.execute(this::runPendingRequest);
+    }
+
+    /**
+     * Cancels the latest request. Its result will not be applied.
+     */
+    public synchronized void cancel() {
+        Request<?> request = latestRequest;
+        if (request != null) {
+            request.cancel();
+        }
+    }
+
+    /**
+     * Cancels the latest request and stops the worker thread. No requests can be submitted afterwards.
+     */
+    public void shutdown() {
+        cancel();
+        executorService.shutdownNow();
+    }
+
+    private void runPendingRequest() {
+        Request<?> request = pendingRequest.getAndSet(null);
+        if (request != null) {
+            // null if the request was already taken by an earlier run, superseded requests leave runs without a request behind
+            request.run();
+        }
+    }
+
+    /**
+     * Computes a render result
+     *
+     * @param <T> The type of the result
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        /**
+         * Computes the result on the worker thread
+         *
+         * @param cancelled Returns {@code true} once the result is not needed anymore, the task should return as soon as possible then
+         * @return The result or {@code null} if there is nothing to apply
+         */
+        T compute(BooleanSupplier cancelled);
+    }
+
+    private class Request<T> {
+        private final Task<T> task;
+        private final Consumer<? super T> resultConsumer;
+        private volatile boolean cancelled;
+
+        Request(Task<T> task, Consumer<? super T> resultConsumer) {
+            this.task = task;
+            this.resultConsumer = resultConsumer;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void run() {
+            if (cancelled) {
+                return;
+            }
+
+            T result;
+            try {
+                result = task.compute(this::isCancelled);
+            } catch (RuntimeException e) {
+                FOKLogger.log(RenderWorker.class.getName(), Level.SEVERE, "A render task failed", e);
+                return;
+            }
+
+            if (cancelled) {
+                cancelledRequests.increment();
+                return;
+            }
+            if (result == null) {
+                return;
+            }
+
+            resultExecutor.execute(() -> {
+                // a newer request might have been submitted while the result was waiting for the result executor
+                if (cancelled || latestRequest != this) {
+                    cancelledRequests.increment();
+                    return;
+                }
+                resultConsumer.accept(result);
+            });
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.RoomMap;
+import model.WalkDirection;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An immutable snapshot of the room graph that the {@link EditorView} renders. The snapshot is taken on the
+ * {@link RenderWorker} thread and only reads the adjacent rooms of each room, which are stored in concurrent maps, so
+ * it never touches the nodes of the view. The {@link EditorView} applies it on the JavaFX thread afterwards.<br>
+ * The room graph may change while the snapshot is taken, so a snapshot can mix the old and the new graph. Such
+ * snapshots are detected with {@link #isCurrent()} and must not be applied. Only the adjacent rooms of the rooms in the
+ * snapshot are checked, so changes to other rooms, e. g. of another game, do not outdate the snapshot.<br>
+ * The rooms are stored in breadth first order: First all rooms that are connected to the start room, starting with the
+ * start room, then the unconnected rooms and the rooms that are only reachable from them. Every room (except the roots)
+ * knows the room that it was reached from, so a room can be positioned next to its parent when the snapshot is applied.
+ */
+public class RoomGraphSnapshot {
+    /**
+     * Cached because {@link WalkDirection#values()} creates a new array on every call
+     */
+    private static final WalkDirection[] walkDirections = WalkDirection.values();
+    /**
+     * The snapshot checks whether it was cancelled after this many rooms
+     */
+    private static final int cancellationCheckInterval = 256;
+    private final List<Room> rooms;
+    private final Map<Room, Integer> indices;
+    private final int[] parentIndices;
+    private final WalkDirection[] parentDirections;
+    private final int connectedRoomCount;
+    private final int[] connections;
+    /**
+     * The adjacent rooms of every room when it was added to the snapshot
+     */
+    private final RoomMap[] adjacentRoomMaps;
+    /**
+     * The {@link RoomMap#getModificationCount() modification count} of every map in {@link #adjacentRoomMaps}
+     */
+    private final long[] modificationCounts;
+
+    private RoomGraphSnapshot(List<Room> rooms, Map<Room, Integer> indices, int[] parentIndices, WalkDirection[] parentDirections, int connectedRoomCount, int[] connections, RoomMap[] adjacentRoomMaps, long[] modificationCounts) {
+        this.rooms = Collections.unmodifiableList(rooms);
+        this.indices = Collections.unmodifiableMap(indices);
+        this.parentIndices = parentIndices;
+        this.parentDirections = parentDirections;
+        this.connectedRoomCount = connectedRoomCount;
+        this.connections = connections;
+        this.adjacentRoomMaps = adjacentRoomMaps;
+        this.modificationCounts = modificationCounts;
+    }
+
+    /**
+     * Takes a snapshot of all rooms that can be reached from the specified rooms. May be called from any thread.
+     *
+     * @param startRoom      The room that the player is currently in
+     * @param knownRooms     Further rooms to include even if they are not connected to the start room, e. g. the rooms
+     *                       that are currently shown in the editor. Rooms that are connected to the start room are ignored.
+     * @param cancelled      Tells whether the snapshot is not needed anymore, checked regularly
+     * @return The snapshot or {@code null} if it was cancelled
+     */
+    @Nullable
+    public static RoomGraphSnapshot create(@NotNull Room startRoom, @NotNull Collection<Room> knownRooms, @NotNull BooleanSupplier cancelled) {
+        Objects.requireNonNull(startRoom);
+        Objects.requireNonNull(knownRooms);
+        Objects.requireNonNull(cancelled);
+
+        List<Room> rooms = new ArrayList<>();
+        Map<Room, Integer> indices = new IdentityHashMap<>();
+        IntList parentIndices = new IntList();
+        List<WalkDirection> parentDirections = new ArrayList<>();
+        IntList connections = new IntList();
+        List<RoomMap> adjacentRoomMaps = new ArrayList<>();
+        LongList modificationCounts = new LongList();
+
+        addRoom(startRoom, -1, null, rooms, indices, parentIndices, parentDirections, adjacentRoomMaps, modificationCounts);
+        if (!traverse(0, rooms, indices, parentIndices, parentDirections, connections, adjacentRoomMaps, modificationCounts, cancelled)) {
+            return null;
+        }
+        int connectedRoomCount = rooms.size();
+
+        for (Room knownRoom : knownRooms) {
+            if (knownRoom == null || indices.containsKey(knownRoom)) {
+                continue;
+            }
+            int firstIndex = rooms.size();
+            addRoom(knownRoom, -1, null, rooms, indices, parentIndices, parentDirections, adjacentRoomMaps, modificationCounts);
+            if (!traverse(firstIndex, rooms, indices, parentIndices, parentDirections, connections, adjacentRoomMaps, modificationCounts, cancelled)) {
+                return null;
+            }
+        }
+
+        return new RoomGraphSnapshot(rooms, indices, parentIndices.toArray(), parentDirections.toArray(new WalkDirection[0]), connectedRoomCount, connections.toArray(), adjacentRoomMaps.toArray(new RoomMap[0]), modificationCounts.toArray());
+    }
+
+    /**
+     * Visits the rooms from {@code firstIndex} on in breadth first order and appends the rooms that were not visited yet
+     *
+     * @return {@code false} if the snapshot was cancelled
+     */
+    private static boolean traverse(int firstIndex, List<Room> rooms, Map<Room, Integer> indices, IntList parentIndices, List<WalkDirection> parentDirections, IntList connections, List<RoomMap> adjacentRoomMaps, LongList modificationCounts, BooleanSupplier cancelled) {
+        for (int index = firstIndex; index < rooms.size(); index++) {
+            if (index % cancellationCheckInterval == 0 && cancelled.getAsBoolean()) {
+                return false;
+            }
+
+            RoomMap adjacentRooms = adjacentRoomMaps.get(index);
+            // iterate in a fixed order, RoomMap is a hash map
+            for (WalkDirection direction : walkDirections) {
+                Room adjacentRoom = adjacentRooms.get(direction);
+                if (adjacentRoom == null) {
+                    continue;
+                }
+                Integer adjacentIndex = indices.get(adjacentRoom);
+                if (adjacentIndex == null) {
+                    adjacentIndex = rooms.size();
+                    addRoom(adjacentRoom, index, direction, rooms, indices, parentIndices, parentDirections, adjacentRoomMaps, modificationCounts);
+                }
+                connections.add(index);
+                connections.add(adjacentIndex);
+            }
+        }
+        return true;
+    }
+
+    private static void addRoom(Room room, int parentIndex, WalkDirection parentDirection, List<Room> rooms, Map<Room, Integer> indices, IntList parentIndices, List<WalkDirection> parentDirections, List<RoomMap> adjacentRoomMaps, LongList modificationCounts) {
+        // read the count before the map is read, changes during the traversal make the snapshot outdated
+        RoomMap adjacentRooms = room.getAdjacentRooms();
+        adjacentRoomMaps.add(adjacentRooms);
+        modificationCounts.add(adjacentRooms.getModificationCount());
+        indices.put(room, rooms.size());
+        rooms.add(room);
+        parentIndices.add(parentIndex);
+        parentDirections.add(parentDirection);
+    }
+
+    /**
+     * Returns {@code true} if the adjacent rooms of the rooms in this snapshot did not change since they were added to
+     * it, so the snapshot is consistent and matches the current graph. Should be called on the thread that changes the
+     * room graph.
+     *
+     * @return {@code true} if the rooms of this snapshot did not change since the snapshot was started
+     */
+    public boolean isCurrent() {
+        for (int index = 0; index < adjacentRoomMaps.length; index++) {
+            RoomMap adjacentRooms = adjacentRoomMaps[index];
+            if (rooms.get(index).getAdjacentRooms() != adjacentRooms || adjacentRooms.getModificationCount() != modificationCounts[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns all rooms of this snapshot in breadth first order
+     *
+     * @return All rooms of this snapshot in breadth first order
+     */
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    public Room getRoom(int index) {
+        return rooms.get(index);
+    }
+
+    /**
+     * Returns the index of the specified room in {@link #getRooms()}
+     *
+     * @param room The room to look up
+     * @return The index of the room or {@code -1} if the room is not part of this snapshot
+     */
+    public int indexOf(Room room) {
+        Integer res = indices.get(room);
+        return res == null ? -1 : res;
+    }
+
+    /**
+     * Returns the index of the room that the room at the specified index was reached from
+     *
+     * @param index The index of the room
+     * @return The index of the parent room or {@code -1} if the room is the start room or an unconnected room
+     */
+    public int getParentIndex(int index) {
+        return parentIndices[index];
+    }
+
+    /**
+     * Returns the direction that leads from the parent room to the room at the specified index
+     *
+     * @param index The index of the room
+     * @return The direction from the parent to the room or {@code null} if the room has no parent
+     * @see #getParentIndex(int)
+     */
+    @Nullable
+    public WalkDirection getParentDirection(int index) {
+        return parentDirections[index];
+    }
+
+    /**
+     * Returns {@code true} if the specified room was connected to the start room when the snapshot was taken
+     *
+     * @param room The room to check
+     * @return {@code true} if the specified room is connected to the start room
+     */
+    public boolean isConnected(Room room) {
+        int index = indexOf(room);
+        return index >= 0 && index < connectedRoomCount;
+    }
+
+    /**
+     * Returns the number of rooms that are connected to the start room (including the start room). These rooms are at
+     * the beginning of {@link #getRooms()}.
+     *
+     * @return The number of rooms that are connected to the start room
+     */
+    public int getConnectedRoomCount() {
+        return connectedRoomCount;
+    }
+
+    /**
+     * Returns the number of connections. Every connection is contained once per direction that it can be walked in.
+     *
+     * @return The number of connections
+     */
+    public int getConnectionCount() {
+        return connections.length / 2;
+    }
+
+    public int getConnectionStart(int connection) {
+        return connections[2 * connection];
+    }
+
+    public int getConnectionEnd(int connection) {
+        return connections[2 * connection + 1];
+    }
+
+    /**
+     * A growable array of ints, avoids boxing every index
+     */
+    private static class IntList {
+        private int[] elements = new int[16];
+        private int size;
+
+        void add(int element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+
+    /**
+     * A growable array of longs, avoids boxing every modification count
+     */
+    private static class LongList {
+        private long[] elements = new long[16];
+        private int size;
+
+        void add(long element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(elements, size);
+        }
+    }
+}
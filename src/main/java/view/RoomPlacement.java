@@ -0,0 +1,107 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Computes where the {@link EditorView} places rooms that are laid out automatically. Works on plain coordinates, so
+ * it runs without the JavaFX toolkit and can be benchmarked.
+ */
+class RoomPlacement {
+    /**
+     * Places rooms next to the room they were reached from in the specified snapshot. The rooms are visited in the
+     * order of the snapshot, which is breadth first, so every room is placed after the room that it is placed next to.
+     *
+     * @param snapshot     The snapshot that tells which room is placed next to which other room
+     * @param xs           The x coordinates of the rooms in the order of the snapshot. The coordinates of placed rooms are overwritten.
+     * @param ys           The y coordinates of the rooms in the order of the snapshot. The coordinates of placed rooms are overwritten.
+     * @param widths       The widths of the rooms in the order of the snapshot
+     * @param heights      The heights of the rooms in the order of the snapshot
+     * @param placeRoom    Tells for each room in the order of the snapshot if it is placed. Other rooms keep their position.
+     * @param roomDistance The distance between the rooms
+     */
+    static void placeBreadthFirst(@NotNull RoomGraphSnapshot snapshot, double[] xs, double[] ys, double[] widths, double[] heights, boolean[] placeRoom, double roomDistance) {
+        for (int i = 0; i < snapshot.getRoomCount(); i++) {
+            int parentIndex = snapshot.getParentIndex(i);
+            // rooms that are connected in no direction keep their position
+            if (placeRoom[i] && parentIndex >= 0 && snapshot.getParentDirection(i) != WalkDirection.NONE) {
+                WalkDirection direction = snapshot.getParentDirection(i);
+                xs[i] = getXNextTo(xs[parentIndex], widths[parentIndex], widths[i], direction, roomDistance);
+                ys[i] = getYNextTo(ys[parentIndex], heights[parentIndex], heights[i], direction, roomDistance);
+            }
+        }
+    }
+
+    /**
+     * Computes the x coordinate of a room that is placed next to another room.
+     *
+     * @param adjacentX     The x coordinate of the room to place it next to
+     * @param adjacentWidth The width of the room to place it next to
+     * @param width         The width of the room to place
+     * @param direction     The direction from the adjacent room to the room to place
+     * @param roomDistance  The distance between the rooms
+     * @return The x coordinate of the room to place
+     */
+    static double getXNextTo(double adjacentX, double adjacentWidth, double width, WalkDirection direction, double roomDistance) {
+        checkPlaceable(direction);
+        int stepX = WalkDirectionUtils.getStepX(direction);
+        if (stepX < 0) {
+            return adjacentX - width - roomDistance;
+        } else if (stepX > 0) {
+            return adjacentX + adjacentWidth + roomDistance;
+        }
+        // centered above or below the adjacent room
+        return adjacentX + adjacentWidth / 2 - width / 2;
+    }
+
+    /**
+     * Computes the y coordinate of a room that is placed next to another room.
+     *
+     * @param adjacentY      The y coordinate of the room to place it next to
+     * @param adjacentHeight The height of the room to place it next to
+     * @param height         The height of the room to place
+     * @param direction      The direction from the adjacent room to the room to place
+     * @param roomDistance   The distance between the rooms
+     * @return The y coordinate of the room to place
+     */
+    static double getYNextTo(double adjacentY, double adjacentHeight, double height, WalkDirection direction, double roomDistance) {
+        checkPlaceable(direction);
+        int stepY = WalkDirectionUtils.getStepY(direction);
+        if (stepY < 0) {
+            return adjacentY - height - roomDistance;
+        } else if (stepY > 0) {
+            return adjacentY + adjacentHeight + roomDistance;
+        }
+        // aligned with the top edge of the adjacent room
+        return adjacentY;
+    }
+
+    private static void checkPlaceable(WalkDirection direction) {
+        if (direction == WalkDirection.NONE) {
+            throw new IllegalArgumentException("Rooms cannot be placed in the direction " + direction);
+        }
+    }
+}
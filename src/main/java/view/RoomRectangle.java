@@ -23,6 +23,7 @@ package view;
 
 import com.github.vatbub.common.core.logging.FOKLogger;
 import com.github.vatbub.common.view.core.CustomGroup;
+import common.LazyLogger;
 import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -32,24 +33,49 @@ import javafx.scene.paint.Color;
 import javafx.scene.paint.Paint;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Rectangle;
+import model.EditHistory;
 import model.Room;
+import model.RoomMap;
 import model.WalkDirection;
 import model.WalkDirectionUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.logging.Level;
+import java.util.*;
 
 /**
  * The graphical representation of a {@link model.Room} in the {@link EditorView}
  */
 public class RoomRectangle extends Rectangle implements Serializable, Disposable, Selectable {
+    private static final LazyLogger logger = new LazyLogger(RoomRectangle.class);
     private static final int minRectangleWidth = 100;
-    private static List<RoomRectangle> movedRooms;
+    /**
+     * Cached because {@link WalkDirection#values()} creates a new array on every call
+     */
+    private static final WalkDirection[] walkDirections = WalkDirection.values();
+    /**
+     * Scratch buffer of {@link #reevaluateConnections()}. Shared by all rooms as drag events are only handled on the JavaFX thread.
+     */
+    private static final NearestPerDirection<RoomRectangle> reevaluatedAdjacentRooms = new NearestPerDirection<>();
+    /**
+     * Finds the rectangles of the adjacent rooms for {@link #reevaluateConnections()}. Kept in a constant so that drag events do not allocate it.
+     */
+    private static final NearestPerDirection.Locator<RoomRectangle> roomRectangleLocator = new NearestPerDirection.Locator<RoomRectangle>() {
+        @Override
+        public RoomRectangle find(@NotNull Room room) {
+            return EditorView.currentEditorInstance.getAllRoomsAsList().findByRoom(room);
+        }
+
+        @Override
+        public double getCenterX(@NotNull RoomRectangle element) {
+            return element.getCenterX();
+        }
+
+        @Override
+        public double getCenterY(@NotNull RoomRectangle element) {
+            return element.getCenterY();
+        }
+    };
     private final BooleanProperty selected = new SimpleBooleanProperty();
     private final BooleanProperty isTemporary = new SimpleBooleanProperty();
     private final RoomRectangle thisRef = this;
@@ -64,8 +90,50 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
     private RoomRectangle previousTarget;
     private double moveStartLocalX = -1;
     private double moveStartLocalY = -1;
+    /**
+     * The position of this room when the current mouse gesture started, used to record moves in the edit history
+     */
+    private double gestureStartX;
+    private double gestureStartY;
+    /**
+     * The edit history in which the current mouse gesture opened a transaction, {@code null} if no transaction is open
+     */
+    private EditHistory openHistoryTransaction;
     private CustomGroup parent;
-    private WalkDirection reevaluatedDirection;
+    /**
+     * If {@code true}, this room is outside of the visible area and its nodes are detached from the custom parent
+     */
+    private boolean culled;
+    private boolean detailsVisible = true;
+    /**
+     * The {@link RoomRectangleList}s that contain this rectangle and index it by its room
+     */
+    private final List<RoomRectangleList> containingLists = new ArrayList<>(2);
+    /**
+     * Tells the editor that the connections of this room changed
+     */
+    private final RoomMap.ChangeListener adjacentRoomsListener = new RoomMap.ChangeListener() {
+        @Override
+        public void removed(WalkDirection key, Room value) {
+            invalidateTopology();
+        }
+
+        @Override
+        public void added(WalkDirection key, Room value) {
+            invalidateTopology();
+        }
+
+        @Override
+        public void replaced(WalkDirection key, Room oldValue, Room newValue) {
+            invalidateTopology();
+        }
+
+        private void invalidateTopology() {
+            if (EditorView.currentEditorInstance != null) {
+                EditorView.currentEditorInstance.invalidateTopology(thisRef);
+            }
+        }
+    };
 
     public RoomRectangle(@SuppressWarnings("SameParameterValue") CustomGroup parent) {
         this(parent, new Room());
@@ -77,11 +145,21 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         this.setCustomParent(parent);
 
         thisRef.nameLabel.setText(thisRef.getRoom().getName());
+        // the size listeners are not registered yet, so this does not move adjacent rooms
+        this.setWidth(getPreferredWidth());
+        this.setHeight(100);
         this.getRoom().setNameChangeListener((Runnable & Serializable) () -> {
             thisRef.nameLabel.setText(thisRef.getRoom().getName());
-            Platform.runLater(this::updateNameLabelPosition);
+            if (Platform.isFxApplicationThread()) {
+                // the size of the name is known without a layout pass, so the room can be resized right away
+                updateNameLabelPosition();
+            } else {
+                scheduleNameLabelPositionUpdate();
+            }
         });
 
+        this.nameLabel.fontProperty().addListener((observable, oldValue, newValue) -> scheduleNameLabelPositionUpdate());
+
         this.nameLabel.setTextFill(Color.BLACK);
 
         isTemporary.addListener((observable, oldValue, newValue) -> {
@@ -110,6 +188,10 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
 
         // track changes of the parent node
         this.parentProperty().addListener((observable, oldValue, newValue) -> {
+            if (culled) {
+                // culled rooms are only detached from the scene graph but stay in their custom parent
+                return;
+            }
             if (newValue instanceof CustomGroup || newValue == null) {
                 thisRef.setCustomParent((CustomGroup) newValue, false);
             } else {
@@ -118,13 +200,25 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         });
 
         this.currentPlayerIcon.setVisible(this.getRoom().isCurrentRoom());
-        this.getRoom().isCurrentRoomProperty().addListener((observable, oldValue, newValue) -> currentPlayerIcon.setVisible(newValue));
+        this.getRoom().isCurrentRoomProperty().addListener((observable, oldValue, newValue) -> currentPlayerIcon.setVisible(newValue && detailsVisible));
 
 
-        this.heightProperty().addListener((observable, oldValue, newValue) -> updateNameLabelPosition());
-        this.widthProperty().addListener((observable, oldValue, newValue) -> updateNameLabelPosition());
-        this.xProperty().addListener((observable, oldValue, newValue) -> updateNameLabelPosition());
-        this.yProperty().addListener((observable, oldValue, newValue) -> updateNameLabelPosition());
+        this.heightProperty().addListener((observable, oldValue, newValue) -> {
+            updateNameLabelPosition();
+            updateRoomIndex();
+        });
+        this.widthProperty().addListener((observable, oldValue, newValue) -> {
+            updateNameLabelPosition();
+            updateRoomIndex();
+        });
+        this.xProperty().addListener((observable, oldValue, newValue) -> {
+            updateNameLabelPosition();
+            updateRoomIndex();
+        });
+        this.yProperty().addListener((observable, oldValue, newValue) -> {
+            updateNameLabelPosition();
+            updateRoomIndex();
+        });
 
         this.setOnMouseClicked(event -> {
             if (event.getClickCount() == 1) {
@@ -142,6 +236,15 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         this.setOnMousePressed(event -> {
             this.moveStartLocalX = event.getX() - this.getX();
             this.moveStartLocalY = event.getY() - this.getY();
+            this.gestureStartX = this.getX();
+            this.gestureStartY = this.getY();
+            // the release of the previous gesture might not have reached this room
+            commitHistoryTransaction();
+            if (EditorView.currentEditorInstance != null) {
+                // everything that happens until the mouse is released is undone at once
+                openHistoryTransaction = EditorView.currentEditorInstance.getEditHistory();
+                openHistoryTransaction.beginTransaction();
+            }
             event.consume();
         });
 
@@ -149,9 +252,9 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
             // Forward event to scroll pane to fade out the compass image if needed
             EditorView.currentEditorInstance.scrollPaneOnMouseMoved(event);
             if (EditorView.currentEditorInstance.getCurrentEditMode() == EditMode.INSERT_PATH) {
-                FOKLogger.fine(RoomRectangle.class.getName(), "Inserting new path...");
+                logger.fine("Inserting new path...");
 
-                RoomRectangle newTarget = (RoomRectangle) this.getCustomParent().getRectangleByCoordinatesPreferFront(event.getX(), event.getY());
+                RoomRectangle newTarget = EditorView.currentEditorInstance.getRoomIndex().findAt(event.getX(), event.getY());
                 if (newTarget != previousTarget && previousTarget != null) {
                     previousTarget.setSelected(false);
                 }
@@ -174,90 +277,27 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
                         startX = this.moveStartLocalX + this.getX();
                         startY = this.moveStartLocalY + this.getY();
                     } else {
-                        WalkDirection dir = WalkDirectionUtils.getFromLine(new Line(this.getCenterX(), this.getCenterY(), endX, endY));
+                        WalkDirection dir = WalkDirectionUtils.getFromLine(this.getCenterX(), this.getCenterY(), endX, endY);
                         if (newTarget != null) {
-                            dir = WalkDirectionUtils.getFromLine(new Line(this.getCenterX(), this.getCenterY(), newTarget.getCenterX(), newTarget.getCenterY()));
+                            dir = WalkDirectionUtils.getFromLine(this.getCenterX(), this.getCenterY(), newTarget.getCenterX(), newTarget.getCenterY());
                             WalkDirection dir2 = WalkDirectionUtils.invert(dir);
-                            switch (dir2) {
-                                case NORTH:
-                                    endX = newTarget.getCenterX();
-                                    endY = newTarget.getY();
-                                    break;
-                                case WEST:
-                                    endX = newTarget.getX();
-                                    endY = newTarget.getCenterY();
-                                    break;
-                                case EAST:
-                                    endX = newTarget.getX() + newTarget.getWidth();
-                                    endY = newTarget.getCenterY();
-                                    break;
-                                case SOUTH:
-                                    endX = newTarget.getCenterX();
-                                    endY = newTarget.getY() + newTarget.getHeight();
-                                    break;
-                                case NORTH_WEST:
-                                    endX = newTarget.getX();
-                                    endY = newTarget.getY();
-                                    break;
-                                case NORTH_EAST:
-                                    endX = newTarget.getX() + newTarget.getWidth();
-                                    endY = newTarget.getY();
-                                    break;
-                                case SOUTH_WEST:
-                                    endX = newTarget.getX();
-                                    endY = newTarget.getY() + newTarget.getHeight();
-                                    break;
-                                case SOUTH_EAST:
-                                    endX = newTarget.getX() + newTarget.getWidth();
-                                    endY = newTarget.getY() + newTarget.getHeight();
-                                    break;
-                                case NONE:
-                                    throw new IllegalStateException("WalkDirection is NONE");
-                            }
+                            endX = WalkDirectionUtils.getAnchorX(dir2, newTarget.getX(), newTarget.getWidth());
+                            endY = WalkDirectionUtils.getAnchorY(dir2, newTarget.getY(), newTarget.getHeight());
                         }
 
-                        for (Map.Entry<WalkDirection, Room> entry : this.getRoom().getAdjacentRooms().entrySet()) {
-                            ConnectionLine line2 = EditorView.currentEditorInstance.lineList.findByStartAndEndRoomIgnoreLineDirection(this, EditorView.currentEditorInstance.getAllRoomsAsList().findByRoom(entry.getValue()));
+                        // iterate over the directions instead of the entry set of the map to avoid allocating an iterator on every event
+                        for (WalkDirection adjacentDir : walkDirections) {
+                            Room adjacentRoom = this.getRoom().getAdjacentRooms().get(adjacentDir);
+                            if (adjacentRoom == null) {
+                                continue;
+                            }
+                            ConnectionLine line2 = EditorView.currentEditorInstance.lineList.findByStartAndEndRoomIgnoreLineDirection(this, EditorView.currentEditorInstance.getAllRoomsAsList().findByRoom(adjacentRoom));
                             if (line2 != null) {
-                                line2.setSelected(entry.getKey() == dir && newTarget != null && newTarget.getRoom() != this.getRoom().getAdjacentRooms().get(entry.getKey()));
+                                line2.setSelected(adjacentDir == dir && newTarget != null && newTarget.getRoom() != adjacentRoom);
                             }
                         }
-                        switch (dir) {
-                            case NORTH:
-                                startX = this.getCenterX();
-                                startY = this.getY();
-                                break;
-                            case WEST:
-                                startX = this.getX();
-                                startY = this.getCenterY();
-                                break;
-                            case EAST:
-                                startX = this.getX() + this.getWidth();
-                                startY = this.getCenterY();
-                                break;
-                            case SOUTH:
-                                startX = this.getCenterX();
-                                startY = this.getY() + this.getHeight();
-                                break;
-                            case NORTH_WEST:
-                                startX = this.getX();
-                                startY = this.getY();
-                                break;
-                            case NORTH_EAST:
-                                startX = this.getX() + this.getWidth();
-                                startY = this.getY();
-                                break;
-                            case SOUTH_WEST:
-                                startX = this.getX();
-                                startY = this.getY() + this.getHeight();
-                                break;
-                            case SOUTH_EAST:
-                                startX = this.getX() + this.getWidth();
-                                startY = this.getY() + this.getHeight();
-                                break;
-                            case NONE:
-                                throw new IllegalStateException("WalkDirection is NONE");
-                        }
+                        startX = WalkDirectionUtils.getAnchorX(dir, this.getX(), this.getWidth());
+                        startY = WalkDirectionUtils.getAnchorY(dir, this.getY(), this.getHeight());
                     }
 
                     line.setStartX(startX);
@@ -266,128 +306,75 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
                     line.setEndY(endY);
                 }
             } else if (EditorView.currentEditorInstance.getCurrentEditMode() == EditMode.MOVE) {
-                FOKLogger.fine(RoomRectangle.class.getName(), "Moving room...");
+                logger.fine("Moving room...");
+                // the user takes over
+                EditorView.currentEditorInstance.cancelAutoLayout();
                 this.setX(event.getX() - this.moveStartLocalX);
                 this.setY(event.getY() - this.moveStartLocalY);
 
-                RoomRectangleList reevaluatedAdjacentRooms = new RoomRectangleList();
+                reevaluateConnections();
 
-                for (Map.Entry<WalkDirection, Room> entry : this.getRoom().getAdjacentRooms().entrySet()) {
-                    // reevaluate connection
-                    RoomRectangle targetRoomRectangle = EditorView.currentEditorInstance.getAllRoomsAsList().findByRoom(entry.getValue());
-                    assert targetRoomRectangle != null;
-                    targetRoomRectangle.reevaluatedDirection = WalkDirectionUtils.getFromLine(this.getLineToRectangle(targetRoomRectangle));
-                    reevaluatedAdjacentRooms.add(targetRoomRectangle);
-                }
-
-                // apply the reevaluated directions
-                for (WalkDirection dir : WalkDirection.values()) {
-                    RoomRectangleList subListWithCurrentDirection = new RoomRectangleList();
-                    for (RoomRectangle r : reevaluatedAdjacentRooms) {
-                        if (r.reevaluatedDirection == dir) {
-                            subListWithCurrentDirection.add(r);
-                        }
-                    }
+                // the lines of this room are updated through the dirty regions of the editor, changed connections are picked up by adjacentRoomsListener
+            }
+        });
 
-                    // only use the one with the smallest distance to this room
-                    RoomRectangle finalRoom = subListWithCurrentDirection.findRoomWithMinimumDistanceTo(this);
-                    if (finalRoom != null) {
-                        if (this.getRoom().getAdjacentRooms().containsKey(dir)) {
-                            if (this.getRoom().getAdjacentRooms().get(dir) != finalRoom.getRoom()) {
-                                // this has got a connection to another room in that direction that we need to delete
-                                this.getRoom().getAdjacentRooms().get(dir).getAdjacentRooms().remove(WalkDirectionUtils.invert(dir));
-                                this.getRoom().getAdjacentRooms().remove(dir);
-                            }
+        this.setOnMouseReleased(event -> {
+            try {
+                recordMove();
+                if (dragStarted) {
+                    dragStarted = false;
+                    logger.fine("Drag done");
+                    RoomRectangle target = EditorView.currentEditorInstance.getRoomIndex().findAt(event.getX(), event.getY());
+
+                    if (target != null && target != thisRef && EditorView.currentEditorInstance.getCurrentEditMode() == EditMode.INSERT_PATH) {
+                        WalkDirection fromThisToTarget = WalkDirectionUtils.getFromLine(this.getCenterX(), this.getCenterY(), target.getCenterX(), target.getCenterY());
+                        WalkDirection fromTargetToThis = WalkDirectionUtils.invert(fromThisToTarget);
+
+                        // Delete old references
+                        if (this.getRoom().getAdjacentRooms().get(fromThisToTarget) != null) {
+                            this.getRoom().getAdjacentRooms().get(fromThisToTarget).getAdjacentRooms().remove(fromTargetToThis);
+                            this.getRoom().getAdjacentRooms().remove(fromThisToTarget);
                         }
-
-                        if (finalRoom.getRoom().getAdjacentRooms().containsKey(WalkDirectionUtils.invert(dir))) {
-                            if (finalRoom.getRoom().getAdjacentRooms().get(WalkDirectionUtils.invert(dir)) != this.getRoom()) {
-                                // finalRoom has got a connection to another room in our direction that we need to delete
-                                finalRoom.getRoom().getAdjacentRooms().get(WalkDirectionUtils.invert(dir)).getAdjacentRooms().remove(dir);
-                                finalRoom.getRoom().getAdjacentRooms().remove(WalkDirectionUtils.invert(dir));
-                            }
+                        if (target.getRoom().getAdjacentRooms().get(fromTargetToThis) != null) {
+                            target.getRoom().getAdjacentRooms().get(fromTargetToThis).getAdjacentRooms().remove(fromThisToTarget);
+                            target.getRoom().getAdjacentRooms().remove(fromTargetToThis);
                         }
 
-                        // delete the old connection between this and finalRoom
-                        WalkDirection oldDirThisToFinalRoom = null;
-                        for (Map.Entry<WalkDirection, Room> entry : this.getRoom().getAdjacentRooms().entrySet()) {
-                            if (entry.getValue() == finalRoom.getRoom()) {
-                                oldDirThisToFinalRoom = entry.getKey();
-                                break;
+                        // Delete old connection between this and target
+                        WalkDirection dir = this.getRoom().getDirectionTo(target.getRoom());
+                        if (dir != null) {
+                            if (dir != fromThisToTarget) {
+                                this.getRoom().getAdjacentRooms().remove(dir);
+                                target.getRoom().getAdjacentRooms().remove(WalkDirectionUtils.invert(dir));
                             }
                         }
 
-                        if (oldDirThisToFinalRoom != null && oldDirThisToFinalRoom != dir) {
-                            // there was an old connection, remove it
-                            this.getRoom().getAdjacentRooms().remove(oldDirThisToFinalRoom);
-                            finalRoom.getRoom().getAdjacentRooms().remove(WalkDirectionUtils.invert(oldDirThisToFinalRoom));
-                        }
-
-                        if (oldDirThisToFinalRoom != dir) {
-                            this.getRoom().getAdjacentRooms().put(dir, finalRoom.getRoom());
-                            finalRoom.getRoom().getAdjacentRooms().put(WalkDirectionUtils.invert(dir), this.getRoom());
-                        }
+                        logger.fine(() -> "Room is " + fromThisToTarget.toString());
+                        this.getRoom().getAdjacentRooms().put(fromThisToTarget, target.getRoom());
+                        target.getRoom().getAdjacentRooms().put(fromTargetToThis, this.getRoom());
+                        target.setSelected(false);
                     }
-                }
-
-                EditorView.currentEditorInstance.renderView(false, true);
-            }
-        });
 
-        this.setOnMouseReleased(event -> {
-            if (dragStarted) {
-                dragStarted = false;
-                FOKLogger.fine(RoomRectangle.class.getName(), "Drag done");
-                RoomRectangle target = (RoomRectangle) this.getCustomParent().getRectangleByCoordinatesPreferFront(event.getX(), event.getY());
-
-                if (target != null && target != thisRef && EditorView.currentEditorInstance.getCurrentEditMode() == EditMode.INSERT_PATH) {
-                    WalkDirection fromThisToTarget = WalkDirectionUtils.getFromLine(new Line(this.getCenterX(), this.getCenterY(), target.getCenterX(), target.getCenterY()));
-                    WalkDirection fromTargetToThis = WalkDirectionUtils.invert(fromThisToTarget);
-
-                    // Delete old references
-                    if (this.getRoom().getAdjacentRooms().get(fromThisToTarget) != null) {
-                        this.getRoom().getAdjacentRooms().get(fromThisToTarget).getAdjacentRooms().remove(fromTargetToThis);
-                        this.getRoom().getAdjacentRooms().remove(fromThisToTarget);
-                    }
-                    if (target.getRoom().getAdjacentRooms().get(fromTargetToThis) != null) {
-                        target.getRoom().getAdjacentRooms().get(fromTargetToThis).getAdjacentRooms().remove(fromThisToTarget);
-                        target.getRoom().getAdjacentRooms().remove(fromTargetToThis);
+                    // reset the dragging line if one was drawn
+                    if (line != null) {
+                        line = null;
                     }
 
-                    // Delete old connection between this and target
-                    WalkDirection dir = this.getRoom().getDirectionTo(target.getRoom());
-                    if (dir != null) {
-                        if (dir != fromThisToTarget) {
-                            this.getRoom().getAdjacentRooms().remove(dir);
-                            target.getRoom().getAdjacentRooms().remove(WalkDirectionUtils.invert(dir));
-                        }
+                    if (EditorView.currentEditorInstance.getCurrentEditMode() != EditMode.INSERT_ROOM) {
+                        EditorView.currentEditorInstance.renderView(false);
                     }
-
-                    FOKLogger.fine(RoomRectangle.class.getName(), "Room is " + fromThisToTarget.toString());
-                    this.getRoom().getAdjacentRooms().put(fromThisToTarget, target.getRoom());
-                    target.getRoom().getAdjacentRooms().put(fromTargetToThis, this.getRoom());
-                    target.setSelected(false);
-                }
-
-                // reset the dragging line if one was drawn
-                if (line != null) {
-                    line = null;
-                }
-
-                if (EditorView.currentEditorInstance.getCurrentEditMode() != EditMode.INSERT_ROOM) {
-                    EditorView.currentEditorInstance.renderView(false);
                 }
+            } finally {
+                commitHistoryTransaction();
             }
         });
 
         // Style
-        this.setWidth(100);
-        this.setHeight(100);
         this.setFill(Color.WHITE);
         this.setStroke(Color.BLACK);
 
         selected.addListener((observable, oldValue, newValue) -> {
-            FOKLogger.finest(RoomRectangle.class.getName(), "Room selected = " + newValue);
+            logger.finest(() -> "Room selected = " + newValue);
             if (newValue) {
                 // is selected
                 thisRef.setStroke(Color.GRAY);
@@ -400,32 +387,164 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         });
     }
 
-    private static void moveRooms(RoomRectangle currentRoom, double widthDiff) {
-        for (Map.Entry<WalkDirection, Room> entry : currentRoom.getRoom().getAdjacentRooms().entrySet()) {
-            boolean skip = false;
-            RoomRectangle adjRoomRectangle = EditorView.currentEditorInstance.getAllRoomsAsList().findByRoom(entry.getValue());
-            assert adjRoomRectangle != null;
+    /**
+     * Reconnects this room to its adjacent rooms after it was moved: Every adjacent room is connected in the direction
+     * that it is in now. If multiple adjacent rooms end up in the same direction, only the closest one is connected.<br>
+     * Called for every drag event, so this method does not allocate unless connections actually change. Must be
+     * called on the JavaFX thread.
+     */
+    private void reevaluateConnections() {
+        RoomMap adjacentRooms = this.getRoom().getAdjacentRooms();
 
-            switch (entry.getKey()) {
-                case NORTH:
-                case SOUTH:
-                    adjRoomRectangle.setX(adjRoomRectangle.getX() + (widthDiff / 2));
-                    break;
-                case EAST:
-                case NORTH_EAST:
-                case SOUTH_EAST:
-                    adjRoomRectangle.setX(adjRoomRectangle.getX() + widthDiff);
-                    break;
-                default:
-                    skip = true;
+        // collect the reevaluated directions before changing any connections, only the closest room per direction is used
+        reevaluatedAdjacentRooms.offerAdjacentRooms(adjacentRooms, this.getCenterX(), this.getCenterY(), roomRectangleLocator);
+
+        // apply the reevaluated directions
+        for (WalkDirection dir : walkDirections) {
+            RoomRectangle finalRoom = reevaluatedAdjacentRooms.get(dir);
+            if (finalRoom == null) {
+                continue;
+            }
+
+            WalkDirection invertedDir = WalkDirectionUtils.invert(dir);
+            Room roomInDir = adjacentRooms.get(dir);
+            if (roomInDir != null && roomInDir != finalRoom.getRoom()) {
+                // this has got a connection to another room in that direction that we need to delete
+                roomInDir.getAdjacentRooms().remove(invertedDir);
+                adjacentRooms.remove(dir);
+            }
+
+            Room roomInInvertedDir = finalRoom.getRoom().getAdjacentRooms().get(invertedDir);
+            if (roomInInvertedDir != null && roomInInvertedDir != this.getRoom()) {
+                // finalRoom has got a connection to another room in our direction that we need to delete
+                roomInInvertedDir.getAdjacentRooms().remove(dir);
+                finalRoom.getRoom().getAdjacentRooms().remove(invertedDir);
+            }
+
+            // delete the old connection between this and finalRoom
+            WalkDirection oldDirThisToFinalRoom = null;
+            for (WalkDirection oldDir : walkDirections) {
+                if (adjacentRooms.get(oldDir) == finalRoom.getRoom()) {
+                    oldDirThisToFinalRoom = oldDir;
                     break;
+                }
+            }
+
+            if (oldDirThisToFinalRoom != null && oldDirThisToFinalRoom != dir) {
+                // there was an old connection, remove it
+                adjacentRooms.remove(oldDirThisToFinalRoom);
+                finalRoom.getRoom().getAdjacentRooms().remove(WalkDirectionUtils.invert(oldDirThisToFinalRoom));
             }
 
-            if (!skip && !movedRooms.contains(adjRoomRectangle)) {
-                movedRooms.add(adjRoomRectangle);
-                moveRooms(adjRoomRectangle, widthDiff);
+            if (oldDirThisToFinalRoom != dir) {
+                adjacentRooms.put(dir, finalRoom.getRoom());
+                finalRoom.getRoom().getAdjacentRooms().put(invertedDir, this.getRoom());
             }
         }
+
+        // do not keep the rooms alive
+        reevaluatedAdjacentRooms.clear();
+    }
+
+    /**
+     * Records a move of this room in the edit history of the editor if the room was moved since the mouse was pressed
+     */
+    private void recordMove() {
+        if (openHistoryTransaction == null || (this.getX() == gestureStartX && this.getY() == gestureStartY)) {
+            return;
+        }
+
+        final double oldX = gestureStartX;
+        final double oldY = gestureStartY;
+        final double newX = this.getX();
+        final double newY = this.getY();
+        openHistoryTransaction.record(new EditHistory.Operation() {
+            @Override
+            public void undo() {
+                setX(oldX);
+                setY(oldY);
+            }
+
+            @Override
+            public void redo() {
+                setX(newX);
+                setY(newY);
+            }
+        });
+    }
+
+    private void commitHistoryTransaction() {
+        if (openHistoryTransaction != null) {
+            EditHistory history = openHistoryTransaction;
+            openHistoryTransaction = null;
+            history.commitTransaction();
+        }
+    }
+
+    /**
+     * Computes how far the rooms that are east, north or south of the specified room need to be moved horizontally
+     * after the width of the room changed, so that they keep their distance. The change is propagated breadth first
+     * through the map: Rooms in the north and south move by half of the width difference, rooms in the east, north east
+     * and south east by the whole width difference. Every room is moved at most once, the amount is determined by the
+     * path on which it is reached first. The resized room itself is never moved.
+     *
+     * @param resizedRoom The room whose width changed
+     * @param widthDiff   The difference between the new and the old width
+     * @param allRooms    The rooms to look up the rectangles of adjacent rooms in
+     * @return The rooms that need to be moved and by how much, in the order in which they were reached
+     */
+    static Map<RoomRectangle, Double> computeRoomShifts(@NotNull RoomRectangle resizedRoom, double widthDiff, @NotNull RoomRectangleList allRooms) {
+        // RoomRectangle does not override equals, so the map compares by identity
+        Map<RoomRectangle, Double> res = new LinkedHashMap<>();
+        Deque<RoomRectangle> queue = new ArrayDeque<>();
+        queue.add(resizedRoom);
+
+        while (!queue.isEmpty()) {
+            RoomRectangle currentRoom = queue.remove();
+            for (Map.Entry<WalkDirection, Room> entry : currentRoom.getRoom().getAdjacentRooms().entrySet()) {
+                double shift;
+                switch (entry.getKey()) {
+                    case NORTH:
+                    case SOUTH:
+                        shift = widthDiff / 2;
+                        break;
+                    case EAST:
+                    case NORTH_EAST:
+                    case SOUTH_EAST:
+                        shift = widthDiff;
+                        break;
+                    default:
+                        continue;
+                }
+
+                RoomRectangle adjacentRoom = allRooms.findByRoom(entry.getValue());
+                if (adjacentRoom != null && adjacentRoom != resizedRoom && !res.containsKey(adjacentRoom)) {
+                    res.put(adjacentRoom, shift);
+                    queue.add(adjacentRoom);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    /**
+     * Moves the rooms that are connected to the specified room after its width changed, see {@link #computeRoomShifts(RoomRectangle, double, RoomRectangleList)}.
+     * All shifts are computed before the first room is moved.
+     *
+     * @param resizedRoom The room whose width changed
+     * @param widthDiff   The difference between the new and the old width
+     */
+    private static void moveRooms(RoomRectangle resizedRoom, double widthDiff) {
+        if (EditorView.currentEditorInstance == null || EditorView.currentEditorInstance.getAllRoomsAsList() == null) {
+            return;
+        }
+
+        Map<RoomRectangle, Double> shifts = computeRoomShifts(resizedRoom, widthDiff, EditorView.currentEditorInstance.getAllRoomsAsList());
+        for (Map.Entry<RoomRectangle, Double> shift : shifts.entrySet()) {
+            // the moved rooms mark themselves dirty, so their lines are updated in a single flush
+            shift.getKey().setX(shift.getKey().getX() + shift.getValue());
+        }
     }
 
     public Room getRoom() {
@@ -433,7 +552,36 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
     }
 
     public void setRoom(Room room) {
+        Room previousRoom = this.room;
+        if (previousRoom != null) {
+            previousRoom.getAdjacentRooms().getChangeListenerList().remove(adjacentRoomsListener);
+        }
         this.room = room;
+        if (room != null) {
+            room.getAdjacentRooms().getChangeListenerList().add(adjacentRoomsListener);
+        }
+        if (previousRoom != room) {
+            for (RoomRectangleList list : containingLists) {
+                list.reindex(this, previousRoom);
+            }
+        }
+    }
+
+    /**
+     * Stops telling the editor about changed connections of the room of this rectangle. Must be called when the
+     * rectangle is dropped from the view, as the room would otherwise keep the rectangle alive.
+     */
+    void removeAdjacentRoomsListener() {
+        if (room != null) {
+            room.getAdjacentRooms().getChangeListenerList().remove(adjacentRoomsListener);
+        }
+    }
+
+    /**
+     * @return The {@link RoomRectangleList}s that contain this rectangle. Maintained by {@link RoomRectangleList}.
+     */
+    List<RoomRectangleList> getContainingLists() {
+        return containingLists;
     }
 
     @SuppressWarnings({"unused"})
@@ -450,16 +598,46 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         return selected;
     }
 
+    /**
+     * Updates the position of the name label on the next pulse. Multiple calls before the next pulse result in a single update.
+     */
+    private void scheduleNameLabelPositionUpdate() {
+        if (EditorView.currentEditorInstance != null) {
+            EditorView.currentEditorInstance.getRenderScheduler().schedule(this, this::updateNameLabelPosition);
+        } else {
+            Platform.runLater(this::updateNameLabelPosition);
+        }
+    }
+
+    /**
+     * Calculates the width that this room needs to fit its name. The size of the name is taken from the {@link TextMetricsCache}, so no layout pass is required.
+     *
+     * @return The width that this room needs to fit its name, at least 100 px
+     */
+    public double getPreferredWidth() {
+        return Math.max(minRectangleWidth, getNameLabelWidth() + 60);
+    }
+
+    private double getNameLabelWidth() {
+        return TextMetricsCache.getDefault().getWidth(nameLabel.getText(), nameLabel.getFont());
+    }
+
+    private double getNameLabelHeight() {
+        return TextMetricsCache.getDefault().getHeight(nameLabel.getText(), nameLabel.getFont());
+    }
+
     public void updateNameLabelPosition() {
         // adapt the width of the rectangle
-        // min width 100 px
-        double newWidth = Math.max(minRectangleWidth, this.nameLabel.getWidth() + 60);
+        double newWidth = getPreferredWidth();
 
         // move connected rooms
         double widthDiff = newWidth - this.getWidth();
-        movedRooms = new ArrayList<>();
-        moveRooms(this, widthDiff);
-        Platform.runLater(() -> EditorView.currentEditorInstance.renderView(false, true));
+        if (widthDiff != 0) {
+            moveRooms(this, widthDiff);
+        }
+        if (EditorView.currentEditorInstance != null) {
+            EditorView.currentEditorInstance.invalidateRoom(this);
+        }
 
         this.setWidth(newWidth);
 
@@ -468,12 +646,13 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         double centerY = this.getY() + this.getHeight() / 2.0;
 
         // calculate the upper left corner of the label
-        this.nameLabel.setLayoutX(centerX - nameLabel.getWidth() / 2.0);
-        this.nameLabel.setLayoutY(centerY - nameLabel.getHeight() / 2.0);
+        double nameLabelHeight = getNameLabelHeight();
+        this.nameLabel.setLayoutX(centerX - getNameLabelWidth() / 2.0);
+        this.nameLabel.setLayoutY(centerY - nameLabelHeight / 2.0);
 
         // calculate the upper left corner of the player icon
         this.currentPlayerIcon.setX(centerX - currentPlayerIcon.getImage().getWidth() / 2.0);
-        this.currentPlayerIcon.setY(centerY + (nameLabel.getHeight() / 2.0) + 15 - currentPlayerIcon.getImage().getHeight() / 2.0);
+        this.currentPlayerIcon.setY(centerY + (nameLabelHeight / 2.0) + 15 - currentPlayerIcon.getImage().getHeight() / 2.0);
     }
 
     /**
@@ -491,22 +670,16 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         }
 
         this.parent = parent;
+        if (parent == null) {
+            culled = false;
+        }
+        updateRoomIndex();
 
-        Thread t = new Thread((Runnable & Serializable) () -> {
-            try {
-                Thread.sleep(12);
-            } catch (InterruptedException e) {
-                FOKLogger.log(RoomRectangle.class.getName(), Level.SEVERE, "An error occurred", e);
-            }
-
-            Platform.runLater(this::updateNameLabelPosition);
-        });
-
-        t.start();
+        scheduleNameLabelPositionUpdate();
 
         Platform.runLater((Runnable & Serializable) () -> {
             // add to new parent
-            if (registerAsChild & parent != null) {
+            if (registerAsChild & parent != null && !culled) {
                 if (!parent.getChildren().contains(thisRef))
                     parent.getChildren().add(thisRef);
                 if (!parent.getChildren().contains(this.nameLabel))
@@ -536,6 +709,62 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
         this.setCustomParent(parent, true);
     }
 
+    /**
+     * Updates the location of this room in the {@link RoomRectangleIndex} of the current {@link EditorView} or removes it from the index if this room is not rendered.
+     */
+    private void updateRoomIndex() {
+        if (EditorView.currentEditorInstance == null) {
+            return;
+        }
+
+        if (isRendered()) {
+            EditorView.currentEditorInstance.getRoomIndex().update(this);
+        } else {
+            EditorView.currentEditorInstance.getRoomIndex().remove(this);
+        }
+    }
+
+    public boolean isCulled() {
+        return culled;
+    }
+
+    /**
+     * Detaches this room from its custom parent if it is outside of the visible area or attaches it again. A culled room is still considered to be rendered.
+     *
+     * @param culled If {@code true}, the nodes of this room are detached from the scene graph.
+     * @see ViewportCuller
+     */
+    public void setCulled(boolean culled) {
+        if (this.culled == culled || !isRendered()) {
+            return;
+        }
+
+        if (culled) {
+            this.culled = true;
+            getCustomParent().getChildren().removeAll(this, nameLabel, currentPlayerIcon);
+        } else {
+            if (!getCustomParent().getChildren().contains(this)) {
+                getCustomParent().getChildren().addAll(this, nameLabel, currentPlayerIcon);
+            }
+            this.culled = false;
+        }
+    }
+
+    /**
+     * Shows or hides the name label and the player icon of this room, e. g. when the view is zoomed out.
+     *
+     * @param detailsVisible If {@code true}, the name label and the player icon (if the player is in this room) are shown.
+     */
+    public void setDetailsVisible(boolean detailsVisible) {
+        if (this.detailsVisible == detailsVisible) {
+            return;
+        }
+
+        this.detailsVisible = detailsVisible;
+        nameLabel.setVisible(detailsVisible);
+        currentPlayerIcon.setVisible(detailsVisible && getRoom().isCurrentRoom());
+    }
+
     public boolean isRendered() {
         return this.getCustomParent() != null;
     }
@@ -609,12 +838,13 @@ public class RoomRectangle extends Rectangle implements Serializable, Disposable
             throw new IllegalStateException("Cannot remove the room where the player is currently in: " + this.toString());
         }
 
-        FOKLogger.fine(RoomRectangle.class.getName(), "Disposing room " + this.toString() + "...");
+        logger.fine(() -> "Disposing room " + this.toString() + "...");
         for (Map.Entry<WalkDirection, Room> entry : this.getRoom().getAdjacentRooms().entrySet()) {
             entry.getValue().getAdjacentRooms().remove(WalkDirectionUtils.invert(entry.getKey()));
             this.getRoom().getAdjacentRooms().remove(entry.getKey());
         }
 
+        removeAdjacentRoomsListener();
         EditorView.currentEditorInstance.getAllRoomsAsList().remove(this);
         EditorView.currentEditorInstance.getUnconnectedRooms().remove(this);
         this.setCustomParent(null);
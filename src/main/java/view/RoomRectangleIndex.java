@@ -0,0 +1,61 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * A spatial index of the bounds of all {@link RoomRectangle}s in the {@link EditorView}.<br>
+ * {@link RoomRectangle}s keep themselves up to date in the index when they are moved or resized. The index is
+ * modified from the render thread and the JavaFX thread.
+ *
+ * @see GridIndex
+ */
+public class RoomRectangleIndex extends GridIndex<RoomRectangle> {
+    private static final double defaultCellSize = 200;
+
+    public RoomRectangleIndex() {
+        this(defaultCellSize);
+    }
+
+    public RoomRectangleIndex(double cellSize) {
+        super(cellSize);
+    }
+
+    @Override
+    protected double getMinX(RoomRectangle element) {
+        return element.getX();
+    }
+
+    @Override
+    protected double getMinY(RoomRectangle element) {
+        return element.getY();
+    }
+
+    @Override
+    protected double getWidth(RoomRectangle element) {
+        return element.getWidth();
+    }
+
+    @Override
+    protected double getHeight(RoomRectangle element) {
+        return element.getHeight();
+    }
+}
@@ -22,22 +22,34 @@ package view;
 
 
 import model.Room;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.*;
 
 /**
- * A List of {@link RoomRectangle}s that can find a {@link RoomRectangle} by its {@link Room}
+ * A collection of {@link RoomRectangle}s that can find a {@link RoomRectangle} by its {@link Room}.<br>
+ * Next to the positions of the elements (see {@link IdentityIndexedCollection}), the list keeps an identity index from
+ * each {@link Room} to its {@link RoomRectangle}, so {@link #findByRoom(Room)} runs in constant time. The index is
+ * updated for every added or removed element, including removals through iterators and bulk operations, and when the
+ * room of a contained rectangle changes.<br>
+ * The list is not thread safe and must only be used on the JavaFX application thread.
  */
-public class RoomRectangleList extends CopyOnWriteArrayList<RoomRectangle> {
+public class RoomRectangleList extends IdentityIndexedCollection<RoomRectangle> {
+    private final Map<Room, RoomRectangle> roomIndex = new IdentityHashMap<>();
+    /**
+     * Rectangles that show a room which is already indexed by another rectangle of this list. Usually empty.
+     */
+    private final Map<Room, List<RoomRectangle>> shadowedRectangles = new IdentityHashMap<>();
+
     public RoomRectangleList() {
         super();
     }
 
     @SuppressWarnings({"unused"})
     public RoomRectangleList(Collection<? extends RoomRectangle> c) {
-        super(c);
+        this();
+        addAll(c);
     }
 
     /**
@@ -48,44 +60,106 @@ public class RoomRectangleList extends CopyOnWriteArrayList<RoomRectangle> {
      */
     @Nullable
     public RoomRectangle findByRoom(Room room) {
-        for (RoomRectangle entry : this) {
-            if (entry.getRoom() == room) {
-                return entry;
-            }
-        }
+        return roomIndex.get(room);
+    }
 
-        return null;
+    /**
+     * Finds the {@link RoomRectangle} from {@code this} list that has the least pythagorean distance to the specified
+     * source using the {@link RoomRectangleIndex} of the current {@link EditorView}. Only rooms that are rendered are in
+     * that index, so only those are considered.
+     *
+     * @param source The {@link RoomRectangle} to measure the distance from
+     * @return The rendered {@link RoomRectangle} from {@code this} list that has the least pythagorean distance to the specified source or {@code null} if this list does not contain any rendered room or there is no current editor
+     */
+    @Nullable
+    public RoomRectangle findRoomWithMinimumDistanceTo(@NotNull RoomRectangle source) {
+        if (EditorView.currentEditorInstance == null) {
+            return null;
+        }
+        return findRoomWithMinimumDistanceTo(source, EditorView.currentEditorInstance.getRoomIndex());
     }
 
     /**
-     * Finds the {@link RoomRectangle} from {@code this} list that has the least pythagorean distance to the specified source
+     * Finds the {@link RoomRectangle} from {@code this} list that has the least pythagorean distance to the specified
+     * source. The index is searched outwards from the source, so the cost depends on the number of rooms around the
+     * source and not on the size of this list.
      *
      * @param source The {@link RoomRectangle} to measure the distance from
-     * @return The {@link RoomRectangle} from {@code this} list that has the least pythagorean distance to the specified source or {@code null} if this list does not contain any room
+     * @param index  The index that contains the rooms of this list
+     * @return The {@link RoomRectangle} from {@code this} list that is in the index and has the least pythagorean distance to the specified source or {@code null} if there is no such room
      */
     @Nullable
-    public RoomRectangle findRoomWithMinimumDistanceTo(RoomRectangle source) {
+    public RoomRectangle findRoomWithMinimumDistanceTo(@NotNull RoomRectangle source, @NotNull GridIndex<RoomRectangle> index) {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(index);
         if (this.isEmpty()) {
             return null;
-        } else {
-            RoomRectangle res = this.get(0);
+        }
 
-            for (RoomRectangle room : this) {
-                if (source.distanceTo(room) < source.distanceTo(res)) {
-                    // found a room with a smaller distance
-                    res = room;
-                }
-            }
+        List<RoomRectangle> res = index.findNearest(source.getCenterX(), source.getCenterY(), 1, this::contains);
+        if (res.isEmpty()) {
+            return null;
+        }
+        return res.get(0);
+    }
 
-            return res;
+    /**
+     * Moves the specified rectangle from the index entry of its previous room to the entry of its current room. Called
+     * by {@link RoomRectangle#setRoom(Room)} for every list that contains the rectangle.
+     *
+     * @param roomRectangle The rectangle whose room changed
+     * @param previousRoom  The room the rectangle showed before
+     */
+    void reindex(@NotNull RoomRectangle roomRectangle, @Nullable Room previousRoom) {
+        if (!this.contains(roomRectangle)) {
+            return;
         }
+        unindex(roomRectangle, previousRoom);
+        index(roomRectangle, roomRectangle.getRoom());
     }
 
     @Override
-    public boolean add(RoomRectangle roomRectangle) {
-        if (this.contains(roomRectangle)) {
-            throw new IllegalArgumentException("Duplicate child: " + roomRectangle.toString());
+    protected void elementAdded(RoomRectangle roomRectangle) {
+        roomRectangle.getContainingLists().add(this);
+        index(roomRectangle, roomRectangle.getRoom());
+    }
+
+    @Override
+    protected void elementRemoved(RoomRectangle roomRectangle) {
+        // the list compares by identity
+        roomRectangle.getContainingLists().remove(this);
+        unindex(roomRectangle, roomRectangle.getRoom());
+    }
+
+    private void index(RoomRectangle roomRectangle, @Nullable Room room) {
+        if (room == null) {
+            return;
+        }
+        RoomRectangle indexed = roomIndex.putIfAbsent(room, roomRectangle);
+        if (indexed != null && indexed != roomRectangle) {
+            shadowedRectangles.computeIfAbsent(room, key -> new ArrayList<>(1)).add(roomRectangle);
+        }
+    }
+
+    private void unindex(RoomRectangle roomRectangle, @Nullable Room room) {
+        if (room == null) {
+            return;
+        }
+        List<RoomRectangle> shadowed = shadowedRectangles.get(room);
+        if (roomIndex.get(room) == roomRectangle) {
+            if (shadowed == null) {
+                roomIndex.remove(room);
+                return;
+            }
+            // another rectangle in this list shows the same room
+            roomIndex.put(room, shadowed.remove(shadowed.size() - 1));
+        } else if (shadowed != null) {
+            shadowed.remove(roomRectangle);
+        } else {
+            return;
+        }
+        if (shadowed.isEmpty()) {
+            shadowedRectangles.remove(room);
         }
-        return super.add(roomRectangle);
     }
 }
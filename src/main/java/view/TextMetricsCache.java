@@ -0,0 +1,159 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Measures the size of text without a layout pass and caches the result per text and {@link Font}.<br>
+ * The size of a {@code Label} is only known once it was laid out, so sizing a room to fit its name used to take
+ * several pulses. The size measured here is known immediately, so a room can be sized in the same step in which
+ * its name changes. The measurement uses a private {@link Text} node that is never part of a scene.<br>
+ * The cache holds the most recently used entries only. All methods are synchronized.
+ */
+public class TextMetricsCache {
+    private static final int defaultMaxSize = 4096;
+    private static TextMetricsCache defaultInstance;
+    private final Text measuringText = new Text();
+    private final Map<Key, double[]> cache;
+    /**
+     * Reused for lookups so that cache hits do not allocate, rooms are measured on every move. Never stored in the cache.
+     */
+    private final Key lookupKey = new Key("", null);
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param maxSize The maximum number of cached measurements. The least recently used measurement is dropped if the cache is full.
+     */
+    public TextMetricsCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        cache = new LinkedHashMap<Key, double[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cache that is shared by all rooms
+     *
+     * @return The shared cache
+     */
+    public static synchronized TextMetricsCache getDefault() {
+        if (defaultInstance == null) {
+            defaultInstance = new TextMetricsCache(defaultMaxSize);
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Returns the width of the specified text when rendered with the specified font
+     *
+     * @param text The text to measure. {@code null} is treated like an empty text.
+     * @param font The font to measure the text with or {@code null} to use the default font
+     * @return The width of the text in px
+     */
+    public double getWidth(String text, Font font) {
+        return getSize(text, font)[0];
+    }
+
+    /**
+     * Returns the height of the specified text when rendered with the specified font
+     *
+     * @param text The text to measure. {@code null} is treated like an empty text.
+     * @param font The font to measure the text with or {@code null} to use the default font
+     * @return The height of the text in px
+     */
+    public double getHeight(String text, Font font) {
+        return getSize(text, font)[1];
+    }
+
+    private synchronized double[] getSize(String text, Font font) {
+        lookupKey.text = text == null ? "" : text;
+        lookupKey.font = font;
+        double[] res = cache.get(lookupKey);
+        if (res != null) {
+            hitCount++;
+            return res;
+        }
+
+        missCount++;
+        Key key = new Key(lookupKey.text, font);
+        measuringText.setText(key.text);
+        measuringText.setFont(font == null ? Font.getDefault() : font);
+        res = new double[]{measuringText.getLayoutBounds().getWidth(), measuringText.getLayoutBounds().getHeight()};
+        cache.put(key, res);
+        return res;
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    private static class Key {
+        private String text;
+        private Font font;
+
+        Key(String text, Font font) {
+            this.text = text;
+            this.font = font;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return text.equals(key.text) && Objects.equals(font, key.font);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * text.hashCode() + Objects.hashCode(font);
+        }
+    }
+}
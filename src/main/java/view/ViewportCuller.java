@@ -0,0 +1,247 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 - 2017 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.github.vatbub.common.view.core.CustomGroup;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Keeps only the rooms and lines in the scene graph that intersect the visible area of the editor (plus a margin) and
+ * adjusts the level of detail to the current zoom level:
+ * <ul>
+ * <li>Below a scale of {@link #detailsMinScale}, the name labels and player icons of the rooms are hidden.</li>
+ * <li>Below a scale of {@link #aggregateMaxScale}, all rooms and lines are detached and each non-empty cell of the
+ * {@link RoomRectangleIndex} is drawn as a single tile whose opacity depends on the number of rooms in it.</li>
+ * </ul>
+ * Incremental updates (e. g. when scrolling) only touch the rooms that are visible now or were visible before, so
+ * their cost depends on the visible area and not on the size of the game. A full update visits every room and line
+ * and is required after rooms were added to or removed from the view.<br>
+ * Selected rooms are never culled as they still need to receive keyboard events.
+ */
+public class ViewportCuller {
+    /**
+     * Name labels and player icons are hidden below this scale
+     */
+    public static final double detailsMinScale = 0.5;
+    /**
+     * Rooms are replaced by aggregate tiles below this scale
+     */
+    public static final double aggregateMaxScale = 0.2;
+    /**
+     * The margin around the visible area in screen pixels. Rooms in the margin are kept in the scene graph so that they
+     * are already there when scrolling.
+     */
+    private static final double margin = 100;
+
+    private final EditorView editorView;
+    private final CustomGroup drawing;
+    private final Node viewport;
+    private final Set<RoomRectangle> visibleRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Rectangle> aggregateTiles = new ArrayList<>();
+    /**
+     * Scratch list for the lines of a single room, reused so that scrolling does not allocate a list per room
+     */
+    private final List<ConnectionLine> linesOfRoom = new ArrayList<>();
+    private volatile boolean fullUpdatePending;
+
+    /**
+     * @param editorView The editor that holds the rooms and lines
+     * @param drawing    The group that the rooms and lines are drawn in
+     * @param viewport   The node that defines the visible area, usually the scroll pane that contains the drawing
+     */
+    public ViewportCuller(@NotNull EditorView editorView, @NotNull CustomGroup drawing, @NotNull Node viewport) {
+        this.editorView = Objects.requireNonNull(editorView);
+        this.drawing = Objects.requireNonNull(drawing);
+        this.viewport = Objects.requireNonNull(viewport);
+    }
+
+    /**
+     * Requests an incremental update on the next pulse, e. g. after the view was scrolled or zoomed. May be called from any thread.
+     */
+    public void requestUpdate() {
+        editorView.getRenderScheduler().schedule(this, this::update);
+    }
+
+    /**
+     * Requests an update of all rooms and lines on the next pulse, e. g. after the view was rendered. May be called from any thread.
+     */
+    public void requestFullUpdate() {
+        fullUpdatePending = true;
+        requestUpdate();
+    }
+
+    /**
+     * Attaches all rooms and lines to the drawing again and removes the aggregate tiles. Must be called on the JavaFX thread.
+     */
+    public void reset() {
+        removeAggregateTiles();
+        if (editorView.getAllRoomsAsList() != null) {
+            for (RoomRectangle room : editorView.getAllRoomsAsList()) {
+                room.setCulled(false);
+                room.setDetailsVisible(true);
+            }
+        }
+        for (ConnectionLine line : editorView.lineList) {
+            line.setCulled(false);
+        }
+        visibleRooms.clear();
+    }
+
+    private void update() {
+        Bounds viewportBounds = getViewportBounds();
+        if (viewportBounds == null) {
+            // not shown yet
+            return;
+        }
+
+        boolean fullUpdate = fullUpdatePending;
+        fullUpdatePending = false;
+        double scale = drawing.getScaleX();
+
+        if (scale < aggregateMaxScale) {
+            showAggregateTiles(viewportBounds, fullUpdate);
+            return;
+        }
+
+        removeAggregateTiles();
+
+        double scaledMargin = margin / scale;
+        List<RoomRectangle> roomsInViewport = editorView.getRoomIndex().findIntersecting(viewportBounds.getMinX() - scaledMargin, viewportBounds.getMinY() - scaledMargin, viewportBounds.getMaxX() + scaledMargin, viewportBounds.getMaxY() + scaledMargin);
+        Set<RoomRectangle> newVisibleRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        newVisibleRooms.addAll(roomsInViewport);
+
+        // rooms whose visibility changed, their lines need to be updated
+        List<RoomRectangle> changedRooms = new ArrayList<>();
+        Iterable<RoomRectangle> previouslyVisibleRooms = fullUpdate && editorView.getAllRoomsAsList() != null ? editorView.getAllRoomsAsList() : visibleRooms;
+        List<RoomRectangle> selectedRooms = new ArrayList<>();
+        for (RoomRectangle room : previouslyVisibleRooms) {
+            if (newVisibleRooms.contains(room) || room.isCulled()) {
+                continue;
+            }
+            if (room.isSelected()) {
+                // keep track of it to cull it once it is unselected
+                selectedRooms.add(room);
+            } else {
+                room.setCulled(true);
+                changedRooms.add(room);
+            }
+        }
+        newVisibleRooms.addAll(selectedRooms);
+        for (RoomRectangle room : roomsInViewport) {
+            if (room.isCulled()) {
+                room.setCulled(false);
+                changedRooms.add(room);
+            }
+            room.setDetailsVisible(scale >= detailsMinScale);
+        }
+
+        if (fullUpdate) {
+            for (ConnectionLine line : editorView.lineList) {
+                updateLine(line);
+            }
+        } else {
+            for (RoomRectangle room : changedRooms) {
+                editorView.lineList.getLinesOfRoom(room, linesOfRoom);
+                for (ConnectionLine line : linesOfRoom) {
+                    updateLine(line);
+                }
+                linesOfRoom.clear();
+            }
+        }
+
+        visibleRooms.clear();
+        visibleRooms.addAll(newVisibleRooms);
+    }
+
+    private static void updateLine(ConnectionLine line) {
+        line.setCulled(line.getStartRoom().isCulled() && line.getEndRoom().isCulled());
+    }
+
+    private void showAggregateTiles(Bounds viewportBounds, boolean fullUpdate) {
+        Iterable<RoomRectangle> attachedRooms = fullUpdate && editorView.getAllRoomsAsList() != null ? editorView.getAllRoomsAsList() : visibleRooms;
+        for (RoomRectangle room : attachedRooms) {
+            room.setCulled(true);
+            editorView.lineList.getLinesOfRoom(room, linesOfRoom);
+            for (ConnectionLine line : linesOfRoom) {
+                line.setCulled(true);
+            }
+            linesOfRoom.clear();
+        }
+        visibleRooms.clear();
+
+        RoomRectangleIndex roomIndex = editorView.getRoomIndex();
+        double scaledMargin = roomIndex.getCellSize();
+        int[] usedTileCount = new int[1];
+        roomIndex.visitCells(viewportBounds.getMinX() - scaledMargin, viewportBounds.getMinY() - scaledMargin, viewportBounds.getMaxX() + scaledMargin, viewportBounds.getMaxY() + scaledMargin, (cellMinX, cellMinY, cellSize, elementCount) -> {
+            Rectangle tile;
+            if (usedTileCount[0] < aggregateTiles.size()) {
+                tile = aggregateTiles.get(usedTileCount[0]);
+            } else {
+                tile = new Rectangle();
+                tile.setFill(Color.GRAY);
+                tile.setMouseTransparent(true);
+                aggregateTiles.add(tile);
+            }
+            usedTileCount[0]++;
+
+            tile.setX(cellMinX);
+            tile.setY(cellMinY);
+            tile.setWidth(cellSize);
+            tile.setHeight(cellSize);
+            tile.setOpacity(0.25 + 0.75 * Math.min(1, elementCount / 4.0));
+            if (tile.getParent() != drawing) {
+                drawing.getChildren().add(tile);
+            }
+        });
+
+        // remove the tiles that are not needed anymore
+        List<Rectangle> unusedTiles = aggregateTiles.subList(usedTileCount[0], aggregateTiles.size());
+        drawing.getChildren().removeAll(unusedTiles);
+        unusedTiles.clear();
+    }
+
+    private void removeAggregateTiles() {
+        if (!aggregateTiles.isEmpty()) {
+            drawing.getChildren().removeAll(aggregateTiles);
+            aggregateTiles.clear();
+        }
+    }
+
+    /**
+     * Returns the visible area in the coordinate system of the drawing
+     *
+     * @return The visible area or {@code null} if the viewport is not shown yet
+     */
+    private Bounds getViewportBounds() {
+        Bounds viewportBoundsInScene = viewport.localToScene(viewport.getBoundsInLocal());
+        if (viewportBoundsInScene == null) {
+            return null;
+        }
+        return drawing.sceneToLocal(viewportBoundsInScene);
+    }
+}
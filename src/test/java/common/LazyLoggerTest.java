@@ -0,0 +1,79 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tests for the {@link LazyLogger}
+ */
+public class LazyLoggerTest {
+    @Test
+    public void levelTest() {
+        Logger.getLogger(LazyLoggerTest.class.getName()).setLevel(Level.INFO);
+        LazyLogger logger = new LazyLogger(LazyLoggerTest.class);
+        Assert.assertEquals(LazyLoggerTest.class.getName(), logger.getClassName());
+        Assert.assertTrue(logger.isLoggable(Level.INFO));
+        Assert.assertFalse(logger.isLoggable(Level.FINE));
+    }
+
+    @Test
+    public void supplierNotCalledIfDisabledTest() {
+        Logger.getLogger(LazyLoggerTest.class.getName()).setLevel(Level.INFO);
+        LazyLogger logger = new LazyLogger(LazyLoggerTest.class);
+        AtomicInteger callCount = new AtomicInteger();
+        logger.fine(() -> "Call " + callCount.incrementAndGet());
+        logger.finer(() -> "Call " + callCount.incrementAndGet());
+        logger.finest(() -> "Call " + callCount.incrementAndGet());
+        Assert.assertEquals(0, callCount.get());
+
+        logger.info(() -> "Call " + callCount.incrementAndGet());
+        Assert.assertEquals(1, callCount.get());
+    }
+
+    @Test
+    public void disabledConstantMessageDoesNotAllocateTest() {
+        Logger.getLogger(LazyLoggerTest.class.getName()).setLevel(Level.INFO);
+        LazyLogger logger = new LazyLogger(LazyLoggerTest.class);
+        long allocatedBytes = MetricsRegistry.getAllocatedBytesOfCurrentThread();
+        Assume.assumeTrue(allocatedBytes >= 0);
+
+        // warm up so that the measurement does not contain class loading and the like
+        for (int i = 0; i < 100000; i++) {
+            logger.fine("Moving room...");
+        }
+
+        allocatedBytes = MetricsRegistry.getAllocatedBytesOfCurrentThread();
+        for (int i = 0; i < 100000; i++) {
+            logger.fine("Moving room...");
+        }
+        long allocatedBytesDelta = MetricsRegistry.getAllocatedBytesOfCurrentThread() - allocatedBytes;
+        // allow some noise, one allocation per call would be at least 1.6 MB
+        Assert.assertTrue("Allocated " + allocatedBytesDelta + " bytes", allocatedBytesDelta < 10000);
+    }
+}
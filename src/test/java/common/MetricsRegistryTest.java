@@ -0,0 +1,115 @@
+package common;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Tests for the {@link MetricsRegistry}
+ */
+public class MetricsRegistryTest {
+    @Test
+    public void counterTest() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test.counter");
+        counter.increment();
+        counter.add(41);
+        Assert.assertSame(counter, registry.counter("test.counter"));
+        Assert.assertEquals(42, counter.getCount());
+
+        registry.reset();
+        Assert.assertEquals(0, counter.getCount());
+    }
+
+    @Test
+    public void bucketTest() {
+        for (long value = 0; value < 100000; value++) {
+            int index = Histogram.bucketIndex(value);
+            Assert.assertTrue(value >= Histogram.bucketLowerBound(index));
+            Assert.assertTrue(value <= Histogram.bucketUpperBound(index));
+        }
+        Assert.assertEquals(247, Histogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void histogramTest() {
+        Histogram histogram = new MetricsRegistry().histogram("test.histogram", "ms");
+        Assert.assertEquals(0, histogram.get50thPercentile());
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+        Assert.assertEquals(500, histogram.get50thPercentile(), 500 * 0.125);
+        Assert.assertEquals(950, histogram.get95thPercentile(), 950 * 0.125);
+        Assert.assertEquals(990, histogram.get99thPercentile(), 990 * 0.125);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void typeMismatchTest() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test.metric");
+        registry.timer("test.metric");
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test.jmx.before").add(3);
+        registry.registerMBeans();
+        try {
+            registry.timer("test.jmx.after").record(5);
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Assert.assertEquals(3L, server.getAttribute(MetricsRegistry.getObjectName("test.jmx.before", registry.counter("test.jmx.before")), "Count"));
+            Assert.assertEquals(5L, server.getAttribute(MetricsRegistry.getObjectName("test.jmx.after", registry.timer("test.jmx.after")), "Max"));
+        } finally {
+            registry.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void dumpTest() throws IOException {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test.dump").increment();
+        File file = File.createTempFile("metrics", ".txt");
+        try {
+            registry.dump(file);
+            String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            Assert.assertTrue(content.contains("test.dump count=1"));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package model;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import parser.Noun;
+import parser.Verb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for the {@link ActionRegistry}
+ */
+public class ActionRegistryTest {
+    private static TestAction createAction(String name) {
+        TestAction res = new TestAction();
+        res.setName(name);
+        return res;
+    }
+
+    private static Item createItem(Action... actions) {
+        Item res = new Item();
+        res.setActions(new ArrayList<>(Arrays.asList(actions)));
+        return res;
+    }
+
+    @Test
+    public void registerTest() {
+        ActionRegistry registry = new ActionRegistry();
+        TestAction take = createAction("take");
+        TestAction drop = createAction("drop");
+
+        int takeHandle = registry.register(take);
+        int dropHandle = registry.register(drop);
+        Assert.assertNotEquals(takeHandle, dropHandle);
+        // registering twice keeps the handle
+        Assert.assertEquals(takeHandle, registry.register(take));
+        Assert.assertEquals(2, registry.size());
+
+        Assert.assertSame(take, registry.get(takeHandle));
+        Assert.assertEquals(takeHandle, registry.getHandle(take));
+        Assert.assertEquals(dropHandle, registry.getHandle("drop"));
+        Assert.assertEquals(-1, registry.getHandle(createAction("take")));
+        Assert.assertEquals(-1, registry.getHandle("open"));
+    }
+
+    @Test
+    public void growTest() {
+        ActionRegistry registry = new ActionRegistry();
+        List<TestAction> actions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            actions.add(createAction("action" + i));
+            Assert.assertEquals(i, registry.register(actions.get(i)));
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(actions.get(i), registry.get(i));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void unknownHandleTest() {
+        new ActionRegistry().get(0);
+    }
+
+    @Test
+    public void executeTest() {
+        ActionRegistry registry = new ActionRegistry();
+        TestAction take = createAction("take");
+        int handle = registry.register(take);
+        Item item = new Item();
+
+        registry.execute(handle, registry.getContext().setItem(item));
+        Assert.assertEquals(1, take.executionCount);
+        Assert.assertSame(item, take.lastItem);
+        // the context is reset before it is reused
+        Assert.assertNull(registry.getContext().getItem());
+    }
+
+    @Test
+    public void handlesArePerRegistryTest() {
+        // two games share the same action instance
+        TestAction take = createAction("take");
+        TestAction drop = createAction("drop");
+        ActionRegistry registry1 = new ActionRegistry();
+        ActionRegistry registry2 = new ActionRegistry();
+
+        registry1.register(take);
+        registry2.register(drop);
+        registry2.register(take);
+
+        Assert.assertEquals(0, registry1.getHandle(take));
+        Assert.assertEquals(1, registry2.getHandle(take));
+        Assert.assertSame(take, registry1.get(registry1.getHandle(take)));
+        Assert.assertSame(take, registry2.get(registry2.getHandle(take)));
+    }
+
+    @Test
+    public void itemActionHandlesTest() {
+        TestAction take = createAction("take");
+        TestAction drop = createAction("drop");
+        Item item = createItem(take, drop);
+        ActionRegistry registry = new ActionRegistry();
+
+        registry.register(drop);
+        Assert.assertArrayEquals(new int[]{-1, 0}, item.getActionHandles(registry));
+
+        // the cached handles are resolved again once the registry grows
+        registry.registerAll(item);
+        Assert.assertArrayEquals(new int[]{1, 0}, item.getActionHandles(registry));
+
+        ActionRegistry otherRegistry = new ActionRegistry();
+        otherRegistry.registerAll(item);
+        Assert.assertArrayEquals(new int[]{0, 1}, item.getActionHandles(otherRegistry));
+    }
+
+    @Test
+    public void verbActionHandleTest() {
+        Verb verb = new Verb("take");
+        ActionRegistry registry = new ActionRegistry();
+        Assert.assertEquals(-1, verb.getActionHandle(registry));
+
+        TestAction take = createAction("take");
+        verb.setAction(take);
+        Assert.assertEquals(-1, verb.getActionHandle(registry));
+        registry.registerAll(verb);
+        Assert.assertEquals(0, verb.getActionHandle(registry));
+    }
+
+    @Test
+    public void gameRegistersActionsOnCreationTest() {
+        TestAction look = createAction("look");
+        TestAction take = createAction("take");
+        Verb lookVerb = new Verb("look");
+        lookVerb.setAction(look);
+
+        Room startRoom = new Room("start");
+        Room otherRoom = new Room("other");
+        startRoom.getAdjacentRooms().put(WalkDirection.NORTH, otherRoom);
+        otherRoom.getAdjacentRooms().put(WalkDirection.SOUTH, startRoom);
+        Item lamp = createItem(take);
+        otherRoom.getItemsInRoom().add(lamp);
+
+        Game game1 = new Game(startRoom);
+        game1.getVerbs().add(lookVerb);
+        game1.registerActions();
+        Assert.assertEquals(0, lamp.getActionHandles(game1.getActionRegistry())[0]);
+        Assert.assertNotEquals(-1, lookVerb.getActionHandle(game1.getActionRegistry()));
+
+        // another game with the same actions does not change the handles of the first game
+        Game game2 = new Game(new Room("start"));
+        game2.getVerbs().add(lookVerb);
+        game2.registerActions();
+        game2.getActionRegistry().registerAll(lamp);
+        Assert.assertSame(take, game1.getActionRegistry().get(lamp.getActionHandles(game1.getActionRegistry())[0]));
+        Assert.assertSame(take, game2.getActionRegistry().get(lamp.getActionHandles(game2.getActionRegistry())[0]));
+        Assert.assertSame(look, game1.getActionRegistry().get(lookVerb.getActionHandle(game1.getActionRegistry())));
+        Assert.assertSame(look, game2.getActionRegistry().get(lookVerb.getActionHandle(game2.getActionRegistry())));
+    }
+
+    @Test
+    public void verbActionHandleIsCachedTest() {
+        CountingActionRegistry registry = new CountingActionRegistry();
+        Verb verb = new Verb("take");
+        verb.setAction(createAction("take"));
+        registry.registerAll(verb);
+
+        Assert.assertEquals(0, verb.getActionHandle(registry));
+        Assert.assertEquals(0, verb.getActionHandle(registry));
+        registry.register(createAction("drop"));
+        Assert.assertEquals(0, verb.getActionHandle(registry));
+        Assert.assertEquals(1, registry.lookupCount);
+
+        // a new action is resolved again
+        TestAction drop = createAction("drop");
+        verb.setAction(drop);
+        Assert.assertEquals(-1, verb.getActionHandle(registry));
+        registry.register(drop);
+        Assert.assertEquals(2, verb.getActionHandle(registry));
+    }
+
+    @Test
+    public void gameExecutesCommandTest() {
+        TestAction take = createAction("take");
+        Verb takeVerb = new Verb("take", Arrays.asList("get"));
+        takeVerb.setAction(take);
+        Room room = new Room("room");
+        Item lamp = new Item();
+        lamp.setName(new Noun("lamp", new ArrayList<>()));
+        room.getItemsInRoom().add(lamp);
+
+        Game game = new Game(room);
+        game.getVerbs().add(takeVerb);
+        game.registerActions();
+
+        Assert.assertTrue(game.executeCommand("take lamp"));
+        Assert.assertEquals(1, take.executionCount);
+        Assert.assertSame(lamp, take.lastItem);
+        Assert.assertTrue(game.executeCommand("GET sword"));
+        Assert.assertEquals(2, take.executionCount);
+        Assert.assertNull(take.lastItem);
+
+        // "look" has no action and "jump" is not a verb
+        Assert.assertFalse(game.executeCommand("look"));
+        Assert.assertFalse(game.executeCommand("jump"));
+        Assert.assertEquals(2, take.executionCount);
+    }
+
+    private static class CountingActionRegistry extends ActionRegistry {
+        private int lookupCount;
+
+        @Override
+        public int getHandle(Action action) {
+            lookupCount++;
+            return super.getHandle(action);
+        }
+    }
+
+    private static class TestAction extends Action {
+        private int executionCount;
+        private Item lastItem;
+
+        @Override
+        void execute(ActionContext context) {
+            executionCount++;
+            lastItem = context.getItem();
+        }
+    }
+}
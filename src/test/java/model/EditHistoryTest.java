@@ -0,0 +1,154 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link EditHistory}
+ */
+public class EditHistoryTest {
+    private static void connect(Room from, WalkDirection direction, Room to) {
+        from.getAdjacentRooms().put(direction, to);
+        to.getAdjacentRooms().put(WalkDirectionUtils.invert(direction), from);
+    }
+
+    @Test
+    public void undoRedoConnectionTest() {
+        Room room1 = new Room("room1");
+        Room room2 = new Room("room2");
+        EditHistory history = new EditHistory(10);
+        history.observe(room1);
+        history.observe(room2);
+
+        connect(room1, WalkDirection.NORTH, room2);
+        Assert.assertEquals(2, history.getUndoableTransactionCount());
+
+        Assert.assertTrue(history.undo());
+        Assert.assertTrue(history.undo());
+        Assert.assertFalse(history.undo());
+        Assert.assertTrue(room1.getAdjacentRooms().isEmpty());
+        Assert.assertTrue(room2.getAdjacentRooms().isEmpty());
+
+        Assert.assertTrue(history.redo());
+        Assert.assertTrue(history.redo());
+        Assert.assertFalse(history.redo());
+        Assert.assertSame(room2, room1.getAdjacentRooms().get(WalkDirection.NORTH));
+        Assert.assertSame(room1, room2.getAdjacentRooms().get(WalkDirection.SOUTH));
+    }
+
+    @Test
+    public void transactionTest() {
+        Room room1 = new Room("room1");
+        Room room2 = new Room("room2");
+        Room room3 = new Room("room3");
+        EditHistory history = new EditHistory(10);
+        history.observe(room1);
+        connect(room1, WalkDirection.NORTH, room2);
+        history.clear();
+
+        // move the connection from the north to the east, newly connected rooms are observed automatically
+        history.beginTransaction();
+        room2.getAdjacentRooms().remove(WalkDirection.SOUTH);
+        room1.getAdjacentRooms().remove(WalkDirection.NORTH);
+        connect(room1, WalkDirection.EAST, room3);
+        history.commitTransaction();
+        Assert.assertEquals(1, history.getUndoableTransactionCount());
+        Assert.assertTrue(history.isObserved(room3));
+
+        Assert.assertTrue(history.undo());
+        Assert.assertSame(room2, room1.getAdjacentRooms().get(WalkDirection.NORTH));
+        Assert.assertSame(room1, room2.getAdjacentRooms().get(WalkDirection.SOUTH));
+        Assert.assertNull(room1.getAdjacentRooms().get(WalkDirection.EAST));
+        Assert.assertTrue(room3.getAdjacentRooms().isEmpty());
+        // undoing must not be recorded
+        Assert.assertEquals(0, history.getUndoableTransactionCount());
+        Assert.assertEquals(1, history.getRedoableTransactionCount());
+    }
+
+    @Test
+    public void itemListTest() {
+        Room room = new Room("room");
+        Item item1 = new Item();
+        Item item2 = new Item();
+        room.getItemsInRoom().add(item1);
+        EditHistory history = new EditHistory(10);
+        history.observe(room);
+
+        room.getItemsInRoom().add(0, item2);
+        room.getItemsInRoom().remove(item1);
+        Assert.assertEquals(1, room.getItemsInRoom().size());
+
+        history.undo();
+        Assert.assertEquals(2, room.getItemsInRoom().size());
+        Assert.assertSame(item1, room.getItemsInRoom().get(1));
+        history.undo();
+        Assert.assertEquals(1, room.getItemsInRoom().size());
+        Assert.assertSame(item1, room.getItemsInRoom().get(0));
+        history.redo();
+        Assert.assertSame(item2, room.getItemsInRoom().get(0));
+    }
+
+    @Test
+    public void ringBufferTest() {
+        Room room = new Room("room");
+        EditHistory history = new EditHistory(3);
+        history.observe(room);
+        for (int i = 0; i < 5; i++) {
+            room.getItemsInRoom().add(new Item());
+        }
+
+        // only the last three additions can be undone
+        Assert.assertEquals(3, history.getUndoableTransactionCount());
+        while (history.undo()) {
+            // undo everything
+        }
+        Assert.assertEquals(2, room.getItemsInRoom().size());
+        Assert.assertEquals(3, history.getRedoableTransactionCount());
+    }
+
+    @Test
+    public void newChangeClearsRedoTest() {
+        Room room = new Room("room");
+        EditHistory history = new EditHistory(10);
+        history.observe(room);
+        room.getItemsInRoom().add(new Item());
+        room.getItemsInRoom().add(new Item());
+        history.undo();
+        Assert.assertTrue(history.canRedo());
+
+        room.getItemsInRoom().add(new Item());
+        Assert.assertFalse(history.canRedo());
+        Assert.assertEquals(2, history.getUndoableTransactionCount());
+    }
+
+    @Test
+    public void unobserveTest() {
+        Room room = new Room("room");
+        EditHistory history = new EditHistory(10);
+        history.observe(room);
+        history.unobserveAll();
+        room.getItemsInRoom().add(new Item());
+        Assert.assertFalse(history.canUndo());
+    }
+}
@@ -0,0 +1,136 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link EntitySimulation}
+ */
+public class EntitySimulationTest {
+    private static final WalkDirection[] gridDirections = {WalkDirection.NORTH, WalkDirection.EAST, WalkDirection.SOUTH, WalkDirection.WEST};
+
+    /**
+     * Creates a grid of rooms with one wandering entity in every second room
+     */
+    private static Room[] createGrid(int size) {
+        Room[] rooms = new Room[size * size];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = new Room("Room " + i);
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                Room room = rooms[y * size + x];
+                if (x + 1 < size) {
+                    room.getAdjacentRooms().put(WalkDirection.EAST, rooms[y * size + x + 1]);
+                    rooms[y * size + x + 1].getAdjacentRooms().put(WalkDirection.WEST, room);
+                }
+                if (y + 1 < size) {
+                    room.getAdjacentRooms().put(WalkDirection.SOUTH, rooms[(y + 1) * size + x]);
+                    rooms[(y + 1) * size + x].getAdjacentRooms().put(WalkDirection.NORTH, room);
+                }
+                if ((x + y) % 2 == 0) {
+                    Entity entity = new Entity();
+                    entity.setDescription(Integer.toString(y * size + x));
+                    entity.setBehavior(new WanderingBehavior(y * size + x));
+                    room.getEntitiesInRoom().add(entity);
+                }
+            }
+        }
+        return rooms;
+    }
+
+    private static String describePositions(Room[] rooms) {
+        StringBuilder res = new StringBuilder();
+        for (Room room : rooms) {
+            res.append(room.getName()).append(':');
+            for (Entity entity : room.getEntitiesInRoom()) {
+                res.append(entity.getDescription()).append('/').append(entity.getRemainingHealth()).append(',');
+            }
+            res.append('\n');
+        }
+        return res.toString();
+    }
+
+    @Test
+    public void parallelEqualsSingleThreadedTest() {
+        Room[] parallelWorld = createGrid(40);
+        Room[] sequentialWorld = createGrid(40);
+        List<Room> parallelRooms = EntitySimulation.getReachableRooms(parallelWorld[0]);
+        List<Room> sequentialRooms = EntitySimulation.getReachableRooms(sequentialWorld[0]);
+        EntitySimulation parallelSimulation = new EntitySimulation(new ForkJoinPool(4));
+        EntitySimulation sequentialSimulation = new EntitySimulation(null);
+
+        for (int move = 1; move <= 50; move++) {
+            int parallelMoves = parallelSimulation.step(parallelRooms, move);
+            int sequentialMoves = sequentialSimulation.step(sequentialRooms, move);
+            Assert.assertEquals(sequentialMoves, parallelMoves);
+        }
+
+        Assert.assertEquals(describePositions(sequentialWorld), describePositions(parallelWorld));
+    }
+
+    @Test
+    public void conflictingMovesTest() {
+        Room target = new Room("target");
+        Room west = new Room("west");
+        Room east = new Room("east");
+        west.getAdjacentRooms().put(WalkDirection.EAST, target);
+        target.getAdjacentRooms().put(WalkDirection.WEST, west);
+        east.getAdjacentRooms().put(WalkDirection.WEST, target);
+        target.getAdjacentRooms().put(WalkDirection.EAST, east);
+
+        Entity fromWest = new Entity();
+        fromWest.setBehavior((entity, room, move) -> WalkDirection.EAST);
+        west.getEntitiesInRoom().add(fromWest);
+        Entity fromEast = new Entity();
+        fromEast.setBehavior((entity, room, move) -> WalkDirection.WEST);
+        east.getEntitiesInRoom().add(fromEast);
+
+        int movedEntities = new EntitySimulation(null).step(EntitySimulation.getReachableRooms(target), 1);
+
+        // target is visited first, then its neighbours in the order of WalkDirection.values(): WEST before EAST
+        Assert.assertEquals(1, movedEntities);
+        Assert.assertTrue(target.getEntitiesInRoom().contains(fromWest));
+        Assert.assertTrue(east.getEntitiesInRoom().contains(fromEast));
+        Assert.assertTrue(west.getEntitiesInRoom().isEmpty());
+    }
+
+    private static class WanderingBehavior implements EntityBehavior {
+        private final int seed;
+
+        WanderingBehavior(int seed) {
+            this.seed = seed;
+        }
+
+        @Override
+        public WalkDirection update(Entity entity, Room room, int move) {
+            entity.setRemainingHealth(entity.getRemainingHealth() + 1);
+            int hash = (seed * 31 + move) * 0x9E3779B1;
+            return gridDirections[(hash >>> 16) & 3];
+        }
+    }
+}
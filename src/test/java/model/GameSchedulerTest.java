@@ -0,0 +1,144 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the {@link GameScheduler}
+ */
+public class GameSchedulerTest {
+    @Test
+    public void eventsFireInMoveAndSchedulingOrderTest() {
+        GameScheduler scheduler = new GameScheduler();
+        RecordingEvent.firedEvents.clear();
+        scheduler.schedule(3, new RecordingEvent(3));
+        scheduler.schedule(1, new RecordingEvent(1));
+        scheduler.schedule(2, new RecordingEvent(2));
+        scheduler.schedule(1, new RecordingEvent(4));
+
+        scheduler.advanceTo(null, 1);
+        Assert.assertEquals(2, RecordingEvent.firedEvents.size());
+        Assert.assertEquals(1, (int) RecordingEvent.firedEvents.get(0));
+        Assert.assertEquals(4, (int) RecordingEvent.firedEvents.get(1));
+
+        scheduler.advanceTo(null, 3);
+        Assert.assertEquals(4, RecordingEvent.firedEvents.size());
+        Assert.assertEquals(2, (int) RecordingEvent.firedEvents.get(2));
+        Assert.assertEquals(3, (int) RecordingEvent.firedEvents.get(3));
+        Assert.assertEquals(0, scheduler.getPendingEventCount());
+    }
+
+    @Test
+    public void cancelledEventsDoNotFireTest() {
+        GameScheduler scheduler = new GameScheduler();
+        RecordingEvent.firedEvents.clear();
+        scheduler.schedule(1, new RecordingEvent(1)).cancel();
+        scheduler.schedule(1, new RecordingEvent(2));
+
+        scheduler.advanceTo(null, 1);
+        Assert.assertEquals(1, RecordingEvent.firedEvents.size());
+        Assert.assertEquals(2, (int) RecordingEvent.firedEvents.get(0));
+    }
+
+    @Test
+    public void serializationTest() throws IOException, ClassNotFoundException {
+        GameScheduler scheduler = new GameScheduler();
+        RecordingEvent.firedEvents.clear();
+        scheduler.scheduleIn(2, new RecordingEvent(1));
+        scheduler.scheduleIn(5, new RecordingEvent(2));
+
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objOut = new ObjectOutputStream(byteOut);
+        objOut.writeObject(scheduler);
+        objOut.close();
+
+        ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(byteOut.toByteArray()));
+        GameScheduler loadedScheduler = (GameScheduler) objIn.readObject();
+
+        Assert.assertEquals(2, loadedScheduler.getPendingEventCount());
+        loadedScheduler.advanceTo(null, 5);
+        Assert.assertEquals(2, RecordingEvent.firedEvents.size());
+        Assert.assertEquals(1, (int) RecordingEvent.firedEvents.get(0));
+    }
+
+    @Test
+    public void manyPendingEventsFireInMoveOrderTest() {
+        int eventCount = 100000;
+        int moveCount = 1000;
+        GameScheduler scheduler = new GameScheduler();
+        CountingEvent.firedEventCount = 0;
+        CountingEvent.lastDueMove = 0;
+        Random random = new Random(42);
+
+        for (int i = 0; i < eventCount; i++) {
+            int dueMove = random.nextInt(moveCount) + 1;
+            scheduler.schedule(dueMove, new CountingEvent(dueMove));
+        }
+
+        for (int move = 1; move <= moveCount; move++) {
+            scheduler.advanceTo(null, move);
+            Assert.assertEquals(move, CountingEvent.lastDueMove);
+        }
+
+        Assert.assertEquals(eventCount, CountingEvent.firedEventCount);
+        Assert.assertEquals(0, scheduler.getPendingEventCount());
+    }
+
+    private static class RecordingEvent implements GameEvent {
+        private static final List<Integer> firedEvents = new ArrayList<>();
+        private final int id;
+
+        RecordingEvent(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public void fire(Game game) {
+            firedEvents.add(id);
+        }
+    }
+
+    private static class CountingEvent implements GameEvent {
+        private static int firedEventCount;
+        private static int lastDueMove;
+        private final int dueMove;
+
+        CountingEvent(int dueMove) {
+            this.dueMove = dueMove;
+        }
+
+        @Override
+        public void fire(Game game) {
+            // events must fire in move order
+            Assert.assertTrue(dueMove >= lastDueMove);
+            lastDueMove = dueMove;
+            firedEventCount++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link InterestManager}
+ */
+public class InterestManagerTest {
+    /**
+     * Creates a chain of rooms from west to east with one entity at the east end
+     */
+    private static Room[] createChain(int length, Entity entityAtTheEnd) {
+        Room[] rooms = new Room[length];
+        for (int i = 0; i < length; i++) {
+            rooms[i] = new Room("Room " + i);
+            if (i > 0) {
+                rooms[i - 1].getAdjacentRooms().put(WalkDirection.EAST, rooms[i]);
+                rooms[i].getAdjacentRooms().put(WalkDirection.WEST, rooms[i - 1]);
+            }
+        }
+        rooms[length - 1].getEntitiesInRoom().add(entityAtTheEnd);
+        return rooms;
+    }
+
+    @Test
+    public void tierTest() {
+        Room[] rooms = createChain(10, new Entity());
+        Game game = new Game(rooms[0]);
+        game.setInterestManager(new InterestManager(1, 3, 100));
+        game.getInterestManager().refresh(game);
+
+        Assert.assertEquals(InterestManager.Tier.ACTIVE, game.getInterestManager().getTier(rooms[0]));
+        Assert.assertEquals(InterestManager.Tier.ACTIVE, game.getInterestManager().getTier(rooms[1]));
+        Assert.assertEquals(InterestManager.Tier.NEAR, game.getInterestManager().getTier(rooms[2]));
+        Assert.assertEquals(InterestManager.Tier.NEAR, game.getInterestManager().getTier(rooms[3]));
+        Assert.assertEquals(InterestManager.Tier.FROZEN, game.getInterestManager().getTier(rooms[4]));
+        Assert.assertEquals(4, game.getInterestManager().getInterestingRooms().size());
+    }
+
+    private static Entity createWalkingEntity() {
+        Entity entity = new Entity();
+        entity.setRemainingHealth(0);
+        entity.setBehavior((e, room, move) -> {
+            e.setRemainingHealth(e.getRemainingHealth() + 1);
+            return WalkDirection.WEST;
+        });
+        return entity;
+    }
+
+    @Test
+    public void frozenRoomsAreFastForwardedTest() {
+        Entity entity = createWalkingEntity();
+        Room[] rooms = createChain(100, entity);
+        Game game = new Game(rooms[0]);
+        game.setInterestManager(new InterestManager(1, 2, 1000));
+
+        // visit the entity once so that its room was of interest
+        game.enterRoom(rooms[99]);
+        game.enterRoom(rooms[0]);
+
+        game.setMoveCount(20);
+        // the entity is frozen
+        Assert.assertEquals(0, entity.getRemainingHealth());
+        Assert.assertTrue(rooms[99].getEntitiesInRoom().contains(entity));
+
+        game.enterRoom(rooms[99]);
+        // the entity was fast-forwarded in its room
+        Assert.assertEquals(20, entity.getRemainingHealth());
+        Assert.assertTrue(rooms[99].getEntitiesInRoom().contains(entity));
+
+        game.setMoveCount(21);
+        // now the entity is active and may walk
+        Assert.assertEquals(21, entity.getRemainingHealth());
+        Assert.assertTrue(rooms[98].getEntitiesInRoom().contains(entity));
+    }
+
+    @Test
+    public void firstInterestStartsAtCurrentMoveTest() {
+        Entity entity = createWalkingEntity();
+        Room[] rooms = createChain(100, entity);
+        Game game = new Game(rooms[0]);
+        game.setInterestManager(new InterestManager(1, 2, 1000));
+        game.setMoveCount(20);
+        Assert.assertEquals(-1, rooms[99].getLastSimulatedMove());
+
+        game.enterRoom(rooms[99]);
+        // the room was never of interest, so there is nothing to fast-forward
+        Assert.assertEquals(0, entity.getRemainingHealth());
+        Assert.assertEquals(20, rooms[99].getLastSimulatedMove());
+
+        game.setMoveCount(21);
+        Assert.assertEquals(1, entity.getRemainingHealth());
+        Assert.assertTrue(rooms[98].getEntitiesInRoom().contains(entity));
+    }
+
+    @Test
+    public void setCurrentRoomDoesNotSimulateTest() {
+        // the editor moves the player using setCurrentRoom
+        Entity entity = createWalkingEntity();
+        Room[] rooms = createChain(100, entity);
+        Game game = new Game(rooms[0]);
+        game.setInterestManager(new InterestManager(1, 2, 1000));
+        game.enterRoom(rooms[99]);
+        game.enterRoom(rooms[0]);
+        game.setMoveCount(20);
+
+        game.setCurrentRoom(rooms[99]);
+        Assert.assertEquals(0, entity.getRemainingHealth());
+        Assert.assertTrue(rooms[99].getEntitiesInRoom().contains(entity));
+    }
+}
@@ -0,0 +1,146 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * Tests for the {@link RoomImporter} and the {@link RoomExporter}
+ */
+public class RoomImporterTest {
+    private static Room createMap() {
+        Room start = new Room("Start, the \"first\" room", "Line 1\nLine 2");
+        Room east = new Room("East", "#not a comment");
+        Room north = new Room("North");
+        start.getAdjacentRooms().put(WalkDirection.EAST, east);
+        east.getAdjacentRooms().put(WalkDirection.WEST, start);
+        start.getAdjacentRooms().put(WalkDirection.NORTH, north);
+        north.getAdjacentRooms().put(WalkDirection.SOUTH, start);
+        north.getAdjacentRooms().put(WalkDirection.SOUTH_EAST, east);
+        east.getAdjacentRooms().put(WalkDirection.NORTH_WEST, north);
+        return start;
+    }
+
+    private static void assertMap(Room start) {
+        Assert.assertEquals("Start, the \"first\" room", start.getName());
+        Assert.assertEquals("Line 1\nLine 2", start.getDescription());
+        Room east = start.getAdjacentRooms().get(WalkDirection.EAST);
+        Room north = start.getAdjacentRooms().get(WalkDirection.NORTH);
+        Assert.assertEquals("East", east.getName());
+        Assert.assertEquals("#not a comment", east.getDescription());
+        Assert.assertEquals("North", north.getName());
+        Assert.assertSame(start, east.getAdjacentRooms().get(WalkDirection.WEST));
+        Assert.assertSame(start, north.getAdjacentRooms().get(WalkDirection.SOUTH));
+        Assert.assertSame(east, north.getAdjacentRooms().get(WalkDirection.SOUTH_EAST));
+        Assert.assertSame(north, east.getAdjacentRooms().get(WalkDirection.NORTH_WEST));
+        Assert.assertEquals(2, east.getAdjacentRooms().size());
+        Assert.assertEquals(2, north.getAdjacentRooms().size());
+    }
+
+    private static Room roundTrip(Room start, RoomFileFormat format) throws IOException {
+        StringWriter writer = new StringWriter();
+        Assert.assertEquals(3, RoomExporter.export(start, writer, format));
+        return RoomImporter.importRooms(new StringReader(writer.toString()), format);
+    }
+
+    @Test
+    public void csvRoundTripTest() throws IOException {
+        assertMap(roundTrip(createMap(), RoomFileFormat.CSV));
+    }
+
+    @Test
+    public void jsonRoundTripTest() throws IOException {
+        assertMap(roundTrip(createMap(), RoomFileFormat.JSON));
+    }
+
+    @Test
+    public void forwardReferenceTest() throws IOException {
+        String csv = "path,a,NORTH,b\r\nroom,a,A,\r\n\r\nroom,b,B,\"quoted \"\"B\"\"\"\r\n";
+        Room a = RoomImporter.importRooms(new StringReader(csv), RoomFileFormat.CSV);
+        Assert.assertEquals("A", a.getName());
+        Assert.assertEquals("quoted \"B\"", a.getAdjacentRooms().get(WalkDirection.NORTH).getDescription());
+
+        String json = "{\"version\": 1, \"rooms\": [{\"exits\": {\"EAST\": \"b\"}, \"id\": \"a\", \"extra\": [1, {\"x\": null}]}, {\"id\": \"b\", \"name\": \"B\\u0021\"}]}";
+        a = RoomImporter.importRooms(new StringReader(json), RoomFileFormat.JSON);
+        Assert.assertEquals("B!", a.getAdjacentRooms().get(WalkDirection.EAST).getName());
+    }
+
+    @Test
+    public void inversePathTest() throws IOException {
+        Room a = RoomImporter.importRooms(new StringReader("room,a,A,\nroom,b,B,\npath,a,NORTH_EAST,b\n"), RoomFileFormat.CSV);
+        Room b = a.getAdjacentRooms().get(WalkDirection.NORTH_EAST);
+        Assert.assertEquals("B", b.getName());
+        Assert.assertSame(a, b.getAdjacentRooms().get(WalkDirection.SOUTH_WEST));
+        Assert.assertEquals(1, b.getAdjacentRooms().size());
+    }
+
+    @Test(expected = IOException.class)
+    public void contradictingPathTest() throws IOException {
+        // c is south of b, so b cannot be north of a
+        RoomImporter.importRooms(new StringReader("room,a,A,\nroom,b,B,\nroom,c,C,\npath,c,NORTH,b\npath,a,NORTH,b\n"), RoomFileFormat.CSV);
+    }
+
+    @Test(expected = IOException.class)
+    public void undefinedRoomTest() throws IOException {
+        RoomImporter.importRooms(new StringReader("room,a,A,\npath,a,NORTH,b\n"), RoomFileFormat.CSV);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownDirectionTest() throws IOException {
+        RoomImporter.importRooms(new StringReader("room,a,A,\nroom,b,B,\npath,a,UP,b\n"), RoomFileFormat.CSV);
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedJsonTest() throws IOException {
+        RoomImporter.importRooms(new StringReader("{\"rooms\": [{\"id\": 0}"), RoomFileFormat.JSON);
+    }
+
+    @Test
+    public void largeMapTest() throws IOException {
+        int size = 300;
+        Room[] rooms = new Room[size * size];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = new Room("Room " + i);
+            if (i % size > 0) {
+                rooms[i - 1].getAdjacentRooms().put(WalkDirection.EAST, rooms[i]);
+                rooms[i].getAdjacentRooms().put(WalkDirection.WEST, rooms[i - 1]);
+            }
+            if (i >= size) {
+                rooms[i - size].getAdjacentRooms().put(WalkDirection.SOUTH, rooms[i]);
+                rooms[i].getAdjacentRooms().put(WalkDirection.NORTH, rooms[i - size]);
+            }
+        }
+
+        for (RoomFileFormat format : RoomFileFormat.values()) {
+            StringWriter writer = new StringWriter();
+            Assert.assertEquals(rooms.length, RoomExporter.export(rooms[0], writer, format));
+            Room start = RoomImporter.importRooms(new StringReader(writer.toString()), format);
+            Assert.assertEquals(rooms.length, EntitySimulation.getReachableRooms(start).size());
+            Assert.assertEquals("Room 1", start.getAdjacentRooms().get(WalkDirection.EAST).getName());
+        }
+    }
+}
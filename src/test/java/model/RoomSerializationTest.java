@@ -0,0 +1,130 @@
+package model;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+
+/**
+ * Tests the serialization of the room graph, see {@link Room}
+ */
+public class RoomSerializationTest {
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(T object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+
+    @Test
+    public void roundTripTest() throws Exception {
+        Room start = new Room("Start", "The first room");
+        Room east = new Room("East");
+        Room oneWay = new Room("One way");
+        start.getAdjacentRooms().put(WalkDirection.EAST, east);
+        east.getAdjacentRooms().put(WalkDirection.WEST, start);
+        east.getAdjacentRooms().put(WalkDirection.NORTH, oneWay);
+        start.setLastSimulatedMove(3);
+
+        Room res = roundTrip(start);
+        Assert.assertEquals("Start", res.getName());
+        Assert.assertEquals("The first room", res.getDescription());
+        Assert.assertEquals(3, res.getLastSimulatedMove());
+        Room resEast = res.getAdjacentRooms().get(WalkDirection.EAST);
+        Assert.assertEquals("East", resEast.getName());
+        Assert.assertSame(res, resEast.getAdjacentRooms().get(WalkDirection.WEST));
+        Room resOneWay = resEast.getAdjacentRooms().get(WalkDirection.NORTH);
+        Assert.assertEquals("One way", resOneWay.getName());
+        Assert.assertEquals(-1, resOneWay.getLastSimulatedMove());
+        Assert.assertTrue(resOneWay.getAdjacentRooms().isEmpty());
+        Assert.assertEquals(1, res.getAdjacentRooms().size());
+    }
+
+    @Test
+    public void roomsWrittenTwiceTest() throws Exception {
+        Room a = new Room("A");
+        Room b = new Room("B");
+        Room c = new Room("C");
+        a.getAdjacentRooms().put(WalkDirection.SOUTH, b);
+        b.getAdjacentRooms().put(WalkDirection.NORTH, a);
+        // c can only be reached from itself, so it is written as a second map that contains a and b again
+        c.getAdjacentRooms().put(WalkDirection.NORTH_EAST, a);
+
+        Room[] res = roundTrip(new Room[]{a, c});
+        Assert.assertSame(res[0], res[1].getAdjacentRooms().get(WalkDirection.NORTH_EAST));
+        Room resB = res[0].getAdjacentRooms().get(WalkDirection.SOUTH);
+        Assert.assertSame(res[0], resB.getAdjacentRooms().get(WalkDirection.NORTH));
+        Assert.assertEquals(1, resB.getAdjacentRooms().size());
+    }
+
+    @Test
+    public void longCorridorTest() throws Exception {
+        // deep enough to overflow the stack if the rooms were serialized recursively
+        int roomCount = 100000;
+        Room first = new Room("Room 0");
+        Room previous = first;
+        for (int i = 1; i < roomCount; i++) {
+            Room room = new Room("Room " + i);
+            previous.getAdjacentRooms().put(WalkDirection.EAST, room);
+            room.getAdjacentRooms().put(WalkDirection.WEST, previous);
+            previous = room;
+        }
+
+        Room room = roundTrip(first);
+        for (int i = 1; i < roomCount; i++) {
+            Room next = room.getAdjacentRooms().get(WalkDirection.EAST);
+            Assert.assertSame(room, next.getAdjacentRooms().get(WalkDirection.WEST));
+            room = next;
+        }
+        Assert.assertEquals("Room " + (roomCount - 1), room.getName());
+        Assert.assertNull(room.getAdjacentRooms().get(WalkDirection.EAST));
+    }
+
+    @Test
+    public void saveAndLoadTest() throws Exception {
+        Room start = new Room("Start");
+        Room hall = new Room("Hall");
+        start.getAdjacentRooms().put(WalkDirection.NORTH, hall);
+        hall.getAdjacentRooms().put(WalkDirection.SOUTH, start);
+        Game game = new Game(start);
+
+        File file = File.createTempFile("roomSerializationTest", ".fokGameSave");
+        try {
+            game.save(file);
+            Game res = Game.load(file);
+            Assert.assertEquals("Start", res.getCurrentRoom().getName());
+            Assert.assertTrue(res.getCurrentRoom().isCurrentRoom());
+            Room resHall = res.getCurrentRoom().getAdjacentRooms().get(WalkDirection.NORTH);
+            Assert.assertSame(res.getCurrentRoom(), resHall.getAdjacentRooms().get(WalkDirection.SOUTH));
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+}
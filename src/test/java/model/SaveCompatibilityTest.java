@@ -0,0 +1,140 @@
+package model;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+import parser.Noun;
+
+import java.io.File;
+import java.io.ObjectStreamClass;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads a save that was written by the first release to make sure that old saves can still be loaded.<br>
+ * The save contains the rooms "West of House", "Hall" (the current room) and "Cellar" connected from south to east,
+ * a lamp in the hall, a troll in the cellar and a sword in the inventory of the player.
+ */
+public class SaveCompatibilityTest {
+    private static Game loadBaselineSave() throws Exception {
+        return Game.load(getResourceFile("baseline.fokGameSave"));
+    }
+
+    private static File getResourceFile(String name) throws URISyntaxException {
+        return new File(SaveCompatibilityTest.class.getResource(name).toURI());
+    }
+
+    @Test
+    public void loadGameTest() throws Exception {
+        Game game = loadBaselineSave();
+
+        Assert.assertEquals(5, game.getScore());
+        Assert.assertEquals(12, game.getMoveCount());
+        Assert.assertEquals(2, game.getMessages().size());
+        Assert.assertEquals("go north", game.getMessages().get(1).getMessage());
+        Assert.assertEquals(1, game.getPlayer().getInventory().size());
+        Assert.assertEquals("sword", game.getPlayer().getInventory().get(0).getName().getWord());
+    }
+
+    @Test
+    public void loadRoomGraphTest() throws Exception {
+        Game game = loadBaselineSave();
+
+        Room hall = game.getCurrentRoom();
+        Assert.assertEquals("Hall", hall.getName());
+        Assert.assertTrue(hall.isCurrentRoom());
+        Room startRoom = hall.getAdjacentRooms().get(WalkDirection.SOUTH);
+        Room cellar = hall.getAdjacentRooms().get(WalkDirection.EAST);
+        Assert.assertEquals("West of House", startRoom.getName());
+        Assert.assertEquals("Cellar", cellar.getName());
+        Assert.assertSame(hall, startRoom.getAdjacentRooms().get(WalkDirection.NORTH));
+        Assert.assertSame(hall, cellar.getAdjacentRooms().get(WalkDirection.WEST));
+        Assert.assertEquals(2, hall.getAdjacentRooms().size());
+
+        Assert.assertEquals(1, hall.getItemsInRoom().size());
+        Assert.assertEquals(new Noun("lamp", Arrays.asList("lantern")), hall.getItemsInRoom().get(0).getName());
+        Assert.assertEquals(1, cellar.getEntitiesInRoom().size());
+        Assert.assertEquals(7, cellar.getEntitiesInRoom().get(0).getRemainingHealth());
+        Assert.assertFalse(cellar.getEntitiesInRoom().get(0).isActive());
+    }
+
+    @Test
+    public void fieldsAddedLaterTest() throws Exception {
+        Game game = loadBaselineSave();
+
+        // fields that did not exist in the first release start with their defaults
+        Assert.assertEquals(0, game.getScheduler().getPendingEventCount());
+        Assert.assertEquals(12, game.getScheduler().getCurrentMove());
+        Assert.assertEquals(-1, game.getCurrentRoom().getAdjacentRooms().get(WalkDirection.EAST).getLastSimulatedMove());
+
+        // the loaded game can be played on
+        game.setMoveCount(13);
+        Assert.assertEquals(13, game.getCurrentRoom().getLastSimulatedMove());
+    }
+
+    @Test
+    public void pinnedSerialVersionUIDsTest() {
+        // changing these breaks existing saves
+        Assert.assertEquals(-2170555850628040738L, ObjectStreamClass.lookup(Game.class).getSerialVersionUID());
+        Assert.assertEquals(-3665364333051201779L, ObjectStreamClass.lookup(GameScheduler.class).getSerialVersionUID());
+        Assert.assertEquals(945571781385206984L, ObjectStreamClass.lookup(GameScheduler.ScheduledEvent.class).getSerialVersionUID());
+    }
+
+    @Test
+    public void scheduledEventsRoundTripTest() throws Exception {
+        Game game = new Game(new Room("room"));
+        game.getScheduler().schedule(3, new RecordingEvent("second"));
+        game.getScheduler().schedule(2, new RecordingEvent("first"));
+        game.getScheduler().schedule(3, new RecordingEvent("third"));
+        game.getScheduler().schedule(4, new RecordingEvent("cancelled")).cancel();
+
+        File saveFile = File.createTempFile("scheduledEventsRoundTripTest", ".fokGameSave");
+        saveFile.deleteOnExit();
+        game.save(saveFile);
+        Game loadedGame = Game.load(saveFile);
+
+        Assert.assertEquals(4, loadedGame.getScheduler().getPendingEventCount());
+        RecordingEvent.firedEvents.clear();
+        loadedGame.setMoveCount(4);
+        Assert.assertEquals(Arrays.asList("first", "second", "third"), RecordingEvent.firedEvents);
+        Assert.assertEquals(0, loadedGame.getScheduler().getPendingEventCount());
+    }
+
+    private static class RecordingEvent implements GameEvent {
+        private static final long serialVersionUID = 1L;
+        private static final List<String> firedEvents = new ArrayList<>();
+        private final String name;
+
+        RecordingEvent(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void fire(Game game) {
+            firedEvents.add(name);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for the direction tables and the octant classifier of {@link WalkDirectionUtils}
+ */
+public class WalkDirectionUtilsTest {
+    @Test
+    public void invertTest() {
+        for (WalkDirection direction : WalkDirection.values()) {
+            Assert.assertEquals(direction, WalkDirectionUtils.invert(WalkDirectionUtils.invert(direction)));
+            if (direction != WalkDirection.NONE) {
+                Assert.assertTrue(direction != WalkDirectionUtils.invert(direction));
+            }
+        }
+        Assert.assertEquals(WalkDirection.SOUTH, WalkDirectionUtils.invert(WalkDirection.NORTH));
+        Assert.assertEquals(WalkDirection.SOUTH_WEST, WalkDirectionUtils.invert(WalkDirection.NORTH_EAST));
+        Assert.assertEquals(WalkDirection.NONE, WalkDirectionUtils.invert(WalkDirection.NONE));
+        Assert.assertEquals(WalkDirection.NONE, WalkDirectionUtils.invert(null));
+    }
+
+    @Test
+    public void tablesAreConsistentTest() {
+        for (WalkDirection direction : WalkDirection.values()) {
+            if (direction == WalkDirection.NONE) {
+                continue;
+            }
+            double angle = WalkDirectionUtils.getPreferredAngle(direction);
+            Assert.assertEquals(Math.sin(angle), WalkDirectionUtils.getUnitX(direction), 1e-12);
+            Assert.assertEquals(-Math.cos(angle), WalkDirectionUtils.getUnitY(direction), 1e-12);
+            Assert.assertEquals(Math.signum(WalkDirectionUtils.getUnitX(direction)), WalkDirectionUtils.getStepX(direction), 0);
+            Assert.assertEquals(Math.signum(WalkDirectionUtils.getUnitY(direction)), WalkDirectionUtils.getStepY(direction), 0);
+            // a line from the center of a rectangle to its anchor points in the direction
+            Assert.assertEquals(direction, WalkDirectionUtils.getFromLine(50, 25, WalkDirectionUtils.getAnchorX(direction, 0, 100), WalkDirectionUtils.getAnchorY(direction, 0, 50)));
+            Assert.assertEquals(direction, WalkDirectionUtils.getFromLineAngle(angle));
+        }
+
+        Assert.assertEquals(0, WalkDirectionUtils.getPreferredAngle(WalkDirection.NONE), 0);
+        Assert.assertEquals(0, WalkDirectionUtils.getUnitX(WalkDirection.NONE), 0);
+        Assert.assertEquals(50, WalkDirectionUtils.getAnchorX(WalkDirection.NONE, 0, 100), 0);
+        Assert.assertEquals(10, WalkDirectionUtils.getAnchorX(WalkDirection.WEST, 10, 100), 0);
+        Assert.assertEquals(110, WalkDirectionUtils.getAnchorX(WalkDirection.SOUTH_EAST, 10, 100), 0);
+        Assert.assertEquals(35, WalkDirectionUtils.getAnchorY(WalkDirection.EAST, 10, 50), 0);
+    }
+
+    /**
+     * The octant classifier must return the same directions as the classification of the angle computed with {@code atan2}
+     */
+    @Test
+    public void getFromLineMatchesAngleTest() {
+        Random random = new Random(0);
+        for (int i = 0; i < 1000000; i++) {
+            double startX = random.nextDouble() * 2000 - 1000;
+            double startY = random.nextDouble() * 2000 - 1000;
+            double endX = random.nextDouble() * 2000 - 1000;
+            double endY = random.nextDouble() * 2000 - 1000;
+            double angle = Math.atan2(endX - startX, startY - endY);
+            if (Math.abs(Math.IEEEremainder(angle - Math.PI / 8, Math.PI / 4)) < 1e-9) {
+                // rounding may differ on the boundaries
+                continue;
+            }
+            Assert.assertEquals(WalkDirectionUtils.getFromLineAngle(angle), WalkDirectionUtils.getFromLine(startX, startY, endX, endY));
+        }
+    }
+
+    @Test
+    public void getFromLineBoundariesTest() {
+        // lines of length 0 point north like before
+        Assert.assertEquals(WalkDirection.NORTH, WalkDirectionUtils.getFromLine(5, 5, 5, 5));
+        Assert.assertEquals(WalkDirection.NORTH, WalkDirectionUtils.getFromLine(0, 0, 0, -1));
+        Assert.assertEquals(WalkDirection.SOUTH, WalkDirectionUtils.getFromLine(0, 0, 0, 1));
+        Assert.assertEquals(WalkDirection.EAST, WalkDirectionUtils.getFromLine(0, 0, 1, 0));
+        Assert.assertEquals(WalkDirection.WEST, WalkDirectionUtils.getFromLine(0, 0, -1, 0));
+        Assert.assertEquals(WalkDirection.NORTH_EAST, WalkDirectionUtils.getFromLine(0, 0, 1, -1));
+        Assert.assertEquals(WalkDirection.NORTH_WEST, WalkDirectionUtils.getFromLine(0, 0, -1, -1));
+        Assert.assertEquals(WalkDirection.SOUTH_EAST, WalkDirectionUtils.getFromLine(0, 0, 1, 1));
+        Assert.assertEquals(WalkDirection.SOUTH_WEST, WalkDirectionUtils.getFromLine(0, 0, -1, 1));
+    }
+}
@@ -0,0 +1,107 @@
+package model;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link WorldGenerator}
+ */
+public class WorldGeneratorTest {
+    private static int countConnections(Room[] rooms) {
+        int res = 0;
+        for (Room room : rooms) {
+            res += room.getAdjacentRooms().size();
+        }
+        return res / 2;
+    }
+
+    private static void assertConsistent(Room[] rooms) {
+        Set<Room> allRooms = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(allRooms, rooms);
+        for (Room room : rooms) {
+            for (Map.Entry<WalkDirection, Room> entry : room.getAdjacentRooms().entrySet()) {
+                Assert.assertTrue(allRooms.contains(entry.getValue()));
+                Assert.assertSame(room, entry.getValue().getAdjacentRooms().get(WalkDirectionUtils.invert(entry.getKey())));
+            }
+        }
+        Assert.assertEquals(rooms.length, EntitySimulation.getReachableRooms(rooms[0]).size());
+    }
+
+    @Test
+    public void gridTest() {
+        Room[] rooms = new WorldGenerator(1).generateRooms(WorldGenerator.Shape.GRID, 100);
+        assertConsistent(rooms);
+        // 10 x 10 rooms, 9 connections per row and column
+        Assert.assertEquals(2 * 10 * 9, countConnections(rooms));
+        Assert.assertSame(rooms[1], rooms[0].getAdjacentRooms().get(WalkDirection.EAST));
+        Assert.assertSame(rooms[10], rooms[0].getAdjacentRooms().get(WalkDirection.SOUTH));
+    }
+
+    @Test
+    public void mazeAndTreeTest() {
+        for (WorldGenerator.Shape shape : new WorldGenerator.Shape[]{WorldGenerator.Shape.MAZE, WorldGenerator.Shape.TREE}) {
+            Room[] rooms = new WorldGenerator(2).generateRooms(shape, 1000);
+            assertConsistent(rooms);
+            // spanning trees
+            Assert.assertEquals(rooms.length - 1, countConnections(rooms));
+        }
+    }
+
+    @Test
+    public void randomGraphTest() {
+        Room[] rooms = new WorldGenerator(3).generateRooms(WorldGenerator.Shape.RANDOM_GRAPH, 1000);
+        assertConsistent(rooms);
+        Assert.assertTrue(countConnections(rooms) > rooms.length - 1);
+    }
+
+    @Test
+    public void deterministicTest() {
+        WorldGenerator parallelGenerator = new WorldGenerator(4, new ForkJoinPool(4));
+        WorldGenerator sequentialGenerator = new WorldGenerator(4, null);
+        parallelGenerator.setMaxItemsPerRoom(3);
+        sequentialGenerator.setMaxItemsPerRoom(3);
+        Room[] parallelRooms = parallelGenerator.generateRooms(WorldGenerator.Shape.RANDOM_GRAPH, 5000);
+        Room[] sequentialRooms = sequentialGenerator.generateRooms(WorldGenerator.Shape.RANDOM_GRAPH, 5000);
+
+        int itemCount = 0;
+        for (int i = 0; i < parallelRooms.length; i++) {
+            Assert.assertEquals(sequentialRooms[i].getName(), parallelRooms[i].getName());
+            Assert.assertEquals(sequentialRooms[i].getItemsInRoom().size(), parallelRooms[i].getItemsInRoom().size());
+            Assert.assertEquals(sequentialRooms[i].getEntitiesInRoom().size(), parallelRooms[i].getEntitiesInRoom().size());
+            for (WalkDirection direction : WalkDirection.values()) {
+                Room parallelNeighbour = parallelRooms[i].getAdjacentRooms().get(direction);
+                Room sequentialNeighbour = sequentialRooms[i].getAdjacentRooms().get(direction);
+                Assert.assertEquals(sequentialNeighbour == null ? null : sequentialNeighbour.getName(), parallelNeighbour == null ? null : parallelNeighbour.getName());
+            }
+            itemCount += parallelRooms[i].getItemsInRoom().size();
+        }
+        Assert.assertTrue(itemCount > 0);
+    }
+}
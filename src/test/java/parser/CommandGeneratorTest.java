@@ -0,0 +1,189 @@
+package parser;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests for the {@link CommandGenerator}
+ */
+public class CommandGeneratorTest {
+    private static Verb createVerb(String word, Word... followingWords) {
+        Verb res = new Verb(word, new ArrayList<>());
+        for (Word followingWord : followingWords) {
+            res.getPermittedWordsThatFollow().add(followingWord);
+        }
+        return res;
+    }
+
+    private static Item createItem(String name) {
+        Item res = new Item();
+        res.setName(new Noun(name, new ArrayList<>()));
+        return res;
+    }
+
+    @Test
+    public void standaloneVerbsAndExitsTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("look"));
+        Room room = new Room("room");
+        room.getAdjacentRooms().put(WalkDirection.NORTH_EAST, new Room("other room"));
+
+        List<String> commands = new CommandGenerator(verbs).getAvailableCommands(room);
+        Assert.assertTrue(commands.contains("look"));
+        Assert.assertTrue(commands.contains("north east"));
+        Assert.assertEquals(2, commands.size());
+    }
+
+    @Test
+    public void equalWordsMatchTest() {
+        // the verb and the item use distinct but equal nouns, e. g. after the game was loaded from a save
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("take", new Noun("lamp", new ArrayList<>())));
+        Room room = new Room("room");
+        room.getItemsInRoom().add(createItem("lamp"));
+        room.getItemsInRoom().add(createItem("sword"));
+
+        List<String> commands = new CommandGenerator(verbs).getAvailableCommands(room);
+        Assert.assertTrue(commands.contains("take lamp"));
+        Assert.assertFalse(commands.contains("take sword"));
+    }
+
+    @Test
+    public void resultIsMemoizedTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("look"));
+        CommandGenerator generator = new CommandGenerator(verbs);
+        Room room = new Room("room");
+
+        Assert.assertSame(generator.getAvailableCommands(room), generator.getAvailableCommands(room));
+        Assert.assertNotSame(generator.getAvailableCommands(room), generator.getAvailableCommands(new Room("other room")));
+    }
+
+    @Test
+    public void itemListChangeInvalidatesTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("take", new Noun("lamp", new ArrayList<>())));
+        CommandGenerator generator = new CommandGenerator(verbs);
+        Room room = new Room("room");
+
+        List<String> commandsBefore = generator.getAvailableCommands(room);
+        Assert.assertFalse(commandsBefore.contains("take lamp"));
+
+        Item lamp = createItem("lamp");
+        room.getItemsInRoom().add(lamp);
+        List<String> commandsAfterAdd = generator.getAvailableCommands(room);
+        Assert.assertNotSame(commandsBefore, commandsAfterAdd);
+        Assert.assertTrue(commandsAfterAdd.contains("take lamp"));
+
+        room.getItemsInRoom().remove(lamp);
+        Assert.assertFalse(generator.getAvailableCommands(room).contains("take lamp"));
+    }
+
+    @Test
+    public void entityListChangeInvalidatesTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("attack", new Noun("troll", new ArrayList<>())));
+        CommandGenerator generator = new CommandGenerator(verbs);
+        Room room = new Room("room");
+        Assert.assertFalse(generator.getAvailableCommands(room).contains("attack troll"));
+
+        Entity troll = new Entity();
+        troll.setName(new Noun("troll", new ArrayList<>()));
+        room.getEntitiesInRoom().add(troll);
+        Assert.assertTrue(generator.getAvailableCommands(room).contains("attack troll"));
+    }
+
+    @Test
+    public void roomMapChangeInvalidatesTest() {
+        CommandGenerator generator = new CommandGenerator(new ArrayList<>());
+        Room room = new Room("room");
+        Assert.assertTrue(generator.getAvailableCommands(room).isEmpty());
+
+        room.getAdjacentRooms().put(WalkDirection.SOUTH, new Room("other room"));
+        Assert.assertEquals(1, generator.getAvailableCommands(room).size());
+        Assert.assertTrue(generator.getAvailableCommands(room).contains("south"));
+
+        room.getAdjacentRooms().remove(WalkDirection.SOUTH);
+        Assert.assertTrue(generator.getAvailableCommands(room).isEmpty());
+    }
+
+    @Test
+    public void replacedListsAreObservedTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("take", new Noun("lamp", new ArrayList<>())));
+        CommandGenerator generator = new CommandGenerator(verbs);
+        Room room = new Room("room");
+        generator.getAvailableCommands(room);
+
+        ItemList newItems = new ItemList();
+        room.setItemsInRoom(newItems);
+        Assert.assertFalse(generator.getAvailableCommands(room).contains("take lamp"));
+        newItems.add(createItem("lamp"));
+        Assert.assertTrue(generator.getAvailableCommands(room).contains("take lamp"));
+    }
+
+    @Test
+    public void disposeTest() {
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("look"));
+        Room room = new Room("room");
+        int itemListenerCount = room.getItemsInRoom().getChangeListenerList().size();
+        int roomMapListenerCount = room.getAdjacentRooms().getChangeListenerList().size();
+
+        CommandGenerator commandGenerator = new CommandGenerator(verbs);
+        commandGenerator.getAvailableCommands(room);
+        Assert.assertEquals(itemListenerCount + 1, room.getItemsInRoom().getChangeListenerList().size());
+
+        commandGenerator.dispose();
+        Assert.assertEquals(itemListenerCount, room.getItemsInRoom().getChangeListenerList().size());
+        Assert.assertEquals(roomMapListenerCount, room.getAdjacentRooms().getChangeListenerList().size());
+    }
+
+    @Test
+    public void gameRebuildsGeneratorForNewVerbsTest() {
+        Game game = new Game(new Room("room"));
+        List<Verb> verbs = new ArrayList<>();
+        verbs.add(createVerb("look"));
+        game.setVerbs(verbs);
+        CommandGenerator commandGenerator = game.getCommandGenerator();
+        Assert.assertSame(commandGenerator, game.getCommandGenerator());
+        Assert.assertEquals(1, game.getCommandGenerator().getAvailableCommands(game.getCurrentRoom()).size());
+
+        List<Verb> newVerbs = new ArrayList<>();
+        newVerbs.add(createVerb("look"));
+        newVerbs.add(createVerb("wait"));
+        game.setVerbs(newVerbs);
+        Assert.assertNotSame(commandGenerator, game.getCommandGenerator());
+        Assert.assertSame(newVerbs, game.getCommandGenerator().getVerbs());
+        Assert.assertEquals(2, game.getCommandGenerator().getAvailableCommands(game.getCurrentRoom()).size());
+
+        // a game loaded or created later has its own generator
+        Assert.assertNotSame(game.getCommandGenerator(), new Game().getCommandGenerator());
+    }
+}
@@ -0,0 +1,113 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.WalkDirection;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the location cache of the {@link ConnectionLine}
+ */
+public class ConnectionLineLocationTest {
+    private static final double delta = 1e-9;
+    private final Room start = new Room("Start");
+    private final Room end = new Room("End");
+    private final ConnectionLineLocation location = new ConnectionLineLocation();
+
+    public ConnectionLineLocationTest() {
+        // JUnit creates a new instance for every test
+        start.getAdjacentRooms().put(WalkDirection.EAST, end);
+        end.getAdjacentRooms().put(WalkDirection.WEST, start);
+    }
+
+    private ConnectionLineLocation.Result update(double endMinX, double endMinY) {
+        return location.update(start, end, 0, 0, 100, 100, endMinX, endMinY, 100, 100);
+    }
+
+    private void assertLocation(double startX, double startY, double endX, double endY) {
+        Assert.assertEquals(startX, location.getStartX(), delta);
+        Assert.assertEquals(startY, location.getStartY(), delta);
+        Assert.assertEquals(endX, location.getEndX(), delta);
+        Assert.assertEquals(endY, location.getEndY(), delta);
+    }
+
+    @Test
+    public void cacheHitTest() {
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, update(200, 0));
+        Assert.assertEquals(WalkDirection.EAST, location.getDirection());
+        assertLocation(100, 50, 200, 50);
+
+        Assert.assertEquals(ConnectionLineLocation.Result.UNCHANGED, update(200, 0));
+        assertLocation(100, 50, 200, 50);
+    }
+
+    @Test
+    public void boundsChangeTest() {
+        update(200, 0);
+
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, update(300, 20));
+        assertLocation(100, 50, 300, 70);
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, location.update(start, end, 0, 0, 120, 100, 300, 20, 100, 100));
+        assertLocation(120, 50, 300, 70);
+    }
+
+    @Test
+    public void directionChangeTest() {
+        update(200, 0);
+
+        start.getAdjacentRooms().remove(WalkDirection.EAST);
+        start.getAdjacentRooms().put(WalkDirection.SOUTH, end);
+        // the bounds are the same, but the line must leave the start room at another side
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, update(200, 0));
+        Assert.assertEquals(WalkDirection.SOUTH, location.getDirection());
+        assertLocation(50, 100, 250, 0);
+    }
+
+    @Test
+    public void reconnectAfterInvalidateTest() {
+        update(200, 0);
+
+        start.getAdjacentRooms().remove(WalkDirection.EAST);
+        Assert.assertEquals(ConnectionLineLocation.Result.DISCONNECTED, update(200, 0));
+        Assert.assertNull(location.getDirection());
+
+        start.getAdjacentRooms().put(WalkDirection.EAST, end);
+        // the line was detached, so it needs its location again although nothing moved
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, update(200, 0));
+        assertLocation(100, 50, 200, 50);
+
+        location.invalidate();
+        Assert.assertEquals(ConnectionLineLocation.Result.CHANGED, update(200, 0));
+    }
+
+    @Test
+    public void lineMovedElsewhereTest() {
+        update(200, 0);
+        Assert.assertTrue(location.isAt(100, 50, 200, 50));
+        // e. g. moved while a path was previewed
+        Assert.assertFalse(location.isAt(100, 50, 180, 10));
+        Assert.assertEquals(ConnectionLineLocation.Result.UNCHANGED, update(200, 0));
+    }
+}
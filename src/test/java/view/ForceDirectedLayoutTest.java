@@ -0,0 +1,172 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests for the {@link ForceDirectedLayout}
+ */
+public class ForceDirectedLayoutTest {
+    private static final double north = 0;
+    private static final double east = Math.PI / 2;
+    private static final double south = Math.PI;
+    private static final double west = -Math.PI / 2;
+
+    @Test
+    public void cycleMatchesPreferredAnglesTest() {
+        // all rooms start at the same position
+        ForceDirectedLayout layout = new ForceDirectedLayout(50, null);
+        for (int i = 0; i < 4; i++) {
+            layout.addNode(0, 0, 100, 100);
+        }
+        layout.addEdge(0, 1, east);
+        layout.addEdge(1, 2, south);
+        layout.addEdge(2, 3, west);
+        layout.addEdge(3, 0, north);
+        layout.setFixed(0);
+
+        Assert.assertTrue(layout.run(1000, 0.1, null));
+        Assert.assertFalse(layout.hasOverlaps());
+        Assert.assertEquals(0, layout.getX(0), 0);
+        Assert.assertEquals(0, layout.getY(0), 0);
+        assertPosition(layout, 1, 150, 0);
+        assertPosition(layout, 2, 150, 150);
+        assertPosition(layout, 3, 0, 150);
+    }
+
+    @Test
+    public void coincidentNodesInLargeLayoutTest() {
+        // large enough for the quad tree, every node starts at the same position
+        ForceDirectedLayout layout = new ForceDirectedLayout(50, null);
+        for (int i = 0; i < 1000; i++) {
+            layout.addNode(0, 0, 100, 100);
+        }
+        for (int i = 1; i < 1000; i++) {
+            layout.addEdge(i - 1, i, Math.PI / 2);
+        }
+        layout.setFixed(0);
+        layout.run(5, 0, null);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertFalse(Double.isNaN(layout.getX(i)));
+            Assert.assertFalse(Double.isNaN(layout.getY(i)));
+        }
+    }
+
+    @Test
+    public void contradictingAnglesDoNotOverlapTest() {
+        // the third room should be east of the second one and west of the first one at the same time
+        ForceDirectedLayout layout = new ForceDirectedLayout(50, null);
+        layout.addNode(0, 0, 100, 100);
+        layout.addNode(150, 0, 100, 100);
+        layout.addNode(300, 0, 100, 100);
+        layout.addEdge(0, 1, east);
+        layout.addEdge(1, 2, east);
+        layout.addEdge(2, 0, west);
+        layout.setFixed(0);
+
+        layout.run(5000, 0.01, null);
+        Assert.assertFalse(layout.hasOverlaps());
+    }
+
+    @Test
+    public void parallelLayoutEqualsSequentialLayoutTest() {
+        // large enough for the Barnes-Hut approximation
+        int size = 17;
+        ForceDirectedLayout sequentialLayout = createGrid(size, null);
+        ForceDirectedLayout parallelLayout = createGrid(size, ForkJoinPool.commonPool());
+
+        Assert.assertTrue(sequentialLayout.run(5000, 0.01, null));
+        Assert.assertTrue(parallelLayout.run(5000, 0.01, null));
+
+        double[] sequentialX = new double[size * size];
+        double[] sequentialY = new double[size * size];
+        double[] parallelX = new double[size * size];
+        double[] parallelY = new double[size * size];
+        sequentialLayout.copyPositions(sequentialX, sequentialY);
+        parallelLayout.copyPositions(parallelX, parallelY);
+        Assert.assertTrue(Arrays.equals(sequentialX, parallelX));
+        Assert.assertTrue(Arrays.equals(sequentialY, parallelY));
+
+        Assert.assertFalse(sequentialLayout.hasOverlaps());
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column + 1 < size; column++) {
+                int node = row * size + column;
+                Assert.assertEquals(sequentialX[node] + 150, sequentialX[node + 1], 2);
+                Assert.assertEquals(sequentialY[node], sequentialY[node + 1], 2);
+            }
+        }
+    }
+
+    @Test
+    public void cancelTest() {
+        ForceDirectedLayout layout = createGrid(4, null);
+        Assert.assertFalse(layout.run(1000, 0.01, iteratedLayout -> {
+            if (iteratedLayout.getIterationCount() == 3) {
+                iteratedLayout.cancel();
+            }
+        }));
+        Assert.assertEquals(3, layout.getIterationCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addNodeAfterStartTest() {
+        ForceDirectedLayout layout = createGrid(2, null);
+        layout.step();
+        layout.addNode(0, 0, 100, 100);
+    }
+
+    /**
+     * Creates a grid of rooms at random positions where each room is connected to its east and south neighbour
+     */
+    private static ForceDirectedLayout createGrid(int size, ForkJoinPool pool) {
+        ForceDirectedLayout layout = new ForceDirectedLayout(50, pool);
+        Random random = new Random(1);
+        for (int i = 0; i < size * size; i++) {
+            layout.addNode(random.nextDouble() * 300, random.nextDouble() * 300, 100, 100);
+        }
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int node = row * size + column;
+                if (column + 1 < size) {
+                    layout.addEdge(node, node + 1, east);
+                }
+                if (row + 1 < size) {
+                    layout.addEdge(node, node + size, south);
+                }
+            }
+        }
+        layout.setFixed(0);
+        return layout;
+    }
+
+    private static void assertPosition(ForceDirectedLayout layout, int node, double expectedX, double expectedY) {
+        Assert.assertEquals(expectedX, layout.getX(node), 1);
+        Assert.assertEquals(expectedY, layout.getY(node), 1);
+    }
+}
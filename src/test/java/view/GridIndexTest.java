@@ -0,0 +1,260 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the {@link GridIndex}
+ */
+public class GridIndexTest {
+    private static final double cellSize = 100;
+
+    @Test
+    public void findAtTest() {
+        TestIndex index = new TestIndex();
+        Rect back = new Rect("back", 0, 0, 150, 150);
+        Rect front = new Rect("front", 100, 100, 50, 50);
+        index.update(back);
+        index.update(front);
+
+        Assert.assertSame(back, index.findAt(10, 10));
+        // both contain the point, the one that was inserted last is in front
+        Assert.assertSame(front, index.findAt(120, 120));
+        Assert.assertNull(index.findAt(160, 160));
+        Assert.assertNull(index.findAt(-10, 10));
+    }
+
+    @Test
+    public void findIntersectingTest() {
+        TestIndex index = new TestIndex();
+        // spans four cells but must only be returned once
+        Rect large = new Rect("large", 50, 50, 100, 100);
+        Rect small = new Rect("small", 300, 300, 10, 10);
+        Rect negative = new Rect("negative", -220, -220, 10, 10);
+        index.update(large);
+        index.update(small);
+        index.update(negative);
+
+        assertSameElements(index.findIntersecting(0, 0, 400, 400), large, small);
+        assertSameElements(index.findIntersecting(140, 140, 200, 200), large);
+        assertSameElements(index.findIntersecting(160, 160, 290, 290));
+        assertSameElements(index.findIntersecting(-300, -300, 0, 0), negative);
+    }
+
+    @Test
+    public void updateAndRemoveTest() {
+        TestIndex index = new TestIndex();
+        Rect rect = new Rect("rect", 0, 0, 10, 10);
+        index.update(rect);
+        Assert.assertTrue(index.contains(rect));
+
+        rect.minX = 1000;
+        index.update(rect);
+        Assert.assertEquals(1, index.size());
+        Assert.assertNull(index.findAt(5, 5));
+        Assert.assertSame(rect, index.findAt(1005, 5));
+        assertSameElements(index.findIntersecting(0, 0, 100, 100));
+
+        index.remove(rect);
+        Assert.assertFalse(index.contains(rect));
+        Assert.assertEquals(0, index.size());
+        Assert.assertNull(index.findAt(1005, 5));
+    }
+
+    @Test
+    public void findNearestTest() {
+        TestIndex index = new TestIndex();
+        Rect near = new Rect("near", 10, 0, 10, 10);
+        Rect middle = new Rect("middle", 250, 0, 10, 10);
+        Rect far = new Rect("far", 5000, 5000, 10, 10);
+        index.update(far);
+        index.update(middle);
+        index.update(near);
+
+        Assert.assertEquals(Arrays.asList(near, middle), index.findNearest(0, 0, 2));
+        Assert.assertEquals(Arrays.asList(near, middle, far), index.findNearest(0, 0, 10));
+        // the only element is many rings away
+        Assert.assertEquals(Arrays.asList(far), index.findNearest(0, 0, 1, rect -> rect == far));
+        Assert.assertEquals(Arrays.asList(middle), index.findNearest(0, 0, 1, rect -> rect != near));
+        Assert.assertTrue(index.findNearest(0, 0, 1, rect -> false).isEmpty());
+        Assert.assertTrue(index.findNearest(0, 0, 0).isEmpty());
+        Assert.assertTrue(new TestIndex().findNearest(0, 0, 1).isEmpty());
+    }
+
+    @Test
+    public void findNearestMatchesLinearSearchTest() {
+        TestIndex index = new TestIndex();
+        List<Rect> rects = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            Rect rect = new Rect("rect" + i, random.nextInt(5000) - 2500, random.nextInt(5000) - 2500, 20, 20);
+            rects.add(rect);
+            index.update(rect);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            double x = random.nextInt(6000) - 3000;
+            double y = random.nextInt(6000) - 3000;
+            Rect expected = null;
+            double expectedDistance = Double.POSITIVE_INFINITY;
+            for (Rect rect : rects) {
+                double distance = Math.hypot(rect.minX + 10 - x, rect.minY + 10 - y);
+                if (distance < expectedDistance) {
+                    expected = rect;
+                    expectedDistance = distance;
+                }
+            }
+            Assert.assertSame(expected, index.findNearest(x, y, 1).get(0));
+        }
+    }
+
+    @Test
+    public void findNearestFarAwayTest() {
+        TestIndex index = new TestIndex();
+        Rect first = new Rect("first", 0, 0, 10, 10);
+        Rect second = new Rect("second", 300, 0, 10, 10);
+        index.update(first);
+        index.update(second);
+
+        // millions of rings away from the occupied cells, only the rings that touch them are searched
+        Assert.assertEquals(Arrays.asList(second, first), index.findNearest(1e9, 1e9, 2));
+        Assert.assertEquals(Arrays.asList(first), index.findNearest(-1e9, 0, 1));
+        Assert.assertTrue(index.findNearest(1e9, -1e9, 1, rect -> false).isEmpty());
+        Assert.assertTrue(index.findNearest(150, 5, 1, rect -> false).isEmpty());
+    }
+
+    @Test
+    public void visitCellsTest() {
+        TestIndex index = new TestIndex();
+        index.update(new Rect("a", 10, 10, 10, 10));
+        index.update(new Rect("b", 20, 20, 10, 10));
+        index.update(new Rect("c", 210, 10, 10, 10));
+
+        List<String> visitedCells = new ArrayList<>();
+        index.visitCells(0, 0, 299, 99, (cellMinX, cellMinY, size, elementCount) -> visitedCells.add(cellMinX + "/" + cellMinY + ":" + elementCount));
+        // the order of the cells is unspecified
+        Collections.sort(visitedCells);
+        Assert.assertEquals(Arrays.asList("0.0/0.0:2", "200.0/0.0:1"), visitedCells);
+    }
+
+    @Test
+    public void queryLargerThanOccupiedAreaTest() {
+        TestIndex index = new TestIndex();
+        Rect a = new Rect("a", 10, 10, 10, 10);
+        Rect b = new Rect("b", 5000, -3000, 10, 10);
+        index.update(a);
+        index.update(b);
+
+        // would look up trillions of cells without clamping
+        assertSameElements(index.findIntersecting(-1e12, -1e12, 1e12, 1e12), a, b);
+        assertSameElements(index.findIntersecting(0, 0, 1e12, 1e12), a);
+        assertSameElements(index.findIntersecting(1e11, 1e11, 1e12, 1e12));
+        List<String> visitedCells = new ArrayList<>();
+        index.visitCells(-1e12, -1e12, 1e12, 1e12, (cellMinX, cellMinY, size, elementCount) -> visitedCells.add(cellMinX + "/" + cellMinY));
+        Assert.assertEquals(2, visitedCells.size());
+
+        // the occupied area does not shrink, but queries must still be correct after elements moved
+        b.minX = 20;
+        b.minY = 20;
+        index.update(b);
+        assertSameElements(index.findIntersecting(-1e12, -1e12, 1e12, 1e12), a, b);
+        assertSameElements(index.findIntersecting(4000, -4000, 6000, -2000));
+
+        index.remove(a);
+        index.remove(b);
+        assertSameElements(index.findIntersecting(-1e12, -1e12, 1e12, 1e12));
+        index.update(a);
+        assertSameElements(index.findIntersecting(0, 0, 100, 100), a);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCellSizeTest() {
+        new TestIndex(0);
+    }
+
+    private static void assertSameElements(List<Rect> actual, Rect... expected) {
+        Assert.assertEquals(expected.length, actual.size());
+        for (Rect rect : expected) {
+            Assert.assertTrue(actual.contains(rect));
+        }
+    }
+
+    private static class Rect {
+        private final String name;
+        private double minX;
+        private double minY;
+        private final double width;
+        private final double height;
+
+        Rect(String name, double minX, double minY, double width, double height) {
+            this.name = name;
+            this.minX = minX;
+            this.minY = minY;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class TestIndex extends GridIndex<Rect> {
+        TestIndex() {
+            this(cellSize);
+        }
+
+        TestIndex(double cellSize) {
+            super(cellSize);
+        }
+
+        @Override
+        protected double getMinX(Rect element) {
+            return element.minX;
+        }
+
+        @Override
+        protected double getMinY(Rect element) {
+            return element.minY;
+        }
+
+        @Override
+        protected double getWidth(Rect element) {
+            return element.width;
+        }
+
+        @Override
+        protected double getHeight(Rect element) {
+            return element.height;
+        }
+    }
+}
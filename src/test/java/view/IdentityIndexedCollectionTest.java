@@ -0,0 +1,179 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Tests for the {@link IdentityIndexedCollection} that {@link RoomRectangleList} and {@link ConnectionLineList} are based on
+ */
+public class IdentityIndexedCollectionTest {
+    private static final int elementCount = 10;
+    private final RecordingCollection collection = new RecordingCollection();
+    private final List<Element> elements = new ArrayList<>();
+
+    public IdentityIndexedCollectionTest() {
+        for (int i = 0; i < elementCount; i++) {
+            Element element = new Element(i);
+            elements.add(element);
+            collection.add(element);
+        }
+    }
+
+    /**
+     * Checks that the positions, the elements and the elements that the subclass was told about match
+     */
+    private void assertConsistent(Collection<Element> expectedElements) {
+        Assert.assertEquals(expectedElements.size(), collection.size());
+        Set<Element> expected = Collections.newSetFromMap(new IdentityHashMap<>());
+        expected.addAll(expectedElements);
+        Assert.assertEquals(expected, collection.indexedElements);
+        for (int i = 0; i < collection.size(); i++) {
+            Assert.assertTrue(expected.contains(collection.get(i)));
+            Assert.assertEquals(i, collection.indexOf(collection.get(i)));
+        }
+        for (Element element : elements) {
+            Assert.assertEquals(expected.contains(element), collection.contains(element));
+        }
+    }
+
+    @Test
+    public void addAndRemoveTest() {
+        assertConsistent(elements);
+        Assert.assertTrue(collection.remove(elements.get(3)));
+        Assert.assertFalse(collection.remove(elements.get(3)));
+        Assert.assertFalse(collection.remove(new Element(3)));
+        Assert.assertEquals(-1, collection.indexOf(elements.get(3)));
+        assertConsistent(without(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateTest() {
+        collection.add(elements.get(0));
+    }
+
+    @Test
+    public void iteratorRemoveVisitsAllElementsTest() {
+        List<Element> visitedElements = new ArrayList<>();
+        Iterator<Element> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            Element element = iterator.next();
+            visitedElements.add(element);
+            if (element.value % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        Assert.assertEquals(elementCount, visitedElements.size());
+        Assert.assertEquals(elementCount, new HashSet<>(visitedElements).size());
+        assertConsistent(without(0, 2, 4, 6, 8));
+    }
+
+    @Test
+    public void removeIfTest() {
+        Assert.assertTrue(collection.removeIf(element -> element.value >= 5));
+        assertConsistent(without(5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void removeAllTest() {
+        Assert.assertTrue(collection.removeAll(Arrays.asList(elements.get(9), elements.get(0), elements.get(4))));
+        assertConsistent(without(0, 4, 9));
+    }
+
+    @Test
+    public void retainAllTest() {
+        Assert.assertTrue(collection.retainAll(Arrays.asList(elements.get(1), elements.get(9))));
+        assertConsistent(Arrays.asList(elements.get(1), elements.get(9)));
+    }
+
+    @Test
+    public void clearTest() {
+        collection.clear();
+        Assert.assertTrue(collection.isEmpty());
+        assertConsistent(Collections.emptyList());
+        // the collection can be used after it was cleared
+        collection.add(elements.get(2));
+        assertConsistent(Collections.singletonList(elements.get(2)));
+    }
+
+    @Test(expected = ConcurrentModificationException.class)
+    public void failFastIteratorTest() {
+        for (Element element : collection) {
+            collection.remove(element);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void removeTwiceTest() {
+        Iterator<Element> iterator = collection.iterator();
+        iterator.next();
+        iterator.remove();
+        iterator.remove();
+    }
+
+    private List<Element> without(int... values) {
+        List<Element> res = new ArrayList<>(elements);
+        for (int value : values) {
+            res.remove(elements.get(value));
+        }
+        return res;
+    }
+
+    private static class RecordingCollection extends IdentityIndexedCollection<Element> {
+        private final Set<Element> indexedElements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        @Override
+        protected void elementAdded(Element element) {
+            Assert.assertTrue(indexedElements.add(element));
+        }
+
+        @Override
+        protected void elementRemoved(Element element) {
+            Assert.assertTrue(indexedElements.remove(element));
+        }
+    }
+
+    /**
+     * Equal elements are still distinct elements of the collection
+     */
+    private static class Element {
+        private final int value;
+
+        Element(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Element && ((Element) obj).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import common.MetricsRegistry;
+import model.Room;
+import model.WalkDirection;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tests for the {@link NearestPerDirection} buffer that is used by the drag handlers of {@link RoomRectangle}
+ */
+public class NearestPerDirectionTest {
+    @Test
+    public void keepsClosestElementTest() {
+        NearestPerDirection<String> buffer = new NearestPerDirection<>();
+        Assert.assertNull(buffer.get(WalkDirection.NORTH));
+        Assert.assertEquals(Double.POSITIVE_INFINITY, buffer.getDistance(WalkDirection.NORTH), 0);
+
+        Assert.assertTrue(buffer.offer(WalkDirection.NORTH, "far", 10));
+        Assert.assertTrue(buffer.offer(WalkDirection.NORTH, "near", 5));
+        Assert.assertFalse(buffer.offer(WalkDirection.NORTH, "farther", 20));
+        // ties keep the element that was offered first
+        Assert.assertFalse(buffer.offer(WalkDirection.NORTH, "as near", 5));
+        Assert.assertTrue(buffer.offer(WalkDirection.SOUTH, "south", 100));
+
+        Assert.assertEquals("near", buffer.get(WalkDirection.NORTH));
+        Assert.assertEquals(5, buffer.getDistance(WalkDirection.NORTH), 0);
+        Assert.assertEquals("south", buffer.get(WalkDirection.SOUTH));
+        Assert.assertNull(buffer.get(WalkDirection.EAST));
+
+        buffer.clear();
+        for (WalkDirection direction : WalkDirection.values()) {
+            Assert.assertNull(buffer.get(direction));
+        }
+    }
+
+    @Test
+    public void offerAdjacentRoomsTest() {
+        Room draggedRoom = new Room("Dragged");
+        Room east = new Room("East");
+        Room north = new Room("North");
+        Room hidden = new Room("Hidden");
+        draggedRoom.getAdjacentRooms().put(WalkDirection.EAST, east);
+        draggedRoom.getAdjacentRooms().put(WalkDirection.NORTH, north);
+        draggedRoom.getAdjacentRooms().put(WalkDirection.SOUTH, hidden);
+        Map<Room, double[]> centers = new IdentityHashMap<>();
+        centers.put(east, new double[]{300, 0});
+        // the north room was dragged to the east as well, but is further away
+        centers.put(north, new double[]{400, 10});
+        NearestPerDirection<Room> buffer = new NearestPerDirection<>();
+        buffer.offer(WalkDirection.WEST, east, 1);
+
+        buffer.offerAdjacentRooms(draggedRoom.getAdjacentRooms(), 0, 0, new CenterLocator(centers));
+
+        // the buffer was cleared and the room without an element is skipped
+        Assert.assertNull(buffer.get(WalkDirection.WEST));
+        Assert.assertNull(buffer.get(WalkDirection.NORTH));
+        Assert.assertNull(buffer.get(WalkDirection.SOUTH));
+        Assert.assertSame(east, buffer.get(WalkDirection.EAST));
+        Assert.assertEquals(300, buffer.getDistance(WalkDirection.EAST), 1e-9);
+    }
+
+    /**
+     * Drives the reevaluation of the connections of a dragged room with eight adjacent rooms that {@link RoomRectangle}
+     * uses and asserts that it does not allocate
+     */
+    @Test
+    public void dragEventDoesNotAllocateTest() {
+        Assume.assumeTrue(MetricsRegistry.getAllocatedBytesOfCurrentThread() >= 0);
+
+        WalkDirection[] directions = WalkDirection.values();
+        Room draggedRoom = new Room("Dragged");
+        Map<Room, double[]> centers = new IdentityHashMap<>();
+        for (int i = 0; i < 8; i++) {
+            Room adjacentRoom = new Room("Room " + i);
+            draggedRoom.getAdjacentRooms().put(directions[i], adjacentRoom);
+            centers.put(adjacentRoom, new double[]{200 * Math.sin(i * Math.PI / 4), -200 * Math.cos(i * Math.PI / 4)});
+        }
+        NearestPerDirection<Room> buffer = new NearestPerDirection<>();
+        CenterLocator locator = new CenterLocator(centers);
+
+        int eventCount = 100000;
+        // warm up so that the measurement does not contain class loading and compilation
+        int checksum = simulateDragEvents(buffer, draggedRoom, locator, directions, eventCount);
+        long allocatedBytes = MetricsRegistry.getAllocatedBytesOfCurrentThread();
+        checksum += simulateDragEvents(buffer, draggedRoom, locator, directions, eventCount);
+        long allocatedBytesDelta = MetricsRegistry.getAllocatedBytesOfCurrentThread() - allocatedBytes;
+
+        Assert.assertEquals(2 * eventCount * centers.size(), checksum);
+        // allow some noise, a single small allocation per event would already be more than 1.6 MB
+        Assert.assertTrue("Allocated " + allocatedBytesDelta + " bytes for " + eventCount + " events", allocatedBytesDelta < 16 * 1024);
+    }
+
+    private static int simulateDragEvents(NearestPerDirection<Room> buffer, Room draggedRoom, CenterLocator locator, WalkDirection[] directions, int eventCount) {
+        int checksum = 0;
+        for (int event = 0; event < eventCount; event++) {
+            buffer.offerAdjacentRooms(draggedRoom.getAdjacentRooms(), event % 7, event % 5, locator);
+            for (WalkDirection direction : directions) {
+                if (buffer.get(direction) != null) {
+                    checksum++;
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Looks up the rooms themselves and their centers in a map, like {@link RoomRectangle} looks up the rectangles of the rooms
+     */
+    private static class CenterLocator implements NearestPerDirection.Locator<Room> {
+        private final Map<Room, double[]> centers;
+
+        CenterLocator(Map<Room, double[]> centers) {
+            this.centers = centers;
+        }
+
+        @Override
+        public Room find(@NotNull Room room) {
+            return centers.containsKey(room) ? room : null;
+        }
+
+        @Override
+        public double getCenterX(@NotNull Room element) {
+            return centers.get(element)[0];
+        }
+
+        @Override
+        public double getCenterY(@NotNull Room element) {
+            return centers.get(element)[1];
+        }
+    }
+}
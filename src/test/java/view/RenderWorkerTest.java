@@ -0,0 +1,168 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Tests for the latest-wins semantics of the {@link RenderWorker}. The results are applied on the test thread which
+ * takes the role of the JavaFX thread.
+ */
+public class RenderWorkerTest {
+    private static final long timeoutInSeconds = 10;
+    private final BlockingQueue<Runnable> resultQueue = new LinkedBlockingQueue<>();
+    private final List<Integer> appliedResults = new CopyOnWriteArrayList<>();
+
+    /**
+     * Applies the next result that the worker handed to the result executor
+     */
+    private void applyNextResult() throws InterruptedException {
+        Runnable result = resultQueue.poll(timeoutInSeconds, TimeUnit.SECONDS);
+        Assert.assertNotNull(result);
+        result.run();
+    }
+
+    @Test
+    public void resultIsAppliedTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        worker.submit(cancelled -> 42, appliedResults::add);
+        applyNextResult();
+        Assert.assertEquals(1, appliedResults.size());
+        Assert.assertEquals(42, (int) appliedResults.get(0));
+        worker.shutdown();
+    }
+
+    @Test
+    public void newRequestsSupersedePendingRequestsTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        CountDownLatch firstTaskStarted = new CountDownLatch(1);
+        CountDownLatch firstTaskMayFinish = new CountDownLatch(1);
+        List<Integer> computedTasks = new CopyOnWriteArrayList<>();
+
+        worker.submit(cancelled -> {
+            firstTaskStarted.countDown();
+            try {
+                firstTaskMayFinish.await(timeoutInSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            computedTasks.add(0);
+            return 0;
+        }, appliedResults::add);
+        Assert.assertTrue(firstTaskStarted.await(timeoutInSeconds, TimeUnit.SECONDS));
+
+        // the first task is running, so these requests queue up
+        for (int i = 1; i <= 10; i++) {
+            final int result = i;
+            worker.submit(cancelled -> {
+                computedTasks.add(result);
+                return result;
+            }, appliedResults::add);
+        }
+        firstTaskMayFinish.countDown();
+
+        applyNextResult();
+        // only the first (cancelled) and the last task were computed, only the last one was applied
+        Assert.assertEquals(2, computedTasks.size());
+        Assert.assertEquals(0, (int) computedTasks.get(0));
+        Assert.assertEquals(10, (int) computedTasks.get(1));
+        Assert.assertEquals(1, appliedResults.size());
+        Assert.assertEquals(10, (int) appliedResults.get(0));
+        Assert.assertTrue(resultQueue.isEmpty());
+        worker.shutdown();
+    }
+
+    @Test
+    public void runningRequestIsCancelledTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        CountDownLatch firstTaskStarted = new CountDownLatch(1);
+        CountDownLatch firstTaskCancelled = new CountDownLatch(1);
+
+        worker.submit(cancelled -> {
+            firstTaskStarted.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutInSeconds);
+            while (!cancelled.getAsBoolean() && System.nanoTime() < deadline) {
+                Thread.yield();
+            }
+            if (cancelled.getAsBoolean()) {
+                firstTaskCancelled.countDown();
+            }
+            return 1;
+        }, appliedResults::add);
+        Assert.assertTrue(firstTaskStarted.await(timeoutInSeconds, TimeUnit.SECONDS));
+
+        worker.submit(cancelled -> 2, appliedResults::add);
+        Assert.assertTrue(firstTaskCancelled.await(timeoutInSeconds, TimeUnit.SECONDS));
+        applyNextResult();
+        Assert.assertEquals(1, appliedResults.size());
+        Assert.assertEquals(2, (int) appliedResults.get(0));
+        worker.shutdown();
+    }
+
+    @Test
+    public void staleResultIsNotAppliedTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        worker.submit(cancelled -> 1, appliedResults::add);
+        Runnable staleResult = resultQueue.poll(timeoutInSeconds, TimeUnit.SECONDS);
+        Assert.assertNotNull(staleResult);
+
+        // a new request arrives before the result of the first one is applied
+        worker.submit(cancelled -> 2, appliedResults::add);
+        staleResult.run();
+        Assert.assertTrue(appliedResults.isEmpty());
+
+        applyNextResult();
+        Assert.assertEquals(1, appliedResults.size());
+        Assert.assertEquals(2, (int) appliedResults.get(0));
+        worker.shutdown();
+    }
+
+    @Test
+    public void cancelTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        worker.submit(cancelled -> 1, appliedResults::add);
+        Runnable result = resultQueue.poll(timeoutInSeconds, TimeUnit.SECONDS);
+        Assert.assertNotNull(result);
+        worker.cancel();
+        result.run();
+        Assert.assertTrue(appliedResults.isEmpty());
+        worker.shutdown();
+    }
+
+    @Test
+    public void failingTaskTest() throws InterruptedException {
+        RenderWorker worker = new RenderWorker(resultQueue::add);
+        worker.<Integer>submit(cancelled -> {
+            throw new IllegalStateException("Expected by the test");
+        }, appliedResults::add);
+        // nothing to apply, but the worker keeps working
+        worker.submit(cancelled -> 2, appliedResults::add);
+        applyNextResult();
+        Assert.assertEquals(1, appliedResults.size());
+        Assert.assertEquals(2, (int) appliedResults.get(0));
+        worker.shutdown();
+    }
+}
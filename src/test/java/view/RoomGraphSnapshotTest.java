@@ -0,0 +1,170 @@
+package view;
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.RoomMap;
+import model.WalkDirection;
+import model.WalkDirectionUtils;
+import model.WorldGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Tests for the {@link RoomGraphSnapshot} that the editor renders
+ */
+public class RoomGraphSnapshotTest {
+    private static void connect(Room room1, WalkDirection direction, Room room2) {
+        room1.getAdjacentRooms().put(direction, room2);
+        room2.getAdjacentRooms().put(WalkDirectionUtils.invert(direction), room1);
+    }
+
+    @Test
+    public void breadthFirstOrderTest() {
+        Room start = new Room("Start");
+        Room north = new Room("North");
+        Room farNorth = new Room("Far north");
+        Room east = new Room("East");
+        Room unconnected = new Room("Unconnected");
+        Room behindUnconnected = new Room("Behind unconnected");
+        connect(start, WalkDirection.NORTH, north);
+        connect(north, WalkDirection.NORTH, farNorth);
+        connect(start, WalkDirection.EAST, east);
+        connect(unconnected, WalkDirection.SOUTH, behindUnconnected);
+
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(start, Arrays.asList(north, unconnected, null), () -> false);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals(Arrays.asList(start, north, east, farNorth, unconnected, behindUnconnected), snapshot.getRooms());
+        Assert.assertEquals(4, snapshot.getConnectedRoomCount());
+
+        Assert.assertTrue(snapshot.isConnected(start));
+        Assert.assertTrue(snapshot.isConnected(farNorth));
+        Assert.assertFalse(snapshot.isConnected(unconnected));
+        Assert.assertFalse(snapshot.isConnected(behindUnconnected));
+        Assert.assertFalse(snapshot.isConnected(new Room("Unknown")));
+        Assert.assertEquals(-1, snapshot.indexOf(new Room("Unknown")));
+
+        Assert.assertEquals(-1, snapshot.getParentIndex(0));
+        Assert.assertNull(snapshot.getParentDirection(0));
+        Assert.assertEquals(snapshot.indexOf(north), snapshot.getParentIndex(snapshot.indexOf(farNorth)));
+        Assert.assertEquals(WalkDirection.NORTH, snapshot.getParentDirection(snapshot.indexOf(farNorth)));
+        Assert.assertEquals(-1, snapshot.getParentIndex(snapshot.indexOf(unconnected)));
+        Assert.assertEquals(snapshot.indexOf(unconnected), snapshot.getParentIndex(snapshot.indexOf(behindUnconnected)));
+        Assert.assertEquals(WalkDirection.SOUTH, snapshot.getParentDirection(snapshot.indexOf(behindUnconnected)));
+
+        // every connection is contained once per direction
+        Assert.assertEquals(8, snapshot.getConnectionCount());
+        for (int connection = 0; connection < snapshot.getConnectionCount(); connection++) {
+            Room connectionStart = snapshot.getRoom(snapshot.getConnectionStart(connection));
+            Room connectionEnd = snapshot.getRoom(snapshot.getConnectionEnd(connection));
+            Assert.assertTrue(connectionStart.isDirectlyConnectedTo(connectionEnd));
+        }
+    }
+
+    @Test
+    public void cancelTest() {
+        Room[] rooms = new WorldGenerator(0).generateRooms(WorldGenerator.Shape.GRID, 1000);
+        Assert.assertNull(RoomGraphSnapshot.create(rooms[0], Collections.emptyList(), () -> true));
+    }
+
+    @Test
+    public void largeGraphTest() {
+        Room[] rooms = new WorldGenerator(0).generateRooms(WorldGenerator.Shape.MAZE, 100000);
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(rooms[0], Arrays.asList(rooms), () -> false);
+        Assert.assertNotNull(snapshot);
+        Assert.assertEquals(rooms.length, snapshot.getRoomCount());
+        Assert.assertEquals(rooms.length, snapshot.getConnectedRoomCount());
+        // a maze is a spanning tree
+        Assert.assertEquals(2 * (rooms.length - 1), snapshot.getConnectionCount());
+        for (Room room : rooms) {
+            Assert.assertTrue(snapshot.isConnected(room));
+        }
+    }
+
+    @Test
+    public void outdatedAfterChangeTest() {
+        Room start = new Room("Start");
+        Room north = new Room("North");
+        connect(start, WalkDirection.NORTH, north);
+
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(start, Collections.emptyList(), () -> false);
+        Assert.assertNotNull(snapshot);
+        Assert.assertTrue(snapshot.isCurrent());
+
+        connect(north, WalkDirection.NORTH, new Room("Far north"));
+        Assert.assertFalse(snapshot.isCurrent());
+    }
+
+    @Test
+    public void tornSnapshotTest() {
+        Room[] rooms = new WorldGenerator(0).generateRooms(WorldGenerator.Shape.GRID, 1000);
+        Room unknownRoom = new Room("Unknown");
+        WalkDirection freeDirection = null;
+        for (WalkDirection direction : WalkDirection.values()) {
+            if (direction != WalkDirection.NONE && !rooms[0].getAdjacentRooms().containsKey(direction)) {
+                freeDirection = direction;
+                break;
+            }
+        }
+        Assert.assertNotNull(freeDirection);
+        WalkDirection directionToUnknownRoom = freeDirection;
+        int[] checks = new int[1];
+        // changes a room that was already visited while the snapshot is taken, like the JavaFX thread does while the render worker runs
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(rooms[0], Collections.emptyList(), () -> {
+            if (++checks[0] == 2) {
+                rooms[0].getAdjacentRooms().put(directionToUnknownRoom, unknownRoom);
+            }
+            return false;
+        });
+        Assert.assertNotNull(snapshot);
+        Assert.assertTrue(checks[0] >= 2);
+        Assert.assertEquals(-1, snapshot.indexOf(unknownRoom));
+        Assert.assertFalse(snapshot.isCurrent());
+    }
+
+    @Test
+    public void unrelatedChangeTest() {
+        Room start = new Room("Start");
+        connect(start, WalkDirection.NORTH, new Room("North"));
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(start, Collections.emptyList(), () -> false);
+        Assert.assertNotNull(snapshot);
+
+        // rooms of another graph, e. g. of a game that is being imported, do not outdate the snapshot
+        Room otherStart = new Room("Other start");
+        connect(otherStart, WalkDirection.EAST, new Room("Other east"));
+        otherStart.getAdjacentRooms().clear();
+        Assert.assertTrue(snapshot.isCurrent());
+    }
+
+    @Test
+    public void replacedAdjacentRoomMapTest() {
+        Room start = new Room("Start");
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(start, Collections.emptyList(), () -> false);
+        Assert.assertNotNull(snapshot);
+
+        start.setAdjacentRooms(new RoomMap());
+        Assert.assertFalse(snapshot.isCurrent());
+    }
+}
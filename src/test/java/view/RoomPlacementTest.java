@@ -0,0 +1,94 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import model.Room;
+import model.WalkDirection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * Tests for {@link RoomPlacement}
+ */
+public class RoomPlacementTest {
+    private static final double delta = 1e-9;
+
+    @Test
+    public void placeBreadthFirstTest() {
+        Room start = new Room("Start");
+        Room east = new Room("East");
+        Room north = new Room("North");
+        Room northEast = new Room("North east");
+        start.getAdjacentRooms().put(WalkDirection.EAST, east);
+        start.getAdjacentRooms().put(WalkDirection.NORTH, north);
+        east.getAdjacentRooms().put(WalkDirection.NORTH, northEast);
+        RoomGraphSnapshot snapshot = RoomGraphSnapshot.create(start, Collections.emptyList(), () -> false);
+        int count = snapshot.getRoomCount();
+        Assert.assertEquals(4, count);
+
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        double[] widths = new double[count];
+        double[] heights = new double[count];
+        boolean[] placeRoom = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            xs[i] = -1;
+            ys[i] = -1;
+            widths[i] = 100;
+            heights[i] = 100;
+            placeRoom[i] = true;
+        }
+        xs[0] = 0;
+        ys[0] = 0;
+        // the north room is wider and stays centered above the start room
+        widths[snapshot.indexOf(north)] = 200;
+        // the room north east is already rendered and keeps its position
+        placeRoom[snapshot.indexOf(northEast)] = false;
+
+        RoomPlacement.placeBreadthFirst(snapshot, xs, ys, widths, heights, placeRoom, 50);
+
+        Assert.assertEquals(150, xs[snapshot.indexOf(east)], delta);
+        Assert.assertEquals(0, ys[snapshot.indexOf(east)], delta);
+        Assert.assertEquals(-50, xs[snapshot.indexOf(north)], delta);
+        Assert.assertEquals(-150, ys[snapshot.indexOf(north)], delta);
+        Assert.assertEquals(-1, xs[snapshot.indexOf(northEast)], delta);
+        Assert.assertEquals(-1, ys[snapshot.indexOf(northEast)], delta);
+    }
+
+    @Test
+    public void nextToTest() {
+        Assert.assertEquals(-160, RoomPlacement.getXNextTo(0, 100, 110, WalkDirection.SOUTH_WEST, 50), delta);
+        Assert.assertEquals(150, RoomPlacement.getYNextTo(0, 100, 110, WalkDirection.SOUTH_WEST, 50), delta);
+        Assert.assertEquals(150, RoomPlacement.getXNextTo(0, 100, 110, WalkDirection.NORTH_EAST, 50), delta);
+        Assert.assertEquals(-160, RoomPlacement.getYNextTo(0, 100, 110, WalkDirection.NORTH_EAST, 50), delta);
+        Assert.assertEquals(-5, RoomPlacement.getXNextTo(0, 100, 110, WalkDirection.SOUTH, 50), delta);
+        Assert.assertEquals(0, RoomPlacement.getYNextTo(0, 100, 110, WalkDirection.WEST, 50), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void noDirectionTest() {
+        RoomPlacement.getXNextTo(0, 100, 100, WalkDirection.NONE, 50);
+    }
+}
@@ -0,0 +1,83 @@
+package view;
+
+
+/*-
+ * #%L
+ * Zork Clone
+ * %%
+ * Copyright (C) 2016 Frederik Kammel
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import com.sun.javafx.application.PlatformImpl;
+import model.Room;
+import model.WalkDirection;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link RoomRectangle}. The rectangles are JavaFX nodes, so the tests are skipped if the JavaFX toolkit
+ * cannot be started, e. g. on a build server without a display.
+ */
+public class RoomRectangleTest {
+    private static final boolean toolkitAvailable = startToolkit();
+
+    private static boolean startToolkit() {
+        try {
+            PlatformImpl.startup(() -> {
+            });
+            return true;
+        } catch (IllegalStateException e) {
+            // already started by another test
+            return true;
+        } catch (RuntimeException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void constructionDoesNotMoveAdjacentRoomsTest() {
+        Assume.assumeTrue(toolkitAvailable);
+        EditorView previousEditor = EditorView.currentEditorInstance;
+        try {
+            EditorView editor = new EditorView();
+            RoomRectangleList allRooms = new RoomRectangleList();
+            editor.setAllRoomsAsList(allRooms);
+            EditorView.currentEditorInstance = editor;
+
+            Room west = new Room("A room with a name that is a lot wider than the default width of a room");
+            Room east = new Room("Another room with a name that is a lot wider than the default width of a room");
+            west.getAdjacentRooms().put(WalkDirection.EAST, east);
+            east.getAdjacentRooms().put(WalkDirection.WEST, west);
+
+            RoomRectangle eastRectangle = new RoomRectangle(null, east);
+            eastRectangle.setX(1000);
+            allRooms.add(eastRectangle);
+            // the rectangle of the west room is created while the east room is already shown
+            RoomRectangle westRectangle = new RoomRectangle(null, west);
+            allRooms.add(westRectangle);
+
+            Assert.assertTrue(westRectangle.getPreferredWidth() > 100);
+            Assert.assertEquals(westRectangle.getPreferredWidth(), westRectangle.getWidth(), 0);
+            Assert.assertEquals(eastRectangle.getPreferredWidth(), eastRectangle.getWidth(), 0);
+            Assert.assertEquals(0, westRectangle.getX(), 0);
+            Assert.assertEquals(1000, eastRectangle.getX(), 0);
+        } finally {
+            EditorView.currentEditorInstance = previousEditor;
+        }
+    }
+}